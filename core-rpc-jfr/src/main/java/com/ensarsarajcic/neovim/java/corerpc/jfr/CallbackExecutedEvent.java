@@ -0,0 +1,59 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.corerpc.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Callback handled a message received from neovim, emitted once the callback returns
+ */
+@Name("com.ensarsarajcic.neovim.CallbackExecuted")
+@Label("Callback Executed")
+@Description("Callback handled a message received from neovim, emitted once the callback returns")
+@Category({"Neovim", "RPC"})
+@StackTrace(false)
+public final class CallbackExecutedEvent extends Event {
+
+    @Label("Message Type")
+    String messageType;
+
+    @Label("Name")
+    @Description("Method of requests or name of notifications")
+    String name;
+
+    @Label("Message Id")
+    @Description("Id of requests and responses, 0 for notifications")
+    int id;
+
+    @Label("Callback")
+    Class<?> callback;
+
+    @Label("Execution Time")
+    @Timespan
+    long executionTime;
+
+    @Label("Connection")
+    String connection;
+}
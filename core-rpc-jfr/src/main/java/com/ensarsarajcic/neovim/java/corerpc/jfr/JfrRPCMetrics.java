@@ -0,0 +1,238 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.corerpc.jfr;
+
+import com.ensarsarajcic.neovim.java.corerpc.client.RPCConnection;
+import com.ensarsarajcic.neovim.java.corerpc.message.Message;
+import com.ensarsarajcic.neovim.java.corerpc.message.NotificationMessage;
+import com.ensarsarajcic.neovim.java.corerpc.message.RequestMessage;
+import com.ensarsarajcic.neovim.java.corerpc.message.ResponseMessage;
+import com.ensarsarajcic.neovim.java.corerpc.metrics.RPCMetrics;
+import jdk.jfr.EventType;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementation of {@link RPCMetrics} emitting JDK Flight Recorder events
+ * <p>
+ * Emits {@link RequestSentEvent}, {@link ResponseReceivedEvent}, {@link NotificationDispatchedEvent} and
+ * {@link CallbackExecutedEvent}, which show up in recordings alongside JVM events, such as garbage collection pauses.
+ * Events are only populated when they are enabled in a running recording, so it is cheap to leave it enabled.
+ * Everything is also passed to the delegate {@link RPCMetrics}, so it can be combined with other metrics.
+ * <p>
+ * {@link ResponseReceivedEvent} spans the whole request, so it is started when request is sent. Started events are
+ * kept until the response arrives, up to {@value #MAX_PENDING_RESPONSES} of them, and dropped once the connection
+ * is detached. Payload size of incoming messages is only calculated while events using it are enabled.
+ * <p>
+ * Example:
+ * <pre>
+ *     {@code
+ *     RecordingRPCMetrics metrics = new RecordingRPCMetrics();
+ *     RPCStreamer rpcStreamer = new RPCClient.Builder()
+ *          .withRPCMetrics(new JfrRPCMetrics(metrics))
+ *          .build();
+ *
+ *     // Start the application with -XX:StartFlightRecording or start a recording using jcmd
+ *     }
+ * </pre>
+ */
+public final class JfrRPCMetrics implements RPCMetrics {
+
+    /**
+     * Maximum number of started {@link ResponseReceivedEvent}s waiting for a response
+     * Requests sent while this many are waiting are not recorded
+     */
+    public static final int MAX_PENDING_RESPONSES = 4096;
+
+    private static final EventType RESPONSE_RECEIVED_TYPE = EventType.getEventType(ResponseReceivedEvent.class);
+    private static final EventType NOTIFICATION_DISPATCHED_TYPE = EventType.getEventType(NotificationDispatchedEvent.class);
+
+    private final RPCMetrics delegate;
+    private final Map<Integer, ResponseReceivedEvent> pendingResponses = new ConcurrentHashMap<>();
+
+    private volatile String connection;
+
+    /**
+     * Creates a new {@link JfrRPCMetrics}, only emitting events
+     */
+    public JfrRPCMetrics() {
+        this(RPCMetrics.NO_OP);
+    }
+
+    /**
+     * Creates a new {@link JfrRPCMetrics}, emitting events and passing everything to given {@link RPCMetrics}
+     *
+     * @param delegate {@link RPCMetrics} to pass everything to
+     * @throws NullPointerException if delegate is null
+     */
+    public JfrRPCMetrics(RPCMetrics delegate) {
+        Objects.requireNonNull(delegate, "delegate is required to pass metrics to");
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void attached(RPCConnection rpcConnection) {
+        connection = String.valueOf(rpcConnection);
+        delegate.attached(rpcConnection);
+    }
+
+    @Override
+    public void detached() {
+        // Responses will never arrive, so there is nothing to commit
+        pendingResponses.clear();
+        delegate.detached();
+    }
+
+    @Override
+    public boolean needsPayloadSize() {
+        return RESPONSE_RECEIVED_TYPE.isEnabled()
+                || NOTIFICATION_DISPATCHED_TYPE.isEnabled()
+                || delegate.needsPayloadSize();
+    }
+
+    @Override
+    public void requestSent(String method, int id) {
+        var event = new ResponseReceivedEvent();
+        if (event.isEnabled() && pendingResponses.size() < MAX_PENDING_RESPONSES) {
+            event.begin();
+            event.method = method;
+            event.id = id;
+            event.connection = connection;
+            pendingResponses.put(id, event);
+        }
+        delegate.requestSent(method, id);
+    }
+
+    @Override
+    public void responseReceived(String method, int id, long latencyNanos) {
+        var event = pendingResponses.remove(id);
+        if (event != null) {
+            event.commit();
+        }
+        delegate.responseReceived(method, id, latencyNanos);
+    }
+
+    @Override
+    public void requestFailed(String method, int id) {
+        // Response will never arrive, so its event is not committed
+        pendingResponses.remove(id);
+        delegate.requestFailed(method, id);
+    }
+
+    @Override
+    public void messageQueued() {
+        delegate.messageQueued();
+    }
+
+    @Override
+    public void messageDequeued() {
+        delegate.messageDequeued();
+    }
+
+    @Override
+    public void messageEncoded(Message message, long payloadSize, long encodeNanos) {
+        if (message instanceof RequestMessage) {
+            var event = new RequestSentEvent();
+            if (event.shouldCommit()) {
+                var requestMessage = (RequestMessage) message;
+                event.method = requestMessage.getMethod();
+                event.id = requestMessage.getId();
+                event.payloadSize = payloadSize;
+                event.encodeTime = encodeNanos;
+                event.connection = connection;
+                event.commit();
+            }
+        }
+        delegate.messageEncoded(message, payloadSize, encodeNanos);
+    }
+
+    @Override
+    public void messageDecoded(Message message, long payloadSize, long decodeNanos) {
+        if (message instanceof ResponseMessage) {
+            var responseMessage = (ResponseMessage) message;
+            var event = pendingResponses.get(responseMessage.getId());
+            if (event != null) {
+                event.payloadSize = payloadSize;
+                event.error = responseMessage.getError() != null;
+            }
+        } else if (message instanceof NotificationMessage) {
+            var event = new NotificationDispatchedEvent();
+            if (event.shouldCommit()) {
+                event.name = ((NotificationMessage) message).getName();
+                event.payloadSize = payloadSize;
+                event.decodeTime = decodeNanos;
+                event.connection = connection;
+                event.commit();
+            }
+        }
+        delegate.messageDecoded(message, payloadSize, decodeNanos);
+    }
+
+    @Override
+    public void bytesWritten(long count) {
+        delegate.bytesWritten(count);
+    }
+
+    @Override
+    public void bytesRead(long count) {
+        delegate.bytesRead(count);
+    }
+
+    @Override
+    public void notificationReceived(String name) {
+        delegate.notificationReceived(name);
+    }
+
+    @Override
+    public void callbackExecuted(Message message, Object callback, long executionNanos) {
+        var event = new CallbackExecutedEvent();
+        if (event.shouldCommit()) {
+            event.messageType = message.getType().name();
+            if (message instanceof RequestMessage) {
+                event.name = ((RequestMessage) message).getMethod();
+                event.id = ((RequestMessage) message).getId();
+            } else if (message instanceof NotificationMessage) {
+                event.name = ((NotificationMessage) message).getName();
+            } else if (message instanceof ResponseMessage) {
+                event.id = ((ResponseMessage) message).getId();
+            }
+            event.callback = callback.getClass();
+            event.executionTime = executionNanos;
+            event.connection = connection;
+            event.commit();
+        }
+        delegate.callbackExecuted(message, callback, executionNanos);
+    }
+
+    @Override
+    public String toString() {
+        return "JfrRPCMetrics{" +
+                "delegate=" + delegate +
+                ", connection='" + connection + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,6 @@
+module corerpcjfr {
+    exports com.ensarsarajcic.neovim.java.corerpc.jfr;
+
+    requires transitive corerpc;
+    requires jdk.jfr;
+}
@@ -0,0 +1,197 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.corerpc.jfr;
+
+import com.ensarsarajcic.neovim.java.corerpc.client.RPCConnection;
+import com.ensarsarajcic.neovim.java.corerpc.client.RPCListener;
+import com.ensarsarajcic.neovim.java.corerpc.message.NotificationMessage;
+import com.ensarsarajcic.neovim.java.corerpc.message.RPCError;
+import com.ensarsarajcic.neovim.java.corerpc.message.RequestMessage;
+import com.ensarsarajcic.neovim.java.corerpc.message.ResponseMessage;
+import com.ensarsarajcic.neovim.java.corerpc.metrics.RPCMetrics;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class JfrRPCMetricsTest {
+
+    @Test(expected = NullPointerException.class)
+    public void cantBeCreatedWithNullDelegate() {
+        new JfrRPCMetrics(null);
+    }
+
+    @Test
+    public void passesEverythingToDelegate() {
+        var delegate = mock(RPCMetrics.class);
+        var connection = mock(RPCConnection.class);
+        var jfrRPCMetrics = new JfrRPCMetrics(delegate);
+        var request = new RequestMessage.Builder("nvim_eval").withId(1).build();
+        var notification = new NotificationMessage.Builder("redraw").build();
+        var callback = mock(RPCListener.NotificationCallback.class);
+
+        jfrRPCMetrics.attached(connection);
+        jfrRPCMetrics.requestSent("nvim_eval", 1);
+        jfrRPCMetrics.responseReceived("nvim_eval", 1, 100);
+        jfrRPCMetrics.requestSent("nvim_eval", 2);
+        jfrRPCMetrics.requestFailed("nvim_eval", 2);
+        jfrRPCMetrics.messageQueued();
+        jfrRPCMetrics.messageDequeued();
+        jfrRPCMetrics.messageEncoded(request, 10, 20);
+        jfrRPCMetrics.messageDecoded(notification, 30, 40);
+        jfrRPCMetrics.bytesWritten(10);
+        jfrRPCMetrics.bytesRead(30);
+        jfrRPCMetrics.notificationReceived("redraw");
+        jfrRPCMetrics.callbackExecuted(notification, callback, 50);
+        jfrRPCMetrics.detached();
+
+        verify(delegate).attached(connection);
+        verify(delegate).requestSent("nvim_eval", 1);
+        verify(delegate).responseReceived("nvim_eval", 1, 100);
+        verify(delegate).requestFailed("nvim_eval", 2);
+        verify(delegate).messageQueued();
+        verify(delegate).messageDequeued();
+        verify(delegate).messageEncoded(request, 10, 20);
+        verify(delegate).messageDecoded(notification, 30, 40);
+        verify(delegate).bytesWritten(10);
+        verify(delegate).bytesRead(30);
+        verify(delegate).notificationReceived("redraw");
+        verify(delegate).callbackExecuted(notification, callback, 50);
+        verify(delegate).detached();
+    }
+
+    @Test
+    public void needsPayloadSizeOnlyWhileEventsUsingItAreRecorded() {
+        var delegate = mock(RPCMetrics.class);
+        var jfrRPCMetrics = new JfrRPCMetrics(delegate);
+        assertFalse(jfrRPCMetrics.needsPayloadSize());
+
+        try (var recording = new Recording()) {
+            recording.enable(NotificationDispatchedEvent.class);
+            recording.start();
+            assertTrue(jfrRPCMetrics.needsPayloadSize());
+        }
+
+        given(delegate.needsPayloadSize()).willReturn(true);
+        assertTrue(jfrRPCMetrics.needsPayloadSize());
+    }
+
+    @Test
+    public void dropsPendingResponsesOnDetach() throws Exception {
+        var jfrRPCMetrics = new JfrRPCMetrics();
+
+        var file = Files.createTempFile("neovim-rpc", ".jfr");
+        try (var recording = new Recording()) {
+            recording.enable(ResponseReceivedEvent.class);
+            recording.start();
+
+            jfrRPCMetrics.requestSent("nvim_eval", 1);
+            jfrRPCMetrics.detached();
+            // Response that arrives after detaching is not recorded
+            jfrRPCMetrics.responseReceived("nvim_eval", 1, 5_000);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        try {
+            assertTrue(RecordingFile.readAllEvents(file).stream()
+                    .noneMatch(event -> event.getEventType().getName().equals("com.ensarsarajcic.neovim.ResponseReceived")));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void emitsEventsToRecording() throws Exception {
+        var jfrRPCMetrics = new JfrRPCMetrics();
+        var connection = mock(RPCConnection.class);
+        var request = new RequestMessage.Builder("nvim_eval").withId(7).build();
+        var response = new ResponseMessage.Builder(new RPCError(0, "Failed")).withId(7).build();
+        var notification = new NotificationMessage.Builder("redraw").build();
+        var callback = mock(RPCListener.NotificationCallback.class);
+
+        var file = Files.createTempFile("neovim-rpc", ".jfr");
+        try (var recording = new Recording()) {
+            recording.enable(RequestSentEvent.class);
+            recording.enable(ResponseReceivedEvent.class);
+            recording.enable(NotificationDispatchedEvent.class);
+            recording.enable(CallbackExecutedEvent.class);
+            recording.start();
+
+            jfrRPCMetrics.attached(connection);
+            jfrRPCMetrics.requestSent("nvim_eval", 7);
+            jfrRPCMetrics.messageEncoded(request, 12, 1_000);
+            jfrRPCMetrics.messageDecoded(response, 15, 2_000);
+            jfrRPCMetrics.responseReceived("nvim_eval", 7, 5_000);
+            jfrRPCMetrics.messageDecoded(notification, 9, 3_000);
+            jfrRPCMetrics.callbackExecuted(notification, callback, 4_000);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        Map<String, List<RecordedEvent>> events;
+        try {
+            events = RecordingFile.readAllEvents(file).stream()
+                    .collect(Collectors.groupingBy(event -> event.getEventType().getName()));
+        } finally {
+            Files.delete(file);
+        }
+
+        var requestSent = events.get("com.ensarsarajcic.neovim.RequestSent").get(0);
+        assertEquals("nvim_eval", requestSent.getString("method"));
+        assertEquals(7, requestSent.getInt("id"));
+        assertEquals(12, requestSent.getLong("payloadSize"));
+        assertEquals(1_000, requestSent.getDuration("encodeTime").toNanos());
+        assertEquals(String.valueOf(connection), requestSent.getString("connection"));
+
+        var responseReceived = events.get("com.ensarsarajcic.neovim.ResponseReceived").get(0);
+        assertEquals("nvim_eval", responseReceived.getString("method"));
+        assertEquals(7, responseReceived.getInt("id"));
+        assertEquals(15, responseReceived.getLong("payloadSize"));
+        assertTrue(responseReceived.getBoolean("error"));
+
+        var notificationDispatched = events.get("com.ensarsarajcic.neovim.NotificationDispatched").get(0);
+        assertEquals("redraw", notificationDispatched.getString("name"));
+        assertEquals(9, notificationDispatched.getLong("payloadSize"));
+
+        var callbackExecuted = events.get("com.ensarsarajcic.neovim.CallbackExecuted").get(0);
+        assertEquals("NOTIFICATION", callbackExecuted.getString("messageType"));
+        assertEquals("redraw", callbackExecuted.getString("name"));
+        assertEquals(callback.getClass().getName(), callbackExecuted.getClass("callback").getName());
+        assertEquals(4_000, callbackExecuted.getDuration("executionTime").toNanos());
+    }
+}
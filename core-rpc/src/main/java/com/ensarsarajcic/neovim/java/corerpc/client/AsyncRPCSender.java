@@ -25,6 +25,7 @@
 package com.ensarsarajcic.neovim.java.corerpc.client;
 
 import com.ensarsarajcic.neovim.java.corerpc.message.Message;
+import com.ensarsarajcic.neovim.java.corerpc.metrics.RPCMetrics;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,6 +48,8 @@ import java.util.concurrent.ExecutorService;
  * to pick {@link OutputStream} to write data to
  * {@link #send(Message)} will throw an Exception otherwise
  * <p>
+ * Send queue depth, encoding time and number of written bytes are reported to {@link RPCMetrics}, if provided
+ * <p>
  * Example:
  * <pre>
  *     {@code
@@ -70,8 +73,10 @@ public final class AsyncRPCSender implements RPCSender {
 
     private final ExecutorService executorService;
     private final ObjectMapper msgPacker;
+    private final RPCMetrics rpcMetrics;
 
     private OutputStream outgoingStream;
+    private MeteredOutputStream meteredStream;
 
     /**
      * Creates a new {@link AsyncRPCSender} with given {@link ObjectMapper} for mapping requests
@@ -82,10 +87,24 @@ public final class AsyncRPCSender implements RPCSender {
      * @throws NullPointerException if any parameter is null
      */
     public AsyncRPCSender(ExecutorService executorService, ObjectMapper msgPacker) {
+        this(executorService, msgPacker, RPCMetrics.NO_OP);
+    }
+
+    /**
+     * Creates a new {@link AsyncRPCSender} with given {@link ObjectMapper} for mapping requests
+     * using {@link ExecutorService} for background work and reporting to given {@link RPCMetrics}
+     *
+     * @param executorService service used for background work
+     * @param msgPacker       {@link ObjectMapper} for mapping requests (outgoing)
+     * @param rpcMetrics      {@link RPCMetrics} to report to, null is treated as {@link RPCMetrics#NO_OP}
+     * @throws NullPointerException if executorService or msgPacker is null
+     */
+    public AsyncRPCSender(ExecutorService executorService, ObjectMapper msgPacker, RPCMetrics rpcMetrics) {
         Objects.requireNonNull(executorService, "executorService must be provided to enable background work");
         Objects.requireNonNull(msgPacker, "msgPacker must be provided for serialization of messages");
         this.executorService = executorService;
         this.msgPacker = msgPacker;
+        this.rpcMetrics = rpcMetrics != null ? rpcMetrics : RPCMetrics.NO_OP;
     }
 
     /**
@@ -97,7 +116,11 @@ public final class AsyncRPCSender implements RPCSender {
      */
     @Override
     public void send(Message message) {
-        this.executorService.submit(() -> sendMessage(message));
+        rpcMetrics.messageQueued();
+        this.executorService.submit(() -> {
+            rpcMetrics.messageDequeued();
+            sendMessage(message);
+        });
     }
 
     /**
@@ -110,7 +133,12 @@ public final class AsyncRPCSender implements RPCSender {
     public void attach(OutputStream outputStream) {
         Objects.requireNonNull(outputStream, "outputStream may not be null");
         log.info("Attached to output stream!");
-        this.outgoingStream = outputStream;
+        if (rpcMetrics != RPCMetrics.NO_OP) {
+            this.meteredStream = new MeteredOutputStream(outputStream, rpcMetrics);
+            this.outgoingStream = meteredStream;
+        } else {
+            this.outgoingStream = outputStream;
+        }
     }
 
     private void sendMessage(Message message) {
@@ -120,7 +148,14 @@ public final class AsyncRPCSender implements RPCSender {
 
         try {
             log.info("Sending message: {}", message);
-            msgPacker.writer().writeValue(outgoingStream, message);
+            if (meteredStream != null) {
+                long encodeStartNanos = System.nanoTime();
+                long bytesBefore = meteredStream.getWrittenBytes();
+                msgPacker.writer().writeValue(meteredStream, message);
+                rpcMetrics.messageEncoded(message, meteredStream.getWrittenBytes() - bytesBefore, System.nanoTime() - encodeStartNanos);
+            } else {
+                msgPacker.writer().writeValue(outgoingStream, message);
+            }
         } catch (IOException e) {
             log.error("Failed sending message!", e);
             throw new RuntimeException(e);
@@ -24,10 +24,12 @@
 
 package com.ensarsarajcic.neovim.java.corerpc.client;
 
+import com.ensarsarajcic.neovim.java.corerpc.message.Message;
 import com.ensarsarajcic.neovim.java.corerpc.message.MessageType;
 import com.ensarsarajcic.neovim.java.corerpc.message.NotificationMessage;
 import com.ensarsarajcic.neovim.java.corerpc.message.RequestMessage;
 import com.ensarsarajcic.neovim.java.corerpc.message.ResponseMessage;
+import com.ensarsarajcic.neovim.java.corerpc.metrics.RPCMetrics;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
@@ -64,6 +66,8 @@ import java.util.concurrent.Future;
  * Same holds true for {@link RPCListener.NotificationCallback} and {@link RPCListener.RequestCallback}, with the
  * exception that {@link RPCListener.RequestCallback} will only be called for messages with matching id
  * <p>
+ * Decoding time, number of read bytes and received notifications are reported to {@link RPCMetrics}, if provided
+ * <p>
  * Example:
  * <pre>
  *      {@code
@@ -97,6 +101,7 @@ public final class BackgroundRPCListener implements RPCListener {
 
     private final ExecutorService executorService;
     private final ObjectMapper responseObjectMapper;
+    private final RPCMetrics rpcMetrics;
 
     private NotificationCallback notificationCallback;
     private RequestCallback requestCallback;
@@ -113,10 +118,24 @@ public final class BackgroundRPCListener implements RPCListener {
      * @throws NullPointerException if any parameter is null
      */
     public BackgroundRPCListener(ExecutorService executorService, ObjectMapper responseObjectMapper) {
+        this(executorService, responseObjectMapper, RPCMetrics.NO_OP);
+    }
+
+    /**
+     * Creates a new {@link BackgroundRPCListener} using {@link ExecutorService} for background work,
+     * given {@link ObjectMapper} for mapping responses and reporting to given {@link RPCMetrics}
+     *
+     * @param executorService      service used for background work
+     * @param responseObjectMapper mapper used for mapping responses
+     * @param rpcMetrics           {@link RPCMetrics} to report to, null is treated as {@link RPCMetrics#NO_OP}
+     * @throws NullPointerException if executorService or responseObjectMapper is null
+     */
+    public BackgroundRPCListener(ExecutorService executorService, ObjectMapper responseObjectMapper, RPCMetrics rpcMetrics) {
         Objects.requireNonNull(executorService, "executorService must be provided to enable background work");
         Objects.requireNonNull(responseObjectMapper, "responseObjectMapper must be provided to deserialize");
         this.executorService = executorService;
         this.responseObjectMapper = responseObjectMapper;
+        this.rpcMetrics = rpcMetrics != null ? rpcMetrics : RPCMetrics.NO_OP;
     }
 
     /**
@@ -147,6 +166,8 @@ public final class BackgroundRPCListener implements RPCListener {
             } catch (IOException e) {
                 log.error("Listening to messages failed!", e);
                 throw new RuntimeException(e);
+            } finally {
+                rpcMetrics.detached();
             }
         });
     }
@@ -185,6 +206,17 @@ public final class BackgroundRPCListener implements RPCListener {
         }
     }
 
+    /**
+     * Removes {@link RPCListener.ResponseCallback} of given id, if there is one
+     *
+     * @param id ID of the response to stop listening to
+     */
+    @Override
+    public void stopListeningForResponse(int id) {
+        log.debug("Removed listener for id: {}", id);
+        responseCallbacks.remove(id);
+    }
+
     /**
      * Prepares a {@link RPCListener.NotificationCallback}
      * It will be notified for any notification that comes through to this listener
@@ -227,8 +259,14 @@ public final class BackgroundRPCListener implements RPCListener {
     // executes on background thread
     private void listenForMessages(InputStream inputStream) throws IOException {
         var objectReader = responseObjectMapper.reader();
-        JsonNode readNode;
-        while ((readNode = objectReader.readTree(inputStream)) != null) {
+        var meteredStream = rpcMetrics != RPCMetrics.NO_OP ? new MeteredInputStream(inputStream, rpcMetrics) : null;
+        var stream = meteredStream != null ? meteredStream : inputStream;
+        while (true) {
+            long messageStartNanos = meteredStream != null ? meteredStream.startMessage() : 0;
+            JsonNode readNode = objectReader.readTree(stream);
+            if (readNode == null) {
+                break;
+            }
             log.debug("Received message: {}", readNode);
 
             if (!readNode.isArray()
@@ -240,6 +278,9 @@ public final class BackgroundRPCListener implements RPCListener {
             }
 
             var arrayNode = (ArrayNode) readNode;
+            long payloadSize = meteredStream != null && rpcMetrics.needsPayloadSize()
+                    ? MessagePackSizes.sizeOf(arrayNode)
+                    : -1;
 
             var messageType = MessageType.fromInt(arrayNode.get(0).asInt());
             // Pop off the type
@@ -248,6 +289,7 @@ public final class BackgroundRPCListener implements RPCListener {
             switch (messageType) {
                 case REQUEST:
                     var requestMessage = responseObjectMapper.treeToValue(arrayNode, RequestMessage.class);
+                    messageDecoded(requestMessage, payloadSize, meteredStream, messageStartNanos);
                     if (requestCallback != null) {
                         log.debug("Notifying request callback with: {}", requestMessage);
                         requestCallback.requestReceived(requestMessage);
@@ -255,6 +297,7 @@ public final class BackgroundRPCListener implements RPCListener {
                     break;
                 case RESPONSE:
                     var responseMessage = responseObjectMapper.treeToValue(arrayNode, ResponseMessage.class);
+                    messageDecoded(responseMessage, payloadSize, meteredStream, messageStartNanos);
                     if (responseCallbacks.containsKey(responseMessage.getId())) {
                         log.debug("Notifying response callback for id({}) with: {}", responseMessage.getId(), responseMessage);
                         responseCallbacks.get(responseMessage.getId()).responseReceived(responseMessage.getId(), responseMessage);
@@ -263,6 +306,8 @@ public final class BackgroundRPCListener implements RPCListener {
                     break;
                 case NOTIFICATION:
                     var notificationMessage = responseObjectMapper.treeToValue(arrayNode, NotificationMessage.class);
+                    messageDecoded(notificationMessage, payloadSize, meteredStream, messageStartNanos);
+                    rpcMetrics.notificationReceived(notificationMessage.getName());
                     if (notificationCallback != null) {
                         log.debug("Notifying notification callback with: {}", notificationMessage);
                         notificationCallback.notificationReceived(notificationMessage);
@@ -271,4 +316,10 @@ public final class BackgroundRPCListener implements RPCListener {
             }
         }
     }
+
+    private void messageDecoded(Message message, long payloadSize, MeteredInputStream meteredStream, long messageStartNanos) {
+        if (meteredStream != null) {
+            rpcMetrics.messageDecoded(message, payloadSize, meteredStream.nanosSinceMessageArrived(messageStartNanos));
+        }
+    }
 }
@@ -0,0 +1,341 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ensarsarajcic.neovim.java.corerpc.client;
+
+import com.ensarsarajcic.neovim.java.corerpc.message.Message;
+import com.ensarsarajcic.neovim.java.corerpc.message.NotificationMessage;
+import com.ensarsarajcic.neovim.java.corerpc.message.RequestMessage;
+import com.ensarsarajcic.neovim.java.corerpc.message.ResponseMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watchdog timing {@link RPCListener.RequestCallback}, {@link RPCListener.NotificationCallback} and
+ * {@link RPCListener.ResponseCallback} invocations
+ * <p>
+ * Callbacks are usually invoked on the single thread reading the connection, so one slow callback
+ * delays every other message, including responses other threads are blocked on.
+ * Watchdog checks running callbacks periodically, from its own thread, and once a callback runs longer than
+ * the threshold, it samples the stack of the thread running it and reports a {@link SlowCallback}
+ * to the {@link SlowCallbackHandler} (logging a warning by default).
+ * <p>
+ * If a quarantine {@link Executor} is provided, reported request and notification callbacks get quarantined -
+ * their further invocations are passed to that executor instead of being run on the reader thread.
+ * A single threaded executor should be used to keep quarantined callbacks receiving messages in order.
+ * Response callbacks are only reported, since a new one is usually created for each request.
+ * <p>
+ * Timing a callback does not allocate, so watchdog may stay enabled in production.
+ * It is opt-in and used by {@link PackStream} when passed to it, or by {@link RPCClient} when set with
+ * {@link RPCClient.Builder#withCallbackWatchdog(CallbackWatchdog)}.
+ * <p>
+ * Example:
+ * <pre>
+ *     {@code
+ *     CallbackWatchdog watchdog = new CallbackWatchdog.Builder(Duration.ofMillis(200))
+ *          .withQuarantineExecutor(Executors.newSingleThreadExecutor())
+ *          .build();
+ *
+ *     RPCClient client = new RPCClient.Builder()
+ *          .withCallbackWatchdog(watchdog)
+ *          .build();
+ *     }
+ * </pre>
+ */
+public final class CallbackWatchdog implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(CallbackWatchdog.class);
+
+    private static final String THREAD_NAME = "neovim-callback-watchdog";
+    private static final long MIN_CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * {@link SlowCallbackHandler} logging a warning with stack sample of the slow callback
+     */
+    public static final SlowCallbackHandler LOGGING = slowCallback -> {
+        var stackSample = new Throwable("Stack sample of " + slowCallback.getThread().getName());
+        stackSample.setStackTrace(slowCallback.getStackTrace());
+        log.warn("Callback {} has been running for {} ms handling {}{}",
+                slowCallback.getCallback(),
+                TimeUnit.NANOSECONDS.toMillis(slowCallback.getElapsedNanos()),
+                slowCallback.getMessage(),
+                slowCallback.isQuarantined() ? ", further invocations are quarantined" : "",
+                stackSample);
+    };
+
+    /**
+     * Handler notified when a slow callback is detected
+     * It is called from the watchdog thread, while slow callback is still running
+     */
+    public interface SlowCallbackHandler {
+        /**
+         * Notifies handler that a callback has been running for longer than the threshold
+         * Called at most once per callback invocation
+         *
+         * @param slowCallback {@link SlowCallback} report
+         */
+        void slowCallbackDetected(SlowCallback slowCallback);
+    }
+
+    private final long thresholdNanos;
+    private final SlowCallbackHandler slowCallbackHandler;
+    private final Executor quarantineExecutor;
+    private final Set<Object> quarantinedCallbacks = ConcurrentHashMap.newKeySet();
+    private final List<Slot> slots = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<Slot> currentSlot = ThreadLocal.withInitial(this::registerSlot);
+    private final ScheduledExecutorService checker;
+
+    private CallbackWatchdog(Builder builder) {
+        this.thresholdNanos = builder.threshold.toNanos();
+        this.slowCallbackHandler = builder.slowCallbackHandler;
+        this.quarantineExecutor = builder.quarantineExecutor;
+        this.checker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+        long checkIntervalNanos = Math.max(thresholdNanos / 4, MIN_CHECK_INTERVAL_NANOS);
+        checker.scheduleAtFixedRate(this::check, checkIntervalNanos, checkIntervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Checks whether given callback got quarantined
+     *
+     * @param callback callback to check
+     * @return true if callback invocations are passed to quarantine executor
+     */
+    public boolean isQuarantined(Object callback) {
+        return quarantinedCallbacks.contains(callback);
+    }
+
+    /**
+     * Releases given callback from quarantine, so it is invoked on the reader thread again
+     *
+     * @param callback callback to release
+     * @return true if callback was quarantined
+     */
+    public boolean release(Object callback) {
+        return quarantinedCallbacks.remove(callback);
+    }
+
+    /**
+     * Stops the watchdog thread
+     * Callbacks are still invoked (and quarantined ones passed to quarantine executor), but no longer checked
+     * Quarantine executor is not shut down, since it is owned by the caller
+     */
+    @Override
+    public void close() {
+        checker.shutdownNow();
+    }
+
+    void invoke(RPCListener.RequestCallback callback, RequestMessage requestMessage) {
+        if (isQuarantined(callback)) {
+            quarantineExecutor.execute(() -> watch(callback, requestMessage));
+        } else {
+            watch(callback, requestMessage);
+        }
+    }
+
+    void invoke(RPCListener.NotificationCallback callback, NotificationMessage notificationMessage) {
+        if (isQuarantined(callback)) {
+            quarantineExecutor.execute(() -> watch(callback, notificationMessage));
+        } else {
+            watch(callback, notificationMessage);
+        }
+    }
+
+    void invoke(RPCListener.ResponseCallback callback, int forId, ResponseMessage responseMessage) {
+        watch(callback, forId, responseMessage);
+    }
+
+    private void watch(RPCListener.RequestCallback callback, RequestMessage requestMessage) {
+        var slot = currentSlot.get();
+        slot.begin(callback, requestMessage, true);
+        try {
+            callback.requestReceived(requestMessage);
+        } finally {
+            slot.end();
+        }
+    }
+
+    private void watch(RPCListener.NotificationCallback callback, NotificationMessage notificationMessage) {
+        var slot = currentSlot.get();
+        slot.begin(callback, notificationMessage, true);
+        try {
+            callback.notificationReceived(notificationMessage);
+        } finally {
+            slot.end();
+        }
+    }
+
+    private void watch(RPCListener.ResponseCallback callback, int forId, ResponseMessage responseMessage) {
+        var slot = currentSlot.get();
+        slot.begin(callback, responseMessage, false);
+        try {
+            callback.responseReceived(forId, responseMessage);
+        } finally {
+            slot.end();
+        }
+    }
+
+    private Slot registerSlot() {
+        var slot = new Slot(Thread.currentThread());
+        slots.add(slot);
+        return slot;
+    }
+
+    private void check() {
+        long now = System.nanoTime();
+        for (var slot : slots) {
+            if (!slot.thread.isAlive()) {
+                slots.remove(slot);
+                continue;
+            }
+
+            long invocation = slot.invocation;
+            if ((invocation & 1) == 0 || invocation == slot.reportedInvocation) {
+                continue;
+            }
+            var callback = slot.callback;
+            var message = slot.message;
+            boolean quarantinable = slot.quarantinable;
+            long elapsedNanos = now - slot.startNanos;
+            if (elapsedNanos < thresholdNanos || slot.invocation != invocation) {
+                continue;
+            }
+
+            var stackTrace = slot.thread.getStackTrace();
+            if (slot.invocation != invocation) {
+                // Finished while sampling, stack trace no longer belongs to this callback
+                continue;
+            }
+            slot.reportedInvocation = invocation;
+            boolean quarantined = quarantinable && quarantineExecutor != null && quarantinedCallbacks.add(callback);
+            try {
+                slowCallbackHandler.slowCallbackDetected(
+                        new SlowCallback(callback, message, slot.thread, elapsedNanos, stackTrace, quarantined));
+            } catch (RuntimeException ex) {
+                log.error("Slow callback handler failed", ex);
+            }
+        }
+    }
+
+    /**
+     * State of the callback currently running on a single thread
+     * Written only by the owning thread - invocation counter is odd while a callback is running
+     * and it is written last, so other fields are visible once it is read
+     */
+    private static final class Slot {
+        private final Thread thread;
+        private volatile long invocation;
+        private Object callback;
+        private Message message;
+        private boolean quarantinable;
+        private long startNanos;
+        // Accessed only by the watchdog thread
+        private long reportedInvocation = -1;
+
+        private Slot(Thread thread) {
+            this.thread = thread;
+        }
+
+        private void begin(Object callback, Message message, boolean quarantinable) {
+            this.callback = callback;
+            this.message = message;
+            this.quarantinable = quarantinable;
+            this.startNanos = System.nanoTime();
+            this.invocation++;
+        }
+
+        private void end() {
+            this.invocation++;
+            this.callback = null;
+            this.message = null;
+        }
+    }
+
+    /**
+     * Builder for {@link CallbackWatchdog}
+     */
+    public static class Builder {
+        private final Duration threshold;
+        private SlowCallbackHandler slowCallbackHandler = LOGGING;
+        private Executor quarantineExecutor;
+
+        /**
+         * Creates a new builder for {@link CallbackWatchdog} reporting callbacks running longer than given threshold
+         *
+         * @param threshold time after which running callback is considered slow
+         * @throws NullPointerException     if threshold is null
+         * @throws IllegalArgumentException if threshold is not positive
+         */
+        public Builder(Duration threshold) {
+            Objects.requireNonNull(threshold, "threshold may not be null");
+            if (threshold.isNegative() || threshold.isZero()) {
+                throw new IllegalArgumentException("threshold must be positive");
+            }
+            this.threshold = threshold;
+        }
+
+        /**
+         * Changes {@link SlowCallbackHandler} notified about slow callbacks
+         * By default, {@link CallbackWatchdog#LOGGING} is used
+         *
+         * @param slowCallbackHandler {@link SlowCallbackHandler} to use
+         */
+        public Builder withSlowCallbackHandler(SlowCallbackHandler slowCallbackHandler) {
+            Objects.requireNonNull(slowCallbackHandler, "slowCallbackHandler may not be null");
+            this.slowCallbackHandler = slowCallbackHandler;
+            return this;
+        }
+
+        /**
+         * Enables quarantine - slow request and notification callbacks are moved to given {@link Executor}
+         * By default, quarantine is disabled and slow callbacks are only reported
+         *
+         * @param quarantineExecutor {@link Executor} to run quarantined callbacks on
+         */
+        public Builder withQuarantineExecutor(Executor quarantineExecutor) {
+            Objects.requireNonNull(quarantineExecutor, "quarantineExecutor may not be null");
+            this.quarantineExecutor = quarantineExecutor;
+            return this;
+        }
+
+        /**
+         * Creates a new {@link CallbackWatchdog} and starts its thread
+         */
+        public CallbackWatchdog build() {
+            return new CallbackWatchdog(this);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.corerpc.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.POJONode;
+import org.msgpack.jackson.dataformat.MessagePackExtensionType;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Calculates size of msgpack encoding of decoded messages
+ * <p>
+ * Messages are read as trees and original bytes are not available, since underlying parser reads ahead. Size is
+ * calculated from the tree instead, using the smallest msgpack representation of each value, which is what neovim
+ * sends. Calculation walks the tree without serializing it.
+ */
+final class MessagePackSizes {
+
+    private MessagePackSizes() {
+        throw new AssertionError("No instances");
+    }
+
+    /**
+     * Calculates size of msgpack encoding of given node
+     * @param node node to calculate size of
+     * @return size in bytes
+     */
+    static long sizeOf(JsonNode node) {
+        switch (node.getNodeType()) {
+            case ARRAY:
+                long arraySize = containerHeaderSize(node.size());
+                for (int i = 0; i < node.size(); i++) {
+                    arraySize += sizeOf(node.get(i));
+                }
+                return arraySize;
+            case OBJECT:
+                long mapSize = containerHeaderSize(node.size());
+                for (Iterator<Map.Entry<String, JsonNode>> fields = node.fields(); fields.hasNext(); ) {
+                    var field = fields.next();
+                    mapSize += stringSize(field.getKey()) + sizeOf(field.getValue());
+                }
+                return mapSize;
+            case STRING:
+                return stringSize(node.textValue());
+            case NUMBER:
+                if (node.isBigInteger()) {
+                    return 9;
+                } else if (node.isIntegralNumber()) {
+                    return integerSize(node.longValue());
+                } else {
+                    return node.isFloat() ? 5 : 9;
+                }
+            case BINARY:
+                return binarySize(binaryLength(node));
+            case POJO:
+                var pojo = ((POJONode) node).getPojo();
+                if (pojo instanceof MessagePackExtensionType) {
+                    return extensionSize(((MessagePackExtensionType) pojo).getData().length);
+                }
+                return 1;
+            default:
+                // nil and booleans
+                return 1;
+        }
+    }
+
+    private static long integerSize(long value) {
+        if (value >= -32 && value <= 127) {
+            return 1;
+        }
+        if (value >= 0) {
+            return value <= 0xff ? 2 : value <= 0xffff ? 3 : value <= 0xffffffffL ? 5 : 9;
+        }
+        return value >= Byte.MIN_VALUE ? 2 : value >= Short.MIN_VALUE ? 3 : value >= Integer.MIN_VALUE ? 5 : 9;
+    }
+
+    private static long stringSize(String value) {
+        long length = utf8Length(value);
+        return (length < 32 ? 1 : length < 0x100 ? 2 : length < 0x10000 ? 3 : 5) + length;
+    }
+
+    private static long binarySize(long length) {
+        return (length < 0x100 ? 2 : length < 0x10000 ? 3 : 5) + length;
+    }
+
+    private static long extensionSize(long length) {
+        if (length == 1 || length == 2 || length == 4 || length == 8 || length == 16) {
+            return 2 + length;
+        }
+        return (length < 0x100 ? 3 : length < 0x10000 ? 4 : 6) + length;
+    }
+
+    private static long containerHeaderSize(int size) {
+        return size < 16 ? 1 : size < 0x10000 ? 3 : 5;
+    }
+
+    private static long binaryLength(JsonNode node) {
+        try {
+            return node.binaryValue().length;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long utf8Length(String value) {
+        long length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.corerpc.client;
+
+import com.ensarsarajcic.neovim.java.corerpc.metrics.RPCMetrics;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * {@link InputStream} reporting number of read bytes to {@link RPCMetrics}
+ * <p>
+ * It also remembers when the first read since {@link #startMessage()} returned data, which allows measuring
+ * decoding time without time spent waiting for a message to arrive. Not thread safe - it should be used by a single
+ * reading thread.
+ */
+final class MeteredInputStream extends FilterInputStream {
+    private final RPCMetrics rpcMetrics;
+    private long firstReadNanos;
+
+    MeteredInputStream(InputStream inputStream, RPCMetrics rpcMetrics) {
+        super(inputStream);
+        this.rpcMetrics = rpcMetrics;
+    }
+
+    /**
+     * Marks start of reading a new message
+     * @return current time in nanoseconds
+     */
+    long startMessage() {
+        firstReadNanos = 0;
+        return System.nanoTime();
+    }
+
+    /**
+     * Provides time passed since message started arriving - the later of message start and first read since then
+     * @param messageStartNanos time returned by {@link #startMessage()}
+     * @return nanoseconds since message started arriving
+     */
+    long nanosSinceMessageArrived(long messageStartNanos) {
+        return System.nanoTime() - Math.max(messageStartNanos, firstReadNanos);
+    }
+
+    @Override
+    public int read() throws IOException {
+        int read = in.read();
+        if (read >= 0) {
+            bytesRead(1);
+        }
+        return read;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = in.read(b, off, len);
+        if (read > 0) {
+            bytesRead(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = in.skip(n);
+        if (skipped > 0) {
+            bytesRead(skipped);
+        }
+        return skipped;
+    }
+
+    private void bytesRead(long count) {
+        if (firstReadNanos == 0) {
+            firstReadNanos = System.nanoTime();
+        }
+        rpcMetrics.bytesRead(count);
+    }
+}
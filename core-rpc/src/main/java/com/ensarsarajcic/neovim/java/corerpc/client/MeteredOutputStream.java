@@ -0,0 +1,68 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.corerpc.client;
+
+import com.ensarsarajcic.neovim.java.corerpc.metrics.RPCMetrics;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * {@link OutputStream} reporting number of written bytes to {@link RPCMetrics}
+ * <p>
+ * It also keeps total number of written bytes, which is used to find out size of each message. It should be written to
+ * by a single thread at a time.
+ */
+final class MeteredOutputStream extends FilterOutputStream {
+    private final RPCMetrics rpcMetrics;
+    private long writtenBytes;
+
+    MeteredOutputStream(OutputStream outputStream, RPCMetrics rpcMetrics) {
+        super(outputStream);
+        this.rpcMetrics = rpcMetrics;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        writtenBytes++;
+        rpcMetrics.bytesWritten(1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        writtenBytes += len;
+        rpcMetrics.bytesWritten(len);
+    }
+
+    /**
+     * @return total number of bytes written to this stream
+     */
+    long getWrittenBytes() {
+        return writtenBytes;
+    }
+}
@@ -25,6 +25,7 @@
 package com.ensarsarajcic.neovim.java.corerpc.client;
 
 import com.ensarsarajcic.neovim.java.corerpc.message.*;
+import com.ensarsarajcic.neovim.java.corerpc.metrics.RPCMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -52,6 +53,10 @@ import java.util.Objects;
  * and for {@link RequestMessage}, {@link RPCListener.ResponseCallback} is supported, which will be called once
  * corresponding {@link ResponseMessage} arrives (message with same id as the request sent)
  * <p>
+ * If {@link RPCMetrics} are provided, requests sent using {@link #send(RequestMessage.Builder)} and
+ * {@link #send(RequestMessage.Builder, RPCListener.ResponseCallback)} are counted as in flight until their response
+ * arrives and their response latency is reported by method name. Time spent in callbacks is reported too
+ * <p>
  * Example:
  * <pre>
  *     {@code
@@ -87,6 +92,8 @@ public final class PackStream implements RPCStreamer {
     private final RPCListener rpcListener;
     private final RPCSender rpcSender;
     private final MessageIdGenerator messageIdGenerator;
+    private final RPCMetrics rpcMetrics;
+    private final CallbackWatchdog callbackWatchdog;
 
     private List<RPCListener.RequestCallback> requestCallbacks = new ArrayList<>();
     private List<RPCListener.NotificationCallback> notificationCallbacks = new ArrayList<>();
@@ -114,12 +121,46 @@ public final class PackStream implements RPCStreamer {
      * @throws NullPointerException if any parameter is null
      */
     public PackStream(RPCSender rpcSender, RPCListener rpcListener, MessageIdGenerator messageIdGenerator) {
+        this(rpcSender, rpcListener, messageIdGenerator, RPCMetrics.NO_OP);
+    }
+
+    /**
+     * Creates a new {@link PackStream} with given {@link RPCSender} for sending messages
+     * and an {@link RPCListener} for listening for incoming requests, responses and notifications,
+     * reporting request latencies to given {@link RPCMetrics}
+     *
+     * @param rpcSender          {@link RPCSender} for sending data
+     * @param rpcListener        {@link RPCListener} for listening to incoming data
+     * @param messageIdGenerator {@link MessageIdGenerator} for generating request message ids
+     * @param rpcMetrics         {@link RPCMetrics} to report to, null is treated as {@link RPCMetrics#NO_OP}
+     * @throws NullPointerException if rpcSender, rpcListener or messageIdGenerator is null
+     */
+    public PackStream(RPCSender rpcSender, RPCListener rpcListener, MessageIdGenerator messageIdGenerator, RPCMetrics rpcMetrics) {
+        this(rpcSender, rpcListener, messageIdGenerator, rpcMetrics, null);
+    }
+
+    /**
+     * Creates a new {@link PackStream} with given {@link RPCSender} for sending messages
+     * and an {@link RPCListener} for listening for incoming requests, responses and notifications,
+     * reporting request latencies to given {@link RPCMetrics} and invoking callbacks through given {@link CallbackWatchdog}
+     *
+     * @param rpcSender          {@link RPCSender} for sending data
+     * @param rpcListener        {@link RPCListener} for listening to incoming data
+     * @param messageIdGenerator {@link MessageIdGenerator} for generating request message ids
+     * @param rpcMetrics         {@link RPCMetrics} to report to, null is treated as {@link RPCMetrics#NO_OP}
+     * @param callbackWatchdog   {@link CallbackWatchdog} watching callbacks, null disables watching
+     * @throws NullPointerException if rpcSender, rpcListener or messageIdGenerator is null
+     */
+    public PackStream(RPCSender rpcSender, RPCListener rpcListener, MessageIdGenerator messageIdGenerator,
+                      RPCMetrics rpcMetrics, CallbackWatchdog callbackWatchdog) {
         Objects.requireNonNull(rpcSender, "rpcSender must be provided for two way communication");
         Objects.requireNonNull(rpcListener, "rpcListener must be provided for two way communication");
         Objects.requireNonNull(messageIdGenerator, "messageIdGenerator must be provided for sending requests");
         this.rpcListener = rpcListener;
         this.rpcSender = rpcSender;
         this.messageIdGenerator = messageIdGenerator;
+        this.rpcMetrics = rpcMetrics != null ? rpcMetrics : RPCMetrics.NO_OP;
+        this.callbackWatchdog = callbackWatchdog;
     }
 
     /**
@@ -134,6 +175,7 @@ public final class PackStream implements RPCStreamer {
     public void attach(RPCConnection rpcConnection) {
         Objects.requireNonNull(rpcConnection, "rpcConnection may not be null");
         log.info("Attaching PackStream to: {}", rpcConnection);
+        rpcMetrics.attached(rpcConnection);
         startListening(rpcConnection.getIncomingStream());
         rpcSender.attach(rpcConnection.getOutgoingStream());
     }
@@ -162,12 +204,22 @@ public final class PackStream implements RPCStreamer {
      * Passes the message down to underlying {@link RPCSender}, with callback
      * First id for the message is generated using {@link MessageIdGenerator}, callback for that id is prepared on
      * {@link RPCListener} and then message is send using {@link RPCSender}
+     * If sending fails, callback is removed again and the request is not counted as sent in {@link RPCMetrics}
      */
     @Override
     public void send(RequestMessage.Builder requestMessage, RPCListener.ResponseCallback responseCallback) throws IOException {
         var messageToSend = requestMessage.withId(messageIdGenerator.nextId()).build();
-        rpcListener.listenForResponse(messageToSend.getId(), responseCallback);
-        send(messageToSend);
+        // Callback and metrics are prepared before sending, since response may arrive before send returns
+        rpcListener.listenForResponse(messageToSend.getId(), meteredCallback(messageToSend, responseCallback));
+        try {
+            send(messageToSend);
+        } catch (IOException | RuntimeException ex) {
+            rpcListener.stopListeningForResponse(messageToSend.getId());
+            if (rpcMetrics != RPCMetrics.NO_OP) {
+                rpcMetrics.requestFailed(messageToSend.getMethod(), messageToSend.getId());
+            }
+            throw ex;
+        }
     }
 
     /**
@@ -218,17 +270,74 @@ public final class PackStream implements RPCStreamer {
         }
     }
 
+    private RPCListener.ResponseCallback meteredCallback(RequestMessage requestMessage, RPCListener.ResponseCallback responseCallback) {
+        if (rpcMetrics == RPCMetrics.NO_OP) {
+            if (callbackWatchdog == null || responseCallback == null) {
+                return responseCallback;
+            }
+            return (id, responseMessage) -> callbackWatchdog.invoke(responseCallback, id, responseMessage);
+        }
+
+        var method = requestMessage.getMethod();
+        rpcMetrics.requestSent(method, requestMessage.getId());
+        long sentNanos = System.nanoTime();
+        return (id, responseMessage) -> {
+            long receivedNanos = System.nanoTime();
+            rpcMetrics.responseReceived(method, id, receivedNanos - sentNanos);
+            if (responseCallback != null) {
+                invoke(responseCallback, id, responseMessage);
+                rpcMetrics.callbackExecuted(responseMessage, responseCallback, System.nanoTime() - receivedNanos);
+            }
+        };
+    }
+
     private void requestReceived(RequestMessage requestMessage) {
         log.info("Request received: {}", requestMessage);
         for (var requestCallback : requestCallbacks) {
-            requestCallback.requestReceived(requestMessage);
+            if (rpcMetrics == RPCMetrics.NO_OP) {
+                invoke(requestCallback, requestMessage);
+            } else {
+                long startNanos = System.nanoTime();
+                invoke(requestCallback, requestMessage);
+                rpcMetrics.callbackExecuted(requestMessage, requestCallback, System.nanoTime() - startNanos);
+            }
         }
     }
 
     private void notificationReceived(NotificationMessage notificationMessage) {
         log.info("Notification received: {}", notificationMessage);
         for (var notificationCallback : notificationCallbacks) {
+            if (rpcMetrics == RPCMetrics.NO_OP) {
+                invoke(notificationCallback, notificationMessage);
+            } else {
+                long startNanos = System.nanoTime();
+                invoke(notificationCallback, notificationMessage);
+                rpcMetrics.callbackExecuted(notificationMessage, notificationCallback, System.nanoTime() - startNanos);
+            }
+        }
+    }
+
+    private void invoke(RPCListener.ResponseCallback responseCallback, int id, ResponseMessage responseMessage) {
+        if (callbackWatchdog == null) {
+            responseCallback.responseReceived(id, responseMessage);
+        } else {
+            callbackWatchdog.invoke(responseCallback, id, responseMessage);
+        }
+    }
+
+    private void invoke(RPCListener.RequestCallback requestCallback, RequestMessage requestMessage) {
+        if (callbackWatchdog == null) {
+            requestCallback.requestReceived(requestMessage);
+        } else {
+            callbackWatchdog.invoke(requestCallback, requestMessage);
+        }
+    }
+
+    private void invoke(RPCListener.NotificationCallback notificationCallback, NotificationMessage notificationMessage) {
+        if (callbackWatchdog == null) {
             notificationCallback.notificationReceived(notificationMessage);
+        } else {
+            callbackWatchdog.invoke(notificationCallback, notificationMessage);
         }
     }
 
@@ -26,6 +26,8 @@ package com.ensarsarajcic.neovim.java.corerpc.client;
 
 import com.ensarsarajcic.neovim.java.corerpc.message.Message;
 import com.ensarsarajcic.neovim.java.corerpc.message.RequestMessage;
+import com.ensarsarajcic.neovim.java.corerpc.message.SequentialMessageIdGenerator;
+import com.ensarsarajcic.neovim.java.corerpc.metrics.RPCMetrics;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -57,6 +59,14 @@ import java.util.concurrent.*;
  *          .withExecutorService(customExecutorService)
  *          .build();
  *
+ *     RPCStreamer meteredClient = new RPCClient.Builder()
+ *          .withRPCMetrics(new RecordingRPCMetrics())
+ *          .build();
+ *
+ *     RPCStreamer watchedClient = new RPCClient.Builder()
+ *          .withCallbackWatchdog(new CallbackWatchdog.Builder(Duration.ofMillis(200)).build())
+ *          .build();
+ *
  *     RPCStreamer customSenderListenerClient = new RPCClient.Builder()
  *          .withRPCListener(customRPCListener)
  *          .withRPCSender(customRPCSender)
@@ -137,9 +147,15 @@ public final class RPCClient implements RPCStreamer {
         return createRPCStreamer(createDefaultAsyncRPCSender(), createDefaultAsyncRPCListener());
     }
 
-    private static RPCStreamer createDefaultAsyncRPCStreamer(ExecutorService executorService, ObjectMapper objectMapper) {
-        return createRPCStreamer(createAsyncRPCSender(executorService, objectMapper),
-                createAsyncRPCListener(executorService, objectMapper));
+    private static RPCStreamer createDefaultAsyncRPCStreamer(ExecutorService executorService, ObjectMapper objectMapper,
+                                                             RPCMetrics rpcMetrics, CallbackWatchdog callbackWatchdog) {
+        return new PackStream(
+                new AsyncRPCSender(executorService, objectMapper, rpcMetrics),
+                new BackgroundRPCListener(executorService, objectMapper, rpcMetrics),
+                new SequentialMessageIdGenerator(),
+                rpcMetrics,
+                callbackWatchdog
+        );
     }
 
     private static RPCStreamer createRPCStreamer(RPCSender rpcSender, RPCListener rpcListener) {
@@ -270,6 +286,8 @@ public final class RPCClient implements RPCStreamer {
     public static class Builder {
         private ObjectMapper objectMapper = getDefaultObjectMapper();
         private ExecutorService executorService = getDefaultExecutorService();
+        private RPCMetrics rpcMetrics = RPCMetrics.NO_OP;
+        private CallbackWatchdog callbackWatchdog;
 
         /**
          * Creates a default {@link RPCClient} builder
@@ -542,12 +560,38 @@ public final class RPCClient implements RPCStreamer {
             return this;
         }
 
+        /**
+         * Changes {@link RPCMetrics} used by default {@link RPCStreamer}, {@link RPCSender} and {@link RPCListener}
+         * with instance given
+         * Custom {@link RPCSender} and {@link RPCListener} are not affected, metrics should be passed to them directly
+         *
+         * @param rpcMetrics {@link RPCMetrics} instance to use
+         */
+        public Builder withRPCMetrics(RPCMetrics rpcMetrics) {
+            Objects.requireNonNull(rpcMetrics, "rpcMetrics may not be null");
+            this.rpcMetrics = rpcMetrics;
+            return this;
+        }
+
+        /**
+         * Enables {@link CallbackWatchdog} for callbacks invoked by default {@link RPCStreamer}
+         * By default, callbacks are not watched
+         *
+         * @param callbackWatchdog {@link CallbackWatchdog} instance to use
+         */
+        public Builder withCallbackWatchdog(CallbackWatchdog callbackWatchdog) {
+            Objects.requireNonNull(callbackWatchdog, "callbackWatchdog may not be null");
+            this.callbackWatchdog = callbackWatchdog;
+            return this;
+        }
+
         /**
          * Creates a new {@link RPCClient} instance with default {@link RPCStreamer}, {@link RPCSender} and {@link RPCListener}
-         * with custom dependencies for those ({@link ExecutorService} and {@link ObjectMapper})
+         * with custom dependencies for those ({@link ExecutorService}, {@link ObjectMapper}, {@link RPCMetrics}
+         * and {@link CallbackWatchdog})
          */
         public RPCClient build() {
-            return new RPCClient(createDefaultAsyncRPCStreamer(executorService, objectMapper));
+            return new RPCClient(createDefaultAsyncRPCStreamer(executorService, objectMapper, rpcMetrics, callbackWatchdog));
         }
     }
 }
@@ -88,6 +88,15 @@ public interface RPCListener {
      */
     void listenForResponse(int id, ResponseCallback callback);
 
+    /**
+     * Stops listening for response with given id, usually because request with that id could not be sent
+     * Callback registered through {@link #listenForResponse(int, ResponseCallback)} for that id is dropped
+     * Does nothing by default, for implementations which don't keep callbacks of unanswered requests
+     * @param id ID of the response to stop listening to
+     */
+    default void stopListeningForResponse(int id) {
+    }
+
     /**
      * Starts listening on given {@link InputStream}
      * All events will be passed to callbacks (if any are registered)
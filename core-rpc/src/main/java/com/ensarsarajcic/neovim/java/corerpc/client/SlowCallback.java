@@ -0,0 +1,128 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ensarsarajcic.neovim.java.corerpc.client;
+
+import com.ensarsarajcic.neovim.java.corerpc.message.Message;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Report of a callback that has been running for longer than {@link CallbackWatchdog} threshold
+ * <p>
+ * It is created while the callback is still running, so {@link #getStackTrace()} shows
+ * what the callback was doing at the time it was detected
+ */
+public final class SlowCallback {
+    private final Object callback;
+    private final Message message;
+    private final Thread thread;
+    private final long elapsedNanos;
+    private final StackTraceElement[] stackTrace;
+    private final boolean quarantined;
+
+    SlowCallback(Object callback, Message message, Thread thread, long elapsedNanos, StackTraceElement[] stackTrace, boolean quarantined) {
+        this.callback = callback;
+        this.message = message;
+        this.thread = thread;
+        this.elapsedNanos = elapsedNanos;
+        this.stackTrace = stackTrace;
+        this.quarantined = quarantined;
+    }
+
+    /**
+     * @return callback that is running slow ({@link RPCListener.RequestCallback},
+     * {@link RPCListener.NotificationCallback} or {@link RPCListener.ResponseCallback})
+     */
+    public Object getCallback() {
+        return callback;
+    }
+
+    /**
+     * @return message the callback is handling
+     */
+    public Message getMessage() {
+        return message;
+    }
+
+    /**
+     * @return thread running the callback
+     */
+    public Thread getThread() {
+        return thread;
+    }
+
+    /**
+     * @return time the callback has been running for, at the time it was detected, in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return stack sample of the thread running the callback, taken at the time it was detected
+     */
+    public StackTraceElement[] getStackTrace() {
+        return stackTrace.clone();
+    }
+
+    /**
+     * @return true if the callback got quarantined because of this report,
+     * meaning that further invocations will not run on the reader thread
+     */
+    public boolean isQuarantined() {
+        return quarantined;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SlowCallback that = (SlowCallback) o;
+        return elapsedNanos == that.elapsedNanos &&
+                quarantined == that.quarantined &&
+                Objects.equals(callback, that.callback) &&
+                Objects.equals(message, that.message) &&
+                Objects.equals(thread, that.thread) &&
+                Arrays.equals(stackTrace, that.stackTrace);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Objects.hash(callback, message, thread, elapsedNanos, quarantined);
+        result = 31 * result + Arrays.hashCode(stackTrace);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "SlowCallback{" +
+                "callback=" + callback +
+                ", message=" + message +
+                ", thread=" + thread +
+                ", elapsedNanos=" + elapsedNanos +
+                ", quarantined=" + quarantined +
+                '}';
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.corerpc.metrics;
+
+import com.ensarsarajcic.neovim.java.corerpc.client.RPCConnection;
+import com.ensarsarajcic.neovim.java.corerpc.message.Message;
+
+/**
+ * Receiver of metrics recorded by core RPC classes
+ * <p>
+ * {@link com.ensarsarajcic.neovim.java.corerpc.client.PackStream},
+ * {@link com.ensarsarajcic.neovim.java.corerpc.client.AsyncRPCSender} and
+ * {@link com.ensarsarajcic.neovim.java.corerpc.client.BackgroundRPCListener} call these methods while sending and
+ * receiving messages. Methods are called on reading and writing threads, so implementations should be thread safe,
+ * fast and should not allocate, to allow keeping metrics enabled in production. {@link RecordingRPCMetrics} is such
+ * an implementation, but any other metrics library may be plugged in.
+ * <p>
+ * Methods receiving messages should not keep references to them or modify them.
+ * All methods have empty default implementations, so only required ones need to be implemented.
+ * {@link #NO_OP} is used by default and in that case classes skip any additional work needed for recording.
+ * <p>
+ * Example:
+ * <pre>
+ *     {@code
+ *     RecordingRPCMetrics metrics = new RecordingRPCMetrics();
+ *     RPCStreamer rpcStreamer = new RPCClient.Builder()
+ *          .withRPCMetrics(metrics)
+ *          .build();
+ *
+ *     // ...
+ *
+ *     long p99 = metrics.getLatency("nvim_get_current_line").getValueAtPercentile(99);
+ *     }
+ * </pre>
+ */
+public interface RPCMetrics {
+
+    /**
+     * Metrics ignoring everything recorded
+     */
+    RPCMetrics NO_OP = new RPCMetrics() {
+        @Override
+        public String toString() {
+            return "RPCMetrics.NO_OP";
+        }
+    };
+
+    /**
+     * Called when stream is attached to a connection
+     * @param rpcConnection connection messages are sent to and received from
+     */
+    default void attached(RPCConnection rpcConnection) {
+    }
+
+    /**
+     * Called when listening on the incoming stream ends, because it was closed or listening was stopped
+     * No more messages will be received, so responses to pending requests will never arrive
+     */
+    default void detached() {
+    }
+
+    /**
+     * Tells whether payload size passed to {@link #messageDecoded(Message, long, long)} is used
+     * Size of incoming messages is not known up front and it has to be calculated by walking the whole message,
+     * so it is only done when this returns true. It is checked for every message, so it may change over time.
+     * @return true if payload size of incoming messages should be calculated
+     */
+    default boolean needsPayloadSize() {
+        return false;
+    }
+
+    /**
+     * Called when a request expecting a response is sent
+     * @param method method of the request
+     * @param id id of the request
+     */
+    default void requestSent(String method, int id) {
+    }
+
+    /**
+     * Called when response to a request previously reported through {@link #requestSent(String, int)} arrives
+     * It is called before the response callback of the request is executed
+     * @param method method of the request
+     * @param id id of the request
+     * @param latencyNanos time between sending request and receiving response, in nanoseconds
+     */
+    default void responseReceived(String method, int id, long latencyNanos) {
+    }
+
+    /**
+     * Called when a request previously reported through {@link #requestSent(String, int)} could not be sent
+     * Response to it will never arrive, so {@link #responseReceived(String, int, long)} is not called for it
+     * @param method method of the request
+     * @param id id of the request
+     */
+    default void requestFailed(String method, int id) {
+    }
+
+    /**
+     * Called when a message is queued for sending
+     */
+    default void messageQueued() {
+    }
+
+    /**
+     * Called when a message previously reported through {@link #messageQueued()} is taken off the queue
+     */
+    default void messageDequeued() {
+    }
+
+    /**
+     * Called when a message is serialized and written to the outgoing stream
+     * @param message message that was written
+     * @param payloadSize size of the serialized message in bytes
+     * @param encodeNanos time spent on serializing and writing, in nanoseconds
+     */
+    default void messageEncoded(Message message, long payloadSize, long encodeNanos) {
+    }
+
+    /**
+     * Called when a message is read from the incoming stream and deserialized, before it is passed to callbacks
+     * Time spent waiting for the message to arrive is not included
+     * @param message message that was read
+     * @param payloadSize size of the serialized message in bytes, or -1 if {@link #needsPayloadSize()} returned false
+     * @param decodeNanos time spent on reading and deserializing, in nanoseconds
+     */
+    default void messageDecoded(Message message, long payloadSize, long decodeNanos) {
+    }
+
+    /**
+     * Called when bytes are written to the outgoing stream
+     * @param count number of bytes written
+     */
+    default void bytesWritten(long count) {
+    }
+
+    /**
+     * Called when bytes are read from the incoming stream
+     * @param count number of bytes read
+     */
+    default void bytesRead(long count) {
+    }
+
+    /**
+     * Called when a notification is received
+     * @param name name of the notification
+     */
+    default void notificationReceived(String name) {
+    }
+
+    /**
+     * Called when a callback finishes handling a received message
+     * @param message message passed to the callback
+     * @param callback callback which handled the message
+     * @param executionNanos time spent in the callback, in nanoseconds
+     */
+    default void callbackExecuted(Message message, Object callback, long executionNanos) {
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.corerpc.metrics;
+
+import com.ensarsarajcic.neovim.java.corerpc.message.Message;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of {@link RPCMetrics} keeping recorded metrics in memory
+ * <p>
+ * Records:
+ * - {@link LatencyHistogram} of response latencies per method
+ * - number of requests in flight (sent, but without response yet)
+ * - depth of the send queue
+ * - {@link LatencyHistogram} of encoding and decoding times
+ * - {@link LatencyHistogram} of callback execution times
+ * - total number of bytes written and read
+ * - number of notifications received per name
+ * <p>
+ * Recording is lock-free and does not allocate, except for the first time a method or notification name is seen.
+ * Counters only grow, so rates (such as notifications per second) can be calculated by sampling them periodically.
+ */
+public final class RecordingRPCMetrics implements RPCMetrics {
+
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> notifications = new ConcurrentHashMap<>();
+    private final LongAdder requestsInFlight = new LongAdder();
+    private final LongAdder sendQueueDepth = new LongAdder();
+    private final LatencyHistogram encodeTimes = new LatencyHistogram();
+    private final LatencyHistogram decodeTimes = new LatencyHistogram();
+    private final LatencyHistogram callbackTimes = new LatencyHistogram();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+
+    @Override
+    public void requestSent(String method, int id) {
+        requestsInFlight.increment();
+    }
+
+    @Override
+    public void responseReceived(String method, int id, long latencyNanos) {
+        requestsInFlight.decrement();
+        var histogram = latencies.get(method);
+        if (histogram == null) {
+            histogram = latencies.computeIfAbsent(method, name -> new LatencyHistogram());
+        }
+        histogram.record(latencyNanos);
+    }
+
+    @Override
+    public void requestFailed(String method, int id) {
+        requestsInFlight.decrement();
+    }
+
+    @Override
+    public void messageQueued() {
+        sendQueueDepth.increment();
+    }
+
+    @Override
+    public void messageDequeued() {
+        sendQueueDepth.decrement();
+    }
+
+    @Override
+    public void messageEncoded(Message message, long payloadSize, long encodeNanos) {
+        encodeTimes.record(encodeNanos);
+    }
+
+    @Override
+    public void messageDecoded(Message message, long payloadSize, long decodeNanos) {
+        decodeTimes.record(decodeNanos);
+    }
+
+    @Override
+    public void bytesWritten(long count) {
+        bytesWritten.add(count);
+    }
+
+    @Override
+    public void bytesRead(long count) {
+        bytesRead.add(count);
+    }
+
+    @Override
+    public void notificationReceived(String name) {
+        var counter = notifications.get(name);
+        if (counter == null) {
+            counter = notifications.computeIfAbsent(name, key -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    @Override
+    public void callbackExecuted(Message message, Object callback, long executionNanos) {
+        callbackTimes.record(executionNanos);
+    }
+
+    /**
+     * Provides latencies of requests with given method
+     * @param method method of requests
+     * @return {@link LatencyHistogram} of response latencies in nanoseconds, or null if no response was received yet
+     */
+    public LatencyHistogram getLatency(String method) {
+        return latencies.get(method);
+    }
+
+    /**
+     * @return unmodifiable view of response latency histograms by method
+     */
+    public Map<String, LatencyHistogram> getLatencies() {
+        return Collections.unmodifiableMap(latencies);
+    }
+
+    /**
+     * @return number of requests sent, which did not receive a response yet
+     */
+    public long getRequestsInFlight() {
+        return requestsInFlight.sum();
+    }
+
+    /**
+     * @return number of messages queued for sending, which were not taken off the queue yet
+     */
+    public long getSendQueueDepth() {
+        return sendQueueDepth.sum();
+    }
+
+    /**
+     * @return {@link LatencyHistogram} of time spent on encoding and writing messages, in nanoseconds
+     */
+    public LatencyHistogram getEncodeTimes() {
+        return encodeTimes;
+    }
+
+    /**
+     * @return {@link LatencyHistogram} of time spent on reading and decoding messages, in nanoseconds
+     */
+    public LatencyHistogram getDecodeTimes() {
+        return decodeTimes;
+    }
+
+    /**
+     * @return {@link LatencyHistogram} of time spent in callbacks handling received messages, in nanoseconds
+     */
+    public LatencyHistogram getCallbackTimes() {
+        return callbackTimes;
+    }
+
+    /**
+     * @return total number of bytes written
+     */
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    /**
+     * @return total number of bytes read
+     */
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    /**
+     * @param name name of notifications
+     * @return total number of notifications with given name received
+     */
+    public long getNotificationCount(String name) {
+        var counter = notifications.get(name);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /**
+     * @return snapshot of total numbers of received notifications by name
+     */
+    public Map<String, Long> getNotificationCounts() {
+        return notifications.entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, entry -> entry.getValue().sum()));
+    }
+
+    @Override
+    public String toString() {
+        return "RecordingRPCMetrics{" +
+                "latencies=" + latencies +
+                ", notifications=" + getNotificationCounts() +
+                ", requestsInFlight=" + getRequestsInFlight() +
+                ", sendQueueDepth=" + getSendQueueDepth() +
+                ", encodeTimes=" + encodeTimes +
+                ", decodeTimes=" + decodeTimes +
+                ", callbackTimes=" + callbackTimes +
+                ", bytesWritten=" + getBytesWritten() +
+                ", bytesRead=" + getBytesRead() +
+                '}';
+    }
+}
@@ -3,6 +3,7 @@ module corerpc {
     opens com.ensarsarajcic.neovim.java.corerpc.message;
     exports com.ensarsarajcic.neovim.java.corerpc.client;
     exports com.ensarsarajcic.neovim.java.corerpc.message;
+    exports com.ensarsarajcic.neovim.java.corerpc.metrics;
 
     requires slf4j.api;
     requires com.fasterxml.jackson.databind;
@@ -28,6 +28,7 @@ import com.ensarsarajcic.neovim.java.corerpc.message.MessageType;
 import com.ensarsarajcic.neovim.java.corerpc.message.NotificationMessage;
 import com.ensarsarajcic.neovim.java.corerpc.message.RequestMessage;
 import com.ensarsarajcic.neovim.java.corerpc.message.ResponseMessage;
+import com.ensarsarajcic.neovim.java.corerpc.metrics.RPCMetrics;
 import com.ensarsarajcic.neovim.java.testing.MultiLatch;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -48,6 +49,7 @@ import java.util.concurrent.Executors;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
@@ -203,6 +205,28 @@ public class BackgroundRPCListenerTest {
         verifyNoMoreInteractions(notificationCallback);
     }
 
+    @Test
+    public void payloadSizeIsCalculatedOnlyWhenNeeded() throws IOException {
+        // Given metrics which need payload size only for the second message
+        prepareSequentialExecutorService();
+        var rpcMetrics = Mockito.mock(RPCMetrics.class);
+        given(rpcMetrics.needsPayloadSize()).willReturn(false, true);
+        backgroundRPCListener = new BackgroundRPCListener(executorService, objectMapper, rpcMetrics);
+        given(objectMapper.reader()).willReturn(objectReader);
+        var notificationMessage = new NotificationMessage.Builder("test").build();
+        given(objectMapper.treeToValue(any(), eq(NotificationMessage.class))).willReturn(notificationMessage);
+        given(objectReader.readTree(any(InputStream.class)))
+                .willReturn(prepareNotificationNode(), prepareNotificationNode(), null);
+
+        backgroundRPCListener.start(inputStream);
+
+        // Size is unknown for the first one and exact (fixarray header and 3 fixints) for the second one
+        verify(rpcMetrics).messageDecoded(eq(notificationMessage), eq(-1L), anyLong());
+        verify(rpcMetrics).messageDecoded(eq(notificationMessage), eq(4L), anyLong());
+        // Stream ended
+        verify(rpcMetrics).detached();
+    }
+
     @Test(expected = RuntimeException.class)
     public void exceptionOnStartIsThrown() {
         // Given an error in reading from stream
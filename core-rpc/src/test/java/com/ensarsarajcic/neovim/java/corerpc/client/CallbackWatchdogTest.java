@@ -0,0 +1,158 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.ensarsarajcic.neovim.java.corerpc.client;
+
+import com.ensarsarajcic.neovim.java.corerpc.message.NotificationMessage;
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class CallbackWatchdogTest {
+
+    private final BlockingQueue<SlowCallback> reports = new LinkedBlockingQueue<>();
+    private final ExecutorService quarantineExecutor = Executors.newSingleThreadExecutor();
+    private CallbackWatchdog watchdog;
+
+    @After
+    public void tearDown() {
+        if (watchdog != null) {
+            watchdog.close();
+        }
+        quarantineExecutor.shutdownNow();
+    }
+
+    @Test
+    public void reportsSlowCallbackWithStackSample() throws InterruptedException {
+        watchdog = new CallbackWatchdog.Builder(Duration.ofMillis(20))
+                .withSlowCallbackHandler(reports::add)
+                .build();
+        var release = new CountDownLatch(1);
+        RPCListener.NotificationCallback callback = notificationMessage -> awaitRelease(release);
+        var message = new NotificationMessage("redraw", new ArrayList<>());
+
+        var reader = new Thread(() -> watchdog.invoke(callback, message));
+        reader.start();
+        var report = reports.poll(5, TimeUnit.SECONDS);
+        release.countDown();
+        reader.join();
+
+        assertNotNull(report);
+        assertSame(callback, report.getCallback());
+        assertEquals(message, report.getMessage());
+        assertSame(reader, report.getThread());
+        assertTrue(report.getElapsedNanos() >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertFalse(report.isQuarantined());
+        assertTrue(Arrays.stream(report.getStackTrace()).anyMatch(element -> element.getMethodName().equals("awaitRelease")));
+        // Reported only once per invocation
+        assertNull(reports.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void doesNotReportFastCallbacks() throws InterruptedException {
+        watchdog = new CallbackWatchdog.Builder(Duration.ofMillis(200))
+                .withSlowCallbackHandler(reports::add)
+                .build();
+        RPCListener.RequestCallback callback = requestMessage -> {};
+
+        for (int i = 0; i < 1000; i++) {
+            watchdog.invoke(callback, null);
+        }
+
+        assertNull(reports.poll(300, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void quarantinesSlowCallbacks() throws InterruptedException, ExecutionException, TimeoutException {
+        watchdog = new CallbackWatchdog.Builder(Duration.ofMillis(20))
+                .withSlowCallbackHandler(reports::add)
+                .withQuarantineExecutor(quarantineExecutor)
+                .build();
+        var release = new CountDownLatch(1);
+        List<Thread> invokingThreads = new CopyOnWriteArrayList<>();
+        RPCListener.NotificationCallback callback = notificationMessage -> {
+            invokingThreads.add(Thread.currentThread());
+            awaitRelease(release);
+        };
+        var message = new NotificationMessage("redraw", new ArrayList<>());
+
+        var firstInvocation = CompletableFuture.runAsync(() -> watchdog.invoke(callback, message));
+        var report = reports.poll(5, TimeUnit.SECONDS);
+        assertNotNull(report);
+        assertTrue(report.isQuarantined());
+        assertTrue(watchdog.isQuarantined(callback));
+
+        // Second invocation must not block the caller, even though first one is still running
+        watchdog.invoke(callback, message);
+        release.countDown();
+        firstInvocation.get(5, TimeUnit.SECONDS);
+        quarantineExecutor.submit(() -> {}).get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, invokingThreads.size());
+        assertNotSame(invokingThreads.get(0), invokingThreads.get(1));
+
+        assertTrue(watchdog.release(callback));
+        assertFalse(watchdog.isQuarantined(callback));
+    }
+
+    @Test
+    public void reportsSlowResponseCallbacksWithoutQuarantiningThem() throws InterruptedException {
+        watchdog = new CallbackWatchdog.Builder(Duration.ofMillis(20))
+                .withSlowCallbackHandler(reports::add)
+                .withQuarantineExecutor(quarantineExecutor)
+                .build();
+        var release = new CountDownLatch(1);
+        RPCListener.ResponseCallback callback = (forId, responseMessage) -> awaitRelease(release);
+
+        var reader = new Thread(() -> watchdog.invoke(callback, 1, null));
+        reader.start();
+        var report = reports.poll(5, TimeUnit.SECONDS);
+        release.countDown();
+        reader.join();
+
+        assertNotNull(report);
+        assertSame(callback, report.getCallback());
+        assertFalse(report.isQuarantined());
+        assertFalse(watchdog.isQuarantined(callback));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveThreshold() {
+        watchdog = new CallbackWatchdog.Builder(Duration.ZERO).build();
+    }
+
+    private static void awaitRelease(CountDownLatch release) {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
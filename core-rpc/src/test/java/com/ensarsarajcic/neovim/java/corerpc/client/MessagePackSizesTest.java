@@ -0,0 +1,76 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.corerpc.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.msgpack.jackson.dataformat.MessagePackExtensionType;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class MessagePackSizesTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper(new MessagePackFactory());
+
+    @Test
+    public void calculatesSizeOfEncodedValues() throws Exception {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("key", "value");
+        map.put("nested", List.of(1, 2, 3));
+        List<Object> values = new ArrayList<>(List.of(
+                0, 127, 128, -1, -32, -33, -129, 65535, 65536, -32769, 4294967296L, Long.MIN_VALUE,
+                1.5, true, false,
+                "", "short", "ü€𝄞", repeat(31), repeat(32), repeat(300), repeat(70000),
+                new byte[]{1, 2, 3}, new byte[300],
+                new MessagePackExtensionType((byte) 1, new byte[]{1}),
+                new MessagePackExtensionType((byte) 1, new byte[]{1, 2, 3}),
+                map,
+                Collections.nCopies(20, 1)
+        ));
+        values.add(null);
+
+        for (Object value : values) {
+            assertSize(value);
+        }
+        assertSize(values);
+    }
+
+    private static String repeat(int count) {
+        return String.join("", Collections.nCopies(count, "a"));
+    }
+
+    private void assertSize(Object value) throws Exception {
+        var bytes = objectMapper.writeValueAsBytes(value);
+        var tree = objectMapper.readTree(bytes);
+        assertEquals(String.valueOf(value), bytes.length, MessagePackSizes.sizeOf(tree));
+    }
+}
@@ -25,6 +25,7 @@
 package com.ensarsarajcic.neovim.java.corerpc.client;
 
 import com.ensarsarajcic.neovim.java.corerpc.message.*;
+import com.ensarsarajcic.neovim.java.corerpc.metrics.RecordingRPCMetrics;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -40,7 +41,9 @@ import java.io.OutputStream;
 
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -153,6 +156,27 @@ public class PackStreamTest {
         verify(rpcListener).listenForResponse(25, responseCallback);
     }
 
+    @Test
+    public void failedRequestIsNotLeftInFlight() throws IOException {
+        var metrics = new RecordingRPCMetrics();
+        var meteredPackStream = new PackStream(rpcSender, rpcListener, messageIdGenerator, metrics);
+        given(messageIdGenerator.nextId()).willReturn(25);
+        var exception = new IOException("Stream closed");
+        willThrow(exception).given(rpcSender).send(any());
+
+        try {
+            meteredPackStream.send(new RequestMessage.Builder("test"), Mockito.mock(RPCListener.ResponseCallback.class));
+            fail("Exception of sender should be passed on");
+        } catch (IOException ex) {
+            assertSame(exception, ex);
+        }
+
+        // Callback is removed again and request is not counted
+        verify(rpcListener).listenForResponse(eq(25), any());
+        verify(rpcListener).stopListeningForResponse(25);
+        assertEquals(0, metrics.getRequestsInFlight());
+    }
+
     @Test
     public void testRequestCallback() throws IOException {
         // Given a proper rpc listener and attached pack stream
@@ -0,0 +1,167 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.corerpc.metrics;
+
+import com.ensarsarajcic.neovim.java.corerpc.client.AsyncRPCSender;
+import com.ensarsarajcic.neovim.java.corerpc.client.BackgroundRPCListener;
+import com.ensarsarajcic.neovim.java.corerpc.client.PackStream;
+import com.ensarsarajcic.neovim.java.corerpc.client.RPCConnection;
+import com.ensarsarajcic.neovim.java.corerpc.message.NotificationMessage;
+import com.ensarsarajcic.neovim.java.corerpc.message.RequestMessage;
+import com.ensarsarajcic.neovim.java.corerpc.message.ResponseMessage;
+import com.ensarsarajcic.neovim.java.corerpc.message.SequentialMessageIdGenerator;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+
+import java.io.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class RecordingRPCMetricsTest {
+
+    @Test
+    public void recordsCounters() {
+        var metrics = new RecordingRPCMetrics();
+        metrics.requestSent("nvim_eval", 1);
+        metrics.requestSent("nvim_eval", 2);
+        metrics.responseReceived("nvim_eval", 1, 1_000);
+        metrics.requestSent("nvim_eval", 3);
+        metrics.requestFailed("nvim_eval", 3);
+        metrics.messageQueued();
+        metrics.messageQueued();
+        metrics.messageDequeued();
+        metrics.bytesWritten(10);
+        metrics.bytesRead(20);
+        metrics.bytesRead(5);
+        metrics.notificationReceived("redraw");
+        metrics.notificationReceived("redraw");
+        metrics.notificationReceived("nvim_buf_lines_event");
+
+        assertEquals(1, metrics.getRequestsInFlight());
+        assertEquals(1, metrics.getLatency("nvim_eval").getCount());
+        assertNull(metrics.getLatency("nvim_command"));
+        assertEquals(1, metrics.getSendQueueDepth());
+        assertEquals(10, metrics.getBytesWritten());
+        assertEquals(25, metrics.getBytesRead());
+        assertEquals(2, metrics.getNotificationCount("redraw"));
+        assertEquals(0, metrics.getNotificationCount("unknown"));
+        assertEquals(1L, (long) metrics.getNotificationCounts().get("nvim_buf_lines_event"));
+    }
+
+    @Test
+    public void recordsTrafficOfMeteredClient() throws Exception {
+        var metrics = new RecordingRPCMetrics();
+        var objectMapper = createObjectMapper();
+        ExecutorService executorService = Executors.newCachedThreadPool();
+        try {
+            // Neovim side of the connection: responds to request and sends a notification
+            var incoming = new ByteArrayOutputStream();
+            objectMapper.writeValue(incoming, new ResponseMessage.Builder("result").withId(1).build());
+            objectMapper.writeValue(incoming, new NotificationMessage.Builder("redraw").build());
+            var incomingBytes = incoming.toByteArray();
+            var outgoing = new ByteArrayOutputStream();
+
+            var packStream = new PackStream(
+                    new AsyncRPCSender(executorService, objectMapper, metrics),
+                    new BackgroundRPCListener(executorService, objectMapper, metrics),
+                    new SequentialMessageIdGenerator(),
+                    metrics
+            );
+            var notificationLatch = new CountDownLatch(1);
+            packStream.addNotificationCallback(notification -> notificationLatch.countDown());
+            var responseLatch = new CountDownLatch(1);
+            // Request is sent before incoming data is available, since response must match its id
+            var incomingStream = new PipedInputStream();
+            var incomingPipe = new PipedOutputStream(incomingStream);
+            packStream.attach(new TestConnection(incomingStream, outgoing));
+            packStream.send(new RequestMessage.Builder("nvim_eval"), (id, response) -> responseLatch.countDown());
+            assertEquals(1, metrics.getRequestsInFlight());
+            incomingPipe.write(incomingBytes);
+            incomingPipe.flush();
+
+            assertTrue(responseLatch.await(5, TimeUnit.SECONDS));
+            assertTrue(notificationLatch.await(5, TimeUnit.SECONDS));
+            assertEquals(0, metrics.getRequestsInFlight());
+            assertEquals(1, metrics.getLatency("nvim_eval").getCount());
+            assertEquals(1, metrics.getNotificationCount("redraw"));
+            assertEquals(incomingBytes.length, metrics.getBytesRead());
+            assertEquals(2, metrics.getDecodeTimes().getCount());
+            // Writing runs in background, independently of the response and callback times are recorded after latches
+            awaitCount(metrics.getEncodeTimes(), 1);
+            awaitCount(metrics.getCallbackTimes(), 2);
+            assertEquals(1, metrics.getEncodeTimes().getCount());
+            assertEquals(outgoing.size(), metrics.getBytesWritten());
+            assertEquals(0, metrics.getSendQueueDepth());
+            assertEquals(2, metrics.getCallbackTimes().getCount());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private static void awaitCount(LatencyHistogram histogram, long count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (histogram.getCount() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static ObjectMapper createObjectMapper() {
+        var factory = new MessagePackFactory();
+        factory.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        factory.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return new ObjectMapper(factory);
+    }
+
+    private static final class TestConnection implements RPCConnection {
+        private final InputStream inputStream;
+        private final OutputStream outputStream;
+
+        private TestConnection(InputStream inputStream, OutputStream outputStream) {
+            this.inputStream = inputStream;
+            this.outputStream = outputStream;
+        }
+
+        @Override
+        public InputStream getIncomingStream() {
+            return inputStream;
+        }
+
+        @Override
+        public OutputStream getOutgoingStream() {
+            return outputStream;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.handler;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Decodes arguments of messages into typed parameters of handler methods
+ * <p>
+ * Each parameter gets its own {@link Parameter} decoder, prepared once, when handler is registered, so it already
+ * knows its target type and the {@link ObjectReader} to use. Arguments which are already of the declared type
+ * (strings, maps, lists of unconstrained elements...) are passed as they are, numbers are narrowed or widened
+ * directly, and only arguments needing an actual conversion (POJOs, neovim types, typed collections) go through
+ * {@link ObjectMapper}. Those are written back to msgpack and read as the declared type, so msgpack extension types
+ * (such as buffers) are supported as long as the {@link ObjectMapper} knows how to read them.
+ * <p>
+ * This is used both by reflective dispatch of {@link NeovimHandlerManager} and by generated
+ * {@link NeovimHandlerDispatcher} implementations
+ */
+public final class ArgumentDecoder {
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Creates a new {@link ArgumentDecoder}
+     * @param objectMapper msgpack mapper used for conversion of arguments not already matching parameter types
+     * @throws NullPointerException if objectMapper is null
+     */
+    public ArgumentDecoder(ObjectMapper objectMapper) {
+        Objects.requireNonNull(objectMapper, "objectMapper is required to decode arguments");
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Creates a decoder for parameter of given type
+     * @param canonicalType canonical name of the type, as understood by
+     *                      {@link com.fasterxml.jackson.databind.type.TypeFactory#constructFromCanonical(String)},
+     *                      such as {@code int} or {@code java.util.List<java.lang.String>}
+     * @return parameter decoder
+     * @throws IllegalArgumentException if type can't be resolved
+     */
+    public Parameter forType(String canonicalType) {
+        return forType(objectMapper.getTypeFactory().constructFromCanonical(canonicalType));
+    }
+
+    /**
+     * Creates a decoder for parameter of given type
+     * @param type generic type of parameter
+     * @return parameter decoder
+     */
+    public Parameter forType(Type type) {
+        return forType(objectMapper.getTypeFactory().constructType(type));
+    }
+
+    private Parameter forType(JavaType javaType) {
+        ObjectReader reader = objectMapper.readerFor(javaType);
+        Class<?> rawType = javaType.getRawClass();
+        // Type parameters can't be checked on decoded values, so those always need to be converted
+        boolean directlyAssignable = javaType.containedTypeCount() == 0 || isUnconstrainedContainer(javaType);
+        Class<?> boxedType = javaType.isPrimitive() ? box(rawType) : rawType;
+
+        return (arguments, index) -> {
+            Object argument = index < arguments.size() ? arguments.get(index) : null;
+            try {
+                if (argument == null) {
+                    if (javaType.isPrimitive()) {
+                        throw new IllegalArgumentException("Argument of primitive type " + rawType + " is missing");
+                    }
+                    return null;
+                }
+                if (directlyAssignable && boxedType.isInstance(argument)) {
+                    return argument;
+                }
+                if (argument instanceof Number) {
+                    Object number = convertNumber((Number) argument, boxedType);
+                    if (number != null) {
+                        return number;
+                    }
+                }
+                return reader.readValue(objectMapper.writeValueAsBytes(argument));
+            } catch (IOException | RuntimeException e) {
+                throw new IllegalArgumentException("Failed to decode argument " + index + " as " + javaType
+                        + " from: " + argument, e);
+            }
+        };
+    }
+
+    private static boolean isUnconstrainedContainer(JavaType javaType) {
+        for (int i = 0; i < javaType.containedTypeCount(); i++) {
+            if (javaType.containedType(i).getRawClass() != Object.class) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Object convertNumber(Number number, Class<?> type) {
+        if (type == Integer.class) {
+            return Math.toIntExact(number.longValue());
+        } else if (type == Long.class) {
+            return number.longValue();
+        } else if (type == Double.class) {
+            return number.doubleValue();
+        } else if (type == Float.class) {
+            return number.floatValue();
+        } else if (type == Short.class) {
+            return number.shortValue();
+        } else if (type == Byte.class) {
+            return number.byteValue();
+        }
+        return null;
+    }
+
+    private static Class<?> box(Class<?> type) {
+        if (type == int.class) {
+            return Integer.class;
+        } else if (type == long.class) {
+            return Long.class;
+        } else if (type == boolean.class) {
+            return Boolean.class;
+        } else if (type == double.class) {
+            return Double.class;
+        } else if (type == float.class) {
+            return Float.class;
+        } else if (type == short.class) {
+            return Short.class;
+        } else if (type == byte.class) {
+            return Byte.class;
+        } else if (type == char.class) {
+            return Character.class;
+        }
+        return type;
+    }
+
+    /**
+     * Decoder of a single parameter
+     */
+    @FunctionalInterface
+    public interface Parameter {
+        /**
+         * Decodes argument at given index
+         * Missing arguments are decoded as null
+         * @param arguments arguments of message
+         * @param index index of argument to decode
+         * @return decoded argument, boxed if primitive
+         * @throws IllegalArgumentException if decoding fails
+         */
+        Object decode(List<?> arguments, int index);
+    }
+}
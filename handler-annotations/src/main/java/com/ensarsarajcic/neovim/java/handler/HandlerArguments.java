@@ -0,0 +1,81 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.handler;
+
+import com.ensarsarajcic.neovim.java.corerpc.message.Message;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Creates decoders of message arguments for handler methods declaring typed parameters, using {@link ArgumentDecoder}
+ */
+final class HandlerArguments {
+
+    private HandlerArguments() {
+        throw new AssertionError("No instances");
+    }
+
+    /**
+     * Checks whether method declares typed parameters, instead of accepting a single message of given type
+     * @param method handler method
+     * @param messageType type of message passed to handlers
+     * @return true if arguments of messages need to be decoded for this method
+     */
+    static boolean isTyped(Method method, Class<?> messageType) {
+        return method.getParameterCount() != 1 || !method.getParameterTypes()[0].isAssignableFrom(messageType);
+    }
+
+    /**
+     * Creates a decoder of message arguments into an array of method parameters
+     * Missing arguments are decoded as null and extra arguments are ignored
+     * @param argumentDecoder decoder used for each of the parameters
+     * @param method handler method
+     * @return function decoding arguments of messages, throwing {@link IllegalArgumentException} if decoding fails
+     * @throws IllegalArgumentException if method accepts messages of different type mixed with typed parameters
+     */
+    static Function<List<?>, Object[]> createDecoder(ArgumentDecoder argumentDecoder, Method method) {
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            if (Message.class.isAssignableFrom(parameterType)) {
+                throw new IllegalArgumentException("Handler method " + method + " needs to accept either a single "
+                        + "message of handled type or typed arguments");
+            }
+        }
+        Type[] parameterTypes = method.getGenericParameterTypes();
+        ArgumentDecoder.Parameter[] decoders = new ArgumentDecoder.Parameter[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            decoders[i] = argumentDecoder.forType(parameterTypes[i]);
+        }
+        return arguments -> {
+            Object[] parameters = new Object[decoders.length];
+            for (int i = 0; i < decoders.length; i++) {
+                parameters[i] = decoders[i].decode(arguments, i);
+            }
+            return parameters;
+        };
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.handler;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Creates invokers of annotated handler methods
+ * <p>
+ * Invokers are compiled once, when handler is registered, into a {@link Consumer} or a {@link Function} implemented
+ * by a class spun with {@link LambdaMetafactory}, which calls the handler method directly, just like a lambda would.
+ * Classes are spun once per method and cached, so registering more handlers of the same type only creates instances.
+ * If that is not possible (when declaring class can't be accessed privately, for example if its module doesn't
+ * open it), a {@link MethodHandle} bound to the handler is used instead. Either way, there are no access checks,
+ * argument arrays or static modifier checks when messages are dispatched.
+ */
+final class HandlerInvokers {
+
+    private static final MethodType CONSUMER_TYPE = MethodType.methodType(void.class, Object.class);
+    private static final MethodType FUNCTION_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SPREADING_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    // Keyed by declaring class, so cached factories do not keep handler classes from being unloaded
+    private static final ClassValue<Map<Method, MethodHandle>> CONSUMER_FACTORIES = new FactoryCache();
+    private static final ClassValue<Map<Method, MethodHandle>> FUNCTION_FACTORIES = new FactoryCache();
+
+    private HandlerInvokers() {
+        throw new AssertionError("No instances");
+    }
+
+    /**
+     * Creates an invoker of given method, ignoring its return value
+     * @param handler instance to call method on, ignored for static methods
+     * @param method method accepting a single argument of given type
+     * @param argumentType type of the argument passed to the invoker
+     * @param <T> type of the argument
+     * @return consumer calling the method
+     * @throws IllegalArgumentException if method does not accept given argument type or can't be accessed
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Consumer<T> create(Object handler, Method method, Class<T> argumentType) {
+        checkArguments(method, argumentType);
+        try {
+            return (Consumer<T>) createLambda(handler, method, CONSUMER_FACTORIES, Consumer.class, "accept", CONSUMER_TYPE,
+                    MethodType.methodType(void.class, argumentType));
+        } catch (IllegalAccessException | LambdaConversionException | RuntimeException lambdaError) {
+            MethodHandle invoker = createMethodHandle(handler, method, lambdaError).asType(CONSUMER_TYPE);
+            return argument -> {
+                try {
+                    invoker.invokeExact((Object) argument);
+                } catch (RuntimeException | Error ex) {
+                    throw ex;
+                } catch (Throwable throwable) {
+                    throw new RuntimeException(throwable);
+                }
+            };
+        }
+    }
+
+    /**
+     * Creates an invoker of given method, returning its return value (boxed if primitive)
+     * Invokers of void methods return null
+     * @param handler instance to call method on, ignored for static methods
+     * @param method method accepting a single argument of given type
+     * @param argumentType type of the argument passed to the invoker
+     * @param <T> type of the argument
+     * @return function calling the method
+     * @throws IllegalArgumentException if method does not accept given argument type or can't be accessed
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Function<T, Object> createFunction(Object handler, Method method, Class<T> argumentType) {
+        if (method.getReturnType() == void.class) {
+            Consumer<T> consumer = create(handler, method, argumentType);
+            return argument -> {
+                consumer.accept(argument);
+                return null;
+            };
+        }
+        checkArguments(method, argumentType);
+        try {
+            return (Function<T, Object>) createLambda(handler, method, FUNCTION_FACTORIES, Function.class, "apply", FUNCTION_TYPE,
+                    MethodType.methodType(method.getReturnType(), argumentType).wrap());
+        } catch (IllegalAccessException | LambdaConversionException | RuntimeException lambdaError) {
+            MethodHandle invoker = createMethodHandle(handler, method, lambdaError).asType(FUNCTION_TYPE);
+            return argument -> {
+                try {
+                    return invoker.invokeExact((Object) argument);
+                } catch (RuntimeException | Error ex) {
+                    throw ex;
+                } catch (Throwable throwable) {
+                    throw new RuntimeException(throwable);
+                }
+            };
+        }
+    }
+
+    /**
+     * Creates an invoker of given method, accepting any parameters, passed as an array
+     * Such invokers are used for methods with typed parameters, so a {@link MethodHandle} spreading the array is
+     * used instead of a spun class
+     * Invokers of void methods return null
+     * @param handler instance to call method on, ignored for static methods
+     * @param method method to call
+     * @return function calling the method with given parameters
+     * @throws IllegalArgumentException if method can't be accessed
+     */
+    static Function<Object[], Object> createSpreading(Object handler, Method method) {
+        MethodHandle methodHandle;
+        try {
+            Class<?> declaringClass = method.getDeclaringClass();
+            HandlerInvokers.class.getModule().addReads(declaringClass.getModule());
+            methodHandle = MethodHandles.privateLookupIn(declaringClass, MethodHandles.lookup()).unreflect(method);
+            if (!Modifier.isStatic(method.getModifiers())) {
+                methodHandle = methodHandle.bindTo(handler);
+            }
+        } catch (IllegalAccessException | RuntimeException lambdaError) {
+            methodHandle = createMethodHandle(handler, method, lambdaError);
+        }
+        MethodHandle invoker = methodHandle
+                .asSpreader(Object[].class, method.getParameterCount())
+                .asType(SPREADING_TYPE);
+        return parameters -> {
+            try {
+                return invoker.invokeExact(parameters);
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable throwable) {
+                throw new RuntimeException(throwable);
+            }
+        };
+    }
+
+    private static void checkArguments(Method method, Class<?> argumentType) {
+        if (method.getParameterCount() != 1 || !method.getParameterTypes()[0].isAssignableFrom(argumentType)) {
+            throw new IllegalArgumentException("Handler method " + method + " needs to accept a single "
+                    + argumentType.getSimpleName());
+        }
+    }
+
+    private static Object createLambda(Object handler, Method method, ClassValue<Map<Method, MethodHandle>> factories,
+                                       Class<?> interfaceType, String interfaceMethod,
+                                       MethodType erasedType, MethodType instantiatedType)
+            throws IllegalAccessException, LambdaConversionException {
+        Map<Method, MethodHandle> cache = factories.get(method.getDeclaringClass());
+        MethodHandle factory = cache.get(method);
+        if (factory == null) {
+            factory = createLambdaFactory(method, interfaceType, interfaceMethod, erasedType, instantiatedType);
+            MethodHandle cached = cache.putIfAbsent(method, factory);
+            if (cached != null) {
+                factory = cached;
+            }
+        }
+        try {
+            return Modifier.isStatic(method.getModifiers()) ? factory.invoke() : factory.invoke(handler);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable throwable) {
+            // Factory only creates an instance, so it doesn't throw checked exceptions
+            throw new IllegalStateException("Failed to create invoker of " + method, throwable);
+        }
+    }
+
+    private static MethodHandle createLambdaFactory(Method method, Class<?> interfaceType, String interfaceMethod,
+                                                    MethodType erasedType, MethodType instantiatedType)
+            throws IllegalAccessException, LambdaConversionException {
+        Class<?> declaringClass = method.getDeclaringClass();
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        HandlerInvokers.class.getModule().addReads(declaringClass.getModule());
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(declaringClass, MethodHandles.lookup());
+        MethodHandle implementation = lookup.unreflect(method);
+        MethodType factoryType = isStatic
+                ? MethodType.methodType(interfaceType)
+                : MethodType.methodType(interfaceType, declaringClass);
+        CallSite callSite = LambdaMetafactory.metafactory(
+                lookup,
+                interfaceMethod,
+                factoryType,
+                erasedType,
+                implementation,
+                instantiatedType
+        );
+        return callSite.getTarget();
+    }
+
+    private static MethodHandle createMethodHandle(Object handler, Method method, Throwable lambdaError) {
+        try {
+            MethodHandle methodHandle = MethodHandles.publicLookup().unreflect(method);
+            return Modifier.isStatic(method.getModifiers()) ? methodHandle : methodHandle.bindTo(handler);
+        } catch (IllegalAccessException ex) {
+            IllegalArgumentException exception =
+                    new IllegalArgumentException("Handler method " + method + " is not accessible", ex);
+            exception.addSuppressed(lambdaError);
+            throw exception;
+        }
+    }
+
+    private static final class FactoryCache extends ClassValue<Map<Method, MethodHandle>> {
+        @Override
+        protected Map<Method, MethodHandle> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.handler;
+
+import com.ensarsarajcic.neovim.java.corerpc.message.NotificationMessage;
+import com.ensarsarajcic.neovim.java.corerpc.message.RequestMessage;
+
+import java.util.Set;
+
+/**
+ * Dispatcher of notifications/requests to annotated methods of a single handler type
+ * <p>
+ * Implementations are generated at compile time by {@link com.ensarsarajcic.neovim.java.handler.processor.NeovimHandlerProcessor}
+ * for each class declaring methods annotated with
+ * {@link com.ensarsarajcic.neovim.java.handler.annotations.NeovimNotificationHandler} or
+ * {@link com.ensarsarajcic.neovim.java.handler.annotations.NeovimRequestHandler}. They are placed next to the handler
+ * class, named as its binary name followed by {@link #CLASS_NAME_SUFFIX}, and have a public constructor accepting an
+ * {@link ArgumentDecoder}. Generated dispatchers switch on name of notification/request and call the handler
+ * methods directly, decoding typed parameters with prepared {@link ArgumentDecoder.Parameter} decoders
+ * <p>
+ * {@link NeovimHandlerManager} uses these when present, so registering handlers doesn't require reflection
+ *
+ * @param <T> handler type
+ */
+public interface NeovimHandlerDispatcher<T> {
+
+    /**
+     * Suffix appended to binary name of handler class to get the name of its dispatcher
+     */
+    String CLASS_NAME_SUFFIX = "$$NeovimHandlerDispatcher";
+
+    /**
+     * @return names of notifications handled by handler type
+     */
+    Set<String> getNotificationNames();
+
+    /**
+     * @return names of requests handled by handler type
+     */
+    Set<String> getRequestNames();
+
+    /**
+     * @param notificationName name of notification
+     * @return ordering key extractor declared for given notification, or null if it is not ordered
+     */
+    OrderingKeyExtractor getNotificationOrdering(String notificationName);
+
+    /**
+     * @param requestName name of request
+     * @return ordering key extractor declared for given request, or null if it is not ordered
+     */
+    OrderingKeyExtractor getRequestOrdering(String requestName);
+
+    /**
+     * @param requestName name of request
+     * @return true if result of handling given request should be sent back as response
+     */
+    boolean isResponding(String requestName);
+
+    /**
+     * Calls methods of handler handling given notification
+     * @param handler handler instance
+     * @param notificationMessage notification to handle
+     * @throws IllegalArgumentException if arguments can't be decoded
+     */
+    void dispatchNotification(T handler, NotificationMessage notificationMessage);
+
+    /**
+     * Calls method of handler handling given request
+     * @param handler handler instance
+     * @param requestMessage request to handle
+     * @return value returned by the handler method, or null for void methods
+     * @throws IllegalArgumentException if arguments can't be decoded
+     */
+    Object dispatchRequest(T handler, RequestMessage requestMessage);
+}
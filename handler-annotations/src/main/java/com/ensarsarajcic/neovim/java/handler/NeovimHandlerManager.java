@@ -26,17 +26,29 @@ package com.ensarsarajcic.neovim.java.handler;
 
 import com.ensarsarajcic.neovim.java.corerpc.client.RPCListener;
 import com.ensarsarajcic.neovim.java.corerpc.client.RPCStreamer;
+import com.ensarsarajcic.neovim.java.corerpc.message.NotificationMessage;
+import com.ensarsarajcic.neovim.java.corerpc.message.RPCError;
+import com.ensarsarajcic.neovim.java.corerpc.message.RequestMessage;
+import com.ensarsarajcic.neovim.java.corerpc.message.ResponseMessage;
 import com.ensarsarajcic.neovim.java.handler.annotations.NeovimNotificationHandler;
 import com.ensarsarajcic.neovim.java.handler.annotations.NeovimRequestHandler;
+import com.ensarsarajcic.neovim.java.handler.annotations.OrderedBy;
 import com.ensarsarajcic.neovim.java.handler.util.ReflectionUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Simple class used to register and connect {@link NeovimNotificationHandler} and {@link NeovimRequestHandler}
@@ -61,7 +73,14 @@ public final class NeovimHandlerManager {
     private static final Logger log = LoggerFactory.getLogger(NeovimHandlerManager.class);
 
     private NeovimHandlerProxy neovimHandlerProxy;
-    private Map<Object, Map.Entry<List<RPCListener.NotificationCallback>, List<RPCListener.RequestCallback>>> handlers = new HashMap<>();
+    private Executor requestHandlerExecutor;
+    private StripedExecutor orderedHandlerExecutor;
+    private ArgumentDecoder argumentDecoder;
+    // Generated dispatchers are bound to argument decoder of this manager, so they are cached per manager
+    private final Map<Class<?>, Optional<NeovimHandlerDispatcher<?>>> dispatchers = new ConcurrentHashMap<>();
+    private volatile RPCStreamer rpcStreamer;
+    // guarded by this
+    private Map<Object, Registration> handlers = new HashMap<>();
 
     /**
      * Creates a new {@link NeovimHandlerManager} with default {@link NeovimHandlerProxy} using {@link ImmediateExecutorService}
@@ -76,14 +95,77 @@ public final class NeovimHandlerManager {
      * @throws NullPointerException if passed {@link NeovimHandlerProxy} is null
      */
     public NeovimHandlerManager(NeovimHandlerProxy neovimHandlerProxy) {
+        this(neovimHandlerProxy, new ImmediateExecutorService());
+    }
+
+    /**
+     * Creates a new {@link NeovimHandlerManager} with given {@link NeovimHandlerProxy}, running request handlers
+     * on given {@link Executor}
+     * Neovim waits for responses to requests, so slow request handlers should be run on an executor which does not
+     * block the thread dispatching messages
+     * @param neovimHandlerProxy proxy to use for dispatching notifications/messages
+     * @param requestHandlerExecutor executor used to run request handlers
+     * @throws NullPointerException if passed {@link NeovimHandlerProxy} or {@link Executor} is null
+     */
+    public NeovimHandlerManager(NeovimHandlerProxy neovimHandlerProxy, Executor requestHandlerExecutor) {
         Objects.requireNonNull(neovimHandlerProxy, "neovimHandlerProxy is required to dispatch notifications/messages");
+        Objects.requireNonNull(requestHandlerExecutor, "requestHandlerExecutor is required to run request handlers");
         this.neovimHandlerProxy = neovimHandlerProxy;
+        this.requestHandlerExecutor = requestHandlerExecutor;
+        this.argumentDecoder = new ArgumentDecoder(new ObjectMapper(new MessagePackFactory()));
+    }
+
+    /**
+     * Creates a new {@link NeovimHandlerManager} with given {@link NeovimHandlerProxy}, running request handlers
+     * on given {@link Executor} and handlers annotated with {@link OrderedBy} on given {@link StripedExecutor}
+     * Messages with equal ordering keys are then handled in order, while different keys are handled in parallel
+     * Proxy needs to use {@link ImmediateExecutorService}, since any other executor could reorder messages before
+     * they reach ordered handler executor
+     * @param neovimHandlerProxy proxy to use for dispatching notifications/messages
+     * @param requestHandlerExecutor executor used to run request handlers
+     * @param orderedHandlerExecutor executor used to run handlers annotated with {@link OrderedBy}
+     * @throws NullPointerException if any of the arguments is null
+     * @throws IllegalArgumentException if proxy does not use {@link ImmediateExecutorService}
+     */
+    public NeovimHandlerManager(NeovimHandlerProxy neovimHandlerProxy, Executor requestHandlerExecutor,
+                                StripedExecutor orderedHandlerExecutor) {
+        this(neovimHandlerProxy, requestHandlerExecutor);
+        Objects.requireNonNull(orderedHandlerExecutor, "orderedHandlerExecutor is required to run ordered handlers");
+        requireImmediateProxy(neovimHandlerProxy);
+        this.orderedHandlerExecutor = orderedHandlerExecutor;
+    }
+
+    /**
+     * Creates a new {@link NeovimHandlerManager} with given {@link NeovimHandlerProxy}, running request handlers
+     * on given {@link Executor} and handlers annotated with {@link OrderedBy} on given {@link StripedExecutor},
+     * decoding arguments of handlers with typed parameters using given {@link ObjectMapper}
+     * Mapper needs to be a msgpack mapper, such as one made by NeovimJacksonModule in neovim-api module, which
+     * also supports neovim types like buffers, windows and tabpages
+     * @param neovimHandlerProxy proxy to use for dispatching notifications/messages
+     * @param requestHandlerExecutor executor used to run request handlers
+     * @param orderedHandlerExecutor executor used to run handlers annotated with {@link OrderedBy}, or null to run
+     *                               them right away
+     * @param argumentObjectMapper msgpack mapper used to decode typed arguments
+     * @throws NullPointerException if any of the arguments, except for orderedHandlerExecutor, is null
+     * @throws IllegalArgumentException if orderedHandlerExecutor is set, but proxy does not use
+     *                                  {@link ImmediateExecutorService}
+     */
+    public NeovimHandlerManager(NeovimHandlerProxy neovimHandlerProxy, Executor requestHandlerExecutor,
+                                StripedExecutor orderedHandlerExecutor, ObjectMapper argumentObjectMapper) {
+        this(neovimHandlerProxy, requestHandlerExecutor);
+        Objects.requireNonNull(argumentObjectMapper, "argumentObjectMapper is required to decode typed arguments");
+        if (orderedHandlerExecutor != null) {
+            requireImmediateProxy(neovimHandlerProxy);
+        }
+        this.orderedHandlerExecutor = orderedHandlerExecutor;
+        this.argumentDecoder = new ArgumentDecoder(argumentObjectMapper);
     }
 
     /**
      * Attaches to given {@link RPCStreamer}
      * {@link RPCStreamer} does not have to be attached to an actual connection at the time of this call, since this
      * only sets up the notification/request callbacks
+     * Responses of request handlers returning a value are sent to this {@link RPCStreamer}
      *
      * @param rpcStreamer streamer whose notifications/requests should be analysed
      * @throws NullPointerException if {@link RPCStreamer} is null
@@ -93,6 +175,7 @@ public final class NeovimHandlerManager {
         Objects.requireNonNull(rpcStreamer, "rpcStreamer may not be null");
         rpcStreamer.addNotificationCallback(neovimHandlerProxy);
         rpcStreamer.addRequestCallback(neovimHandlerProxy);
+        this.rpcStreamer = rpcStreamer;
     }
 
     /**
@@ -103,67 +186,232 @@ public final class NeovimHandlerManager {
      * <p>
      * This works for both static and instance methods
      * <p>
+     * Request handlers returning a value (or a {@link CompletionStage} of it) are responded to automatically, once the
+     * value is available. If they throw (or complete exceptionally), an error response is sent instead.
+     * Request handlers returning void are expected to respond by themselves
+     * Handlers annotated with {@link OrderedBy} are run on {@link StripedExecutor} of this manager, if there is one
+     * <p>
+     * Instead of a single message, annotated methods may declare typed parameters, such as {@code int},
+     * {@link String}, {@code List<String>} or POJOs. Arguments of messages are then decoded into those, in order
+     * Request handlers with typed parameters are always responded to automatically, with null for void methods
+     * Calls of annotated methods are compiled once, during registration, so dispatching a notification/request
+     * costs about as much as calling a lambda
+     * If handler class has a {@link NeovimHandlerDispatcher} generated by the annotation processor of this module,
+     * it is used instead, so registering handlers of that class doesn't need reflection at all
+     * <p>
      * Passed objects methods are prepared to be called when new notifications/requests arrive from attached {@link RPCStreamer}
      * This may be called prior to attaching, but no notifications/requests can arrive before attaching
+     * Handlers may be registered and unregistered from any thread
      *
      * @param handler object to search for annotated methods
+     * @throws IllegalArgumentException if an annotated method accepts a message of wrong type or is not accessible,
+     *                                  or if its {@link OrderedBy} extractor can't be instantiated
      */
     public void registerNeovimHandler(Object handler) {
         log.info("New neovim handler registered ({})", handler);
-        if (handlers.containsKey(handler)) {
-            return;
+        synchronized (this) {
+            if (handlers.containsKey(handler)) {
+                return;
+            }
         }
 
+        NeovimHandlerDispatcher<Object> dispatcher = findDispatcher(handler.getClass());
+        Registration registration = dispatcher != null
+                ? createRegistration(handler, dispatcher)
+                : createReflectiveRegistration(handler);
+
+        synchronized (this) {
+            if (handlers.putIfAbsent(handler, registration) != null) {
+                return;
+            }
+            registration.notificationCallbacks.forEach(entry ->
+                    neovimHandlerProxy.addNotificationCallback(entry.getKey(), entry.getValue()));
+            registration.requestCallbacks.forEach(entry ->
+                    neovimHandlerProxy.addRequestCallback(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    private Registration createRegistration(Object handler, NeovimHandlerDispatcher<Object> dispatcher) {
+        Registration registration = new Registration();
+        for (String notificationName : dispatcher.getNotificationNames()) {
+            addNotificationCallback(registration, notificationName,
+                    notificationMessage -> dispatcher.dispatchNotification(handler, notificationMessage),
+                    dispatcher.getNotificationOrdering(notificationName));
+        }
+        for (String requestName : dispatcher.getRequestNames()) {
+            addRequestCallback(registration, requestName,
+                    requestMessage -> dispatcher.dispatchRequest(handler, requestMessage),
+                    dispatcher.isResponding(requestName), dispatcher.getRequestOrdering(requestName));
+        }
+        return registration;
+    }
+
+    private Registration createReflectiveRegistration(Object handler) {
         List<Map.Entry<Method, NeovimNotificationHandler>> notificationHandlers =
                 ReflectionUtils.getMethodsAnnotatedWith(handler.getClass(), NeovimNotificationHandler.class);
         List<Map.Entry<Method, NeovimRequestHandler>> requestHandlers =
                 ReflectionUtils.getMethodsAnnotatedWith(handler.getClass(), NeovimRequestHandler.class);
 
-        handlers.put(handler, new AbstractMap.SimpleEntry<>(new ArrayList<>(), new ArrayList<>()));
-
-        List<RPCListener.NotificationCallback> notificationCallbacks = notificationHandlers.stream()
-                .map(methodNeovimNotificationHandlerEntry -> {
-                    String notificationName = methodNeovimNotificationHandlerEntry.getValue().value();
-                    return (RPCListener.NotificationCallback) notificationMessage -> {
-                        if (notificationName.equals(notificationMessage.getName())) {
-                            try {
-                                if (Modifier.isStatic(methodNeovimNotificationHandlerEntry.getKey().getModifiers())) {
-                                    methodNeovimNotificationHandlerEntry.getKey().invoke(null, notificationMessage);
-                                } else {
-                                    methodNeovimNotificationHandlerEntry.getKey().invoke(handler, notificationMessage);
-                                }
-                            } catch (IllegalAccessException | InvocationTargetException e) {
-                                log.error("Error ocurred while invoking handler for notification: " + notificationName, e);
-                                e.printStackTrace();
-                                throw new RuntimeException(e);
-                            }
-                        }
-                    };
-                })
-                .collect(Collectors.toList());
-
-        notificationCallbacks.forEach(neovimHandlerProxy::addNotificationCallback);
-        handlers.get(handler).getKey().addAll(notificationCallbacks);
-
-        List<RPCListener.RequestCallback> requestCallbacks = requestHandlers.stream()
-                .map(methodNeovimRequestHandlerEntry -> {
-                    String requestName = methodNeovimRequestHandlerEntry.getValue().value();
-                    return (RPCListener.RequestCallback) requestMessage -> {
-                        if (requestName.equals(requestMessage.getMethod())) {
-                            try {
-                                methodNeovimRequestHandlerEntry.getKey().invoke(handler, requestMessage);
-                            } catch (IllegalAccessException | InvocationTargetException e) {
-                                log.error("Error ocurred while invoking handler for request: " + requestName, e);
-                                e.printStackTrace();
-                                throw new RuntimeException(e);
-                            }
-                        }
-                    };
-                })
-                .collect(Collectors.toList());
-
-        requestCallbacks.forEach(neovimHandlerProxy::addRequestCallback);
-        handlers.get(handler).getValue().addAll(requestCallbacks);
+        Registration registration = new Registration();
+        for (Map.Entry<Method, NeovimNotificationHandler> entry : notificationHandlers) {
+            addNotificationCallback(registration, entry.getValue().value(),
+                    createNotificationInvoker(handler, entry.getKey()), getOrderingKeyExtractor(entry.getKey()));
+        }
+        for (Map.Entry<Method, NeovimRequestHandler> entry : requestHandlers) {
+            boolean respond = entry.getKey().getReturnType() != void.class
+                    || HandlerArguments.isTyped(entry.getKey(), RequestMessage.class);
+            addRequestCallback(registration, entry.getValue().value(), createRequestInvoker(handler, entry.getKey()),
+                    respond, getOrderingKeyExtractor(entry.getKey()));
+        }
+        return registration;
+    }
+
+    private static void requireImmediateProxy(NeovimHandlerProxy neovimHandlerProxy) {
+        if (!neovimHandlerProxy.dispatchesImmediately()) {
+            throw new IllegalArgumentException(
+                    "Ordered handlers require a NeovimHandlerProxy using ImmediateExecutorService");
+        }
+    }
+
+    private void addNotificationCallback(Registration registration, String notificationName,
+                                         Consumer<NotificationMessage> invoker,
+                                         OrderingKeyExtractor orderingKeyExtractor) {
+        RPCListener.NotificationCallback callback = notificationMessage -> {
+            try {
+                invoker.accept(notificationMessage);
+            } catch (RuntimeException e) {
+                log.error("Error ocurred while invoking handler for notification: " + notificationName, e);
+                throw e;
+            }
+        };
+        if (orderingKeyExtractor != null && orderedHandlerExecutor != null) {
+            RPCListener.NotificationCallback unordered = callback;
+            callback = notificationMessage -> orderedHandlerExecutor.execute(
+                    orderingKeyExtractor.getOrderingKey(notificationMessage.getName(), notificationMessage.getArguments()),
+                    () -> unordered.notificationReceived(notificationMessage)
+            );
+        }
+        registration.notificationCallbacks.add(new AbstractMap.SimpleEntry<>(notificationName, callback));
+    }
+
+    private void addRequestCallback(Registration registration, String requestName,
+                                    Function<RequestMessage, Object> invoker, boolean respond,
+                                    OrderingKeyExtractor orderingKeyExtractor) {
+        RPCListener.RequestCallback callback;
+        if (orderingKeyExtractor != null && orderedHandlerExecutor != null) {
+            callback = requestMessage -> orderedHandlerExecutor.execute(
+                    orderingKeyExtractor.getOrderingKey(requestMessage.getMethod(), requestMessage.getArguments()),
+                    () -> handleRequest(requestName, invoker, respond, requestMessage)
+            );
+        } else {
+            callback = requestMessage ->
+                    requestHandlerExecutor.execute(() -> handleRequest(requestName, invoker, respond, requestMessage));
+        }
+        registration.requestCallbacks.add(new AbstractMap.SimpleEntry<>(requestName, callback));
+    }
+
+    @SuppressWarnings("unchecked")
+    private NeovimHandlerDispatcher<Object> findDispatcher(Class<?> handlerType) {
+        return (NeovimHandlerDispatcher<Object>) dispatchers.computeIfAbsent(handlerType, type -> {
+            try {
+                Class<?> dispatcherType = Class.forName(
+                        type.getName() + NeovimHandlerDispatcher.CLASS_NAME_SUFFIX, true, type.getClassLoader());
+                return Optional.of((NeovimHandlerDispatcher<?>)
+                        dispatcherType.getConstructor(ArgumentDecoder.class).newInstance(argumentDecoder));
+            } catch (ClassNotFoundException e) {
+                log.debug("No generated dispatcher found for {}, falling back to reflection", type);
+            } catch (ReflectiveOperationException | ClassCastException e) {
+                log.warn("Failed to create generated dispatcher for " + type + ", falling back to reflection", e);
+            }
+            return Optional.empty();
+        }).orElse(null);
+    }
+
+    private Consumer<NotificationMessage> createNotificationInvoker(Object handler, Method method) {
+        if (!HandlerArguments.isTyped(method, NotificationMessage.class)) {
+            return HandlerInvokers.create(handler, method, NotificationMessage.class);
+        }
+        Function<List<?>, Object[]> decoder = HandlerArguments.createDecoder(argumentDecoder, method);
+        Function<Object[], Object> invoker = HandlerInvokers.createSpreading(handler, method);
+        return notificationMessage -> invoker.apply(decoder.apply(notificationMessage.getArguments()));
+    }
+
+    private Function<RequestMessage, Object> createRequestInvoker(Object handler, Method method) {
+        if (!HandlerArguments.isTyped(method, RequestMessage.class)) {
+            return HandlerInvokers.createFunction(handler, method, RequestMessage.class);
+        }
+        Function<List<?>, Object[]> decoder = HandlerArguments.createDecoder(argumentDecoder, method);
+        Function<Object[], Object> invoker = HandlerInvokers.createSpreading(handler, method);
+        return requestMessage -> invoker.apply(decoder.apply(requestMessage.getArguments()));
+    }
+
+    private static OrderingKeyExtractor getOrderingKeyExtractor(Method method) {
+        OrderedBy orderedBy = method.getAnnotation(OrderedBy.class);
+        if (orderedBy == null) {
+            return null;
+        }
+        if (orderedBy.extractor() != OrderingKeyExtractor.class) {
+            try {
+                return orderedBy.extractor().getConstructor().newInstance();
+            } catch (NoSuchMethodException | InstantiationException | IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalArgumentException("Failed to create ordering key extractor for method: " + method, e);
+            }
+        }
+        switch (orderedBy.value()) {
+            case FIRST_ARGUMENT:
+                return OrderingKeyExtractor.FIRST_ARGUMENT;
+            case NAME:
+            default:
+                return OrderingKeyExtractor.NAME;
+        }
+    }
+
+    private void handleRequest(String requestName, Function<RequestMessage, Object> invoker, boolean respond,
+                               RequestMessage requestMessage) {
+        Object result;
+        try {
+            result = invoker.apply(requestMessage);
+        } catch (RuntimeException e) {
+            log.error("Error ocurred while invoking handler for request: " + requestName, e);
+            if (!respond) {
+                throw e;
+            }
+            sendResponse(requestMessage, new ResponseMessage.Builder(toRPCError(e)));
+            return;
+        }
+        if (!respond) {
+            return;
+        }
+        if (result instanceof CompletionStage) {
+            ((CompletionStage<?>) result).whenComplete((value, error) -> {
+                if (error != null) {
+                    log.error("Handler for request " + requestName + " completed exceptionally", error);
+                    sendResponse(requestMessage, new ResponseMessage.Builder(toRPCError(error)));
+                } else {
+                    sendResponse(requestMessage, new ResponseMessage.Builder(value));
+                }
+            });
+        } else {
+            sendResponse(requestMessage, new ResponseMessage.Builder(result));
+        }
+    }
+
+    private void sendResponse(RequestMessage requestMessage, ResponseMessage.Builder responseMessage) {
+        RPCStreamer rpcStreamer = this.rpcStreamer;
+        if (rpcStreamer == null) {
+            log.error("Can't respond to request {}, handler manager is not attached to a streamer", requestMessage);
+            return;
+        }
+        try {
+            rpcStreamer.send(responseMessage.withId(requestMessage.getId()).build());
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to send response to request " + requestMessage.getMethod(), e);
+        }
+    }
+
+    private static RPCError toRPCError(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return new RPCError(0, cause.getMessage() != null ? cause.getMessage() : cause.toString());
     }
 
     /**
@@ -175,6 +423,23 @@ public final class NeovimHandlerManager {
      */
     public void unregisterNeovimHandler(Object handler) {
         log.info("Neovim handler unregistered ({})", handler);
-        handlers.remove(handler);
+        synchronized (this) {
+            Registration registration = handlers.remove(handler);
+            if (registration == null) {
+                return;
+            }
+            registration.notificationCallbacks.forEach(entry ->
+                    neovimHandlerProxy.removeNotificationCallback(entry.getKey(), entry.getValue()));
+            registration.requestCallbacks.forEach(entry ->
+                    neovimHandlerProxy.removeRequestCallback(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    /**
+     * Callbacks registered for a single handler, paired with names of notifications/requests they handle
+     */
+    private static final class Registration {
+        private final List<Map.Entry<String, RPCListener.NotificationCallback>> notificationCallbacks = new ArrayList<>();
+        private final List<Map.Entry<String, RPCListener.RequestCallback>> requestCallbacks = new ArrayList<>();
     }
 }
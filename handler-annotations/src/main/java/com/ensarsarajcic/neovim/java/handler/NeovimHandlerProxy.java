@@ -30,9 +30,11 @@ import com.ensarsarajcic.neovim.java.corerpc.message.RequestMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 
 /**
@@ -40,6 +42,9 @@ import java.util.concurrent.ExecutorService;
  * and {@link com.ensarsarajcic.neovim.java.corerpc.client.RPCListener.NotificationCallback} and as a listener
  * <p>
  * It passes all notifications/requests to contained listeners through a {@link ExecutorService}
+ * Listeners registered with a name are looked up by name of the notification/request, so only matching listeners
+ * are submitted to the {@link ExecutorService}, no matter how many listeners there are
+ * Listeners may be added and removed from any thread, even while notifications/requests are being dispatched
  * By default {@link ImmediateExecutorService} is used
  * Default instance with {@link ImmediateExecutorService} is used by default in {@link NeovimHandlerManager}
  * <p>
@@ -59,8 +64,12 @@ import java.util.concurrent.ExecutorService;
 public final class NeovimHandlerProxy implements RPCListener.RequestCallback, RPCListener.NotificationCallback {
     private static final Logger log = LoggerFactory.getLogger(NeovimHandlerProxy.class);
 
-    private List<RPCListener.NotificationCallback> notificationCallbacks = new ArrayList<>();
-    private List<RPCListener.RequestCallback> requestCallbacks = new ArrayList<>();
+    // Callbacks receiving all notifications/requests
+    private final List<RPCListener.NotificationCallback> notificationCallbacks = new CopyOnWriteArrayList<>();
+    private final List<RPCListener.RequestCallback> requestCallbacks = new CopyOnWriteArrayList<>();
+    // Callbacks receiving notifications/requests with a single name
+    private final Map<String, List<RPCListener.NotificationCallback>> namedNotificationCallbacks = new ConcurrentHashMap<>();
+    private final Map<String, List<RPCListener.RequestCallback>> namedRequestCallbacks = new ConcurrentHashMap<>();
 
     private ExecutorService executorService;
 
@@ -73,35 +82,112 @@ public final class NeovimHandlerProxy implements RPCListener.RequestCallback, RP
         this.executorService = executorService;
     }
 
+    /**
+     * @return true if callbacks are called right away, on the thread passing notifications/requests to this proxy
+     */
+    boolean dispatchesImmediately() {
+        return executorService instanceof ImmediateExecutorService;
+    }
+
+    /**
+     * Adds a callback receiving all notifications
+     * Prefer {@link #addNotificationCallback(String, RPCListener.NotificationCallback)} when only a single
+     * notification is of interest, since those callbacks are looked up by name
+     * @param notificationCallback callback to add
+     */
     public void addNotificationCallback(RPCListener.NotificationCallback notificationCallback) {
         log.info("Registered a new notification callback: {}", notificationCallback);
         this.notificationCallbacks.add(notificationCallback);
     }
 
+    /**
+     * Adds a callback receiving only notifications with given name
+     * @param name name of notifications
+     * @param notificationCallback callback to add
+     */
+    public void addNotificationCallback(String name, RPCListener.NotificationCallback notificationCallback) {
+        Objects.requireNonNull(name, "name is required to register a named callback");
+        log.info("Registered a new notification callback for {}: {}", name, notificationCallback);
+        addNamed(namedNotificationCallbacks, name, notificationCallback);
+    }
+
     public void addRequestCallback(RPCListener.RequestCallback requestCallback) {
         log.info("Registered a new request callback: {}", requestCallback);
         this.requestCallbacks.add(requestCallback);
     }
 
+    /**
+     * Adds a callback receiving only requests with given method name
+     * @param name name of request method
+     * @param requestCallback callback to add
+     */
+    public void addRequestCallback(String name, RPCListener.RequestCallback requestCallback) {
+        Objects.requireNonNull(name, "name is required to register a named callback");
+        log.info("Registered a new request callback for {}: {}", name, requestCallback);
+        addNamed(namedRequestCallbacks, name, requestCallback);
+    }
+
     public void removeNotificationCallback(RPCListener.NotificationCallback notificationCallback) {
         log.info("Removed a notification callback: {}", notificationCallback);
         this.notificationCallbacks.remove(notificationCallback);
     }
 
+    public void removeNotificationCallback(String name, RPCListener.NotificationCallback notificationCallback) {
+        log.info("Removed a notification callback for {}: {}", name, notificationCallback);
+        removeNamed(namedNotificationCallbacks, name, notificationCallback);
+    }
+
     public void removeRequestCallback(RPCListener.RequestCallback requestCallback) {
         log.info("Removed a request callback: {}", requestCallback);
         this.requestCallbacks.remove(requestCallback);
     }
 
+    public void removeRequestCallback(String name, RPCListener.RequestCallback requestCallback) {
+        log.info("Removed a request callback for {}: {}", name, requestCallback);
+        removeNamed(namedRequestCallbacks, name, requestCallback);
+    }
+
     @Override
     public void notificationReceived(NotificationMessage notificationMessage) {
         log.debug("Passing down a notification: {}", notificationMessage);
-        this.notificationCallbacks.forEach(it -> executorService.submit(() -> it.notificationReceived(notificationMessage)));
+        List<RPCListener.NotificationCallback> named = namedNotificationCallbacks.get(notificationMessage.getName());
+        if (named != null) {
+            for (RPCListener.NotificationCallback callback : named) {
+                executorService.submit(() -> callback.notificationReceived(notificationMessage));
+            }
+        }
+        for (RPCListener.NotificationCallback callback : notificationCallbacks) {
+            executorService.submit(() -> callback.notificationReceived(notificationMessage));
+        }
     }
 
     @Override
     public void requestReceived(RequestMessage requestMessage) {
         log.debug("Passing down a request: {}", requestMessage);
-        this.requestCallbacks.forEach(it -> executorService.submit(() -> it.requestReceived(requestMessage)));
+        List<RPCListener.RequestCallback> named = namedRequestCallbacks.get(requestMessage.getMethod());
+        if (named != null) {
+            for (RPCListener.RequestCallback callback : named) {
+                executorService.submit(() -> callback.requestReceived(requestMessage));
+            }
+        }
+        for (RPCListener.RequestCallback callback : requestCallbacks) {
+            executorService.submit(() -> callback.requestReceived(requestMessage));
+        }
+    }
+
+    private static <T> void addNamed(Map<String, List<T>> callbacks, String name, T callback) {
+        // Done atomically with removal of empty lists, so callbacks can't be added to a removed list
+        callbacks.compute(name, (key, list) -> {
+            List<T> result = list != null ? list : new CopyOnWriteArrayList<>();
+            result.add(callback);
+            return result;
+        });
+    }
+
+    private static <T> void removeNamed(Map<String, List<T>> callbacks, String name, T callback) {
+        callbacks.computeIfPresent(name, (key, list) -> {
+            list.remove(callback);
+            return list.isEmpty() ? null : list;
+        });
     }
 }
@@ -0,0 +1,61 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.handler;
+
+import java.util.List;
+
+/**
+ * Function deciding which notifications/requests must be handled in order
+ * Notifications/requests resolving to equal keys are handled one after another, in order of arrival, while those
+ * with different keys may be handled in parallel by a {@link StripedExecutor}
+ * <p>
+ * Custom implementations used with {@link com.ensarsarajcic.neovim.java.handler.annotations.OrderedBy} need to have
+ * a public no-argument constructor
+ */
+@FunctionalInterface
+public interface OrderingKeyExtractor {
+
+    /**
+     * Orders by name of notification/request, so all messages with the same name are handled in order
+     */
+    OrderingKeyExtractor NAME = (name, arguments) -> name;
+
+    /**
+     * Orders by first argument of notification/request (such as buffer handle of buffer events), falling back to
+     * name of notification/request when there are no arguments
+     */
+    OrderingKeyExtractor FIRST_ARGUMENT = (name, arguments) ->
+            arguments != null && !arguments.isEmpty() && arguments.get(0) != null ? arguments.get(0) : name;
+
+    /**
+     * Extracts ordering key of a notification/request
+     * Returned key needs to properly implement {@link Object#equals(Object)} and {@link Object#hashCode()}
+     *
+     * @param name name of notification or method of request
+     * @param arguments arguments of notification/request
+     * @return ordering key, or null if message may be handled without ordering
+     */
+    Object getOrderingKey(String name, List<?> arguments);
+}
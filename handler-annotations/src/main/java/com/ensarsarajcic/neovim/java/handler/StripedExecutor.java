@@ -0,0 +1,155 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.handler;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Executor running tasks sharing a key one after another, in order of submission, while tasks with different keys
+ * are run in parallel on the underlying {@link Executor}
+ * <p>
+ * Keys are hashed to a fixed number of stripes (lanes), each of which runs at most one task at a time, so keys
+ * sharing a stripe are ordered with respect to each other as well. Stripes don't own threads, they just pass
+ * their tasks one by one to the underlying {@link Executor}, so idle stripes cost nothing
+ * <p>
+ * Example:
+ * <pre>
+ *     {@code
+ *     StripedExecutor stripedExecutor = new StripedExecutor(Executors.newFixedThreadPool(4));
+ *     NeovimHandlerManager neovimHandlerManager = new NeovimHandlerManager(
+ *             new NeovimHandlerProxy(), new ImmediateExecutorService(), stripedExecutor);
+ *     }
+ * </pre>
+ */
+public final class StripedExecutor {
+
+    private final Executor executor;
+    private final Stripe[] stripes;
+
+    /**
+     * Creates a new {@link StripedExecutor} with four stripes per available processor
+     * @param executor executor actually running the tasks
+     * @throws NullPointerException if executor is null
+     */
+    public StripedExecutor(Executor executor) {
+        this(executor, Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * Creates a new {@link StripedExecutor}
+     * @param executor executor actually running the tasks
+     * @param stripeCount number of stripes, limiting how many tasks may run in parallel
+     * @throws NullPointerException if executor is null
+     * @throws IllegalArgumentException if stripeCount is not positive
+     */
+    public StripedExecutor(Executor executor, int stripeCount) {
+        Objects.requireNonNull(executor, "executor is required to run tasks");
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("stripeCount must be positive, got: " + stripeCount);
+        }
+        this.executor = executor;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Runs given task after all previously submitted tasks with an equal key
+     * Tasks with null key are not ordered and are passed straight to the underlying {@link Executor}
+     *
+     * @param key ordering key, may be null
+     * @param task task to run
+     * @throws NullPointerException if task is null
+     * @throws RejectedExecutionException if underlying executor rejects the task
+     */
+    public void execute(Object key, Runnable task) {
+        Objects.requireNonNull(task, "task may not be null");
+        if (key == null) {
+            executor.execute(task);
+            return;
+        }
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        stripes[Math.floorMod(hash, stripes.length)].execute(task);
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    private final class Stripe implements Runnable {
+        // guarded by this
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+        private boolean running;
+
+        void execute(Runnable task) {
+            synchronized (this) {
+                tasks.add(task);
+                if (running) {
+                    return;
+                }
+                running = true;
+            }
+            schedule();
+        }
+
+        @Override
+        public void run() {
+            Runnable task;
+            synchronized (this) {
+                task = tasks.poll();
+            }
+            try {
+                task.run();
+            } finally {
+                boolean pending;
+                synchronized (this) {
+                    pending = !tasks.isEmpty();
+                    running = pending;
+                }
+                if (pending) {
+                    schedule();
+                }
+            }
+        }
+
+        private void schedule() {
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    tasks.clear();
+                    running = false;
+                }
+                throw e;
+            }
+        }
+    }
+}
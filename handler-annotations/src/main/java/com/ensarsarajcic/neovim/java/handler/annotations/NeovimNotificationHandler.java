@@ -32,7 +32,8 @@ import java.lang.annotation.*;
  * <p>
  * To actually use this, object with this method needs to be registered in {@link com.ensarsarajcic.neovim.java.handler.NeovimHandlerManager}
  * <p>
- * Currently, only single argument methods are supported and that argument must be of {@link com.ensarsarajcic.neovim.java.corerpc.message.NotificationMessage} type
+ * Method may either accept a single argument of {@link com.ensarsarajcic.neovim.java.corerpc.message.NotificationMessage} type,
+ * or declare typed parameters, which arguments of the notification are decoded into, in order
  */
 @Inherited
 @Retention(RetentionPolicy.RUNTIME)
@@ -32,7 +32,13 @@ import java.lang.annotation.*;
  * <p>
  * To actually use this, object with this method needs to be registered in {@link com.ensarsarajcic.neovim.java.handler.NeovimHandlerManager}
  * <p>
- * Currently, only single argument methods are supported and that argument must be of {@link com.ensarsarajcic.neovim.java.corerpc.message.RequestMessage} type
+ * Method may either accept a single argument of {@link com.ensarsarajcic.neovim.java.corerpc.message.RequestMessage} type,
+ * or declare typed parameters, which arguments of the request are decoded into, in order
+ * <p>
+ * If the method returns a value, it is sent back as response to the request. If it returns a
+ * {@link java.util.concurrent.CompletionStage}, response is sent once it completes, so long running work doesn't have
+ * to block the handler. Exceptions are sent back as error responses. Methods returning void need to send
+ * the response by themselves.
  */
 @Inherited
 @Retention(RetentionPolicy.RUNTIME)
@@ -0,0 +1,81 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.handler.annotations;
+
+import com.ensarsarajcic.neovim.java.handler.OrderingKeyExtractor;
+
+import java.lang.annotation.*;
+
+/**
+ * Annotation used together with {@link NeovimNotificationHandler} or {@link NeovimRequestHandler} to declare which
+ * notifications/requests this handler needs to receive in order
+ * <p>
+ * Annotated handlers are run on {@link com.ensarsarajcic.neovim.java.handler.StripedExecutor} passed to
+ * {@link com.ensarsarajcic.neovim.java.handler.NeovimHandlerManager}, so messages with equal ordering keys are
+ * handled one after another, while messages with different keys are handled in parallel
+ * If manager has no {@link com.ensarsarajcic.neovim.java.handler.StripedExecutor}, handler is called right away,
+ * which keeps the order as well
+ * Either way, order is only kept if {@link com.ensarsarajcic.neovim.java.handler.NeovimHandlerProxy} of the manager
+ * uses {@link com.ensarsarajcic.neovim.java.handler.ImmediateExecutorService} (the default), since any other executor
+ * may reorder messages before handler gets them. Manager with a striped executor rejects other proxies
+ * <p>
+ * Example, handling events of each buffer in order, while different buffers are handled in parallel:
+ * <pre>
+ *     {@code
+ *     @NeovimNotificationHandler("nvim_buf_lines_event")
+ *     @OrderedBy(OrderedBy.Key.FIRST_ARGUMENT)
+ *     public void linesChanged(NotificationMessage notificationMessage)
+ *     }
+ * </pre>
+ */
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface OrderedBy {
+    /**
+     * Built in ordering key, ignored if {@link #extractor()} is set
+     *
+     * @return ordering key
+     */
+    Key value() default Key.NAME;
+
+    /**
+     * Custom ordering key extractor, which needs to have a public no-argument constructor
+     *
+     * @return ordering key extractor type
+     */
+    Class<? extends OrderingKeyExtractor> extractor() default OrderingKeyExtractor.class;
+
+    enum Key {
+        /**
+         * @see OrderingKeyExtractor#NAME
+         */
+        NAME,
+        /**
+         * @see OrderingKeyExtractor#FIRST_ARGUMENT
+         */
+        FIRST_ARGUMENT
+    }
+}
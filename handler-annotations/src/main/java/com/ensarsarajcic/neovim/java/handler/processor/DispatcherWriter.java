@@ -0,0 +1,260 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.handler.processor;
+
+import java.util.Collection;
+import java.util.StringJoiner;
+
+/**
+ * Writes source of a generated {@link com.ensarsarajcic.neovim.java.handler.NeovimHandlerDispatcher}
+ */
+final class DispatcherWriter {
+
+    private static final String DISPATCHER = "com.ensarsarajcic.neovim.java.handler.NeovimHandlerDispatcher";
+    private static final String ARGUMENT_DECODER = "com.ensarsarajcic.neovim.java.handler.ArgumentDecoder";
+    private static final String ORDERING_KEY_EXTRACTOR = "com.ensarsarajcic.neovim.java.handler.OrderingKeyExtractor";
+    private static final String NOTIFICATION_MESSAGE = "com.ensarsarajcic.neovim.java.corerpc.message.NotificationMessage";
+    private static final String REQUEST_MESSAGE = "com.ensarsarajcic.neovim.java.corerpc.message.RequestMessage";
+
+    private final String packageName;
+    private final String simpleName;
+    private final String handlerType;
+    private final Collection<NeovimHandlerProcessor.HandlerMethod> notificationMethods;
+    private final Collection<NeovimHandlerProcessor.HandlerMethod> requestMethods;
+    private final StringBuilder source = new StringBuilder();
+
+    DispatcherWriter(String packageName, String simpleName, String handlerType,
+                     Collection<NeovimHandlerProcessor.HandlerMethod> notificationMethods,
+                     Collection<NeovimHandlerProcessor.HandlerMethod> requestMethods) {
+        this.packageName = packageName;
+        this.simpleName = simpleName;
+        this.handlerType = handlerType;
+        this.notificationMethods = notificationMethods;
+        this.requestMethods = requestMethods;
+    }
+
+    String write() {
+        if (!packageName.isEmpty()) {
+            line(0, "package " + packageName + ";");
+            line(0, "");
+        }
+        // javax.annotation.processing.Generated is not used, since handler modules don't have to read java.compiler
+        line(0, "/**");
+        line(0, " * Generated by " + NeovimHandlerProcessor.class.getName() + ", do not edit");
+        line(0, " */");
+        line(0, "@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+        line(0, "public final class " + simpleName + " implements " + DISPATCHER + "<" + handlerType + "> {");
+        line(0, "");
+        writeFields();
+        writeConstructor();
+        writeNames("getNotificationNames", notificationMethods);
+        writeNames("getRequestNames", requestMethods);
+        writeOrdering("getNotificationOrdering", notificationMethods);
+        writeOrdering("getRequestOrdering", requestMethods);
+        writeResponding();
+        writeDispatch("dispatchNotification", "void", NOTIFICATION_MESSAGE, "getName", notificationMethods);
+        writeDispatch("dispatchRequest", "Object", REQUEST_MESSAGE, "getMethod", requestMethods);
+        source.setLength(source.length() - 1);
+        line(0, "}");
+        return source.toString();
+    }
+
+    private void writeFields() {
+        line(1, "private static final java.util.Set<String> NOTIFICATION_NAMES = " + setOf(notificationMethods) + ";");
+        line(1, "private static final java.util.Set<String> REQUEST_NAMES = " + setOf(requestMethods) + ";");
+        int index = 0;
+        for (NeovimHandlerProcessor.HandlerMethod method : notificationMethods) {
+            writeMethodFields("n" + index++, method);
+        }
+        index = 0;
+        for (NeovimHandlerProcessor.HandlerMethod method : requestMethods) {
+            writeMethodFields("r" + index++, method);
+        }
+        line(0, "");
+    }
+
+    private void writeMethodFields(String prefix, NeovimHandlerProcessor.HandlerMethod method) {
+        if (method.ordering != null) {
+            line(1, "private final " + ORDERING_KEY_EXTRACTOR + " " + prefix + "Ordering = " + method.ordering + ";");
+        }
+        for (int i = 0; i < method.parameterTypes.size(); i++) {
+            line(1, "private final " + ARGUMENT_DECODER + ".Parameter " + prefix + "Argument" + i + ";");
+        }
+    }
+
+    private void writeConstructor() {
+        line(1, "public " + simpleName + "(" + ARGUMENT_DECODER + " argumentDecoder) {");
+        writeDecoderInitialization("n", notificationMethods);
+        writeDecoderInitialization("r", requestMethods);
+        line(1, "}");
+        line(0, "");
+    }
+
+    private void writeDecoderInitialization(String prefix, Collection<NeovimHandlerProcessor.HandlerMethod> methods) {
+        int index = 0;
+        for (NeovimHandlerProcessor.HandlerMethod method : methods) {
+            for (int i = 0; i < method.parameterTypes.size(); i++) {
+                line(2, "this." + prefix + index + "Argument" + i + " = argumentDecoder.forType("
+                        + quote(method.parameterTypes.get(i)) + ");");
+            }
+            index++;
+        }
+    }
+
+    private void writeNames(String methodName, Collection<NeovimHandlerProcessor.HandlerMethod> methods) {
+        line(1, "@Override");
+        line(1, "public java.util.Set<String> " + methodName + "() {");
+        line(2, "return " + (methods == notificationMethods ? "NOTIFICATION_NAMES" : "REQUEST_NAMES") + ";");
+        line(1, "}");
+        line(0, "");
+    }
+
+    private void writeOrdering(String methodName, Collection<NeovimHandlerProcessor.HandlerMethod> methods) {
+        String prefix = methods == notificationMethods ? "n" : "r";
+        line(1, "@Override");
+        line(1, "public " + ORDERING_KEY_EXTRACTOR + " " + methodName + "(String name) {");
+        line(2, "switch (name) {");
+        int index = 0;
+        for (NeovimHandlerProcessor.HandlerMethod method : methods) {
+            if (method.ordering != null) {
+                line(3, "case " + quote(method.name) + ":");
+                line(4, "return " + prefix + index + "Ordering;");
+            }
+            index++;
+        }
+        line(3, "default:");
+        line(4, "return null;");
+        line(2, "}");
+        line(1, "}");
+        line(0, "");
+    }
+
+    private void writeResponding() {
+        line(1, "@Override");
+        line(1, "public boolean isResponding(String name) {");
+        line(2, "switch (name) {");
+        for (NeovimHandlerProcessor.HandlerMethod method : requestMethods) {
+            if (method.responding) {
+                line(3, "case " + quote(method.name) + ":");
+            }
+        }
+        if (requestMethods.stream().anyMatch(method -> method.responding)) {
+            line(4, "return true;");
+        }
+        line(3, "default:");
+        line(4, "return false;");
+        line(2, "}");
+        line(1, "}");
+        line(0, "");
+    }
+
+    private void writeDispatch(String methodName, String returnType, String messageType, String nameGetter,
+                               Collection<NeovimHandlerProcessor.HandlerMethod> methods) {
+        boolean request = methods == requestMethods;
+        String prefix = request ? "r" : "n";
+        line(1, "@Override");
+        line(1, "public " + returnType + " " + methodName + "(" + handlerType + " handler, " + messageType + " message) {");
+        line(2, "switch (message." + nameGetter + "()) {");
+        int index = 0;
+        for (NeovimHandlerProcessor.HandlerMethod method : methods) {
+            line(3, "case " + quote(method.name) + ":");
+            int indent = 4;
+            if (method.throwsExceptions) {
+                line(4, "try {");
+                indent = 5;
+            }
+            String call = call(prefix + index, method);
+            if (!request) {
+                line(indent, call + ";");
+                if (!method.throwsExceptions) {
+                    line(indent, "break;");
+                }
+            } else if (method.returnsValue) {
+                line(indent, "return " + call + ";");
+            } else {
+                line(indent, call + ";");
+                line(indent, "return null;");
+            }
+            if (method.throwsExceptions) {
+                line(4, "} catch (RuntimeException | Error e) {");
+                line(5, "throw e;");
+                line(4, "} catch (Exception e) {");
+                line(5, "throw new RuntimeException(e);");
+                line(4, "}");
+                if (!request) {
+                    line(4, "break;");
+                }
+            }
+            index++;
+        }
+        line(3, "default:");
+        line(4, "throw new IllegalArgumentException(\"Not handled: \" + message." + nameGetter + "());");
+        line(2, "}");
+        line(1, "}");
+        line(0, "");
+    }
+
+    private String call(String prefix, NeovimHandlerProcessor.HandlerMethod method) {
+        StringJoiner arguments = new StringJoiner(", ", "(", ")");
+        if (method.typed) {
+            for (int i = 0; i < method.parameterTypes.size(); i++) {
+                arguments.add("(" + method.parameterSourceTypes.get(i) + ") " + prefix + "Argument" + i
+                        + ".decode(message.getArguments(), " + i + ")");
+            }
+        } else {
+            arguments.add("message");
+        }
+        return (method.isStatic ? handlerType : "handler") + "." + method.methodName + arguments;
+    }
+
+    private static String setOf(Collection<NeovimHandlerProcessor.HandlerMethod> methods) {
+        StringJoiner names = new StringJoiner(", ", "java.util.Set.of(", ")");
+        for (NeovimHandlerProcessor.HandlerMethod method : methods) {
+            names.add(quote(method.name));
+        }
+        return names.toString();
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7e) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private void line(int indent, String line) {
+        for (int i = 0; i < indent; i++) {
+            source.append("    ");
+        }
+        source.append(line).append('\n');
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.handler.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Annotation processor generating a {@link com.ensarsarajcic.neovim.java.handler.NeovimHandlerDispatcher} for each
+ * class declaring methods annotated with
+ * {@link com.ensarsarajcic.neovim.java.handler.annotations.NeovimNotificationHandler} or
+ * {@link com.ensarsarajcic.neovim.java.handler.annotations.NeovimRequestHandler}
+ * <p>
+ * It is picked up automatically by javac when this module is on the classpath (or processor path). Generated
+ * dispatchers hold a switch on notification/request name, calling annotated methods directly
+ * <p>
+ * Classes which can't be dispatched from generated code (private or generic classes, private methods, multiple
+ * methods handling the same name, parameter types without a canonical name...) are skipped with a note, and
+ * {@link com.ensarsarajcic.neovim.java.handler.NeovimHandlerManager} keeps using reflection for them
+ */
+@SupportedAnnotationTypes({
+        NeovimHandlerProcessor.NOTIFICATION_HANDLER,
+        NeovimHandlerProcessor.REQUEST_HANDLER
+})
+public final class NeovimHandlerProcessor extends AbstractProcessor {
+
+    static final String NOTIFICATION_HANDLER = "com.ensarsarajcic.neovim.java.handler.annotations.NeovimNotificationHandler";
+    static final String REQUEST_HANDLER = "com.ensarsarajcic.neovim.java.handler.annotations.NeovimRequestHandler";
+    private static final String ORDERED_BY = "com.ensarsarajcic.neovim.java.handler.annotations.OrderedBy";
+    private static final String ORDERING_KEY_EXTRACTOR = "com.ensarsarajcic.neovim.java.handler.OrderingKeyExtractor";
+    private static final String NOTIFICATION_MESSAGE = "com.ensarsarajcic.neovim.java.corerpc.message.NotificationMessage";
+    private static final String REQUEST_MESSAGE = "com.ensarsarajcic.neovim.java.corerpc.message.RequestMessage";
+    private static final String MESSAGE = "com.ensarsarajcic.neovim.java.corerpc.message.Message";
+    private static final String DISPATCHER_SUFFIX = "$$NeovimHandlerDispatcher";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> handlerTypes = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.METHOD) {
+                    handlerTypes.add((TypeElement) element.getEnclosingElement());
+                }
+            }
+        }
+        for (TypeElement handlerType : handlerTypes) {
+            try {
+                generateDispatcher(handlerType);
+            } catch (UnsupportedHandlerException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                        "Not generating dispatcher, reflection will be used instead: " + e.getMessage(), handlerType);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Failed to write dispatcher: " + e.getMessage(), handlerType);
+            }
+        }
+        return false;
+    }
+
+    private void generateDispatcher(TypeElement handlerType) throws IOException, UnsupportedHandlerException {
+        for (Element type = handlerType; type instanceof TypeElement; type = type.getEnclosingElement()) {
+            if (type.getModifiers().contains(Modifier.PRIVATE)) {
+                throw new UnsupportedHandlerException(type + " is private");
+            }
+        }
+        if (!handlerType.getTypeParameters().isEmpty()) {
+            throw new UnsupportedHandlerException(handlerType + " is generic");
+        }
+        if (handlerType.getNestingKind().isNested() && !handlerType.getModifiers().contains(Modifier.STATIC)
+                && handlerType.getKind() == ElementKind.CLASS) {
+            throw new UnsupportedHandlerException(handlerType + " is an inner class");
+        }
+
+        Map<String, HandlerMethod> notificationMethods = new LinkedHashMap<>();
+        Map<String, HandlerMethod> requestMethods = new LinkedHashMap<>();
+        // Declared methods of the whole superclass hierarchy, just like reflection does, so annotated methods
+        // overridden without the annotation are still dispatched
+        for (TypeElement type = handlerType; type != null; type = superclassOf(type)) {
+            for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+                AnnotationMirror notificationHandler = findAnnotation(method, NOTIFICATION_HANDLER);
+                if (notificationHandler != null) {
+                    addMethod(notificationMethods, createMethod(handlerType, method, notificationHandler, NOTIFICATION_MESSAGE, false));
+                }
+                AnnotationMirror requestHandler = findAnnotation(method, REQUEST_HANDLER);
+                if (requestHandler != null) {
+                    addMethod(requestMethods, createMethod(handlerType, method, requestHandler, REQUEST_MESSAGE, true));
+                }
+            }
+        }
+
+        String packageName = processingEnv.getElementUtils().getPackageOf(handlerType).getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(handlerType).toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+                + DISPATCHER_SUFFIX;
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(
+                (packageName.isEmpty() ? "" : packageName + ".") + simpleName, handlerType);
+        try (Writer writer = file.openWriter()) {
+            writer.write(new DispatcherWriter(packageName, simpleName, handlerType.getQualifiedName().toString(),
+                    notificationMethods.values(), requestMethods.values()).write());
+        }
+    }
+
+    private static TypeElement superclassOf(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        return superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+    }
+
+    private void addMethod(Map<String, HandlerMethod> methods, HandlerMethod method) throws UnsupportedHandlerException {
+        if (methods.putIfAbsent(method.name, method) != null) {
+            throw new UnsupportedHandlerException("multiple methods handle " + method.name);
+        }
+    }
+
+    private HandlerMethod createMethod(TypeElement handlerType, ExecutableElement method,
+                                       AnnotationMirror handlerAnnotation, String messageType, boolean request)
+            throws UnsupportedHandlerException {
+        if (method.getModifiers().contains(Modifier.PRIVATE)) {
+            throw new UnsupportedHandlerException(method + " is private");
+        }
+        PackageElement handlerPackage = processingEnv.getElementUtils().getPackageOf(handlerType);
+        PackageElement methodPackage = processingEnv.getElementUtils().getPackageOf(method);
+        if (!method.getModifiers().contains(Modifier.PUBLIC) && !handlerPackage.equals(methodPackage)) {
+            throw new UnsupportedHandlerException(method + " is not accessible from " + handlerPackage);
+        }
+        HandlerMethod handlerMethod = new HandlerMethod();
+        handlerMethod.name = (String) getValue(handlerAnnotation, "value").getValue();
+        handlerMethod.methodName = method.getSimpleName().toString();
+        handlerMethod.isStatic = method.getModifiers().contains(Modifier.STATIC);
+        handlerMethod.throwsExceptions = !method.getThrownTypes().isEmpty();
+
+        List<? extends VariableElement> parameters = method.getParameters();
+        TypeMirror message = processingEnv.getElementUtils().getTypeElement(messageType).asType();
+        if (parameters.size() == 1
+                && processingEnv.getTypeUtils().isAssignable(message, parameters.get(0).asType())) {
+            handlerMethod.typed = false;
+        } else {
+            handlerMethod.typed = true;
+            TypeMirror anyMessage = processingEnv.getElementUtils().getTypeElement(MESSAGE).asType();
+            for (VariableElement parameter : parameters) {
+                TypeMirror type = parameter.asType();
+                if (processingEnv.getTypeUtils().isAssignable(type, anyMessage)) {
+                    throw new UnsupportedHandlerException(method + " accepts a message of wrong type");
+                }
+                String canonicalType = canonicalName(type);
+                if (canonicalType == null) {
+                    throw new UnsupportedHandlerException(method + " has a parameter of unsupported type " + type);
+                }
+                handlerMethod.parameterTypes.add(canonicalType);
+                handlerMethod.parameterSourceTypes.add(type.toString());
+            }
+        }
+        handlerMethod.responding = request
+                && (handlerMethod.typed || method.getReturnType().getKind() != TypeKind.VOID);
+        handlerMethod.returnsValue = method.getReturnType().getKind() != TypeKind.VOID;
+        handlerMethod.ordering = ordering(method);
+        return handlerMethod;
+    }
+
+    private String ordering(ExecutableElement method) {
+        AnnotationMirror orderedBy = findAnnotation(method, ORDERED_BY);
+        if (orderedBy == null) {
+            return null;
+        }
+        AnnotationValue extractor = getValue(orderedBy, "extractor");
+        if (extractor != null) {
+            TypeMirror extractorType = (TypeMirror) extractor.getValue();
+            String extractorName = extractorType.toString();
+            if (!extractorName.equals(ORDERING_KEY_EXTRACTOR)) {
+                return "new " + extractorName + "()";
+            }
+        }
+        AnnotationValue key = getValue(orderedBy, "value");
+        String keyName = key != null ? ((VariableElement) key.getValue()).getSimpleName().toString() : "NAME";
+        return ORDERING_KEY_EXTRACTOR + "." + keyName;
+    }
+
+    /**
+     * Creates a type name understood by Jackson type factory, which uses binary names of nested classes
+     */
+    private String canonicalName(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return type.toString();
+        }
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        DeclaredType declaredType = (DeclaredType) type;
+        StringBuilder name = new StringBuilder(
+                processingEnv.getElementUtils().getBinaryName((TypeElement) declaredType.asElement()));
+        if (!declaredType.getTypeArguments().isEmpty()) {
+            StringJoiner arguments = new StringJoiner(",", "<", ">");
+            for (TypeMirror argument : declaredType.getTypeArguments()) {
+                String argumentName = canonicalName(argument);
+                if (argumentName == null) {
+                    return null;
+                }
+                arguments.add(argumentName);
+            }
+            name.append(arguments);
+        }
+        return name.toString();
+    }
+
+    private static AnnotationMirror findAnnotation(Element element, String annotationType) {
+        for (AnnotationMirror annotationMirror : element.getAnnotationMirrors()) {
+            TypeElement type = (TypeElement) annotationMirror.getAnnotationType().asElement();
+            if (type.getQualifiedName().contentEquals(annotationType)) {
+                return annotationMirror;
+            }
+        }
+        return null;
+    }
+
+    private static AnnotationValue getValue(AnnotationMirror annotationMirror, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : annotationMirror.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Annotated method, as seen by generated dispatcher
+     */
+    static final class HandlerMethod {
+        String name;
+        String methodName;
+        boolean isStatic;
+        boolean typed;
+        boolean responding;
+        boolean returnsValue;
+        boolean throwsExceptions;
+        // source of expression creating ordering key extractor, or null
+        String ordering;
+        final List<String> parameterTypes = new ArrayList<>();
+        final List<String> parameterSourceTypes = new ArrayList<>();
+    }
+
+    private static final class UnsupportedHandlerException extends Exception {
+        UnsupportedHandlerException(String message) {
+            super(message);
+        }
+    }
+}
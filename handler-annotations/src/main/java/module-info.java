@@ -2,6 +2,13 @@ module handlerannotations {
     exports com.ensarsarajcic.neovim.java.handler;
     exports com.ensarsarajcic.neovim.java.handler.annotations;
 
-    requires corerpc;
+    provides javax.annotation.processing.Processor
+            with com.ensarsarajcic.neovim.java.handler.processor.NeovimHandlerProcessor;
+
+    requires transitive corerpc;
+    requires static java.compiler;
     requires slf4j.api;
+    requires com.fasterxml.jackson.databind;
+    requires com.fasterxml.jackson.core;
+    requires jackson.dataformat.msgpack;
 }
\ No newline at end of file
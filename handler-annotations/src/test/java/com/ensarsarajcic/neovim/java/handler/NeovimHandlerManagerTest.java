@@ -0,0 +1,441 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.handler;
+
+import com.ensarsarajcic.neovim.java.corerpc.client.RPCStreamer;
+import com.ensarsarajcic.neovim.java.corerpc.message.NotificationMessage;
+import com.ensarsarajcic.neovim.java.corerpc.message.RequestMessage;
+import com.ensarsarajcic.neovim.java.corerpc.message.ResponseMessage;
+import com.ensarsarajcic.neovim.java.handler.annotations.NeovimNotificationHandler;
+import com.ensarsarajcic.neovim.java.handler.annotations.NeovimRequestHandler;
+import com.ensarsarajcic.neovim.java.handler.annotations.OrderedBy;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class NeovimHandlerManagerTest {
+
+    private NeovimHandlerProxy neovimHandlerProxy;
+    private NeovimHandlerManager neovimHandlerManager;
+
+    @Before
+    public void setUp() {
+        neovimHandlerProxy = new NeovimHandlerProxy();
+        neovimHandlerManager = new NeovimHandlerManager(neovimHandlerProxy);
+        StaticHandler.received.clear();
+    }
+
+    @Test
+    public void invokesInstanceHandlers() {
+        InstanceHandler handler = new InstanceHandler();
+        neovimHandlerManager.registerNeovimHandler(handler);
+
+        NotificationMessage notification = new NotificationMessage.Builder("event").build();
+        RequestMessage request = new RequestMessage.Builder("request").build();
+        neovimHandlerProxy.notificationReceived(notification);
+        neovimHandlerProxy.notificationReceived(new NotificationMessage.Builder("other").build());
+        neovimHandlerProxy.requestReceived(request);
+
+        assertEquals(List.of(notification), handler.notifications);
+        assertEquals(List.of(request), handler.requests);
+    }
+
+    @Test
+    public void invokesStaticHandlers() {
+        neovimHandlerManager.registerNeovimHandler(new StaticHandler());
+
+        NotificationMessage notification = new NotificationMessage.Builder("static_event").build();
+        neovimHandlerProxy.notificationReceived(notification);
+
+        assertEquals(List.of(notification), StaticHandler.received);
+    }
+
+    @Test
+    public void invokesNonPublicAndInheritedHandlers() {
+        ChildHandler handler = new ChildHandler();
+        neovimHandlerManager.registerNeovimHandler(handler);
+
+        neovimHandlerProxy.notificationReceived(new NotificationMessage.Builder("event").build());
+        neovimHandlerProxy.notificationReceived(new NotificationMessage.Builder("private_event").build());
+
+        assertEquals(1, handler.notifications.size());
+        assertEquals(1, handler.privateNotifications);
+    }
+
+    @Test
+    public void invokerCallsMethodDirectly() throws Exception {
+        InstanceHandler handler = new InstanceHandler();
+        NotificationMessage notification = new NotificationMessage.Builder("event").build();
+
+        Consumer<NotificationMessage> invoker = HandlerInvokers.create(handler,
+                InstanceHandler.class.getMethod("onEvent", NotificationMessage.class), NotificationMessage.class);
+        invoker.accept(notification);
+
+        assertEquals(List.of(notification), handler.notifications);
+        // Spun by LambdaMetafactory in the handler class, not a method handle wrapper
+        assertTrue(invoker.getClass().getName().startsWith(InstanceHandler.class.getName() + "$$Lambda"));
+    }
+
+    @Test
+    public void reusesInvokerClassForHandlersOfSameType() throws Exception {
+        InstanceHandler first = new InstanceHandler();
+        InstanceHandler second = new InstanceHandler();
+        Method method = InstanceHandler.class.getMethod("onEvent", NotificationMessage.class);
+        NotificationMessage notification = new NotificationMessage.Builder("event").build();
+
+        Consumer<NotificationMessage> firstInvoker = HandlerInvokers.create(first, method, NotificationMessage.class);
+        Consumer<NotificationMessage> secondInvoker = HandlerInvokers.create(second, method, NotificationMessage.class);
+        secondInvoker.accept(notification);
+
+        assertSame(firstInvoker.getClass(), secondInvoker.getClass());
+        assertEquals(List.of(), first.notifications);
+        assertEquals(List.of(notification), second.notifications);
+    }
+
+    @Test
+    public void stopsInvokingUnregisteredHandlers() {
+        InstanceHandler handler = new InstanceHandler();
+        neovimHandlerManager.registerNeovimHandler(handler);
+        neovimHandlerManager.registerNeovimHandler(handler);
+        neovimHandlerProxy.notificationReceived(new NotificationMessage.Builder("event").build());
+
+        neovimHandlerManager.unregisterNeovimHandler(handler);
+        neovimHandlerProxy.notificationReceived(new NotificationMessage.Builder("event").build());
+        neovimHandlerProxy.requestReceived(new RequestMessage.Builder("request").build());
+
+        assertEquals(1, handler.notifications.size());
+        assertTrue(handler.requests.isEmpty());
+    }
+
+    @Test
+    public void respondsWithReturnedValues() throws Exception {
+        RPCStreamer rpcStreamer = mock(RPCStreamer.class);
+        neovimHandlerManager.attachToStream(rpcStreamer);
+        neovimHandlerManager.registerNeovimHandler(new RespondingHandler());
+
+        neovimHandlerProxy.requestReceived(new RequestMessage.Builder("sum").addArgument(2).addArgument(3).withId(7).build());
+
+        ArgumentCaptor<ResponseMessage> response = ArgumentCaptor.forClass(ResponseMessage.class);
+        verify(rpcStreamer).send(response.capture());
+        assertEquals(7, response.getValue().getId());
+        assertEquals(5, response.getValue().getResult());
+        assertNull(response.getValue().getError());
+    }
+
+    @Test
+    public void respondsWhenFutureCompletes() throws Exception {
+        RPCStreamer rpcStreamer = mock(RPCStreamer.class);
+        neovimHandlerManager.attachToStream(rpcStreamer);
+        RespondingHandler handler = new RespondingHandler();
+        neovimHandlerManager.registerNeovimHandler(handler);
+
+        neovimHandlerProxy.requestReceived(new RequestMessage.Builder("later").withId(3).build());
+        verify(rpcStreamer, never()).send(any(ResponseMessage.class));
+
+        handler.future.complete("done");
+
+        ArgumentCaptor<ResponseMessage> response = ArgumentCaptor.forClass(ResponseMessage.class);
+        verify(rpcStreamer).send(response.capture());
+        assertEquals(3, response.getValue().getId());
+        assertEquals("done", response.getValue().getResult());
+    }
+
+    @Test
+    public void respondsWithErrors() throws Exception {
+        RPCStreamer rpcStreamer = mock(RPCStreamer.class);
+        neovimHandlerManager.attachToStream(rpcStreamer);
+        neovimHandlerManager.registerNeovimHandler(new RespondingHandler());
+
+        neovimHandlerProxy.requestReceived(new RequestMessage.Builder("fail").withId(4).build());
+
+        ArgumentCaptor<ResponseMessage> response = ArgumentCaptor.forClass(ResponseMessage.class);
+        verify(rpcStreamer).send(response.capture());
+        assertEquals(4, response.getValue().getId());
+        assertEquals("failed", response.getValue().getError().getMessage());
+    }
+
+    @Test
+    public void runsRequestHandlersOnGivenExecutor() throws Exception {
+        List<Runnable> tasks = new ArrayList<>();
+        neovimHandlerManager = new NeovimHandlerManager(neovimHandlerProxy, tasks::add);
+        RPCStreamer rpcStreamer = mock(RPCStreamer.class);
+        neovimHandlerManager.attachToStream(rpcStreamer);
+        neovimHandlerManager.registerNeovimHandler(new RespondingHandler());
+
+        neovimHandlerProxy.requestReceived(new RequestMessage.Builder("sum").addArgument(1).addArgument(1).withId(1).build());
+        verify(rpcStreamer, never()).send(any(ResponseMessage.class));
+        assertEquals(1, tasks.size());
+
+        tasks.get(0).run();
+        verify(rpcStreamer).send(any(ResponseMessage.class));
+    }
+
+    @Test
+    public void runsOrderedHandlersOnStripedExecutor() {
+        List<Runnable> tasks = new ArrayList<>();
+        neovimHandlerManager = new NeovimHandlerManager(neovimHandlerProxy, new ImmediateExecutorService(),
+                new StripedExecutor(tasks::add, 1));
+        OrderedHandler handler = new OrderedHandler();
+        neovimHandlerManager.registerNeovimHandler(handler);
+
+        neovimHandlerProxy.notificationReceived(new NotificationMessage.Builder("buf_event").addArgument(1).build());
+        neovimHandlerProxy.notificationReceived(new NotificationMessage.Builder("buf_event").addArgument(1).build());
+        neovimHandlerProxy.notificationReceived(new NotificationMessage.Builder("unordered").build());
+
+        // Unordered handler runs right away, while ordered ones wait for their stripe
+        assertEquals(Collections.singletonList("unordered"), handler.calls);
+        assertEquals(1, tasks.size());
+        tasks.remove(0).run();
+        assertEquals(1, tasks.size());
+        tasks.remove(0).run();
+        assertEquals(Arrays.asList("unordered", "buf_event", "buf_event"), handler.calls);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void orderedHandlersRequireImmediateProxy() {
+        ExecutorService proxyExecutor = Executors.newSingleThreadExecutor();
+        try {
+            new NeovimHandlerManager(new NeovimHandlerProxy(proxyExecutor), new ImmediateExecutorService(),
+                    new StripedExecutor(Runnable::run, 1));
+        } finally {
+            proxyExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void runsOrderedHandlersRightAwayWithoutStripedExecutor() {
+        OrderedHandler handler = new OrderedHandler();
+        neovimHandlerManager.registerNeovimHandler(handler);
+
+        neovimHandlerProxy.notificationReceived(new NotificationMessage.Builder("buf_event").addArgument(1).build());
+
+        assertEquals(Collections.singletonList("buf_event"), handler.calls);
+    }
+
+    @Test
+    public void decodesTypedArguments() {
+        TypedHandler handler = new TypedHandler();
+        neovimHandlerManager.registerNeovimHandler(handler);
+
+        Map<String, Object> point = new HashMap<>();
+        point.put("x", 3);
+        point.put("y", 4L);
+        neovimHandlerProxy.notificationReceived(new NotificationMessage.Builder("typed")
+                .addArgument(5L)
+                .addArgument("text")
+                .addArgument(Arrays.asList("a", "b"))
+                .addArgument(point)
+                .build());
+
+        assertEquals(Arrays.asList(5, "text", Arrays.asList("a", "b"), 3, 4L), handler.values);
+    }
+
+    @Test
+    public void respondsToTypedRequests() throws Exception {
+        RPCStreamer rpcStreamer = mock(RPCStreamer.class);
+        neovimHandlerManager.attachToStream(rpcStreamer);
+        neovimHandlerManager.registerNeovimHandler(new TypedHandler());
+
+        neovimHandlerProxy.requestReceived(new RequestMessage.Builder("typed_sum").addArgument(2).addArgument(3L).withId(1).build());
+        neovimHandlerProxy.requestReceived(new RequestMessage.Builder("typed_sum").addArgument("x").withId(2).build());
+
+        ArgumentCaptor<ResponseMessage> response = ArgumentCaptor.forClass(ResponseMessage.class);
+        verify(rpcStreamer, times(2)).send(response.capture());
+        assertEquals(5L, response.getAllValues().get(0).getResult());
+        assertNotNull(response.getAllValues().get(1).getError());
+    }
+
+    @Test
+    public void generatesDispatchersForSupportedHandlers() throws Exception {
+        Class<?> dispatcherType = Class.forName(OrderedHandler.class.getName() + NeovimHandlerDispatcher.CLASS_NAME_SUFFIX);
+        NeovimHandlerDispatcher<OrderedHandler> dispatcher = (NeovimHandlerDispatcher<OrderedHandler>) dispatcherType
+                .getConstructor(ArgumentDecoder.class)
+                .newInstance(new ArgumentDecoder(new ObjectMapper(new MessagePackFactory())));
+
+        assertEquals(new HashSet<>(Arrays.asList("buf_event", "unordered")), dispatcher.getNotificationNames());
+        assertTrue(dispatcher.getRequestNames().isEmpty());
+        assertSame(OrderingKeyExtractor.FIRST_ARGUMENT, dispatcher.getNotificationOrdering("buf_event"));
+        assertNull(dispatcher.getNotificationOrdering("unordered"));
+
+        OrderedHandler handler = new OrderedHandler();
+        dispatcher.dispatchNotification(handler, new NotificationMessage.Builder("unordered").build());
+        assertEquals(Collections.singletonList("unordered"), handler.calls);
+    }
+
+    @Test
+    public void generatedDispatchersKeepHandlersOverriddenWithoutAnnotation() throws Exception {
+        Class<?> dispatcherType = Class.forName(OverridingHandler.class.getName() + NeovimHandlerDispatcher.CLASS_NAME_SUFFIX);
+        NeovimHandlerDispatcher<OverridingHandler> dispatcher = (NeovimHandlerDispatcher<OverridingHandler>) dispatcherType
+                .getConstructor(ArgumentDecoder.class)
+                .newInstance(new ArgumentDecoder(new ObjectMapper(new MessagePackFactory())));
+        assertEquals(new HashSet<>(Arrays.asList("event", "own_event")), dispatcher.getNotificationNames());
+        assertEquals(Collections.singleton("request"), dispatcher.getRequestNames());
+
+        OverridingHandler handler = new OverridingHandler();
+        neovimHandlerManager.registerNeovimHandler(handler);
+        neovimHandlerProxy.notificationReceived(new NotificationMessage.Builder("event").build());
+        neovimHandlerProxy.notificationReceived(new NotificationMessage.Builder("own_event").build());
+
+        // Overriding method is called, just like with reflection
+        assertEquals(Arrays.asList("event", "own_event"), handler.calls);
+        assertTrue(handler.notifications.isEmpty());
+    }
+
+    @Test(expected = ClassNotFoundException.class)
+    public void skipsDispatchersForPrivateHandlerMethods() throws Exception {
+        // Reflection is used for these instead, as tested by invokesNonPublicAndInheritedHandlers
+        Class.forName(ChildHandler.class.getName() + NeovimHandlerDispatcher.CLASS_NAME_SUFFIX);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsHandlersWithWrongArguments() {
+        neovimHandlerManager.registerNeovimHandler(new InvalidHandler());
+    }
+
+    public static class InstanceHandler {
+        final List<NotificationMessage> notifications = new ArrayList<>();
+        final List<RequestMessage> requests = new ArrayList<>();
+
+        @NeovimNotificationHandler("event")
+        public void onEvent(NotificationMessage notificationMessage) {
+            notifications.add(notificationMessage);
+        }
+
+        @NeovimRequestHandler("request")
+        public void onRequest(RequestMessage requestMessage) {
+            requests.add(requestMessage);
+        }
+    }
+
+    public static class StaticHandler {
+        static final List<NotificationMessage> received = new ArrayList<>();
+
+        @NeovimNotificationHandler("static_event")
+        public static void onEvent(NotificationMessage notificationMessage) {
+            received.add(notificationMessage);
+        }
+    }
+
+    static class ChildHandler extends InstanceHandler {
+        int privateNotifications;
+
+        @NeovimNotificationHandler("private_event")
+        private void onPrivateEvent(NotificationMessage notificationMessage) {
+            privateNotifications++;
+        }
+    }
+
+    public static class OverridingHandler extends InstanceHandler {
+        final List<String> calls = new ArrayList<>();
+
+        @Override
+        public void onEvent(NotificationMessage notificationMessage) {
+            calls.add(notificationMessage.getName());
+        }
+
+        @NeovimNotificationHandler("own_event")
+        public void onOwnEvent(NotificationMessage notificationMessage) {
+            calls.add(notificationMessage.getName());
+        }
+    }
+
+    public static class RespondingHandler {
+        final CompletableFuture<String> future = new CompletableFuture<>();
+
+        @NeovimRequestHandler("sum")
+        public int sum(RequestMessage requestMessage) {
+            return (Integer) requestMessage.getArguments().get(0) + (Integer) requestMessage.getArguments().get(1);
+        }
+
+        @NeovimRequestHandler("later")
+        public CompletableFuture<String> later(RequestMessage requestMessage) {
+            return future;
+        }
+
+        @NeovimRequestHandler("fail")
+        public String fail(RequestMessage requestMessage) {
+            throw new IllegalStateException("failed");
+        }
+    }
+
+    public static class OrderedHandler {
+        final List<String> calls = new ArrayList<>();
+
+        @NeovimNotificationHandler("buf_event")
+        @OrderedBy(OrderedBy.Key.FIRST_ARGUMENT)
+        public void bufEvent(NotificationMessage notificationMessage) {
+            calls.add(notificationMessage.getName());
+        }
+
+        @NeovimNotificationHandler("unordered")
+        public void unordered(NotificationMessage notificationMessage) {
+            calls.add(notificationMessage.getName());
+        }
+    }
+
+    public static class Point {
+        public int x;
+        public long y;
+    }
+
+    public static class TypedHandler {
+        final List<Object> values = new ArrayList<>();
+
+        @NeovimNotificationHandler("typed")
+        public void typed(int number, String text, List<String> texts, Point point) {
+            values.addAll(Arrays.asList(number, text, texts, point.x, point.y));
+        }
+
+        @NeovimRequestHandler("typed_sum")
+        public long sum(int first, long second) {
+            return first + second;
+        }
+    }
+
+    public static class InvalidHandler {
+        @NeovimNotificationHandler("event")
+        public void onEvent(RequestMessage requestMessage) {
+        }
+    }
+}
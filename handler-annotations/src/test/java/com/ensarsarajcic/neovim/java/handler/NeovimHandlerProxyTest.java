@@ -0,0 +1,145 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.handler;
+
+import com.ensarsarajcic.neovim.java.corerpc.client.RPCListener;
+import com.ensarsarajcic.neovim.java.corerpc.message.NotificationMessage;
+import com.ensarsarajcic.neovim.java.corerpc.message.RequestMessage;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class NeovimHandlerProxyTest {
+
+    private CountingExecutorService executorService;
+    private NeovimHandlerProxy neovimHandlerProxy;
+
+    @Before
+    public void setUp() {
+        executorService = new CountingExecutorService();
+        neovimHandlerProxy = new NeovimHandlerProxy(executorService);
+    }
+
+    @Test
+    public void submitsOnlyMatchingNamedCallbacks() {
+        RPCListener.NotificationCallback first = mock(RPCListener.NotificationCallback.class);
+        RPCListener.NotificationCallback second = mock(RPCListener.NotificationCallback.class);
+        RPCListener.NotificationCallback other = mock(RPCListener.NotificationCallback.class);
+        neovimHandlerProxy.addNotificationCallback("event", first);
+        neovimHandlerProxy.addNotificationCallback("event", second);
+        neovimHandlerProxy.addNotificationCallback("other", other);
+
+        NotificationMessage notification = new NotificationMessage.Builder("event").build();
+        neovimHandlerProxy.notificationReceived(notification);
+
+        verify(first).notificationReceived(notification);
+        verify(second).notificationReceived(notification);
+        verifyZeroInteractions(other);
+        assertEquals(2, executorService.executed);
+    }
+
+    @Test
+    public void passesEverythingToUnnamedCallbacks() {
+        RPCListener.NotificationCallback notificationCallback = mock(RPCListener.NotificationCallback.class);
+        RPCListener.RequestCallback requestCallback = mock(RPCListener.RequestCallback.class);
+        neovimHandlerProxy.addNotificationCallback(notificationCallback);
+        neovimHandlerProxy.addRequestCallback(requestCallback);
+
+        NotificationMessage notification = new NotificationMessage.Builder("any").build();
+        RequestMessage request = new RequestMessage.Builder("any").build();
+        neovimHandlerProxy.notificationReceived(notification);
+        neovimHandlerProxy.requestReceived(request);
+
+        verify(notificationCallback).notificationReceived(notification);
+        verify(requestCallback).requestReceived(request);
+    }
+
+    @Test
+    public void removesNamedCallbacks() {
+        RPCListener.RequestCallback requestCallback = mock(RPCListener.RequestCallback.class);
+        neovimHandlerProxy.addRequestCallback("request", requestCallback);
+        neovimHandlerProxy.removeRequestCallback("request", requestCallback);
+
+        neovimHandlerProxy.requestReceived(new RequestMessage.Builder("request").build());
+
+        verifyZeroInteractions(requestCallback);
+        assertEquals(0, executorService.executed);
+    }
+
+    @Test
+    public void allowsCallbacksToUnregisterWhileDispatching() {
+        RPCListener.NotificationCallback[] selfRemoving = new RPCListener.NotificationCallback[1];
+        selfRemoving[0] = notification -> neovimHandlerProxy.removeNotificationCallback("event", selfRemoving[0]);
+        RPCListener.NotificationCallback next = mock(RPCListener.NotificationCallback.class);
+        neovimHandlerProxy.addNotificationCallback("event", selfRemoving[0]);
+        neovimHandlerProxy.addNotificationCallback("event", next);
+
+        NotificationMessage notification = new NotificationMessage.Builder("event").build();
+        neovimHandlerProxy.notificationReceived(notification);
+        neovimHandlerProxy.notificationReceived(notification);
+
+        verify(next, times(2)).notificationReceived(notification);
+    }
+
+    private static final class CountingExecutorService extends AbstractExecutorService {
+        private int executed;
+
+        @Override
+        public void execute(Runnable command) {
+            executed++;
+            command.run();
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return List.of();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
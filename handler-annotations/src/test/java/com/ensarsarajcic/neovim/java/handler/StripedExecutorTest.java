@@ -0,0 +1,119 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.handler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class StripedExecutorTest {
+
+    private ExecutorService executorService;
+
+    @Before
+    public void setUp() {
+        executorService = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void runsTasksWithEqualKeysInOrder() throws Exception {
+        StripedExecutor stripedExecutor = new StripedExecutor(executorService, 8);
+        List<Integer> first = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> second = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(2000);
+
+        for (int i = 0; i < 1000; i++) {
+            int value = i;
+            stripedExecutor.execute("first", () -> {
+                first.add(value);
+                done.countDown();
+            });
+            stripedExecutor.execute("second", () -> {
+                second.add(value);
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, (int) first.get(i));
+            assertEquals(i, (int) second.get(i));
+        }
+    }
+
+    @Test
+    public void runsTasksWithDifferentKeysInParallel() throws Exception {
+        StripedExecutor stripedExecutor = new StripedExecutor(executorService, 2);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch other = new CountDownLatch(1);
+
+        // 0 and 1 hash to different stripes
+        stripedExecutor.execute(0, () -> {
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        stripedExecutor.execute(1, other::countDown);
+
+        assertTrue(other.await(5, TimeUnit.SECONDS));
+        blocked.countDown();
+    }
+
+    @Test
+    public void keepsRunningStripeAfterFailedTask() throws Exception {
+        StripedExecutor stripedExecutor = new StripedExecutor(Runnable::run, 1);
+        List<String> calls = new ArrayList<>();
+
+        try {
+            stripedExecutor.execute("key", () -> {
+                throw new IllegalStateException("failed");
+            });
+            fail("Exception expected");
+        } catch (IllegalStateException ignored) {
+        }
+        stripedExecutor.execute("key", () -> calls.add("next"));
+
+        assertEquals(Collections.singletonList("next"), calls);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidStripeCount() {
+        new StripedExecutor(executorService, 0);
+    }
+}
@@ -24,13 +24,17 @@
 
 package com.ensarsarajcic.neovim.java.api.types.api;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 public final class UiOptions {
     public static final UiOptions TERMINAL = new UiOptions(false, false, false, false, false);
     public static final UiOptions FULL_UI = new UiOptions(true, true, true, true, true);
+    public static final UiOptions FULL_UI_LINEGRID = new UiOptions(true, true, true, true, true, true, false);
+    public static final UiOptions FULL_UI_MULTIGRID = new UiOptions(true, true, true, true, true, true, true);
 
     @JsonProperty("rgb")
     private final boolean rgb;
@@ -42,7 +46,25 @@ public final class UiOptions {
     private final boolean extCmdline;
     @JsonProperty("ext_wildmenu")
     private final boolean extWildmenu;
+    // Omitted unless enabled, since older Neovim versions reject unknown options
+    // ext_multigrid implies ext_linegrid in Neovim
+    @JsonProperty("ext_linegrid")
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private final boolean extLinegrid;
+    @JsonProperty("ext_multigrid")
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private final boolean extMultigrid;
 
+    public UiOptions(
+            boolean rgb,
+            boolean extPopupMenu,
+            boolean extTabline,
+            boolean extCmdline,
+            boolean extWildmenu) {
+        this(rgb, extPopupMenu, extTabline, extCmdline, extWildmenu, false, false);
+    }
+
+    @JsonCreator
     public UiOptions(
             @JsonProperty("rgb")
                     boolean rgb,
@@ -53,12 +75,18 @@ public final class UiOptions {
             @JsonProperty("ext_cmdline")
                     boolean extCmdline,
             @JsonProperty("ext_wildmenu")
-                    boolean extWildmenu) {
+                    boolean extWildmenu,
+            @JsonProperty("ext_linegrid")
+                    boolean extLinegrid,
+            @JsonProperty("ext_multigrid")
+                    boolean extMultigrid) {
         this.rgb = rgb;
         this.extPopupMenu = extPopupMenu;
         this.extTabline = extTabline;
         this.extCmdline = extCmdline;
         this.extWildmenu = extWildmenu;
+        this.extLinegrid = extLinegrid;
+        this.extMultigrid = extMultigrid;
     }
 
     public boolean isRgb() {
@@ -80,4 +108,12 @@ public final class UiOptions {
     public boolean isExtWildmenu() {
         return extWildmenu;
     }
+
+    public boolean isExtLinegrid() {
+        return extLinegrid;
+    }
+
+    public boolean isExtMultigrid() {
+        return extMultigrid;
+    }
 }
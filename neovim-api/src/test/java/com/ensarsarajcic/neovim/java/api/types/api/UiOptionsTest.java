@@ -0,0 +1,61 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.api.types.api;
+
+import com.ensarsarajcic.neovim.java.api.util.ObjectMappers;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class UiOptionsTest {
+
+    @Test
+    public void omitsDisabledLinegrid() {
+        var options = ObjectMappers.defaultNeovimMapper().convertValue(UiOptions.FULL_UI, Map.class);
+
+        assertEquals(true, options.get("rgb"));
+        assertFalse(options.containsKey("ext_linegrid"));
+        assertFalse(options.containsKey("ext_multigrid"));
+    }
+
+    @Test
+    public void includesEnabledLinegrid() {
+        var options = ObjectMappers.defaultNeovimMapper().convertValue(UiOptions.FULL_UI_LINEGRID, Map.class);
+
+        assertEquals(true, options.get("ext_linegrid"));
+        assertTrue(UiOptions.FULL_UI_LINEGRID.isExtLinegrid());
+        assertFalse(UiOptions.TERMINAL.isExtLinegrid());
+    }
+
+    @Test
+    public void includesEnabledMultigrid() {
+        var options = ObjectMappers.defaultNeovimMapper().convertValue(UiOptions.FULL_UI_MULTIGRID, Map.class);
+
+        assertEquals(true, options.get("ext_multigrid"));
+        assertFalse(UiOptions.FULL_UI_LINEGRID.isExtMultigrid());
+    }
+}
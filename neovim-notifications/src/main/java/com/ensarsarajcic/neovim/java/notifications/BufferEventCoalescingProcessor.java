@@ -0,0 +1,372 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications;
+
+import com.ensarsarajcic.neovim.java.api.types.msgpack.Buffer;
+import com.ensarsarajcic.neovim.java.notifications.buffer.BufferChangedTickEvent;
+import com.ensarsarajcic.neovim.java.notifications.buffer.BufferDetachEvent;
+import com.ensarsarajcic.neovim.java.notifications.buffer.BufferEvent;
+import com.ensarsarajcic.neovim.java.notifications.buffer.BufferLinesEvent;
+import com.ensarsarajcic.neovim.java.notifications.buffer.BufferResyncEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Processor which merges bursts of {@link BufferLinesEvent} while its subscriber is busy
+ * <p>
+ * Events are requested from upstream without limit and kept pending until the subscriber requests them.
+ * While a {@link BufferLinesEvent} is pending, a following {@link BufferLinesEvent} for the same buffer whose
+ * line range overlaps or touches the pending one is merged into it, producing a single event which describes
+ * both edits and carries the last changedtick. Any other event for the same buffer ends merging for that buffer,
+ * so ordering of events for a single buffer is always preserved.
+ * <p>
+ * Events with {@link BufferLinesEvent#isMore()} set (initial buffer contents split into chunks) are never merged.
+ * <p>
+ * If more than {@code capacity} events are pending even after merging, pending events of each buffer are replaced
+ * by a single {@link BufferResyncEvent}, which also absorbs all following events of that buffer until it is passed
+ * down. {@link BufferDetachEvent}s are kept, so events of a buffer which got detached and attached again are not
+ * mixed up.
+ * <p>
+ * Only a single subscriber is supported.
+ */
+final class BufferEventCoalescingProcessor implements Flow.Processor<BufferEvent, BufferEvent> {
+    private static final Logger log = LoggerFactory.getLogger(BufferEventCoalescingProcessor.class);
+
+    private static final class Slot {
+        private BufferEvent event;
+
+        private Slot(BufferEvent event) {
+            this.event = event;
+        }
+    }
+
+    private final int capacity;
+    // guarded by this
+    private final Deque<Slot> pending = new ArrayDeque<>();
+    // guarded by this, pending lines events which may still be merged into
+    private final Map<Buffer, Slot> mergeCandidates = new HashMap<>();
+
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private volatile Flow.Subscription subscription;
+    private volatile Flow.Subscriber<? super BufferEvent> subscriber;
+    private volatile boolean cancelled;
+    private volatile boolean done;
+    private Throwable error;
+
+    /**
+     * Creates a new processor replacing pending events once more than {@link Flow#defaultBufferSize()} are pending
+     */
+    BufferEventCoalescingProcessor() {
+        this(Flow.defaultBufferSize());
+    }
+
+    /**
+     * Creates a new processor replacing pending events once more than given number of them are pending
+     * @param capacity number of pending events after which they are replaced with {@link BufferResyncEvent}s
+     * @throws IllegalArgumentException if capacity is not positive
+     */
+    BufferEventCoalescingProcessor(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super BufferEvent> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber may not be null");
+        synchronized (this) {
+            if (this.subscriber != null) {
+                subscriber.onSubscribe(new EmptySubscription());
+                subscriber.onError(new IllegalStateException("Only a single subscriber is supported"));
+                return;
+            }
+            this.subscriber = subscriber;
+        }
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                if (n <= 0) {
+                    cancel();
+                    subscriber.onError(new IllegalArgumentException("Requested non-positive number of items: " + n));
+                    return;
+                }
+                requested.getAndAccumulate(n, (current, added) -> {
+                    long sum = current + added;
+                    return sum < 0 ? Long.MAX_VALUE : sum;
+                });
+                drain();
+            }
+
+            @Override
+            public void cancel() {
+                cancelled = true;
+                Flow.Subscription upstream = subscription;
+                if (upstream != null) {
+                    upstream.cancel();
+                }
+            }
+        });
+        drain();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(BufferEvent item) {
+        synchronized (this) {
+            enqueue(item);
+            if (pending.size() > capacity) {
+                resync();
+            }
+        }
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        error = throwable;
+        done = true;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        done = true;
+        drain();
+    }
+
+    // guarded by this
+    private void enqueue(BufferEvent event) {
+        Buffer buffer = bufferOf(event);
+        Slot candidate = mergeCandidates.get(buffer);
+        if (candidate != null && candidate.event instanceof BufferResyncEvent && !(event instanceof BufferDetachEvent)) {
+            candidate.event = new BufferResyncEvent(buffer, Math.max(
+                    ((BufferResyncEvent) candidate.event).getChangedTick(), changedTickOf(event)));
+            return;
+        }
+        if (!(event instanceof BufferLinesEvent)) {
+            mergeCandidates.remove(buffer);
+            pending.add(new Slot(event));
+            return;
+        }
+
+        BufferLinesEvent linesEvent = (BufferLinesEvent) event;
+        if (candidate != null) {
+            BufferLinesEvent merged = merge((BufferLinesEvent) candidate.event, linesEvent);
+            if (merged != null) {
+                log.debug("Coalesced {} into pending event for {}", linesEvent, linesEvent.getBuffer());
+                candidate.event = merged;
+                return;
+            }
+        }
+
+        Slot slot = new Slot(linesEvent);
+        pending.add(slot);
+        if (linesEvent.isMore()) {
+            mergeCandidates.remove(linesEvent.getBuffer());
+        } else {
+            mergeCandidates.put(linesEvent.getBuffer(), slot);
+        }
+    }
+
+    // guarded by this
+    private void resync() {
+        log.debug("Subscriber is {} events behind, replacing them with resync events", pending.size());
+        List<Slot> slots = new ArrayList<>(pending);
+        pending.clear();
+        mergeCandidates.clear();
+        for (Slot slot : slots) {
+            Buffer buffer = bufferOf(slot.event);
+            if (slot.event instanceof BufferDetachEvent) {
+                mergeCandidates.remove(buffer);
+                pending.add(slot);
+                continue;
+            }
+            Slot resync = mergeCandidates.get(buffer);
+            if (resync == null) {
+                resync = new Slot(new BufferResyncEvent(buffer, changedTickOf(slot.event)));
+                mergeCandidates.put(buffer, resync);
+                pending.add(resync);
+            } else {
+                resync.event = new BufferResyncEvent(buffer, Math.max(
+                        ((BufferResyncEvent) resync.event).getChangedTick(), changedTickOf(slot.event)));
+            }
+        }
+    }
+
+    // guarded by this
+    private BufferEvent poll() {
+        Slot slot = pending.poll();
+        if (slot == null) {
+            return null;
+        }
+        Buffer buffer = bufferOf(slot.event);
+        if (mergeCandidates.get(buffer) == slot) {
+            mergeCandidates.remove(buffer);
+        }
+        return slot.event;
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            Flow.Subscriber<? super BufferEvent> subscriber = this.subscriber;
+            if (subscriber != null) {
+                while (!cancelled && requested.get() > 0) {
+                    BufferEvent next;
+                    synchronized (this) {
+                        next = poll();
+                    }
+                    if (next == null) {
+                        break;
+                    }
+                    if (requested.get() != Long.MAX_VALUE) {
+                        requested.decrementAndGet();
+                    }
+                    subscriber.onNext(next);
+                }
+                boolean empty;
+                synchronized (this) {
+                    empty = pending.isEmpty();
+                }
+                if (!cancelled && done && empty) {
+                    cancelled = true;
+                    if (error != null) {
+                        subscriber.onError(error);
+                    } else {
+                        subscriber.onComplete();
+                    }
+                }
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * Merges two consecutive {@link BufferLinesEvent} of the same buffer into a single event
+     * <p>
+     * Second event is expressed in line numbers of the buffer after the first event was applied, so the merge is only
+     * possible when its range overlaps or touches the lines produced by the first event. Otherwise lines which are not
+     * known to this processor would be needed to describe the combined edit.
+     *
+     * @param first event that came first
+     * @param second event that came right after the first one
+     * @return a single event equivalent to applying both events in order, or null if they can't be merged
+     */
+    static BufferLinesEvent merge(BufferLinesEvent first, BufferLinesEvent second) {
+        if (first.isMore() || second.isMore() || !first.getBuffer().equals(second.getBuffer())) {
+            return null;
+        }
+        if (second.getLastLine() == -1) {
+            // Second event replaces whole buffer
+            return second;
+        }
+
+        List<String> firstData = first.getLineData();
+        int firstStart = first.getFirstLine();
+        int firstEnd = firstStart + firstData.size();
+        if (second.getFirstLine() > firstEnd || second.getLastLine() < firstStart) {
+            return null;
+        }
+        if (first.getLastLine() == -1 && second.getLastLine() > firstEnd) {
+            // First event describes the whole buffer, there can't be any lines after it
+            return null;
+        }
+
+        int headSize = Math.max(0, second.getFirstLine() - firstStart);
+        int tailStart = Math.min(firstData.size(), Math.max(0, second.getLastLine() - firstStart));
+        List<String> lineData = new ArrayList<>(headSize + second.getLineData().size() + firstData.size() - tailStart);
+        lineData.addAll(firstData.subList(0, headSize));
+        lineData.addAll(second.getLineData());
+        lineData.addAll(firstData.subList(tailStart, firstData.size()));
+
+        int lastLine = first.getLastLine() == -1
+                ? -1
+                : first.getLastLine() + Math.max(0, second.getLastLine() - firstEnd);
+        return new BufferLinesEvent(
+                first.getBuffer(),
+                second.getChangedTick(),
+                Math.min(firstStart, second.getFirstLine()),
+                lastLine,
+                lineData,
+                false
+        );
+    }
+
+    private static long changedTickOf(BufferEvent event) {
+        if (event instanceof BufferLinesEvent) {
+            return ((BufferLinesEvent) event).getChangedTick();
+        } else if (event instanceof BufferChangedTickEvent) {
+            return ((BufferChangedTickEvent) event).getChangedTick();
+        } else if (event instanceof BufferResyncEvent) {
+            return ((BufferResyncEvent) event).getChangedTick();
+        }
+        return 0;
+    }
+
+    private static Buffer bufferOf(BufferEvent event) {
+        if (event instanceof BufferLinesEvent) {
+            return ((BufferLinesEvent) event).getBuffer();
+        } else if (event instanceof BufferChangedTickEvent) {
+            return ((BufferChangedTickEvent) event).getBuffer();
+        } else if (event instanceof BufferDetachEvent) {
+            return ((BufferDetachEvent) event).getBuffer();
+        } else if (event instanceof BufferResyncEvent) {
+            return ((BufferResyncEvent) event).getBuffer();
+        }
+        return null;
+    }
+
+    private static final class EmptySubscription implements Flow.Subscription {
+        @Override
+        public void request(long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+    }
+}
@@ -24,14 +24,20 @@
 
 package com.ensarsarajcic.neovim.java.notifications;
 
+import com.ensarsarajcic.neovim.java.corerpc.message.NotificationMessage;
 import com.ensarsarajcic.neovim.java.notifications.buffer.BufferEvent;
 import com.ensarsarajcic.neovim.java.notifications.ui.NeovimRedrawEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.screen.ScreenFrame;
 
+import java.util.Collection;
 import java.util.concurrent.Flow;
 
 /**
  * Represents a source of notifications coming from neovim. It separates notifications into multiple flows,
  * and allows type safe access to these.
+ * <p>
+ * Notifications are passed down to a subscriber from the moment it subscribes until it cancels.
  */
 public interface NeovimNotificationHandler {
 
@@ -44,6 +50,33 @@ public interface NeovimNotificationHandler {
      */
     Flow.Publisher<NeovimRedrawEvent> uiEvents();
 
+    /**
+     * Passes down a publisher of {@link NeovimRedrawEvent} objects received, just like {@link #uiEvents()}, but
+     * containing only events of given types. Other events are skipped without being decoded and
+     * redraw notifications without any event of given types are not passed down at all
+     * Types may also be interfaces, such as {@link com.ensarsarajcic.neovim.java.notifications.ui.grid.UIGridEvent},
+     * to select all events implementing them
+     * It will never complete
+     * @param eventTypes types of ui events to pass down
+     * @return {@link Flow.Publisher} passing down selected ui events as they come
+     * @throws IllegalArgumentException if any of the types is not a known ui event type
+     */
+    Flow.Publisher<NeovimRedrawEvent> uiEvents(Collection<Class<? extends UIEvent>> eventTypes);
+
+    /**
+     * Passes down a publisher of {@link ScreenFrame} objects, each holding rows of the screen changed by a frame
+     * Redraw notifications are applied to a new {@link com.ensarsarajcic.neovim.java.notifications.ui.screen.ScreenGrid}
+     * and a frame is produced on each flush. While subscriber is not requesting new items, frames are merged and
+     * only the latest completed state of changed rows is passed down once requested
+     * For UIs attached with ext_multigrid, use
+     * {@link com.ensarsarajcic.neovim.java.notifications.ui.screen.ScreenFrameProcessor#forCompositor} with
+     * {@link #notifications(String...)} instead
+     * Each subscriber gets frames of its own grid
+     * It will never complete
+     * @return {@link Flow.Publisher} passing down latest screen frames
+     */
+    Flow.Publisher<ScreenFrame> uiFrames();
+
     /**
      * Passes down a publisher of {@link BufferEvent} objects received
      * {@link BufferEvent} is a special type of notification that is received when
@@ -52,4 +85,27 @@ public interface NeovimNotificationHandler {
      * @return {@link Flow.Publisher} passing down buffer events as they come
      */
     Flow.Publisher<BufferEvent> bufferEvents();
+
+    /**
+     * Passes down a publisher of {@link BufferEvent} objects received, just like {@link #bufferEvents()}, but
+     * merges adjacent or overlapping {@link com.ensarsarajcic.neovim.java.notifications.buffer.BufferLinesEvent}
+     * of the same buffer while subscriber is not requesting new items
+     * Merged events carry the changedtick of the last merged event
+     * Events are merged separately for each subscriber
+     * If subscriber falls more than {@link Flow#defaultBufferSize()} events behind, pending events of each buffer are
+     * replaced by a {@link com.ensarsarajcic.neovim.java.notifications.buffer.BufferResyncEvent}, telling it to read
+     * the buffer again
+     * It will never complete
+     * @return {@link Flow.Publisher} passing down buffer events, merging bursts of line changes
+     */
+    Flow.Publisher<BufferEvent> coalescedBufferEvents();
+
+    /**
+     * Passes down a publisher of raw {@link NotificationMessage} objects with any of the given names
+     * Useful for custom notifications, such as the ones sent using rpcnotify
+     * It will never complete
+     * @param names names of notifications to pass down
+     * @return {@link Flow.Publisher} passing down matching notifications as they come
+     */
+    Flow.Publisher<NotificationMessage> notifications(String... names);
 }
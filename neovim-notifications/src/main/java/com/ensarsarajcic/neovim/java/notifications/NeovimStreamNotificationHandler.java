@@ -24,21 +24,21 @@
 
 package com.ensarsarajcic.neovim.java.notifications;
 
-import com.ensarsarajcic.neovim.java.api.util.ObjectMappers;
 import com.ensarsarajcic.neovim.java.corerpc.message.NotificationMessage;
 import com.ensarsarajcic.neovim.java.corerpc.reactive.ReactiveRPCStreamer;
 import com.ensarsarajcic.neovim.java.notifications.buffer.BufferEvent;
+import com.ensarsarajcic.neovim.java.notifications.flow.FusedFlow;
 import com.ensarsarajcic.neovim.java.notifications.ui.NeovimRedrawEvent;
 import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.ensarsarajcic.neovim.java.notifications.ui.screen.ScreenFrame;
+import com.ensarsarajcic.neovim.java.notifications.ui.screen.ScreenFrameProcessor;
+import com.ensarsarajcic.neovim.java.notifications.ui.screen.ScreenGrid;
 
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.Flow;
-import java.util.stream.Collectors;
 
 /**
  * Implementation of {@link NeovimNotificationHandler} based on {@link ReactiveRPCStreamer}
@@ -47,21 +47,24 @@ import java.util.stream.Collectors;
  * for reading incoming notifications. Output should provide properly generated notifications of the right type
  * which can be casted to access notification specific data.
  * <p>
+ * Notifications are dispatched by name using {@link NotificationRouter}, shared by all handlers of the same
+ * {@link ReactiveRPCStreamer}. Mapping to notification objects is fused into the subscription using {@link FusedFlow},
+ * so it runs on the thread delivering notifications of the route.
+ * <p>
  * Example:
  * <pre>
  *     {@code
  *     NeovimNotificationHandler notificationHandler = new NeovimNotificationHandler(streamer);
  *
  *     notification.uiEvents().subscribe(uiEventSubscriber);
+ *     notification.uiEvents(Set.of(ModeChangeEvent.class, BusyOnEvent.class)).subscribe(statusLineSubscriber);
  *     notification.bufferEvents().subscribe(bufferEventSubscriber);
+ *     notification.coalescedBufferEvents().subscribe(slowBufferEventSubscriber);
  *     }
  * </pre>
  */
 public final class NeovimStreamNotificationHandler implements NeovimNotificationHandler {
-    private static final Logger log = LoggerFactory.getLogger(NeovimStreamNotificationHandler.class);
-
-    private ReactiveRPCStreamer reactiveRPCStreamer;
-    private ObjectMapper objectMapper;
+    private NotificationRouter notificationRouter;
 
     /**
      * Creates a new {@link NeovimStreamNotificationHandler} reading notifications from {@link ReactiveRPCStreamer}
@@ -71,62 +74,64 @@ public final class NeovimStreamNotificationHandler implements NeovimNotification
      */
     public NeovimStreamNotificationHandler(ReactiveRPCStreamer reactiveRPCStreamer) {
         Objects.requireNonNull(reactiveRPCStreamer, "reactiveRPCStreamer is required to receive notifications");
-        this.reactiveRPCStreamer = reactiveRPCStreamer;
-        this.objectMapper = ObjectMappers.defaultNeovimMapper();
+        this.notificationRouter = NotificationRouter.forStreamer(reactiveRPCStreamer);
     }
 
     @Override
     public Flow.Publisher<NeovimRedrawEvent> uiEvents() {
-        FilterProcessor<NotificationMessage> uiEventFilterProcessor = new FilterProcessor<>(
-                notificationMessage -> notificationMessage.getName().equals(NeovimRedrawEvent.NAME));
-        MappingProcessor<NotificationMessage, NeovimRedrawEvent> uiEventMappingProcessor =
-                new MappingProcessor<>(notificationMessage -> {
-                    List<List> rawEvents = objectMapper.convertValue(notificationMessage.getArguments(),
-                            objectMapper.getTypeFactory().constructCollectionLikeType(List.class, List.class));
-                    return new NeovimRedrawEvent(
-                            rawEvents.stream()
-                                    .map(NeovimStreamNotificationHandler::eventFromRawData)
-                                    .flatMap(Collection::stream)
-                                    .collect(Collectors.toList())
-                    );
-                });
-        reactiveRPCStreamer.notificationsFlow().subscribe(uiEventFilterProcessor);
-        uiEventFilterProcessor.subscribe(uiEventMappingProcessor);
-        return uiEventMappingProcessor;
+        return FusedFlow.from(route(Set.of(NeovimRedrawEvent.NAME)))
+                .map(new RedrawEventDecoder(NotificationCreatorCollector.getUIEventCreators(), null));
+    }
+
+    @Override
+    public Flow.Publisher<NeovimRedrawEvent> uiEvents(Collection<Class<? extends UIEvent>> eventTypes) {
+        Objects.requireNonNull(eventTypes, "eventTypes are required to select ui events");
+        Set<String> acceptedNames = NotificationCreatorCollector.getUIEventNames(eventTypes);
+        return FusedFlow.from(route(Set.of(NeovimRedrawEvent.NAME)))
+                .map(new RedrawEventDecoder(NotificationCreatorCollector.getUIEventCreators(), acceptedNames));
+    }
+
+    @Override
+    public Flow.Publisher<ScreenFrame> uiFrames() {
+        return subscriber -> {
+            ScreenFrameProcessor frameProcessor = ScreenFrameProcessor.forGrid(new ScreenGrid());
+            frameProcessor.subscribe(subscriber);
+            route(Set.of(NeovimRedrawEvent.NAME)).subscribe(frameProcessor);
+        };
     }
 
     @Override
     public Flow.Publisher<BufferEvent> bufferEvents() {
-        FilterProcessor<NotificationMessage> bufferEventFilterProcessor = new FilterProcessor<>(
-                notificationMessage -> notificationMessage.getName().startsWith(BufferEvent.PREFIX));
-        MappingProcessor<NotificationMessage, BufferEvent> bufferEventMappingProcessor =
-                new MappingProcessor<>(
-                        notificationMessage ->
-                                NotificationCreatorCollector.getBufferEventCreators()
-                                        .get(notificationMessage.getName())
-                                        .apply(notificationMessage.getArguments())
+        return FusedFlow.from(route(NotificationCreatorCollector.getBufferEventCreators().keySet()))
+                .map(notificationMessage ->
+                        NotificationCreatorCollector.getBufferEventCreators()
+                                .get(notificationMessage.getName())
+                                .apply(notificationMessage.getArguments())
                 );
-        reactiveRPCStreamer.notificationsFlow().subscribe(bufferEventFilterProcessor);
-        bufferEventFilterProcessor.subscribe(bufferEventMappingProcessor);
-        return bufferEventMappingProcessor;
     }
 
-    private static List<UIEvent> eventFromRawData(List data) {
-        if (data.isEmpty()) {
-            log.error("Cannot create UIEvent because data is empty!");
-            throw new IllegalArgumentException("Empty data!");
+    @Override
+    public Flow.Publisher<BufferEvent> coalescedBufferEvents() {
+        return subscriber -> {
+            BufferEventCoalescingProcessor coalescingProcessor = new BufferEventCoalescingProcessor();
+            coalescingProcessor.subscribe(subscriber);
+            bufferEvents().subscribe(coalescingProcessor);
+        };
+    }
+
+    @Override
+    public Flow.Publisher<NotificationMessage> notifications(String... names) {
+        return route(Set.copyOf(Arrays.asList(names)));
+    }
+
+    /**
+     * Creates a publisher registering a new route for each of its subscribers
+     * Route is closed once its subscriber cancels, so routes of abandoned flows don't pile up in the router
+     */
+    private Flow.Publisher<NotificationMessage> route(Set<String> names) {
+        if (names.isEmpty()) {
+            throw new IllegalArgumentException("At least one notification name is required for a route");
         }
-        String name = (String) data.get(0);
-        List<List> eventsList = (List<List>) data.subList(1, data.size());
-        return eventsList.stream()
-                .map(o -> {
-                    try {
-                        return NotificationCreatorCollector.getUIEventCreators().get(name).apply(o);
-                    } catch (NullPointerException ex) {
-                        log.error("Missing creator for ui event {}" + name, ex);
-                        throw ex;
-                    }
-                })
-                .collect(Collectors.toList());
+        return subscriber -> notificationRouter.route(names).closeWhenUnsubscribed().subscribe(subscriber);
     }
 }
@@ -24,102 +24,159 @@
 
 package com.ensarsarajcic.neovim.java.notifications;
 
-import com.ensarsarajcic.neovim.java.api.util.ObjectMappers;
+import com.ensarsarajcic.neovim.java.notifications.buffer.BufferChangedTickEvent;
+import com.ensarsarajcic.neovim.java.notifications.buffer.BufferDetachEvent;
 import com.ensarsarajcic.neovim.java.notifications.buffer.BufferEvent;
+import com.ensarsarajcic.neovim.java.notifications.buffer.BufferLinesEvent;
 import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
-import com.ensarsarajcic.neovim.java.notifications.util.ReflectionUtils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.ensarsarajcic.neovim.java.notifications.ui.cmdline.CmdlineBlockAppend;
+import com.ensarsarajcic.neovim.java.notifications.ui.cmdline.CmdlineBlockHideEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.cmdline.CmdlineBlockShow;
+import com.ensarsarajcic.neovim.java.notifications.ui.cmdline.CmdlineHideEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.cmdline.CmdlinePosEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.cmdline.CmdlineShowEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.cmdline.CmdlineSpecialCharEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.global.BellEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.global.BusyOffEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.global.BusyOnEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.global.ModeChangeEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.global.ModeInfoSetEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.global.MouseOffEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.global.MouseOnEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.global.OptionSetEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.global.SetIconEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.global.SetTitleEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.global.SuspendEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.global.UpdateMenuEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.global.VisualBellEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.ClearEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.CursorGotoEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.DefaultColorsSetEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.EolClearEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.FlushEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridClearEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridCursorGotoEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridLineEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridResizeEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridScrollEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.HighlightSetEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.HlAttrDefineEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.PutEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.ResizeEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.ScrollEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.SetScrollRegionEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.UpdateBackgroundEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.UpdateForegroundEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.UpdateSpecialColorEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.multigrid.GridDestroyEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.multigrid.WinCloseEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.multigrid.WinFloatPosEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.multigrid.WinHideEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.multigrid.WinPosEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.popupmenu.PopupmenuHideEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.popupmenu.PopupmenuSelectEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.popupmenu.PopupmenuShowEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.tabline.TablineUpdateEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.wildmenu.WildmenuHideEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.wildmenu.WildmenuSelectEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.wildmenu.WildmenuShowEvent;
 
-import java.io.IOException;
-import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 
 /**
- * Class used internally by the library to find and provide creators for all notification types
- * These creators are either static fields named CREATOR which generate the object from raw array,
- * or are functions which utilize default neovim mapper to convert object
+ * Class used internally by the library to provide creators for all notification types
+ * These creators are static fields named CREATOR which generate the object from raw array
  * <p>
- * All of the creators are loaded upon first call and cached for further use
+ * All notification types are listed in static tables below, so no classpath scanning or reflective field access
+ * is needed to find them, and they are found the same way no matter how the library is packaged (module path,
+ * class path, shaded jar). Tables are built once, when this class is first used.
+ * <p>
+ * New event types need to be added here. NotificationCreatorCollectorTest fails for any class with a NAME or
+ * CREATOR field which is missing from the tables, and for entries left in the tables after an event is removed.
  */
 final class NotificationCreatorCollector {
-    private static final Logger log = LoggerFactory.getLogger(NotificationCreatorCollector.class);
 
-    private static Map<String, Function<List, UIEvent>> uiEventCreators = null;
-    private static Map<String, Function<List, BufferEvent>> bufferEventCreators = null;
+    private static final Map<String, Function<List, UIEvent>> uiEventCreators = new HashMap<>();
+    private static final Map<Class<? extends UIEvent>, String> uiEventNames = new LinkedHashMap<>();
+    private static final Map<String, Function<List, BufferEvent>> bufferEventCreators = new HashMap<>();
+
+    static {
+        ui(CmdlineBlockAppend.class, CmdlineBlockAppend.NAME, CmdlineBlockAppend.CREATOR);
+        ui(CmdlineBlockHideEvent.class, CmdlineBlockHideEvent.NAME, CmdlineBlockHideEvent.CREATOR);
+        ui(CmdlineBlockShow.class, CmdlineBlockShow.NAME, CmdlineBlockShow.CREATOR);
+        ui(CmdlineHideEvent.class, CmdlineHideEvent.NAME, CmdlineHideEvent.CREATOR);
+        ui(CmdlinePosEvent.class, CmdlinePosEvent.NAME, CmdlinePosEvent.CREATOR);
+        ui(CmdlineShowEvent.class, CmdlineShowEvent.NAME, CmdlineShowEvent.CREATOR);
+        ui(CmdlineSpecialCharEvent.class, CmdlineSpecialCharEvent.NAME, CmdlineSpecialCharEvent.CREATOR);
+        ui(BellEvent.class, BellEvent.NAME, BellEvent.CREATOR);
+        ui(BusyOffEvent.class, BusyOffEvent.NAME, BusyOffEvent.CREATOR);
+        ui(BusyOnEvent.class, BusyOnEvent.NAME, BusyOnEvent.CREATOR);
+        ui(ModeChangeEvent.class, ModeChangeEvent.NAME, ModeChangeEvent.CREATOR);
+        ui(ModeInfoSetEvent.class, ModeInfoSetEvent.NAME, ModeInfoSetEvent.CREATOR);
+        ui(MouseOffEvent.class, MouseOffEvent.NAME, MouseOffEvent.CREATOR);
+        ui(MouseOnEvent.class, MouseOnEvent.NAME, MouseOnEvent.CREATOR);
+        ui(OptionSetEvent.class, OptionSetEvent.NAME, OptionSetEvent.CREATOR);
+        ui(SetIconEvent.class, SetIconEvent.NAME, SetIconEvent.CREATOR);
+        ui(SetTitleEvent.class, SetTitleEvent.NAME, SetTitleEvent.CREATOR);
+        ui(SuspendEvent.class, SuspendEvent.NAME, SuspendEvent.CREATOR);
+        ui(UpdateMenuEvent.class, UpdateMenuEvent.NAME, UpdateMenuEvent.CREATOR);
+        ui(VisualBellEvent.class, VisualBellEvent.NAME, VisualBellEvent.CREATOR);
+        ui(ClearEvent.class, ClearEvent.NAME, ClearEvent.CREATOR);
+        ui(CursorGotoEvent.class, CursorGotoEvent.NAME, CursorGotoEvent.CREATOR);
+        ui(DefaultColorsSetEvent.class, DefaultColorsSetEvent.NAME, DefaultColorsSetEvent.CREATOR);
+        ui(EolClearEvent.class, EolClearEvent.NAME, EolClearEvent.CREATOR);
+        ui(FlushEvent.class, FlushEvent.NAME, FlushEvent.CREATOR);
+        ui(GridClearEvent.class, GridClearEvent.NAME, GridClearEvent.CREATOR);
+        ui(GridCursorGotoEvent.class, GridCursorGotoEvent.NAME, GridCursorGotoEvent.CREATOR);
+        ui(GridLineEvent.class, GridLineEvent.NAME, GridLineEvent.CREATOR);
+        ui(GridResizeEvent.class, GridResizeEvent.NAME, GridResizeEvent.CREATOR);
+        ui(GridScrollEvent.class, GridScrollEvent.NAME, GridScrollEvent.CREATOR);
+        ui(HighlightSetEvent.class, HighlightSetEvent.NAME, HighlightSetEvent.CREATOR);
+        ui(HlAttrDefineEvent.class, HlAttrDefineEvent.NAME, HlAttrDefineEvent.CREATOR);
+        ui(PutEvent.class, PutEvent.NAME, PutEvent.CREATOR);
+        ui(ResizeEvent.class, ResizeEvent.NAME, ResizeEvent.CREATOR);
+        ui(ScrollEvent.class, ScrollEvent.NAME, ScrollEvent.CREATOR);
+        ui(SetScrollRegionEvent.class, SetScrollRegionEvent.NAME, SetScrollRegionEvent.CREATOR);
+        ui(UpdateBackgroundEvent.class, UpdateBackgroundEvent.NAME, UpdateBackgroundEvent.CREATOR);
+        ui(UpdateForegroundEvent.class, UpdateForegroundEvent.NAME, UpdateForegroundEvent.CREATOR);
+        ui(UpdateSpecialColorEvent.class, UpdateSpecialColorEvent.NAME, UpdateSpecialColorEvent.CREATOR);
+        ui(GridDestroyEvent.class, GridDestroyEvent.NAME, GridDestroyEvent.CREATOR);
+        ui(WinCloseEvent.class, WinCloseEvent.NAME, WinCloseEvent.CREATOR);
+        ui(WinFloatPosEvent.class, WinFloatPosEvent.NAME, WinFloatPosEvent.CREATOR);
+        ui(WinHideEvent.class, WinHideEvent.NAME, WinHideEvent.CREATOR);
+        ui(WinPosEvent.class, WinPosEvent.NAME, WinPosEvent.CREATOR);
+        ui(PopupmenuHideEvent.class, PopupmenuHideEvent.NAME, PopupmenuHideEvent.CREATOR);
+        ui(PopupmenuSelectEvent.class, PopupmenuSelectEvent.NAME, PopupmenuSelectEvent.CREATOR);
+        ui(PopupmenuShowEvent.class, PopupmenuShowEvent.NAME, PopupmenuShowEvent.CREATOR);
+        ui(TablineUpdateEvent.class, TablineUpdateEvent.NAME, TablineUpdateEvent.CREATOR);
+        ui(WildmenuHideEvent.class, WildmenuHideEvent.NAME, WildmenuHideEvent.CREATOR);
+        ui(WildmenuSelectEvent.class, WildmenuSelectEvent.NAME, WildmenuSelectEvent.CREATOR);
+        ui(WildmenuShowEvent.class, WildmenuShowEvent.NAME, WildmenuShowEvent.CREATOR);
 
+        buffer(BufferChangedTickEvent.NAME, BufferChangedTickEvent.CREATOR);
+        buffer(BufferDetachEvent.NAME, BufferDetachEvent.CREATOR);
+        buffer(BufferLinesEvent.NAME, BufferLinesEvent.CREATOR);
+    }
 
     private NotificationCreatorCollector() {
         throw new AssertionError("No instance");
     }
 
-    private static Map<String, Function<List, UIEvent>> createUIEventCreators() {
-        Map<String, Function<List, UIEvent>> uiEventCreators = new HashMap<>();
-        try {
-            Class[] classes = ReflectionUtils.getClasses(UIEvent.class.getPackageName());
-            for (Class clazz : classes) {
-                if (!UIEvent.class.isAssignableFrom(clazz) || clazz.isInterface()) {
-                    continue;
-                }
-                Class<? extends UIEvent> uiEventClass = clazz;
-
-                try {
-                    Field nameField = uiEventClass.getDeclaredField("NAME");
-                    Function<List, UIEvent> creator = null;
-                    try {
-                        Field creatorField = uiEventClass.getDeclaredField("CREATOR");
-                        creator = (Function<List, UIEvent>) creatorField.get(null);
-                    } catch (NoSuchFieldException ex) {
-                        creator = list -> ObjectMappers.defaultNeovimMapper().convertValue(list, uiEventClass);
-                    }
-                    String name = (String) nameField.get(null);
-                    uiEventCreators.put(name, creator);
-                } catch (NoSuchFieldException | IllegalAccessException e) {
-                    log.error("An error occurred while building creator for " + uiEventClass, e);
-                    e.printStackTrace();
-                }
-            }
-        } catch (ClassNotFoundException | IOException e) {
-            log.error("An error ocurred while building creators for ui events!", e);
-            e.printStackTrace();
-        }
-        return uiEventCreators;
+    private static void ui(Class<? extends UIEvent> eventClass, String name, Function<List, UIEvent> creator) {
+        uiEventCreators.put(name, creator);
+        uiEventNames.put(eventClass, name);
     }
 
-    private static Map<String, Function<List, BufferEvent>> createBufferEventCreators() {
-        Map<String, Function<List, BufferEvent>> bufferEventCreators = new HashMap<>();
-        try {
-            Class[] classes = ReflectionUtils.getClasses(BufferEvent.class.getPackageName());
-            for (Class clazz : classes) {
-                if (!BufferEvent.class.isAssignableFrom(clazz) || clazz.isInterface()) {
-                    continue;
-                }
-                Class<? extends BufferEvent> bufferEventClass = clazz;
-
-                try {
-                    Field nameField = bufferEventClass.getDeclaredField("NAME");
-                    Function<List, BufferEvent> creator = null;
-                    try {
-                        Field creatorField = bufferEventClass.getDeclaredField("CREATOR");
-                        creator = (Function<List, BufferEvent>) creatorField.get(null);
-                    } catch (NoSuchFieldException ex) {
-                        creator = list -> ObjectMappers.defaultNeovimMapper().convertValue(list, bufferEventClass);
-                    }
-                    String name = (String) nameField.get(null);
-                    bufferEventCreators.put(name, creator);
-                } catch (NoSuchFieldException | IllegalAccessException e) {
-                    log.error("An error occurred while building creator for " + bufferEventClass, e);
-                    e.printStackTrace();
-                }
-            }
-        } catch (ClassNotFoundException | IOException e) {
-            log.error("An error ocurred while building creators for buffer events!", e);
-            e.printStackTrace();
-        }
-        return bufferEventCreators;
+    private static void buffer(String name, Function<List, BufferEvent> creator) {
+        bufferEventCreators.put(name, creator);
     }
 
     /**
@@ -127,14 +184,31 @@ final class NotificationCreatorCollector {
      * @return Map of creators where key is notification name and value is function which creates notification from raw array
      */
     public static Map<String, Function<List, UIEvent>> getUIEventCreators() {
-        if (uiEventCreators == null) {
-            synchronized (NotificationCreatorCollector.class) {
-                if (uiEventCreators == null) {
-                    uiEventCreators = createUIEventCreators();
+        return Collections.unmodifiableMap(uiEventCreators);
+    }
+
+    /**
+     * Provides names of all {@link UIEvent} notifications of given types
+     * Types may also be interfaces, in which case names of all implementing events are provided
+     * @param eventTypes types of events
+     * @return Set of notification names
+     * @throws IllegalArgumentException if there is no known event for any of the types
+     */
+    public static Set<String> getUIEventNames(Collection<Class<? extends UIEvent>> eventTypes) {
+        Set<String> names = new HashSet<>();
+        for (Class<? extends UIEvent> eventType : eventTypes) {
+            boolean found = false;
+            for (Map.Entry<Class<? extends UIEvent>, String> entry : uiEventNames.entrySet()) {
+                if (eventType.isAssignableFrom(entry.getKey())) {
+                    names.add(entry.getValue());
+                    found = true;
                 }
             }
+            if (!found) {
+                throw new IllegalArgumentException("Unknown ui event type: " + eventType);
+            }
         }
-        return uiEventCreators;
+        return names;
     }
 
     /**
@@ -142,13 +216,6 @@ final class NotificationCreatorCollector {
      * @return Map of creators where key is notification name and value is function which creates notification from raw array
      */
     public static Map<String, Function<List, BufferEvent>> getBufferEventCreators() {
-        if (bufferEventCreators == null) {
-            synchronized (NotificationCreatorCollector.class) {
-                if (bufferEventCreators == null) {
-                    bufferEventCreators = createBufferEventCreators();
-                }
-            }
-        }
-        return bufferEventCreators;
+        return Collections.unmodifiableMap(bufferEventCreators);
     }
 }
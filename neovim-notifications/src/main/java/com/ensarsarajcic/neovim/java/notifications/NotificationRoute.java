@@ -0,0 +1,180 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications;
+
+import com.ensarsarajcic.neovim.java.corerpc.message.NotificationMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A single registration in a {@link NotificationRouter}
+ * <p>
+ * Passes down all notifications with names this route was registered for. Any number of subscribers is supported.
+ * Route stays registered until {@link #close()} is called, which also completes all of its subscribers.
+ * <p>
+ * Routing does not block on slow subscribers, so they can't stall other routes, and no notification is ever
+ * dropped. Each subscriber has its own buffer, which starts small and grows while the subscriber is not keeping up.
+ */
+public final class NotificationRoute implements Flow.Publisher<NotificationMessage>, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(NotificationRoute.class);
+
+    // Largest capacity supported by SubmissionPublisher, buffers only grow this big if a subscriber stops requesting
+    private static final int MAX_BUFFER_CAPACITY = 1 << 30;
+
+    private final NotificationRouter router;
+    private final Set<String> names;
+    private final SubmissionPublisher<NotificationMessage> publisher =
+            new SubmissionPublisher<>(ForkJoinPool.commonPool(), MAX_BUFFER_CAPACITY);
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private volatile boolean closeWhenUnsubscribed;
+
+    NotificationRoute(NotificationRouter router, Set<String> names) {
+        this.router = router;
+        this.names = names;
+    }
+
+    /**
+     * Provides names of notifications passed down by this route
+     * @return unmodifiable set of notification names
+     */
+    public Set<String> getNames() {
+        return names;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super NotificationMessage> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber may not be null");
+        subscriberCount.incrementAndGet();
+        publisher.subscribe(new CountedSubscriber(subscriber));
+    }
+
+    /**
+     * Removes this route from its {@link NotificationRouter} and completes all subscribers
+     * Calling it multiple times has no effect
+     */
+    @Override
+    public void close() {
+        router.remove(this);
+        publisher.close();
+    }
+
+    /**
+     * Makes this route close itself once its last subscriber cancels
+     * Used for routes owned by a single publisher, which nobody else could close
+     * @return this route
+     */
+    NotificationRoute closeWhenUnsubscribed() {
+        this.closeWhenUnsubscribed = true;
+        return this;
+    }
+
+    void publish(NotificationMessage notificationMessage) {
+        try {
+            int lag = publisher.submit(notificationMessage);
+            if (lag > Flow.defaultBufferSize()) {
+                log.debug("Subscriber of {} is {} notifications behind", this, lag);
+            }
+        } catch (IllegalStateException ex) {
+            // Route was closed while notification was being routed, nobody is interested anymore
+        }
+    }
+
+    private void unsubscribed() {
+        if (subscriberCount.decrementAndGet() == 0 && closeWhenUnsubscribed) {
+            close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "NotificationRoute{" +
+                "names=" + names +
+                '}';
+    }
+
+    /**
+     * Subscriber keeping track of number of active subscribers of the route
+     */
+    private final class CountedSubscriber implements Flow.Subscriber<NotificationMessage> {
+        private final Flow.Subscriber<? super NotificationMessage> downstream;
+        private final AtomicBoolean active = new AtomicBoolean(true);
+
+        private CountedSubscriber(Flow.Subscriber<? super NotificationMessage> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            downstream.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    subscription.request(n);
+                }
+
+                @Override
+                public void cancel() {
+                    subscription.cancel();
+                    deactivate();
+                }
+            });
+        }
+
+        @Override
+        public void onNext(NotificationMessage item) {
+            downstream.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            deactivate();
+            downstream.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            deactivate();
+            downstream.onComplete();
+        }
+
+        private void deactivate() {
+            if (active.compareAndSet(true, false)) {
+                unsubscribed();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return downstream.toString();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications;
+
+import com.ensarsarajcic.neovim.java.corerpc.message.NotificationMessage;
+import com.ensarsarajcic.neovim.java.corerpc.reactive.ReactiveRPCStreamer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+
+/**
+ * Demultiplexer of notifications coming from a single {@link ReactiveRPCStreamer}
+ * <p>
+ * It subscribes to {@link ReactiveRPCStreamer#notificationsFlow()} only once and routes each
+ * {@link NotificationMessage} by its name, using a single hash lookup, only to the {@link NotificationRoute}s
+ * registered for that name. Cost of a single notification therefore does not grow with number of routes
+ * registered for other notifications.
+ * <p>
+ * A single instance is shared by all users of the same {@link ReactiveRPCStreamer}, see {@link #forStreamer(ReactiveRPCStreamer)}
+ * <p>
+ * Example:
+ * <pre>
+ *     {@code
+ *     NotificationRouter router = NotificationRouter.forStreamer(streamer);
+ *
+ *     NotificationRoute route = router.route("my_plugin_event");
+ *     route.subscribe(customNotificationSubscriber);
+ *
+ *     // ...
+ *
+ *     route.close(); // unregisters the route and completes its subscribers
+ *     }
+ * </pre>
+ */
+public final class NotificationRouter implements Flow.Subscriber<NotificationMessage> {
+    private static final Logger log = LoggerFactory.getLogger(NotificationRouter.class);
+
+    private static final Map<ReactiveRPCStreamer, NotificationRouter> routers = new WeakHashMap<>();
+
+    private final Map<String, List<NotificationRoute>> routes = new ConcurrentHashMap<>();
+
+    private NotificationRouter() {
+    }
+
+    /**
+     * Provides the router for given {@link ReactiveRPCStreamer}
+     * Router is created and subscribed to {@link ReactiveRPCStreamer#notificationsFlow()} on first call for the
+     * streamer and the same instance is returned for every following call
+     *
+     * @param reactiveRPCStreamer streamer whose notifications should be routed
+     * @return router shared by all users of passed streamer
+     * @throws NullPointerException if reactiveRPCStreamer is null
+     */
+    public static NotificationRouter forStreamer(ReactiveRPCStreamer reactiveRPCStreamer) {
+        Objects.requireNonNull(reactiveRPCStreamer, "reactiveRPCStreamer is required to route notifications");
+        synchronized (routers) {
+            NotificationRouter router = routers.get(reactiveRPCStreamer);
+            if (router == null) {
+                router = new NotificationRouter();
+                reactiveRPCStreamer.notificationsFlow().subscribe(router);
+                routers.put(reactiveRPCStreamer, router);
+            }
+            return router;
+        }
+    }
+
+    /**
+     * Registers a new {@link NotificationRoute} which will receive notifications with any of the passed names
+     *
+     * @param names names of notifications to route
+     * @return newly registered route
+     * @throws IllegalArgumentException if no names are passed
+     */
+    public NotificationRoute route(String... names) {
+        return route(Arrays.asList(names));
+    }
+
+    /**
+     * Registers a new {@link NotificationRoute} which will receive notifications with any of the passed names
+     *
+     * @param names names of notifications to route
+     * @return newly registered route
+     * @throws IllegalArgumentException if no names are passed
+     */
+    public NotificationRoute route(Collection<String> names) {
+        if (names.isEmpty()) {
+            throw new IllegalArgumentException("At least one notification name is required for a route");
+        }
+        NotificationRoute route = new NotificationRoute(this, Set.copyOf(names));
+        for (String name : route.getNames()) {
+            routes.compute(name, (key, namedRoutes) -> {
+                List<NotificationRoute> updated = namedRoutes != null ? namedRoutes : new CopyOnWriteArrayList<>();
+                updated.add(route);
+                return updated;
+            });
+        }
+        log.info("Registered a new route for: {}", route.getNames());
+        return route;
+    }
+
+    /**
+     * Unregisters given route. It will no longer receive notifications.
+     * If route was not registered in this router, this is a no-op
+     * <p>
+     * {@link NotificationRoute#close()} should usually be used instead, since it also completes its subscribers
+     *
+     * @param route route to remove
+     */
+    public void remove(NotificationRoute route) {
+        for (String name : route.getNames()) {
+            routes.computeIfPresent(name, (key, namedRoutes) -> {
+                namedRoutes.remove(route);
+                return namedRoutes.isEmpty() ? null : namedRoutes;
+            });
+        }
+        log.info("Removed a route for: {}", route.getNames());
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(NotificationMessage item) {
+        List<NotificationRoute> namedRoutes = routes.get(item.getName());
+        if (namedRoutes == null) {
+            return;
+        }
+        for (NotificationRoute route : namedRoutes) {
+            route.publish(item);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        log.error("Notifications flow failed", throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        routes.values().stream()
+                .flatMap(Collection::stream)
+                .distinct()
+                .forEach(NotificationRoute::close);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications;
+
+import com.ensarsarajcic.neovim.java.corerpc.message.NotificationMessage;
+import com.ensarsarajcic.neovim.java.notifications.ui.NeovimRedrawEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Decodes raw "redraw" {@link NotificationMessage} into {@link NeovimRedrawEvent}
+ * <p>
+ * Redraw notification consists of batches, each starting with the name of the event, followed by
+ * arguments of each occurrence of that event. Decoder reads only the name of each batch and skips the rest of
+ * the batch if the name is not accepted, so creators are called only for events of interest.
+ * <p>
+ * Returns null if no event in the notification was accepted.
+ */
+final class RedrawEventDecoder implements Function<NotificationMessage, NeovimRedrawEvent> {
+    private static final Logger log = LoggerFactory.getLogger(RedrawEventDecoder.class);
+
+    private final Map<String, Function<List, UIEvent>> creators;
+    private final Set<String> acceptedNames;
+
+    /**
+     * Creates a new decoder for given set of event names
+     * @param creators creators of ui events, by their names
+     * @param acceptedNames names of events to decode, or null to decode all events
+     */
+    RedrawEventDecoder(Map<String, Function<List, UIEvent>> creators, Set<String> acceptedNames) {
+        this.creators = creators;
+        this.acceptedNames = acceptedNames;
+    }
+
+    @Override
+    public NeovimRedrawEvent apply(NotificationMessage notificationMessage) {
+        List<UIEvent> uiEvents = new ArrayList<>();
+        for (Object rawBatch : notificationMessage.getArguments()) {
+            if (!(rawBatch instanceof List) || ((List) rawBatch).isEmpty()) {
+                log.error("Cannot create UIEvent because data is invalid: {}", rawBatch);
+                throw new IllegalArgumentException("Invalid redraw batch!");
+            }
+            List batch = (List) rawBatch;
+            String name = (String) batch.get(0);
+            if (acceptedNames != null && !acceptedNames.contains(name)) {
+                continue;
+            }
+            Function<List, UIEvent> creator = creators.get(name);
+            if (creator == null) {
+                log.error("Missing creator for ui event {}", name);
+                continue;
+            }
+            for (int i = 1; i < batch.size(); i++) {
+                uiEvents.add(creator.apply((List) batch.get(i)));
+            }
+        }
+
+        if (uiEvents.isEmpty() && acceptedNames != null) {
+            return null;
+        }
+        return new NeovimRedrawEvent(uiEvents);
+    }
+}
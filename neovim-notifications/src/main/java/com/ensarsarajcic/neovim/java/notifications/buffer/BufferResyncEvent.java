@@ -0,0 +1,66 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.buffer;
+
+import com.ensarsarajcic.neovim.java.api.types.msgpack.Buffer;
+
+/**
+ * Event which is not sent by neovim, but passed down by coalesced buffer events in place of many pending events
+ * of a single buffer, when a subscriber falls too far behind to keep all of them
+ * <p>
+ * Contents of the buffer should be read again (for example using nvim_buf_get_lines), since changes which were
+ * replaced by this event are no longer known. Changedtick is the last one of the replaced events.
+ */
+public final class BufferResyncEvent implements BufferEvent {
+
+    private Buffer buffer;
+    private long changedTick;
+
+    public BufferResyncEvent(Buffer buffer, long changedTick) {
+        this.buffer = buffer;
+        this.changedTick = changedTick;
+    }
+
+    public Buffer getBuffer() {
+        return buffer;
+    }
+
+    public long getChangedTick() {
+        return changedTick;
+    }
+
+    @Override
+    public String getNotificationName() {
+        return "nvim_buf_resync_event";
+    }
+
+    @Override
+    public String toString() {
+        return "BufferResyncEvent{" +
+                "buffer=" + buffer +
+                ", changedTick=" + changedTick +
+                '}';
+    }
+}
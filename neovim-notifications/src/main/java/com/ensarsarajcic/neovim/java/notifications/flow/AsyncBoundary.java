@@ -0,0 +1,99 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.flow;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+
+/**
+ * Publisher delivering items of upstream publisher using a different {@link Executor}
+ * <p>
+ * Each subscriber gets its own {@link SubmissionPublisher} with buffer of given size, subscribed to upstream publisher.
+ * Upstream items are requested in batches, while full buffer blocks upstream thread until subscriber catches up.
+ */
+final class AsyncBoundary<T> implements Flow.Publisher<T> {
+
+    private final Flow.Publisher<T> upstream;
+    private final Executor executor;
+    private final int bufferSize;
+
+    AsyncBoundary(Flow.Publisher<T> upstream, Executor executor, int bufferSize) {
+        this.upstream = upstream;
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        BoundaryProcessor<T> boundaryProcessor = new BoundaryProcessor<>(executor, bufferSize);
+        boundaryProcessor.subscribe(subscriber);
+        upstream.subscribe(boundaryProcessor);
+    }
+
+    private static final class BoundaryProcessor<T> extends SubmissionPublisher<T> implements Flow.Processor<T, T> {
+        private final int bufferSize;
+        private final int limit;
+
+        private Flow.Subscription subscription;
+        private int received;
+
+        private BoundaryProcessor(Executor executor, int bufferSize) {
+            super(executor, bufferSize);
+            this.bufferSize = bufferSize;
+            this.limit = Math.max(1, bufferSize - (bufferSize >> 2));
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(bufferSize);
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (!hasSubscribers()) {
+                subscription.cancel();
+                close();
+                return;
+            }
+            submit(item);
+            if (++received == limit) {
+                received = 0;
+                subscription.request(limit);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            closeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            close();
+        }
+    }
+}
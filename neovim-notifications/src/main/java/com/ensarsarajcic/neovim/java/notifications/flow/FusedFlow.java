@@ -0,0 +1,182 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.flow;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * {@link Flow.Publisher} applying a chain of filter and map operations to items of a source publisher
+ * <p>
+ * All operations added using {@link #filter(Predicate)} and {@link #map(Function)} are fused into a single stage,
+ * which runs synchronously on the thread delivering items of the source publisher. No intermediate buffers or
+ * executor handoffs are introduced between operations. Items are requested from the source in batches of
+ * {@link #prefetch(int)} items and demand is replenished once three quarters of the batch has been consumed.
+ * <p>
+ * Asynchronous boundary is introduced only when explicitly requested using {@link #async(Executor)}. Operations added
+ * after it run on the given {@link Executor}.
+ * <p>
+ * Instances are immutable - each operation returns a new {@link FusedFlow}. Each subscriber gets its own chain
+ * subscribed to the source. Failures of operations are logged and failed items are dropped, without terminating the flow.
+ * <p>
+ * Example:
+ * <pre>
+ *     {@code
+ *     Flow.Publisher<String> modes = FusedFlow.from(notificationHandler.uiEvents())
+ *          .map(NeovimRedrawEvent::getUiEvents)
+ *          .filter(events -> !events.isEmpty())
+ *          .map(events -> events.get(0).getEventName())
+ *          .prefetch(64)
+ *          .async(uiExecutor); // deliver on ui thread
+ *
+ *     modes.subscribe(subscriber);
+ *     }
+ * </pre>
+ *
+ * @param <T> type of items passed down by this publisher
+ */
+public final class FusedFlow<T> implements Flow.Publisher<T> {
+
+    /**
+     * Default number of items requested from the source at once
+     */
+    public static final int DEFAULT_PREFETCH = Flow.defaultBufferSize();
+
+    private final Flow.Publisher<?> source;
+    private final Function<Object, ?> stage;
+    private final int prefetch;
+
+    private FusedFlow(Flow.Publisher<?> source, Function<Object, ?> stage, int prefetch) {
+        this.source = source;
+        this.stage = stage;
+        this.prefetch = prefetch;
+    }
+
+    /**
+     * Creates a new {@link FusedFlow} passing down items of given publisher unchanged
+     * If passed publisher is already a {@link FusedFlow}, it is returned
+     *
+     * @param source publisher to take items from
+     * @param <T>    type of items
+     * @return a {@link FusedFlow} based on given publisher
+     * @throws NullPointerException if source is null
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> FusedFlow<T> from(Flow.Publisher<T> source) {
+        Objects.requireNonNull(source, "source may not be null");
+        if (source instanceof FusedFlow) {
+            return (FusedFlow<T>) source;
+        }
+        return new FusedFlow<>(source, Function.identity(), DEFAULT_PREFETCH);
+    }
+
+    /**
+     * Fuses a filter operation into this flow
+     *
+     * @param predicate predicate items need to match to be passed down
+     * @return a new {@link FusedFlow} passing down only matching items
+     */
+    @SuppressWarnings("unchecked")
+    public FusedFlow<T> filter(Predicate<? super T> predicate) {
+        Objects.requireNonNull(predicate, "predicate may not be null");
+        Function<Object, ?> current = stage;
+        return new FusedFlow<>(source, item -> {
+            Object value = current.apply(item);
+            return value != null && predicate.test((T) value) ? value : null;
+        }, prefetch);
+    }
+
+    /**
+     * Fuses a map operation into this flow
+     * If mapping function returns null for an item, it is dropped
+     *
+     * @param mapper function mapping items
+     * @param <R>    type of mapped items
+     * @return a new {@link FusedFlow} passing down mapped items
+     */
+    @SuppressWarnings("unchecked")
+    public <R> FusedFlow<R> map(Function<? super T, ? extends R> mapper) {
+        Objects.requireNonNull(mapper, "mapper may not be null");
+        Function<Object, ?> current = stage;
+        return new FusedFlow<>(source, item -> {
+            Object value = current.apply(item);
+            return value != null ? mapper.apply((T) value) : null;
+        }, prefetch);
+    }
+
+    /**
+     * Changes number of items requested from the source at once
+     * {@link Integer#MAX_VALUE} requests unbounded number of items
+     *
+     * @param prefetch number of items to request at once
+     * @return a new {@link FusedFlow} using given prefetch
+     * @throws IllegalArgumentException if prefetch is not positive
+     */
+    public FusedFlow<T> prefetch(int prefetch) {
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("prefetch must be positive, but was: " + prefetch);
+        }
+        return new FusedFlow<>(source, stage, prefetch);
+    }
+
+    /**
+     * Introduces an asynchronous boundary, using {@link #DEFAULT_PREFETCH} as its buffer size
+     *
+     * @param executor executor used to deliver items past the boundary
+     * @return a new {@link FusedFlow} delivering items of this flow using given {@link Executor}
+     * @see #async(Executor, int)
+     */
+    public FusedFlow<T> async(Executor executor) {
+        return async(executor, DEFAULT_PREFETCH);
+    }
+
+    /**
+     * Introduces an asynchronous boundary
+     * Items of this flow are buffered and delivered to subscribers using given {@link Executor}, meaning that
+     * operations added to returned flow also run using that {@link Executor}
+     *
+     * @param executor   executor used to deliver items past the boundary
+     * @param bufferSize maximum number of items buffered per subscriber
+     * @return a new {@link FusedFlow} delivering items of this flow using given {@link Executor}
+     * @throws NullPointerException     if executor is null
+     * @throws IllegalArgumentException if bufferSize is not positive
+     */
+    public FusedFlow<T> async(Executor executor, int bufferSize) {
+        Objects.requireNonNull(executor, "executor may not be null");
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize must be positive, but was: " + bufferSize);
+        }
+        return new FusedFlow<>(new AsyncBoundary<>(this, executor, bufferSize), Function.identity(), bufferSize);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber may not be null");
+        source.subscribe(new FusedSubscriber<>(subscriber, stage, prefetch));
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.flow;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Subscriber running fused stage of {@link FusedFlow} for a single downstream subscriber
+ * <p>
+ * Stage is applied on the thread delivering upstream items. Results are passed down directly when downstream
+ * has outstanding demand and queued otherwise. Queue can never hold more than prefetch items, since upstream
+ * demand is only replenished as items are consumed.
+ */
+final class FusedSubscriber<T, R> implements Flow.Subscriber<T>, Flow.Subscription {
+    private static final Logger log = LoggerFactory.getLogger(FusedSubscriber.class);
+
+    private final Flow.Subscriber<? super R> downstream;
+    private final Function<Object, ?> stage;
+    private final int prefetch;
+    private final int limit;
+
+    private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicInteger consumed = new AtomicInteger();
+
+    private volatile Flow.Subscription upstream;
+    private volatile boolean cancelled;
+    private volatile boolean done;
+    private Throwable error;
+    private boolean terminated;
+
+    FusedSubscriber(Flow.Subscriber<? super R> downstream, Function<Object, ?> stage, int prefetch) {
+        this.downstream = downstream;
+        this.stage = stage;
+        this.prefetch = prefetch;
+        this.limit = prefetch - (prefetch >> 2);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (upstream != null) {
+            subscription.cancel();
+            return;
+        }
+        upstream = subscription;
+        downstream.onSubscribe(this);
+        subscription.request(prefetch == Integer.MAX_VALUE ? Long.MAX_VALUE : prefetch);
+    }
+
+    @Override
+    public void onNext(T item) {
+        Object result;
+        try {
+            result = stage.apply(item);
+        } catch (RuntimeException ex) {
+            log.error("Failed to process item, dropping it: " + item, ex);
+            result = null;
+        }
+        if (result == null) {
+            consumed(1);
+            return;
+        }
+        queue.offer(result);
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        error = throwable;
+        done = true;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        done = true;
+        drain();
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            cancel();
+            downstream.onError(new IllegalArgumentException("Requested non-positive number of items: " + n));
+            return;
+        }
+        requested.getAndAccumulate(n, (current, added) -> {
+            long sum = current + added;
+            return sum < 0 ? Long.MAX_VALUE : sum;
+        });
+        drain();
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        upstream.cancel();
+    }
+
+    private void consumed(int count) {
+        if (prefetch == Integer.MAX_VALUE) {
+            return;
+        }
+        int current = consumed.addAndGet(count);
+        if (current >= limit && consumed.compareAndSet(current, 0)) {
+            upstream.request(current);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            long requestedCount = requested.get();
+            long emitted = 0;
+            while (emitted != requestedCount && !cancelled) {
+                Object next = queue.poll();
+                if (next == null) {
+                    break;
+                }
+                downstream.onNext((R) next);
+                emitted++;
+                consumed(1);
+            }
+            if (cancelled) {
+                queue.clear();
+            } else if (done && queue.isEmpty() && !terminated) {
+                terminated = true;
+                if (error != null) {
+                    downstream.onError(error);
+                } else {
+                    downstream.onComplete();
+                }
+            }
+            if (emitted != 0 && requestedCount != Long.MAX_VALUE) {
+                requested.addAndGet(-emitted);
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+}
@@ -24,14 +24,19 @@
 
 package com.ensarsarajcic.neovim.java.notifications.ui.cmdline;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
 
 import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
-@JsonFormat(shape = JsonFormat.Shape.ARRAY)
 public final class CmdlineBlockShow implements UICmdlineEvent {
     public static final String NAME = "cmdline_block_show";
 
+    public static final Function<List, UIEvent> CREATOR = list -> new CmdlineBlockShow(
+            ((List<?>) list.get(0)).stream().map(List.class::cast).collect(Collectors.toList())
+    );
+
     private List<List> lines;
 
     public CmdlineBlockShow(List<List> lines) {
@@ -24,12 +24,16 @@
 
 package com.ensarsarajcic.neovim.java.notifications.ui.cmdline;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+
+import java.util.List;
+import java.util.function.Function;
 
-@JsonFormat(shape = JsonFormat.Shape.ARRAY)
 public final class CmdlineHideEvent implements UICmdlineEvent {
     public static final String NAME = "cmdline_hide";
 
+    public static final Function<List, UIEvent> CREATOR = list -> new CmdlineHideEvent();
+
     @Override
     public String getEventName() {
         return NAME;
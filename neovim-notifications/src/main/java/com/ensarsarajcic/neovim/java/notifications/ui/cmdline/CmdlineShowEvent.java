@@ -24,15 +24,24 @@
 
 package com.ensarsarajcic.neovim.java.notifications.ui.cmdline;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
-import com.fasterxml.jackson.annotation.JsonProperty;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
 
 import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
-@JsonFormat(shape = JsonFormat.Shape.ARRAY)
 public final class CmdlineShowEvent implements UICmdlineEvent {
     public static final String NAME = "cmdline_show";
 
+    public static final Function<List, UIEvent> CREATOR = list -> new CmdlineShowEvent(
+            ((List<?>) list.get(0)).stream().map(List.class::cast).collect(Collectors.toList()),
+            ((Number) list.get(1)).intValue(),
+            (String) list.get(2),
+            (String) list.get(3),
+            ((Number) list.get(4)).intValue(),
+            ((Number) list.get(5)).intValue()
+    );
+
     private List<List> content;
     private int pos;
     private String firstc;
@@ -40,13 +49,7 @@ public final class CmdlineShowEvent implements UICmdlineEvent {
     private int indent;
     private int level;
 
-    public CmdlineShowEvent(
-            @JsonProperty(value = "content", index = 0) List<List> content,
-            @JsonProperty(value = "pos", index = 1) int pos,
-            @JsonProperty(value = "firstc", index = 2) String firstc,
-            @JsonProperty(value = "prompt", index = 3) String prompt,
-            @JsonProperty(value = "indent", index = 4) int indent,
-            @JsonProperty(value = "level", index = 5) int level) {
+    public CmdlineShowEvent(List<List> content, int pos, String firstc, String prompt, int indent, int level) {
         this.content = content;
         this.pos = pos;
         this.firstc = firstc;
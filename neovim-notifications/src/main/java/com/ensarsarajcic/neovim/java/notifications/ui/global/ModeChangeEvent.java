@@ -24,19 +24,23 @@
 
 package com.ensarsarajcic.neovim.java.notifications.ui.global;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
-import com.fasterxml.jackson.annotation.JsonProperty;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+
+import java.util.List;
+import java.util.function.Function;
 
-@JsonFormat(shape = JsonFormat.Shape.ARRAY)
 public final class ModeChangeEvent implements UIGlobalEvent {
     public static final String NAME = "mode_change";
 
+    public static final Function<List, UIEvent> CREATOR = list -> new ModeChangeEvent(
+            (String) list.get(0),
+            ((Number) list.get(1)).intValue()
+    );
+
     private String mode;
     private int modeId;
 
-    public ModeChangeEvent(
-            @JsonProperty(value = "mode", index = 0) String mode,
-            @JsonProperty(value = "modeId", index = 1) int modeId) {
+    public ModeChangeEvent(String mode, int modeId) {
         this.mode = mode;
         this.modeId = modeId;
     }
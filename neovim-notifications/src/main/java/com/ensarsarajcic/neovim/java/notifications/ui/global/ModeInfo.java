@@ -24,14 +24,12 @@
 
 package com.ensarsarajcic.neovim.java.notifications.ui.global;
 
-import com.fasterxml.jackson.annotation.JsonCreator;
-import com.fasterxml.jackson.annotation.JsonFormat;
-import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.annotation.JsonValue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 public final class ModeInfo {
 
-    @JsonFormat(shape = JsonFormat.Shape.STRING)
     private enum CursorShape {
         BLOCK("block"),
         HORIZONTAL("horizontal"),
@@ -39,7 +37,6 @@ public final class ModeInfo {
 
         private String value;
 
-        @JsonCreator
         public static CursorShape fromString(String value) {
             for (CursorShape cursorShape : values()) {
                 if (cursorShape.value.equals(value)) {
@@ -53,7 +50,6 @@ public final class ModeInfo {
             this.value = value;
         }
 
-        @JsonValue
         public String getValue() {
             return value;
         }
@@ -78,16 +74,16 @@ public final class ModeInfo {
     private Object mouseShape;
 
     public ModeInfo(
-            @JsonProperty(value = "cursor_shape", index = 0) CursorShape cursorShape,
-            @JsonProperty(value = "cell_percentage", index = 1) int cellPercentage,
-            @JsonProperty(value = "blinkwait", index = 2) int blinkWait,
-            @JsonProperty(value = "blinkon", index = 3) int blinkOn,
-            @JsonProperty(value = "blinkoff", index = 4) int blinkOff,
-            @JsonProperty(value = "hl_id", index = 5) int highlightId,
-            @JsonProperty(value = "id_lm", index = 6) int highlightLangmapId,
-            @JsonProperty(value = "short_name", index = 7) String shortName,
-            @JsonProperty(value = "name", index = 8) String fullName,
-            @JsonProperty(value = "mouse_shape", index = 9) Object mouseShape) {
+            CursorShape cursorShape,
+            int cellPercentage,
+            int blinkWait,
+            int blinkOn,
+            int blinkOff,
+            int highlightId,
+            int highlightLangmapId,
+            String shortName,
+            String fullName,
+            Object mouseShape) {
         this.cursorShape = cursorShape;
         this.cellPercentage = cellPercentage;
         this.blinkWait = blinkWait;
@@ -100,6 +96,39 @@ public final class ModeInfo {
         this.mouseShape = mouseShape;
     }
 
+    static List<ModeInfo> listOf(List<?> modeInfoList) {
+        List<ModeInfo> result = new ArrayList<>(modeInfoList.size());
+        for (Object modeInfo : modeInfoList) {
+            result.add(fromMap((Map<?, ?>) modeInfo));
+        }
+        return result;
+    }
+
+    /**
+     * Creates mode info from a map sent by neovim
+     * Properties which are not set are 0 or null
+     */
+    static ModeInfo fromMap(Map<?, ?> modeInfo) {
+        Object cursorShape = modeInfo.get("cursor_shape");
+        return new ModeInfo(
+                cursorShape != null ? CursorShape.fromString((String) cursorShape) : null,
+                intOf(modeInfo, "cell_percentage"),
+                intOf(modeInfo, "blinkwait"),
+                intOf(modeInfo, "blinkon"),
+                intOf(modeInfo, "blinkoff"),
+                intOf(modeInfo, "hl_id"),
+                intOf(modeInfo, "id_lm"),
+                (String) modeInfo.get("short_name"),
+                (String) modeInfo.get("name"),
+                modeInfo.get("mouse_shape")
+        );
+    }
+
+    private static int intOf(Map<?, ?> modeInfo, String key) {
+        Object value = modeInfo.get(key);
+        return value instanceof Number ? ((Number) value).intValue() : 0;
+    }
+
     public CursorShape getCursorShape() {
         return cursorShape;
     }
@@ -24,21 +24,23 @@
 
 package com.ensarsarajcic.neovim.java.notifications.ui.global;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
-import com.fasterxml.jackson.annotation.JsonProperty;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
 
 import java.util.List;
+import java.util.function.Function;
 
-@JsonFormat(shape = JsonFormat.Shape.ARRAY)
 public final class ModeInfoSetEvent implements UIGlobalEvent {
     public static final String NAME = "mode_info_set";
 
+    public static final Function<List, UIEvent> CREATOR = list -> new ModeInfoSetEvent(
+            (Boolean) list.get(0),
+            ModeInfo.listOf((List<?>) list.get(1))
+    );
+
     private boolean cursorStyleEnabled;
     private List<ModeInfo> modeInfoList;
 
-    public ModeInfoSetEvent(
-            @JsonProperty(value = "cursor_style_enabled", index = 0) boolean cursorStyleEnabled,
-            @JsonProperty(value = "mode_info", index = 1) List<ModeInfo> modeInfoList) {
+    public ModeInfoSetEvent(boolean cursorStyleEnabled, List<ModeInfo> modeInfoList) {
         this.cursorStyleEnabled = cursorStyleEnabled;
         this.modeInfoList = modeInfoList;
     }
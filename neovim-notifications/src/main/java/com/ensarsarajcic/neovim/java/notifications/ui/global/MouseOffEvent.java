@@ -24,12 +24,16 @@
 
 package com.ensarsarajcic.neovim.java.notifications.ui.global;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+
+import java.util.List;
+import java.util.function.Function;
 
-@JsonFormat(shape = JsonFormat.Shape.ARRAY)
 public final class MouseOffEvent implements UIGlobalEvent {
     public static final String NAME = "mouse_off";
 
+    public static final Function<List, UIEvent> CREATOR = list -> new MouseOffEvent();
+
     @Override
     public String getEventName() {
         return NAME;
@@ -24,13 +24,19 @@
 
 package com.ensarsarajcic.neovim.java.notifications.ui.global;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
-import com.fasterxml.jackson.annotation.JsonProperty;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+
+import java.util.List;
+import java.util.function.Function;
 
-@JsonFormat(shape = JsonFormat.Shape.ARRAY)
 public final class OptionSetEvent implements UIGlobalEvent {
     public static final String NAME = "option_set";
 
+    public static final Function<List, UIEvent> CREATOR = list -> new OptionSetEvent(
+            (String) list.get(0),
+            list.get(1)
+    );
+
     public enum Option {
         ARABIC_SHAPE("arabicshape"),
         AMBIGUOUS_WIDTH("ambiwidth"),
@@ -69,9 +75,7 @@ public final class OptionSetEvent implements UIGlobalEvent {
     private String optionName;
     private Object value;
 
-    public OptionSetEvent(
-            @JsonProperty(value = "option_name", index = 0) String optionName,
-            @JsonProperty(value = "value", index = 1) Object value) {
+    public OptionSetEvent(String optionName, Object value) {
         this.optionName = optionName;
         this.value = value;
     }
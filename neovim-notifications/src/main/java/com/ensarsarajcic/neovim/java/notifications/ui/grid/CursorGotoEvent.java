@@ -24,19 +24,23 @@
 
 package com.ensarsarajcic.neovim.java.notifications.ui.grid;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
-import com.fasterxml.jackson.annotation.JsonProperty;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+
+import java.util.List;
+import java.util.function.Function;
 
-@JsonFormat(shape = JsonFormat.Shape.ARRAY)
 public final class CursorGotoEvent implements UIGridEvent {
     public static final String NAME = "cursor_goto";
 
+    public static final Function<List, UIEvent> CREATOR = list -> new CursorGotoEvent(
+            ((Number) list.get(0)).intValue(),
+            ((Number) list.get(1)).intValue()
+    );
+
     private int row;
     private int col;
 
-    public CursorGotoEvent(
-            @JsonProperty(value = "row", index = 0) int row,
-            @JsonProperty(value = "col", index = 1) int col) {
+    public CursorGotoEvent(int row, int col) {
         this.row = row;
         this.col = col;
     }
@@ -0,0 +1,97 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.ui.grid;
+
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+
+import java.util.List;
+import java.util.function.Function;
+
+public final class DefaultColorsSetEvent implements UIGridEvent {
+    public static final String NAME = "default_colors_set";
+
+    public static final Function<List, UIEvent> CREATOR = list -> new DefaultColorsSetEvent(
+            ((Number) list.get(0)).intValue(),
+            ((Number) list.get(1)).intValue(),
+            ((Number) list.get(2)).intValue(),
+            ((Number) list.get(3)).intValue(),
+            ((Number) list.get(4)).intValue()
+    );
+
+    private int rgbForeground;
+    private int rgbBackground;
+    private int rgbSpecial;
+    private int ctermForeground;
+    private int ctermBackground;
+
+    public DefaultColorsSetEvent(
+            int rgbForeground,
+            int rgbBackground,
+            int rgbSpecial,
+            int ctermForeground,
+            int ctermBackground) {
+        this.rgbForeground = rgbForeground;
+        this.rgbBackground = rgbBackground;
+        this.rgbSpecial = rgbSpecial;
+        this.ctermForeground = ctermForeground;
+        this.ctermBackground = ctermBackground;
+    }
+
+    public int getRgbForeground() {
+        return rgbForeground;
+    }
+
+    public int getRgbBackground() {
+        return rgbBackground;
+    }
+
+    public int getRgbSpecial() {
+        return rgbSpecial;
+    }
+
+    public int getCtermForeground() {
+        return ctermForeground;
+    }
+
+    public int getCtermBackground() {
+        return ctermBackground;
+    }
+
+    @Override
+    public String getEventName() {
+        return NAME;
+    }
+
+    @Override
+    public String toString() {
+        return "DefaultColorsSetEvent{" +
+                "rgbForeground=" + rgbForeground +
+                ", rgbBackground=" + rgbBackground +
+                ", rgbSpecial=" + rgbSpecial +
+                ", ctermForeground=" + ctermForeground +
+                ", ctermBackground=" + ctermBackground +
+                '}';
+    }
+}
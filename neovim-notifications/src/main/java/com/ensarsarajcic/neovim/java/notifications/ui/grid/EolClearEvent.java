@@ -24,12 +24,16 @@
 
 package com.ensarsarajcic.neovim.java.notifications.ui.grid;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+
+import java.util.List;
+import java.util.function.Function;
 
-@JsonFormat(shape = JsonFormat.Shape.ARRAY)
 public final class EolClearEvent implements UIGridEvent {
     public static final String NAME = "eol_clear";
 
+    public static final Function<List, UIEvent> CREATOR = list -> new EolClearEvent();
+
     @Override
     public String getEventName() {
         return NAME;
@@ -0,0 +1,179 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.ui.grid;
+
+import com.ensarsarajcic.neovim.java.notifications.ui.redraw.CellRun;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Cells of a single grid_line event, kept run length encoded in primitive arrays
+ * <p>
+ * Each run is a single cell text, repeated one or more times, with its highlight id. Highlight ids which are
+ * omitted by Neovim (meaning same as previous cell) are already resolved. Runs are expanded only when requested,
+ * see {@link #copyTo(int[], int[], int)}.
+ * <p>
+ * Instance may be reused for multiple lines by calling {@link #decode(List)} again, which keeps allocated buffers.
+ */
+public final class GridLineCells {
+
+    /**
+     * Code point of a cell holding the right half of a double width character
+     */
+    public static final int CONTINUATION_CELL = CellRun.CONTINUATION_CELL;
+
+    private String[] texts = new String[16];
+    private int[] codePoints = new int[16];
+    private int[] highlightIds = new int[16];
+    private int[] repeats = new int[16];
+    private int runCount;
+    private int cellCount;
+
+    /**
+     * Replaces contents with given raw cells of grid_line event
+     * @param cells list of cells, each being [text, hl_id?, repeat?]
+     * @return this instance
+     * @throws IllegalArgumentException if cells are malformed
+     */
+    public GridLineCells decode(List cells) {
+        runCount = 0;
+        cellCount = 0;
+        int highlightId = 0;
+        for (int i = 0; i < cells.size(); i++) {
+            Object rawCell = cells.get(i);
+            if (!(rawCell instanceof List) || ((List) rawCell).isEmpty()) {
+                throw new IllegalArgumentException("Invalid grid_line cell: " + rawCell);
+            }
+            List cell = (List) rawCell;
+            String text = (String) cell.get(0);
+            if (cell.size() > 1) {
+                highlightId = ((Number) cell.get(1)).intValue();
+            }
+            int repeat = cell.size() > 2 ? ((Number) cell.get(2)).intValue() : 1;
+            addRun(text, highlightId, repeat);
+        }
+        return this;
+    }
+
+    private void addRun(String text, int highlightId, int repeat) {
+        if (runCount == texts.length) {
+            int capacity = runCount * 2;
+            texts = Arrays.copyOf(texts, capacity);
+            codePoints = Arrays.copyOf(codePoints, capacity);
+            highlightIds = Arrays.copyOf(highlightIds, capacity);
+            repeats = Arrays.copyOf(repeats, capacity);
+        }
+        texts[runCount] = text;
+        codePoints[runCount] = text.isEmpty() ? CONTINUATION_CELL : text.codePointAt(0);
+        highlightIds[runCount] = highlightId;
+        repeats[runCount] = repeat;
+        runCount++;
+        cellCount += repeat;
+    }
+
+    /**
+     * @return number of runs
+     */
+    public int getRunCount() {
+        return runCount;
+    }
+
+    /**
+     * @return number of cells, with repeats expanded
+     */
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    /**
+     * @param run index of the run
+     * @return full text of a single cell of the run
+     */
+    public String getText(int run) {
+        return texts[checkRun(run)];
+    }
+
+    /**
+     * @param run index of the run
+     * @return first code point of the cell text, or {@link #CONTINUATION_CELL} if it is empty
+     */
+    public int getCodePoint(int run) {
+        return codePoints[checkRun(run)];
+    }
+
+    /**
+     * @param run index of the run
+     * @return highlight id, as defined by hl_attr_define
+     */
+    public int getHighlightId(int run) {
+        return highlightIds[checkRun(run)];
+    }
+
+    /**
+     * @param run index of the run
+     * @return number of cells of the run
+     */
+    public int getRepeat(int run) {
+        return repeats[checkRun(run)];
+    }
+
+    /**
+     * Expands runs into given arrays, starting at given offset
+     * @param codePointsTarget array receiving code points of the cells
+     * @param highlightIdsTarget array receiving highlight ids of the cells
+     * @param offset index of the first cell in target arrays
+     * @return number of cells written
+     * @throws IndexOutOfBoundsException if target arrays are too small
+     */
+    public int copyTo(int[] codePointsTarget, int[] highlightIdsTarget, int offset) {
+        int index = offset;
+        for (int run = 0; run < runCount; run++) {
+            Arrays.fill(codePointsTarget, index, index + repeats[run], codePoints[run]);
+            Arrays.fill(highlightIdsTarget, index, index + repeats[run], highlightIds[run]);
+            index += repeats[run];
+        }
+        return cellCount;
+    }
+
+    private int checkRun(int run) {
+        if (run < 0 || run >= runCount) {
+            throw new IndexOutOfBoundsException("Run " + run + " out of " + runCount + " runs");
+        }
+        return run;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("GridLineCells{");
+        for (int run = 0; run < runCount; run++) {
+            if (run > 0) {
+                builder.append(", ");
+            }
+            builder.append('\'').append(texts[run]).append("' hl=").append(highlightIds[run]).append(" x").append(repeats[run]);
+        }
+        return builder.append('}').toString();
+    }
+}
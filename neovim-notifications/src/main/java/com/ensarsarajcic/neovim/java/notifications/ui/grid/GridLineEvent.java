@@ -0,0 +1,88 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.ui.grid;
+
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Update of a part of a single row of a grid, sent when attached with ext_linegrid
+ * Cells are kept run length encoded, see {@link GridLineCells}
+ */
+public final class GridLineEvent implements UIGridEvent {
+    public static final String NAME = "grid_line";
+
+    public static final Function<List, UIEvent> CREATOR = list -> new GridLineEvent(
+            ((Number) list.get(0)).intValue(),
+            ((Number) list.get(1)).intValue(),
+            ((Number) list.get(2)).intValue(),
+            new GridLineCells().decode((List) list.get(3))
+    );
+
+    private int grid;
+    private int row;
+    private int colStart;
+    private GridLineCells cells;
+
+    public GridLineEvent(int grid, int row, int colStart, GridLineCells cells) {
+        this.grid = grid;
+        this.row = row;
+        this.colStart = colStart;
+        this.cells = cells;
+    }
+
+    public int getGrid() {
+        return grid;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public int getColStart() {
+        return colStart;
+    }
+
+    public GridLineCells getCells() {
+        return cells;
+    }
+
+    @Override
+    public String getEventName() {
+        return NAME;
+    }
+
+    @Override
+    public String toString() {
+        return "GridLineEvent{" +
+                "grid=" + grid +
+                ", row=" + row +
+                ", colStart=" + colStart +
+                ", cells=" + cells +
+                '}';
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.ui.grid;
+
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+
+import java.util.List;
+import java.util.function.Function;
+
+public final class GridScrollEvent implements UIGridEvent {
+    public static final String NAME = "grid_scroll";
+
+    public static final Function<List, UIEvent> CREATOR = list -> new GridScrollEvent(
+            ((Number) list.get(0)).intValue(),
+            ((Number) list.get(1)).intValue(),
+            ((Number) list.get(2)).intValue(),
+            ((Number) list.get(3)).intValue(),
+            ((Number) list.get(4)).intValue(),
+            ((Number) list.get(5)).intValue(),
+            ((Number) list.get(6)).intValue()
+    );
+
+    private int grid;
+    private int top;
+    private int bot;
+    private int left;
+    private int right;
+    private int rows;
+    private int cols;
+
+    public GridScrollEvent(int grid, int top, int bot, int left, int right, int rows, int cols) {
+        this.grid = grid;
+        this.top = top;
+        this.bot = bot;
+        this.left = left;
+        this.right = right;
+        this.rows = rows;
+        this.cols = cols;
+    }
+
+    public int getGrid() {
+        return grid;
+    }
+
+    public int getTop() {
+        return top;
+    }
+
+    public int getBot() {
+        return bot;
+    }
+
+    public int getLeft() {
+        return left;
+    }
+
+    public int getRight() {
+        return right;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    @Override
+    public String getEventName() {
+        return NAME;
+    }
+
+    @Override
+    public String toString() {
+        return "GridScrollEvent{" +
+                "grid=" + grid +
+                ", top=" + top +
+                ", bot=" + bot +
+                ", left=" + left +
+                ", right=" + right +
+                ", rows=" + rows +
+                ", cols=" + cols +
+                '}';
+    }
+}
@@ -24,15 +24,20 @@
 
 package com.ensarsarajcic.neovim.java.notifications.ui.grid;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import com.fasterxml.jackson.annotation.JsonProperty;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 
-@JsonFormat(shape = JsonFormat.Shape.ARRAY)
 public final class HighlightSetEvent implements UIGridEvent {
     public static final String NAME = "highlight_set";
 
-    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static final Function<List, UIEvent> CREATOR = list -> new HighlightSetEvent(
+            Attributes.fromMap((Map<?, ?>) list.get(0))
+    );
+
     public static final class Attributes {
         private int foreground;
         private int background;
@@ -44,14 +49,14 @@ public final class HighlightSetEvent implements UIGridEvent {
         private boolean undercurl;
 
         public Attributes(
-                @JsonProperty(value = "foreground", index = 1) int foreground,
-                @JsonProperty(value = "background", index = 2) int background,
-                @JsonProperty(value = "special", index = 3) int special,
-                @JsonProperty(value = "reverse", index = 4) boolean reverse,
-                @JsonProperty(value = "italic", index = 5) boolean italic,
-                @JsonProperty(value = "bold", index = 6) boolean bold,
-                @JsonProperty(value = "underline", index = 7) boolean underline,
-                @JsonProperty(value = "undercurl", index = 8) boolean undercurl) {
+                int foreground,
+                int background,
+                int special,
+                boolean reverse,
+                boolean italic,
+                boolean bold,
+                boolean underline,
+                boolean undercurl) {
             this.foreground = foreground;
             this.background = background;
             this.special = special;
@@ -62,6 +67,28 @@ public final class HighlightSetEvent implements UIGridEvent {
             this.undercurl = undercurl;
         }
 
+        /**
+         * Creates attributes from a map sent by neovim
+         * Colors which are not set are -1, meaning default color
+         */
+        static Attributes fromMap(Map<?, ?> attributes) {
+            return new Attributes(
+                    color(attributes, "foreground"),
+                    color(attributes, "background"),
+                    color(attributes, "special"),
+                    Boolean.TRUE.equals(attributes.get("reverse")),
+                    Boolean.TRUE.equals(attributes.get("italic")),
+                    Boolean.TRUE.equals(attributes.get("bold")),
+                    Boolean.TRUE.equals(attributes.get("underline")),
+                    Boolean.TRUE.equals(attributes.get("undercurl"))
+            );
+        }
+
+        private static int color(Map<?, ?> attributes, String key) {
+            Object value = attributes.get(key);
+            return value instanceof Number ? ((Number) value).intValue() : -1;
+        }
+
         public int getForeground() {
             return foreground;
         }
@@ -94,6 +121,26 @@ public final class HighlightSetEvent implements UIGridEvent {
             return undercurl;
         }
 
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            var that = (Attributes) o;
+            return foreground == that.foreground &&
+                    background == that.background &&
+                    special == that.special &&
+                    reverse == that.reverse &&
+                    italic == that.italic &&
+                    bold == that.bold &&
+                    underline == that.underline &&
+                    undercurl == that.undercurl;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(foreground, background, special, reverse, italic, bold, underline, undercurl);
+        }
+
         @Override
         public String toString() {
             return "Attributes{" +
@@ -111,8 +158,7 @@ public final class HighlightSetEvent implements UIGridEvent {
 
     private Attributes attributes;
 
-    public HighlightSetEvent(
-            @JsonProperty(value = "attributes", index = 0) Attributes attributes) {
+    public HighlightSetEvent(Attributes attributes) {
         this.attributes = attributes;
     }
 
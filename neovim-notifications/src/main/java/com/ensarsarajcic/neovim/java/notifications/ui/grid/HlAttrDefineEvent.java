@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.ui.grid;
+
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Definition of highlight attributes referenced by id from {@link GridLineEvent}, sent when attached with ext_linegrid
+ * Colors which are not set are -1, meaning default color
+ */
+public final class HlAttrDefineEvent implements UIGridEvent {
+    public static final String NAME = "hl_attr_define";
+
+    public static final Function<List, UIEvent> CREATOR = list -> new HlAttrDefineEvent(
+            ((Number) list.get(0)).intValue(),
+            HighlightSetEvent.Attributes.fromMap((Map) list.get(1)),
+            HighlightSetEvent.Attributes.fromMap((Map) list.get(2)),
+            list.size() > 3 ? (List) list.get(3) : List.of()
+    );
+
+    private int id;
+    private HighlightSetEvent.Attributes rgbAttributes;
+    private HighlightSetEvent.Attributes ctermAttributes;
+    private List info;
+
+    public HlAttrDefineEvent(int id, HighlightSetEvent.Attributes rgbAttributes, HighlightSetEvent.Attributes ctermAttributes, List info) {
+        this.id = id;
+        this.rgbAttributes = rgbAttributes;
+        this.ctermAttributes = ctermAttributes;
+        this.info = info;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public HighlightSetEvent.Attributes getRgbAttributes() {
+        return rgbAttributes;
+    }
+
+    public HighlightSetEvent.Attributes getCtermAttributes() {
+        return ctermAttributes;
+    }
+
+    /**
+     * @return raw highlight info, as sent when ext_hlstate is enabled
+     */
+    public List getInfo() {
+        return info;
+    }
+
+    @Override
+    public String getEventName() {
+        return NAME;
+    }
+
+    @Override
+    public String toString() {
+        return "HlAttrDefineEvent{" +
+                "id=" + id +
+                ", rgbAttributes=" + rgbAttributes +
+                ", ctermAttributes=" + ctermAttributes +
+                ", info=" + info +
+                '}';
+    }
+}
@@ -24,17 +24,19 @@
 
 package com.ensarsarajcic.neovim.java.notifications.ui.grid;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
-import com.fasterxml.jackson.annotation.JsonProperty;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+
+import java.util.List;
+import java.util.function.Function;
 
-@JsonFormat(shape = JsonFormat.Shape.ARRAY)
 public final class PutEvent implements UIGridEvent {
     public static final String NAME = "put";
 
+    public static final Function<List, UIEvent> CREATOR = list -> new PutEvent((String) list.get(0));
+
     private String text;
 
-    public PutEvent(
-            @JsonProperty(value = "text", index = 0) String text) {
+    public PutEvent(String text) {
         this.text = text;
     }
 
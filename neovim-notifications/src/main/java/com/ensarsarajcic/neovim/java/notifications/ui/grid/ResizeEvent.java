@@ -24,19 +24,23 @@
 
 package com.ensarsarajcic.neovim.java.notifications.ui.grid;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
-import com.fasterxml.jackson.annotation.JsonProperty;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+
+import java.util.List;
+import java.util.function.Function;
 
-@JsonFormat(shape = JsonFormat.Shape.ARRAY)
 public final class ResizeEvent implements UIGridEvent {
     public static final String NAME = "resize";
 
+    public static final Function<List, UIEvent> CREATOR = list -> new ResizeEvent(
+            ((Number) list.get(0)).intValue(),
+            ((Number) list.get(1)).intValue()
+    );
+
     private int width;
     private int height;
 
-    public ResizeEvent(
-            @JsonProperty(value = "width", index = 0) int width,
-            @JsonProperty(value = "height", index = 1) int height) {
+    public ResizeEvent(int width, int height) {
         this.width = width;
         this.height = height;
     }
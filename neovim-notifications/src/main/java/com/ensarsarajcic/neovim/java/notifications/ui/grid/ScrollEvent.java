@@ -24,17 +24,19 @@
 
 package com.ensarsarajcic.neovim.java.notifications.ui.grid;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
-import com.fasterxml.jackson.annotation.JsonProperty;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+
+import java.util.List;
+import java.util.function.Function;
 
-@JsonFormat(shape = JsonFormat.Shape.ARRAY)
 public final class ScrollEvent implements UIGridEvent {
     public static final String NAME = "scroll";
 
+    public static final Function<List, UIEvent> CREATOR = list -> new ScrollEvent(((Number) list.get(0)).intValue());
+
     private int count;
 
-    public ScrollEvent(
-            @JsonProperty(value = "count", index = 0) int count) {
+    public ScrollEvent(int count) {
         this.count = count;
     }
 
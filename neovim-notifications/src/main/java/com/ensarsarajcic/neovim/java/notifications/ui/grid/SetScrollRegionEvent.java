@@ -24,24 +24,27 @@
 
 package com.ensarsarajcic.neovim.java.notifications.ui.grid;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
-import com.fasterxml.jackson.annotation.JsonProperty;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+
+import java.util.List;
+import java.util.function.Function;
 
-@JsonFormat(shape = JsonFormat.Shape.ARRAY)
 public final class SetScrollRegionEvent implements UIGridEvent {
     public static final String NAME = "set_scroll_region";
 
+    public static final Function<List, UIEvent> CREATOR = list -> new SetScrollRegionEvent(
+            ((Number) list.get(0)).intValue(),
+            ((Number) list.get(1)).intValue(),
+            ((Number) list.get(2)).intValue(),
+            ((Number) list.get(3)).intValue()
+    );
+
     private int top;
     private int bot;
     private int left;
     private int right;
 
-    public SetScrollRegionEvent(
-            @JsonProperty(value = "top", index = 0) int top,
-            @JsonProperty(value = "bot", index = 1) int bot,
-            @JsonProperty(value = "left", index = 2) int left,
-            @JsonProperty(value = "right", index = 3) int right
-    ) {
+    public SetScrollRegionEvent(int top, int bot, int left, int right) {
         this.top = top;
         this.bot = bot;
         this.left = left;
@@ -24,17 +24,21 @@
 
 package com.ensarsarajcic.neovim.java.notifications.ui.grid;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
-import com.fasterxml.jackson.annotation.JsonProperty;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+
+import java.util.List;
+import java.util.function.Function;
 
-@JsonFormat(shape = JsonFormat.Shape.ARRAY)
 public final class UpdateBackgroundEvent implements UIGridEvent {
     public static final String NAME = "update_bg";
 
+    public static final Function<List, UIEvent> CREATOR = list -> new UpdateBackgroundEvent(
+            ((Number) list.get(0)).intValue()
+    );
+
     private int color;
 
-    public UpdateBackgroundEvent(
-            @JsonProperty(value = "color", index = 0) int color) {
+    public UpdateBackgroundEvent(int color) {
         this.color = color;
     }
 
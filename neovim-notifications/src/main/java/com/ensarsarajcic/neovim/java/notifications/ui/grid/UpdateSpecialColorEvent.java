@@ -24,17 +24,21 @@
 
 package com.ensarsarajcic.neovim.java.notifications.ui.grid;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
-import com.fasterxml.jackson.annotation.JsonProperty;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+
+import java.util.List;
+import java.util.function.Function;
 
-@JsonFormat(shape = JsonFormat.Shape.ARRAY)
 public final class UpdateSpecialColorEvent implements UIGridEvent {
     public static final String NAME = "update_sp";
 
+    public static final Function<List, UIEvent> CREATOR = list -> new UpdateSpecialColorEvent(
+            ((Number) list.get(0)).intValue()
+    );
+
     private int color;
 
-    public UpdateSpecialColorEvent(
-            @JsonProperty(value = "color", index = 0) int color) {
+    public UpdateSpecialColorEvent(int color) {
         this.color = color;
     }
 
@@ -22,46 +22,43 @@
  * SOFTWARE.
  */
 
-package com.ensarsarajcic.neovim.java.notifications;
+package com.ensarsarajcic.neovim.java.notifications.ui.multigrid;
 
-import java.util.concurrent.Flow;
-import java.util.concurrent.SubmissionPublisher;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+
+import java.util.List;
 import java.util.function.Function;
 
 /**
- * Simple processor providing filter functionality. Items are filtered using function passed in constructor
- * @param <T> type of items in the stream
+ * Destroys a grid, it will not be used anymore
  */
-final class FilterProcessor<T> extends SubmissionPublisher<T> implements Flow.Processor<T, T> {
+public final class GridDestroyEvent implements UIMultigridEvent {
+    public static final String NAME = "grid_destroy";
 
-    private Function<T, Boolean> filterFunction;
-    private Flow.Subscription subscription;
+    public static final Function<List, UIEvent> CREATOR = list -> new GridDestroyEvent(
+            ((Number) list.get(0)).intValue()
+    );
 
-    public FilterProcessor(Function<T, Boolean> filterFunction) {
-        this.filterFunction = filterFunction;
-    }
+    private int grid;
 
-    @Override
-    public void onSubscribe(Flow.Subscription subscription) {
-        this.subscription = subscription;
-        subscription.request(1);
+    public GridDestroyEvent(int grid) {
+        this.grid = grid;
     }
 
     @Override
-    public void onNext(T item) {
-        if (filterFunction.apply(item)) {
-            submit(item);
-        }
-        subscription.request(1);
+    public int getGrid() {
+        return grid;
     }
 
     @Override
-    public void onError(Throwable throwable) {
-        throwable.printStackTrace();
+    public String getEventName() {
+        return NAME;
     }
 
     @Override
-    public void onComplete() {
-        close();
+    public String toString() {
+        return "GridDestroyEvent{" +
+                "grid=" + grid +
+                '}';
     }
 }
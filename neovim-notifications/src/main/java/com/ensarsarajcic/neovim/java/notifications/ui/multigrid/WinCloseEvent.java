@@ -22,49 +22,41 @@
  * SOFTWARE.
  */
 
-package com.ensarsarajcic.neovim.java.notifications;
+package com.ensarsarajcic.neovim.java.notifications.ui.multigrid;
 
-import java.util.concurrent.Flow;
-import java.util.concurrent.SubmissionPublisher;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+
+import java.util.List;
 import java.util.function.Function;
 
 /**
- * Simple processor providing map functionality. Items are mapped using function passed in constructor
- * @param <T> type of items coming in to the stream
- * @param <R> type of items going out of the stream
+ * Closes window of the grid, grid itself is destroyed separately
  */
-final class MappingProcessor<T, R> extends SubmissionPublisher<R> implements Flow.Processor<T, R> {
+public final class WinCloseEvent implements UIMultigridEvent {
+    public static final String NAME = "win_close";
 
-    private Function<T, R> mapFunction;
-    private Flow.Subscription subscription;
+    public static final Function<List, UIEvent> CREATOR = list -> new WinCloseEvent(((Number) list.get(0)).intValue());
 
-    public MappingProcessor(Function<T, R> mapFunction) {
-        this.mapFunction = mapFunction;
-    }
+    private int grid;
 
-    @Override
-    public void onSubscribe(Flow.Subscription subscription) {
-        this.subscription = subscription;
-        subscription.request(1);
+    public WinCloseEvent(int grid) {
+        this.grid = grid;
     }
 
     @Override
-    public void onNext(T item) {
-        try {
-            submit(mapFunction.apply(item));
-        } catch (Throwable throwable) {
-            throwable.printStackTrace();
-        }
-        subscription.request(1);
+    public int getGrid() {
+        return grid;
     }
 
     @Override
-    public void onError(Throwable throwable) {
-        throwable.printStackTrace();
+    public String getEventName() {
+        return NAME;
     }
 
     @Override
-    public void onComplete() {
-        close();
+    public String toString() {
+        return "WinCloseEvent{" +
+                "grid=" + grid +
+                '}';
     }
 }
@@ -0,0 +1,114 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.ui.multigrid;
+
+import com.ensarsarajcic.neovim.java.api.types.msgpack.Window;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Places grid of a floating window relative to a position of another grid
+ * Anchor is one of "NW", "NE", "SW" and "SE", telling which corner of the float is placed at anchor position
+ */
+public final class WinFloatPosEvent implements UIMultigridEvent {
+    public static final String NAME = "win_float_pos";
+
+    public static final Function<List, UIEvent> CREATOR = list -> new WinFloatPosEvent(
+            ((Number) list.get(0)).intValue(),
+            MultigridEventUtils.toWindow(list.get(1)),
+            (String) list.get(2),
+            ((Number) list.get(3)).intValue(),
+            ((Number) list.get(4)).doubleValue(),
+            ((Number) list.get(5)).doubleValue(),
+            list.size() <= 6 || Boolean.TRUE.equals(list.get(6))
+    );
+
+    private int grid;
+    private Window window;
+    private String anchor;
+    private int anchorGrid;
+    private double anchorRow;
+    private double anchorCol;
+    private boolean focusable;
+
+    public WinFloatPosEvent(int grid, Window window, String anchor, int anchorGrid, double anchorRow, double anchorCol, boolean focusable) {
+        this.grid = grid;
+        this.window = window;
+        this.anchor = anchor;
+        this.anchorGrid = anchorGrid;
+        this.anchorRow = anchorRow;
+        this.anchorCol = anchorCol;
+        this.focusable = focusable;
+    }
+
+    @Override
+    public int getGrid() {
+        return grid;
+    }
+
+    public Window getWindow() {
+        return window;
+    }
+
+    public String getAnchor() {
+        return anchor;
+    }
+
+    public int getAnchorGrid() {
+        return anchorGrid;
+    }
+
+    public double getAnchorRow() {
+        return anchorRow;
+    }
+
+    public double getAnchorCol() {
+        return anchorCol;
+    }
+
+    public boolean isFocusable() {
+        return focusable;
+    }
+
+    @Override
+    public String getEventName() {
+        return NAME;
+    }
+
+    @Override
+    public String toString() {
+        return "WinFloatPosEvent{" +
+                "grid=" + grid +
+                ", window=" + window +
+                ", anchor='" + anchor + '\'' +
+                ", anchorGrid=" + anchorGrid +
+                ", anchorRow=" + anchorRow +
+                ", anchorCol=" + anchorCol +
+                ", focusable=" + focusable +
+                '}';
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.ui.multigrid;
+
+import com.ensarsarajcic.neovim.java.api.types.msgpack.Window;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Places grid of a window at given position of the screen, or moves it
+ */
+public final class WinPosEvent implements UIMultigridEvent {
+    public static final String NAME = "win_pos";
+
+    public static final Function<List, UIEvent> CREATOR = list -> new WinPosEvent(
+            ((Number) list.get(0)).intValue(),
+            MultigridEventUtils.toWindow(list.get(1)),
+            ((Number) list.get(2)).intValue(),
+            ((Number) list.get(3)).intValue(),
+            ((Number) list.get(4)).intValue(),
+            ((Number) list.get(5)).intValue()
+    );
+
+    private int grid;
+    private Window window;
+    private int startRow;
+    private int startCol;
+    private int width;
+    private int height;
+
+    public WinPosEvent(int grid, Window window, int startRow, int startCol, int width, int height) {
+        this.grid = grid;
+        this.window = window;
+        this.startRow = startRow;
+        this.startCol = startCol;
+        this.width = width;
+        this.height = height;
+    }
+
+    @Override
+    public int getGrid() {
+        return grid;
+    }
+
+    public Window getWindow() {
+        return window;
+    }
+
+    public int getStartRow() {
+        return startRow;
+    }
+
+    public int getStartCol() {
+        return startCol;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public String getEventName() {
+        return NAME;
+    }
+
+    @Override
+    public String toString() {
+        return "WinPosEvent{" +
+                "grid=" + grid +
+                ", window=" + window +
+                ", startRow=" + startRow +
+                ", startCol=" + startCol +
+                ", width=" + width +
+                ", height=" + height +
+                '}';
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.ui.popupmenu;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Items of a popupmenu, decoded lazily from raw arguments of popupmenu_show
+ * <p>
+ * Completion sources may provide thousands of items, while only a few of them are ever shown. Items are kept in
+ * their raw form (a list of [word, kind, menu, info] per item), so showing a popupmenu costs a single object,
+ * regardless of the number of items. Fields of an item can be read by index without creating
+ * {@link PopupmenuShowEvent.Item}, using {@link #getWord(int)} and similar methods, while {@link #get(int)} creates
+ * a new item on each call.
+ * <p>
+ * Since raw arguments are not copied, they should not be modified after creating this object.
+ */
+public final class PopupmenuItems extends AbstractList<PopupmenuShowEvent.Item> implements RandomAccess {
+
+    private static final PopupmenuItems EMPTY = new PopupmenuItems(List.of());
+
+    private final List<?> rawItems;
+
+    private PopupmenuItems(List<?> rawItems) {
+        this.rawItems = rawItems;
+    }
+
+    /**
+     * Wraps raw items of popupmenu_show
+     * @param rawItems list of items, each being a list of [word, kind, menu, info]
+     * @return items backed by given list
+     */
+    public static PopupmenuItems of(List<?> rawItems) {
+        Objects.requireNonNull(rawItems, "rawItems are required");
+        return new PopupmenuItems(rawItems);
+    }
+
+    /**
+     * @return items of a popupmenu without any items
+     */
+    public static PopupmenuItems empty() {
+        return EMPTY;
+    }
+
+    @Override
+    public PopupmenuShowEvent.Item get(int index) {
+        return new PopupmenuShowEvent.Item(getWord(index), getKind(index), getMenu(index), getInfo(index));
+    }
+
+    @Override
+    public int size() {
+        return rawItems.size();
+    }
+
+    /**
+     * @param index index of the item
+     * @return text inserted when item is selected
+     * @throws IndexOutOfBoundsException if there is no item with given index
+     */
+    public String getWord(int index) {
+        return field(index, 0);
+    }
+
+    /**
+     * @param index index of the item
+     * @return kind of the item, usually a single letter
+     * @throws IndexOutOfBoundsException if there is no item with given index
+     */
+    public String getKind(int index) {
+        return field(index, 1);
+    }
+
+    /**
+     * @param index index of the item
+     * @return extra text shown after the word
+     * @throws IndexOutOfBoundsException if there is no item with given index
+     */
+    public String getMenu(int index) {
+        return field(index, 2);
+    }
+
+    /**
+     * @param index index of the item
+     * @return extra information about the item, usually shown in a preview window
+     * @throws IndexOutOfBoundsException if there is no item with given index
+     */
+    public String getInfo(int index) {
+        return field(index, 3);
+    }
+
+    private String field(int index, int field) {
+        List<?> item = (List<?>) rawItems.get(index);
+        if (field >= item.size()) {
+            return "";
+        }
+        Object value = item.get(field);
+        return value != null ? value.toString() : "";
+    }
+}
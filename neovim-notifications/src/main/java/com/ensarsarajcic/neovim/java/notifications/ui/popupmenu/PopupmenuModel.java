@@ -0,0 +1,220 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.ui.popupmenu;
+
+import com.ensarsarajcic.neovim.java.notifications.ui.redraw.RedrawVisitor;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * State of the popupmenu, for UIs attached with ext_popupmenu
+ * <p>
+ * Items are kept as received, without decoding them (see {@link PopupmenuItems}), and selection changes only update
+ * the selected index, so huge completion lists can be shown and scrolled through without allocating. Renderers
+ * showing only a limited number of rows can set {@link #setMaxHeight(int)} and draw items from
+ * {@link #getScrollOffset()}, which is moved only when selection leaves the visible rows.
+ * <p>
+ * Model can be updated either by applying {@link UIPopupmenuEvent} objects, or as a {@link RedrawVisitor}.
+ * <p>
+ * This class is not thread safe.
+ */
+public final class PopupmenuModel implements RedrawVisitor {
+
+    private List<PopupmenuShowEvent.Item> items = PopupmenuItems.empty();
+    private boolean visible;
+    private int selected = -1;
+    private int row;
+    private int col;
+    private int maxHeight;
+    private int scrollOffset;
+
+    /**
+     * Applies a single popupmenu event
+     * @param event event to apply
+     */
+    public void apply(UIPopupmenuEvent event) {
+        Objects.requireNonNull(event, "event is required");
+        if (event instanceof PopupmenuShowEvent) {
+            PopupmenuShowEvent showEvent = (PopupmenuShowEvent) event;
+            show(showEvent.getItems(), showEvent.getSelected(), showEvent.getRow(), showEvent.getCol());
+        } else if (event instanceof PopupmenuSelectEvent) {
+            popupmenuSelect(((PopupmenuSelectEvent) event).getSelected());
+        } else if (event instanceof PopupmenuHideEvent) {
+            popupmenuHide();
+        }
+    }
+
+    @Override
+    public void popupmenuShow(PopupmenuItems items, int selected, int row, int col) {
+        show(items, selected, row, col);
+    }
+
+    @Override
+    public void popupmenuSelect(int selected) {
+        this.selected = selected;
+        scrollToSelected();
+    }
+
+    @Override
+    public void popupmenuHide() {
+        visible = false;
+        items = PopupmenuItems.empty();
+        selected = -1;
+        scrollOffset = 0;
+    }
+
+    private void show(List<PopupmenuShowEvent.Item> items, int selected, int row, int col) {
+        this.items = items != null ? items : PopupmenuItems.empty();
+        this.visible = true;
+        this.selected = selected;
+        this.row = row;
+        this.col = col;
+        this.scrollOffset = 0;
+        scrollToSelected();
+    }
+
+    private void scrollToSelected() {
+        if (maxHeight <= 0 || selected < 0) {
+            return;
+        }
+        if (selected < scrollOffset) {
+            scrollOffset = selected;
+        } else if (selected >= scrollOffset + maxHeight) {
+            scrollOffset = selected - maxHeight + 1;
+        }
+    }
+
+    /**
+     * Sets maximum number of items shown at once, which is used to keep selected item visible
+     * @param maxHeight number of rows, or 0 to show all items
+     * @throws IllegalArgumentException if maxHeight is negative
+     */
+    public void setMaxHeight(int maxHeight) {
+        if (maxHeight < 0) {
+            throw new IllegalArgumentException("Invalid popupmenu height: " + maxHeight);
+        }
+        this.maxHeight = maxHeight;
+        this.scrollOffset = 0;
+        scrollToSelected();
+    }
+
+    public int getMaxHeight() {
+        return maxHeight;
+    }
+
+    /**
+     * @return index of the first shown item
+     */
+    public int getScrollOffset() {
+        return scrollOffset;
+    }
+
+    /**
+     * @return number of items shown at once, limited by {@link #getMaxHeight()}
+     */
+    public int getVisibleCount() {
+        int count = items.size() - scrollOffset;
+        return maxHeight > 0 ? Math.min(maxHeight, count) : count;
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    /**
+     * @return index of selected item, or -1 if no item is selected
+     */
+    public int getSelected() {
+        return selected;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public int getCol() {
+        return col;
+    }
+
+    public int getItemCount() {
+        return items.size();
+    }
+
+    /**
+     * @return all items, which are decoded only when accessed
+     */
+    public List<PopupmenuShowEvent.Item> getItems() {
+        return items;
+    }
+
+    /**
+     * @param index index of the item
+     * @return word of the item, without creating the item
+     * @throws IndexOutOfBoundsException if there is no item with given index
+     */
+    public String getWord(int index) {
+        return items instanceof PopupmenuItems ? ((PopupmenuItems) items).getWord(index) : items.get(index).getWord();
+    }
+
+    /**
+     * @param index index of the item
+     * @return kind of the item, without creating the item
+     * @throws IndexOutOfBoundsException if there is no item with given index
+     */
+    public String getKind(int index) {
+        return items instanceof PopupmenuItems ? ((PopupmenuItems) items).getKind(index) : items.get(index).getKind();
+    }
+
+    /**
+     * @param index index of the item
+     * @return menu text of the item, without creating the item
+     * @throws IndexOutOfBoundsException if there is no item with given index
+     */
+    public String getMenu(int index) {
+        return items instanceof PopupmenuItems ? ((PopupmenuItems) items).getMenu(index) : items.get(index).getMenu();
+    }
+
+    /**
+     * @param index index of the item
+     * @return info of the item, without creating the item
+     * @throws IndexOutOfBoundsException if there is no item with given index
+     */
+    public String getInfo(int index) {
+        return items instanceof PopupmenuItems ? ((PopupmenuItems) items).getInfo(index) : items.get(index).getInfo();
+    }
+
+    @Override
+    public String toString() {
+        return "PopupmenuModel{" +
+                "visible=" + visible +
+                ", itemCount=" + items.size() +
+                ", selected=" + selected +
+                ", row=" + row +
+                ", col=" + col +
+                ", scrollOffset=" + scrollOffset +
+                '}';
+    }
+}
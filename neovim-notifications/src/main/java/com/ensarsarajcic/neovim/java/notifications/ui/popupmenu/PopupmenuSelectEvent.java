@@ -24,17 +24,21 @@
 
 package com.ensarsarajcic.neovim.java.notifications.ui.popupmenu;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
-import com.fasterxml.jackson.annotation.JsonProperty;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+
+import java.util.List;
+import java.util.function.Function;
 
-@JsonFormat(shape = JsonFormat.Shape.ARRAY)
 public final class PopupmenuSelectEvent implements UIPopupmenuEvent {
     public static final String NAME = "popupmenu_select";
 
+    public static final Function<List, UIEvent> CREATOR = list -> new PopupmenuSelectEvent(
+            ((Number) list.get(0)).intValue()
+    );
+
     private int selected;
 
-    public PopupmenuSelectEvent(
-            @JsonProperty(value = "selected", index = 0) int selected) {
+    public PopupmenuSelectEvent(int selected) {
         this.selected = selected;
     }
 
@@ -24,27 +24,31 @@
 
 package com.ensarsarajcic.neovim.java.notifications.ui.popupmenu;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
-import com.fasterxml.jackson.annotation.JsonProperty;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
 
 import java.util.List;
+import java.util.function.Function;
 
-@JsonFormat(shape = JsonFormat.Shape.ARRAY)
 public final class PopupmenuShowEvent implements UIPopupmenuEvent {
     public static final String NAME = "popupmenu_show";
 
-    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+    /**
+     * Creates the event without decoding items, see {@link PopupmenuItems}
+     */
+    public static final Function<List, UIEvent> CREATOR = list -> new PopupmenuShowEvent(
+            PopupmenuItems.of((List<?>) list.get(0)),
+            ((Number) list.get(1)).intValue(),
+            ((Number) list.get(2)).intValue(),
+            ((Number) list.get(3)).intValue()
+    );
+
     public static final class Item {
         private String word;
         private String kind;
         private String menu;
         private String info;
 
-        public Item(
-                @JsonProperty(value = "word", index = 0) String word,
-                @JsonProperty(value = "kind", index = 1) String kind,
-                @JsonProperty(value = "menu", index = 2) String menu,
-                @JsonProperty(value = "info", index = 3) String info) {
+        public Item(String word, String kind, String menu, String info) {
             this.word = word;
             this.kind = kind;
             this.menu = menu;
@@ -73,11 +77,7 @@ public final class PopupmenuShowEvent implements UIPopupmenuEvent {
     private int row;
     private int col;
 
-    public PopupmenuShowEvent(
-            @JsonProperty(value = "items", index = 0) List<Item> items,
-            @JsonProperty(value = "selected", index = 1) int selected,
-            @JsonProperty(value = "row", index = 2) int row,
-            @JsonProperty(value = "col", index = 3) int col) {
+    public PopupmenuShowEvent(List<Item> items, int selected, int row, int col) {
         this.items = items;
         this.selected = selected;
         this.row = row;
@@ -108,7 +108,7 @@ public final class PopupmenuShowEvent implements UIPopupmenuEvent {
     @Override
     public String toString() {
         return "PopupmenuShowEvent{" +
-                "items=" + items +
+                "items=" + items.size() +
                 ", selected=" + selected +
                 ", row=" + row +
                 ", col=" + col +
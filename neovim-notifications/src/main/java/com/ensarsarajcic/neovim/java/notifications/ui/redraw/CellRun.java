@@ -0,0 +1,127 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.ui.redraw;
+
+import java.util.Arrays;
+
+/**
+ * Reusable run of consecutive cells put on the screen
+ * <p>
+ * Text of all cells is exposed as a single {@link CharSequence}, while boundaries of the cells are kept separately,
+ * since a cell may hold more than a single char (surrogate pairs, combining characters) or no chars at all (right half
+ * of a double width character).
+ * <p>
+ * Instance is reused by {@link RedrawDecoder} for all runs, so it is valid only during
+ * {@link RedrawVisitor#put(CellRun)} call. Use {@link #toString()} to keep its text.
+ */
+public final class CellRun implements CharSequence {
+
+    /**
+     * Code point of a cell holding the right half of a double width character
+     */
+    public static final int CONTINUATION_CELL = 0;
+
+    private final StringBuilder text = new StringBuilder();
+    private int[] cellEnds = new int[64];
+    private int cellCount;
+
+    CellRun() {
+    }
+
+    void reset() {
+        text.setLength(0);
+        cellCount = 0;
+    }
+
+    void append(CharSequence cellText) {
+        if (cellCount == cellEnds.length) {
+            cellEnds = Arrays.copyOf(cellEnds, cellEnds.length * 2);
+        }
+        text.append(cellText);
+        cellEnds[cellCount++] = text.length();
+    }
+
+    /**
+     * @return number of cells in the run
+     */
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    /**
+     * @param cell index of the cell
+     * @return index of the first char of the cell
+     * @throws IndexOutOfBoundsException if there is no such cell
+     */
+    public int getCellStart(int cell) {
+        return cell == 0 ? checkCell(cell) : cellEnds[checkCell(cell) - 1];
+    }
+
+    /**
+     * @param cell index of the cell
+     * @return index after the last char of the cell
+     * @throws IndexOutOfBoundsException if there is no such cell
+     */
+    public int getCellEnd(int cell) {
+        return cellEnds[checkCell(cell)];
+    }
+
+    /**
+     * @param cell index of the cell
+     * @return first code point of the cell, or {@link #CONTINUATION_CELL} if the cell is empty
+     * @throws IndexOutOfBoundsException if there is no such cell
+     */
+    public int getCellCodePoint(int cell) {
+        int start = getCellStart(cell);
+        return start == cellEnds[cell] ? CONTINUATION_CELL : Character.codePointAt(text, start);
+    }
+
+    private int checkCell(int cell) {
+        if (cell < 0 || cell >= cellCount) {
+            throw new IndexOutOfBoundsException("Cell " + cell + " out of run of " + cellCount + " cells");
+        }
+        return cell;
+    }
+
+    @Override
+    public int length() {
+        return text.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return text.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return text.subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return text.toString();
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.ui.redraw;
+
+import com.ensarsarajcic.neovim.java.corerpc.message.NotificationMessage;
+import com.ensarsarajcic.neovim.java.notifications.ui.NeovimRedrawEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.ClearEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.CursorGotoEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.DefaultColorsSetEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.EolClearEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.FlushEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridClearEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridCursorGotoEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridLineCells;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridLineEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridResizeEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridScrollEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.HighlightSetEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.HlAttrDefineEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.PutEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.ResizeEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.ScrollEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.SetScrollRegionEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.UpdateBackgroundEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.UpdateForegroundEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.UpdateSpecialColorEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.multigrid.GridDestroyEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.multigrid.WinCloseEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.multigrid.WinFloatPosEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.multigrid.WinHideEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.multigrid.WinPosEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.popupmenu.PopupmenuHideEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.popupmenu.PopupmenuItems;
+import com.ensarsarajcic.neovim.java.notifications.ui.popupmenu.PopupmenuSelectEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.popupmenu.PopupmenuShowEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+
+/**
+ * Streaming decoder of redraw notifications
+ * <p>
+ * Walks arguments of a redraw notification once, passing each event down to {@link RedrawVisitor} using primitive
+ * arguments, instead of creating {@link com.ensarsarajcic.neovim.java.notifications.ui.UIEvent} objects for
+ * each of them. Consecutive puts are merged into a single {@link CellRun} and cells of grid_line events are decoded
+ * into {@link GridLineCells}. Both are reused for all events, so steady state decoding does not allocate.
+ * <p>
+ * Since it reuses its buffers, decoder is not thread safe and should be used by a single subscription.
+ * <p>
+ * Example:
+ * <pre>
+ *     {@code
+ *     notificationHandler.notifications(NeovimRedrawEvent.NAME)
+ *         .subscribe(RedrawDecoder.subscriber(screenGrid));
+ *     }
+ * </pre>
+ */
+public final class RedrawDecoder {
+    private static final Logger log = LoggerFactory.getLogger(RedrawDecoder.class);
+
+    private final CellRun cellRun = new CellRun();
+    private final GridLineCells gridLineCells = new GridLineCells();
+
+    /**
+     * Decodes a single redraw notification
+     * @param notificationMessage redraw notification
+     * @param visitor visitor receiving decoded events
+     * @throws IllegalArgumentException if notification is not a redraw notification or it is malformed
+     */
+    public void decode(NotificationMessage notificationMessage, RedrawVisitor visitor) {
+        if (!NeovimRedrawEvent.NAME.equals(notificationMessage.getName())) {
+            throw new IllegalArgumentException("Not a redraw notification: " + notificationMessage.getName());
+        }
+        decode(notificationMessage.getArguments(), visitor);
+    }
+
+    /**
+     * Decodes raw arguments of a single redraw notification
+     * @param batches arguments of redraw notification, each being a list starting with event name
+     * @param visitor visitor receiving decoded events
+     * @throws IllegalArgumentException if arguments are malformed
+     */
+    public void decode(List<?> batches, RedrawVisitor visitor) {
+        Objects.requireNonNull(visitor, "visitor is required to receive redraw events");
+        visitor.redrawStart();
+        cellRun.reset();
+        for (int i = 0; i < batches.size(); i++) {
+            Object rawBatch = batches.get(i);
+            if (!(rawBatch instanceof List) || ((List) rawBatch).isEmpty()) {
+                log.error("Cannot decode redraw batch: {}", rawBatch);
+                throw new IllegalArgumentException("Invalid redraw batch!");
+            }
+            List batch = (List) rawBatch;
+            String name = (String) batch.get(0);
+            if (PutEvent.NAME.equals(name)) {
+                for (int j = 1; j < batch.size(); j++) {
+                    cellRun.append((CharSequence) ((List) batch.get(j)).get(0));
+                }
+                continue;
+            }
+            flushPuts(visitor);
+            for (int j = 1; j < batch.size(); j++) {
+                visit(name, (List) batch.get(j), visitor);
+            }
+        }
+        flushPuts(visitor);
+        visitor.redrawEnd();
+    }
+
+    private void flushPuts(RedrawVisitor visitor) {
+        if (cellRun.getCellCount() > 0) {
+            visitor.put(cellRun);
+            cellRun.reset();
+        }
+    }
+
+    private void visit(String name, List arguments, RedrawVisitor visitor) {
+        switch (name) {
+            case GridLineEvent.NAME:
+                gridLineCells.decode((List) arguments.get(3));
+                visitor.gridLine(intAt(arguments, 0), intAt(arguments, 1), intAt(arguments, 2), gridLineCells);
+                break;
+            case GridCursorGotoEvent.NAME:
+                visitor.gridCursorGoto(intAt(arguments, 0), intAt(arguments, 1), intAt(arguments, 2));
+                break;
+            case GridScrollEvent.NAME:
+                visitor.gridScroll(intAt(arguments, 0), intAt(arguments, 1), intAt(arguments, 2), intAt(arguments, 3),
+                        intAt(arguments, 4), intAt(arguments, 5), intAt(arguments, 6));
+                break;
+            case GridClearEvent.NAME:
+                visitor.gridClear(intAt(arguments, 0));
+                break;
+            case GridResizeEvent.NAME:
+                visitor.gridResize(intAt(arguments, 0), intAt(arguments, 1), intAt(arguments, 2));
+                break;
+            case HlAttrDefineEvent.NAME:
+                Map attributes = (Map) arguments.get(1);
+                visitor.hlAttrDefine(
+                        intAt(arguments, 0),
+                        color(attributes, "foreground"),
+                        color(attributes, "background"),
+                        color(attributes, "special"),
+                        flags(attributes)
+                );
+                break;
+            case DefaultColorsSetEvent.NAME:
+                visitor.defaultColorsSet(intAt(arguments, 0), intAt(arguments, 1), intAt(arguments, 2));
+                break;
+            case FlushEvent.NAME:
+                visitor.flush();
+                break;
+            case WinPosEvent.NAME:
+                WinPosEvent winPosEvent = (WinPosEvent) WinPosEvent.CREATOR.apply(arguments);
+                visitor.winPos(winPosEvent.getGrid(), winPosEvent.getWindow(), winPosEvent.getStartRow(),
+                        winPosEvent.getStartCol(), winPosEvent.getWidth(), winPosEvent.getHeight());
+                break;
+            case WinFloatPosEvent.NAME:
+                WinFloatPosEvent floatPosEvent = (WinFloatPosEvent) WinFloatPosEvent.CREATOR.apply(arguments);
+                visitor.winFloatPos(floatPosEvent.getGrid(), floatPosEvent.getWindow(), floatPosEvent.getAnchor(),
+                        floatPosEvent.getAnchorGrid(), floatPosEvent.getAnchorRow(), floatPosEvent.getAnchorCol(),
+                        floatPosEvent.isFocusable());
+                break;
+            case WinHideEvent.NAME:
+                visitor.winHide(intAt(arguments, 0));
+                break;
+            case WinCloseEvent.NAME:
+                visitor.winClose(intAt(arguments, 0));
+                break;
+            case GridDestroyEvent.NAME:
+                visitor.gridDestroy(intAt(arguments, 0));
+                break;
+            case PopupmenuShowEvent.NAME:
+                visitor.popupmenuShow(PopupmenuItems.of((List) arguments.get(0)), intAt(arguments, 1),
+                        intAt(arguments, 2), intAt(arguments, 3));
+                break;
+            case PopupmenuSelectEvent.NAME:
+                visitor.popupmenuSelect(intAt(arguments, 0));
+                break;
+            case PopupmenuHideEvent.NAME:
+                visitor.popupmenuHide();
+                break;
+            case CursorGotoEvent.NAME:
+                visitor.cursorGoto(intAt(arguments, 0), intAt(arguments, 1));
+                break;
+            case HighlightSetEvent.NAME:
+                visitHighlightSet((Map) arguments.get(0), visitor);
+                break;
+            case EolClearEvent.NAME:
+                visitor.eolClear();
+                break;
+            case ClearEvent.NAME:
+                visitor.clear();
+                break;
+            case ScrollEvent.NAME:
+                visitor.scroll(intAt(arguments, 0));
+                break;
+            case SetScrollRegionEvent.NAME:
+                visitor.setScrollRegion(intAt(arguments, 0), intAt(arguments, 1), intAt(arguments, 2), intAt(arguments, 3));
+                break;
+            case ResizeEvent.NAME:
+                visitor.resize(intAt(arguments, 0), intAt(arguments, 1));
+                break;
+            case UpdateForegroundEvent.NAME:
+                visitor.updateForeground(intAt(arguments, 0));
+                break;
+            case UpdateBackgroundEvent.NAME:
+                visitor.updateBackground(intAt(arguments, 0));
+                break;
+            case UpdateSpecialColorEvent.NAME:
+                visitor.updateSpecial(intAt(arguments, 0));
+                break;
+            default:
+                visitor.event(name, arguments);
+        }
+    }
+
+    private static void visitHighlightSet(Map attributes, RedrawVisitor visitor) {
+        visitor.highlightSet(
+                color(attributes, "foreground"),
+                color(attributes, "background"),
+                color(attributes, "special"),
+                flags(attributes)
+        );
+    }
+
+    private static int flags(Map attributes) {
+        int flags = 0;
+        if (isSet(attributes, "reverse")) {
+            flags |= RedrawVisitor.FLAG_REVERSE;
+        }
+        if (isSet(attributes, "italic")) {
+            flags |= RedrawVisitor.FLAG_ITALIC;
+        }
+        if (isSet(attributes, "bold")) {
+            flags |= RedrawVisitor.FLAG_BOLD;
+        }
+        if (isSet(attributes, "underline")) {
+            flags |= RedrawVisitor.FLAG_UNDERLINE;
+        }
+        if (isSet(attributes, "undercurl")) {
+            flags |= RedrawVisitor.FLAG_UNDERCURL;
+        }
+        return flags;
+    }
+
+    private static int intAt(List arguments, int index) {
+        return ((Number) arguments.get(index)).intValue();
+    }
+
+    private static int color(Map attributes, String key) {
+        Object value = attributes.get(key);
+        return value instanceof Number ? ((Number) value).intValue() : -1;
+    }
+
+    private static boolean isSet(Map attributes, String key) {
+        return Boolean.TRUE.equals(attributes.get(key));
+    }
+
+    /**
+     * Creates a subscriber decoding each received redraw notification into given visitor, using its own decoder
+     * Visitor is called on the thread delivering notifications
+     * @param visitor visitor receiving decoded events
+     * @return subscriber requesting all notifications
+     */
+    public static Flow.Subscriber<NotificationMessage> subscriber(RedrawVisitor visitor) {
+        Objects.requireNonNull(visitor, "visitor is required to receive redraw events");
+        RedrawDecoder decoder = new RedrawDecoder();
+        return new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(NotificationMessage item) {
+                try {
+                    decoder.decode(item, visitor);
+                } catch (RuntimeException ex) {
+                    log.error("Failed to decode redraw notification", ex);
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                log.error("Redraw notifications failed", throwable);
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        };
+    }
+}
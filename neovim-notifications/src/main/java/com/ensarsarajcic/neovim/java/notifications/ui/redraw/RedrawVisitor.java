@@ -0,0 +1,222 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.ui.redraw;
+
+import com.ensarsarajcic.neovim.java.api.types.msgpack.Window;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridLineCells;
+import com.ensarsarajcic.neovim.java.notifications.ui.popupmenu.PopupmenuItems;
+
+import java.util.List;
+
+/**
+ * Receives events of redraw notifications decoded by {@link RedrawDecoder}
+ * <p>
+ * Grid events are passed down using primitive arguments and reusable {@link CellRun}, without creating
+ * {@link com.ensarsarajcic.neovim.java.notifications.ui.UIEvent} objects. All methods do nothing by default,
+ * so only events of interest need to be implemented.
+ * <p>
+ * Events prefixed with grid, as well as {@link #hlAttrDefine(int, int, int, int, int)},
+ * {@link #defaultColorsSet(int, int, int)} and {@link #flush()} are sent only when attached with ext_linegrid.
+ * Events prefixed with win, as well as {@link #gridDestroy(int)}, are sent only when attached with ext_multigrid.
+ */
+public interface RedrawVisitor {
+
+    int FLAG_REVERSE = 1;
+    int FLAG_ITALIC = 1 << 1;
+    int FLAG_BOLD = 1 << 2;
+    int FLAG_UNDERLINE = 1 << 3;
+    int FLAG_UNDERCURL = 1 << 4;
+
+    /**
+     * Called before the first event of a redraw notification
+     */
+    default void redrawStart() {
+    }
+
+    /**
+     * Called after the last event of a redraw notification
+     */
+    default void redrawEnd() {
+    }
+
+    default void resize(int width, int height) {
+    }
+
+    default void clear() {
+    }
+
+    default void eolClear() {
+    }
+
+    default void cursorGoto(int row, int col) {
+    }
+
+    /**
+     * Sets attributes of following puts
+     * @param foreground foreground color, or -1 for default
+     * @param background background color, or -1 for default
+     * @param special special color, or -1 for default
+     * @param flags combination of FLAG_ constants
+     */
+    default void highlightSet(int foreground, int background, int special, int flags) {
+    }
+
+    /**
+     * Puts a run of consecutive cells, starting at the cursor
+     * @param cells cells to put, valid only during this call
+     */
+    default void put(CellRun cells) {
+    }
+
+    default void setScrollRegion(int top, int bottom, int left, int right) {
+    }
+
+    default void scroll(int count) {
+    }
+
+    default void updateForeground(int color) {
+    }
+
+    default void updateBackground(int color) {
+    }
+
+    default void updateSpecial(int color) {
+    }
+
+    default void gridResize(int grid, int width, int height) {
+    }
+
+    default void gridClear(int grid) {
+    }
+
+    default void gridCursorGoto(int grid, int row, int col) {
+    }
+
+    /**
+     * Scrolls a region of a grid, with bottom and right bounds being exclusive
+     * Positive rows move contents up, negative move them down
+     * @param grid id of the grid
+     * @param top first row of the region
+     * @param bottom row after the last row of the region
+     * @param left first column of the region
+     * @param right column after the last column of the region
+     * @param rows number of rows to scroll by
+     * @param cols reserved, always 0
+     */
+    default void gridScroll(int grid, int top, int bottom, int left, int right, int rows, int cols) {
+    }
+
+    /**
+     * Updates a part of a single row of a grid
+     * @param grid id of the grid
+     * @param row row to update
+     * @param colStart first column to update
+     * @param cells run length encoded cells, valid only during this call
+     */
+    default void gridLine(int grid, int row, int colStart, GridLineCells cells) {
+    }
+
+    /**
+     * Defines attributes of a highlight id, referenced by {@link #gridLine(int, int, int, GridLineCells)}
+     * @param id highlight id
+     * @param foreground foreground color, or -1 for default
+     * @param background background color, or -1 for default
+     * @param special special color, or -1 for default
+     * @param flags combination of FLAG_ constants
+     */
+    default void hlAttrDefine(int id, int foreground, int background, int special, int flags) {
+    }
+
+    default void defaultColorsSet(int foreground, int background, int special) {
+    }
+
+    /**
+     * Called when Neovim finished a batch of updates and the screen is in a consistent state
+     */
+    default void flush() {
+    }
+
+    /**
+     * Places grid of a window at given position of the screen
+     * @param grid id of the grid
+     * @param window window shown in the grid
+     * @param startRow row of the screen
+     * @param startCol column of the screen
+     * @param width width of the window
+     * @param height height of the window
+     */
+    default void winPos(int grid, Window window, int startRow, int startCol, int width, int height) {
+    }
+
+    /**
+     * Places grid of a floating window relative to a position of another grid
+     * @param grid id of the grid
+     * @param window window shown in the grid
+     * @param anchor corner of the float placed at anchor position, one of "NW", "NE", "SW" and "SE"
+     * @param anchorGrid id of the grid the float is positioned relative to
+     * @param anchorRow row in the anchor grid
+     * @param anchorCol column in the anchor grid
+     * @param focusable true if window can be focused
+     */
+    default void winFloatPos(int grid, Window window, String anchor, int anchorGrid, double anchorRow, double anchorCol, boolean focusable) {
+    }
+
+    default void winHide(int grid) {
+    }
+
+    default void winClose(int grid) {
+    }
+
+    default void gridDestroy(int grid) {
+    }
+
+    /**
+     * Shows the popupmenu, sent only when attached with ext_popupmenu
+     * @param items items of the popupmenu, decoded lazily
+     * @param selected index of selected item, or -1 if no item is selected
+     * @param row row of the anchor position
+     * @param col column of the anchor position
+     */
+    default void popupmenuShow(PopupmenuItems items, int selected, int row, int col) {
+    }
+
+    /**
+     * Changes selected item of the popupmenu
+     * @param selected index of selected item, or -1 if no item is selected
+     */
+    default void popupmenuSelect(int selected) {
+    }
+
+    default void popupmenuHide() {
+    }
+
+    /**
+     * Called for each occurrence of event without a dedicated method
+     * @param name name of the event
+     * @param arguments raw arguments of the event
+     */
+    default void event(String name, List arguments) {
+    }
+}
@@ -0,0 +1,459 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.ui.screen;
+
+import com.ensarsarajcic.neovim.java.api.types.msgpack.Window;
+import com.ensarsarajcic.neovim.java.notifications.ui.NeovimRedrawEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.DefaultColorsSetEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.FlushEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridClearEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridCursorGotoEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridLineCells;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridLineEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridResizeEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridScrollEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.HlAttrDefineEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.multigrid.GridDestroyEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.multigrid.WinCloseEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.multigrid.WinFloatPosEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.multigrid.WinHideEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.multigrid.WinPosEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.redraw.RedrawVisitor;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compositor of grids of a session attached with ext_multigrid
+ * <p>
+ * Keeps a {@link ScreenGrid} for each grid sent by Neovim, all sharing a single {@link HighlightTable}, along with
+ * placement of their windows on the screen. Global grid ({@link #GLOBAL_GRID}) is always at the bottom, grids
+ * of regular windows are above it and floating windows are above all of them, the most recently positioned on top.
+ * <p>
+ * Composed screen, available through {@link #getScreen()}, is updated on {@link #compose()} (called on each flush),
+ * only in rows which changed in any of the grids or were uncovered by moving, hiding or closing a window, so the work
+ * done is proportional to the change. Rows updated by composition are marked as dirty on the screen grid, the
+ * same way as they would be by single grid updates.
+ * <p>
+ * This class is not thread safe.
+ * <p>
+ * Example:
+ * <pre>
+ *     {@code
+ *     GridCompositor compositor = new GridCompositor();
+ *     notificationHandler.notifications(NeovimRedrawEvent.NAME).subscribe(RedrawDecoder.subscriber(compositor));
+ *
+ *     // After each flush
+ *     ScreenGrid screen = compositor.getScreen();
+ *     for (int row = screen.nextDirtyRow(0); row >= 0; row = screen.nextDirtyRow(row + 1)) {
+ *         // repaint row
+ *     }
+ *     screen.clearDirtyRows();
+ *     }
+ * </pre>
+ */
+public final class GridCompositor implements RedrawVisitor {
+
+    /**
+     * Id of the global grid, which spans the whole screen
+     */
+    public static final int GLOBAL_GRID = 1;
+
+    private static final Comparator<Placement> Z_ORDER = Comparator
+            .<Placement>comparingInt(placement -> placement.floating ? 1 : 0)
+            .thenComparingLong(placement -> placement.sequence);
+
+    private final HighlightTable highlightTable;
+    private final ScreenGrid screen;
+    private final Map<Integer, ScreenGrid> grids = new HashMap<>();
+    private final Map<Integer, Placement> placements = new HashMap<>();
+    // Placements of window grids, from bottom to top
+    private final List<Placement> zOrder = new ArrayList<>();
+    private final BitSet dirtyScreenRows = new BitSet();
+    private long placementSequence;
+
+    private int cursorGrid = GLOBAL_GRID;
+    private int cursorRow;
+    private int cursorCol;
+
+    /**
+     * Creates an empty compositor, which is sized by first resize of the global grid
+     */
+    public GridCompositor() {
+        this.highlightTable = new HighlightTable();
+        this.screen = new ScreenGrid(highlightTable);
+    }
+
+    /**
+     * Applies all linegrid and multigrid events of given redraw event, in order, composing the screen on flush
+     * Other events are ignored
+     * @param redrawEvent redraw event to apply
+     */
+    public void apply(NeovimRedrawEvent redrawEvent) {
+        for (UIEvent uiEvent : redrawEvent.getUiEvents()) {
+            apply(uiEvent);
+        }
+    }
+
+    private void apply(UIEvent event) {
+        if (event instanceof GridLineEvent) {
+            GridLineEvent gridLineEvent = (GridLineEvent) event;
+            gridLine(gridLineEvent.getGrid(), gridLineEvent.getRow(), gridLineEvent.getColStart(), gridLineEvent.getCells());
+        } else if (event instanceof GridCursorGotoEvent) {
+            GridCursorGotoEvent cursorGotoEvent = (GridCursorGotoEvent) event;
+            gridCursorGoto(cursorGotoEvent.getGrid(), cursorGotoEvent.getRow(), cursorGotoEvent.getCol());
+        } else if (event instanceof GridScrollEvent) {
+            GridScrollEvent scrollEvent = (GridScrollEvent) event;
+            gridScroll(scrollEvent.getGrid(), scrollEvent.getTop(), scrollEvent.getBot(), scrollEvent.getLeft(),
+                    scrollEvent.getRight(), scrollEvent.getRows(), scrollEvent.getCols());
+        } else if (event instanceof GridClearEvent) {
+            gridClear(((GridClearEvent) event).getGrid());
+        } else if (event instanceof GridResizeEvent) {
+            GridResizeEvent resizeEvent = (GridResizeEvent) event;
+            gridResize(resizeEvent.getGrid(), resizeEvent.getWidth(), resizeEvent.getHeight());
+        } else if (event instanceof HlAttrDefineEvent) {
+            HlAttrDefineEvent hlAttrDefineEvent = (HlAttrDefineEvent) event;
+            highlightTable.define(hlAttrDefineEvent.getId(), hlAttrDefineEvent.getRgbAttributes());
+        } else if (event instanceof DefaultColorsSetEvent) {
+            DefaultColorsSetEvent colorsSetEvent = (DefaultColorsSetEvent) event;
+            defaultColorsSet(colorsSetEvent.getRgbForeground(), colorsSetEvent.getRgbBackground(), colorsSetEvent.getRgbSpecial());
+        } else if (event instanceof WinPosEvent) {
+            WinPosEvent winPosEvent = (WinPosEvent) event;
+            winPos(winPosEvent.getGrid(), winPosEvent.getWindow(), winPosEvent.getStartRow(), winPosEvent.getStartCol(),
+                    winPosEvent.getWidth(), winPosEvent.getHeight());
+        } else if (event instanceof WinFloatPosEvent) {
+            WinFloatPosEvent floatPosEvent = (WinFloatPosEvent) event;
+            winFloatPos(floatPosEvent.getGrid(), floatPosEvent.getWindow(), floatPosEvent.getAnchor(),
+                    floatPosEvent.getAnchorGrid(), floatPosEvent.getAnchorRow(), floatPosEvent.getAnchorCol(),
+                    floatPosEvent.isFocusable());
+        } else if (event instanceof WinHideEvent) {
+            winHide(((WinHideEvent) event).getGrid());
+        } else if (event instanceof WinCloseEvent) {
+            winClose(((WinCloseEvent) event).getGrid());
+        } else if (event instanceof GridDestroyEvent) {
+            gridDestroy(((GridDestroyEvent) event).getGrid());
+        } else if (event instanceof FlushEvent) {
+            flush();
+        }
+    }
+
+    @Override
+    public void gridResize(int grid, int width, int height) {
+        Placement placement = placements.get(grid);
+        markPlacementDirty(placement);
+        grids.computeIfAbsent(grid, id -> new ScreenGrid(highlightTable)).resize(width, height);
+        if (grid == GLOBAL_GRID) {
+            screen.resize(width, height);
+            dirtyScreenRows.set(0, height);
+        }
+        markPlacementDirty(placement);
+    }
+
+    @Override
+    public void gridClear(int grid) {
+        ScreenGrid screenGrid = grids.get(grid);
+        if (screenGrid != null) {
+            screenGrid.clear();
+        }
+    }
+
+    @Override
+    public void gridCursorGoto(int grid, int row, int col) {
+        this.cursorGrid = grid;
+        this.cursorRow = row;
+        this.cursorCol = col;
+        ScreenGrid screenGrid = grids.get(grid);
+        if (screenGrid != null) {
+            screenGrid.cursorGoto(row, col);
+        }
+    }
+
+    @Override
+    public void gridScroll(int grid, int top, int bottom, int left, int right, int rows, int cols) {
+        ScreenGrid screenGrid = grids.get(grid);
+        if (screenGrid != null) {
+            screenGrid.gridScroll(grid, top, bottom, left, right, rows, cols);
+        }
+    }
+
+    @Override
+    public void gridLine(int grid, int row, int colStart, GridLineCells cells) {
+        ScreenGrid screenGrid = grids.get(grid);
+        if (screenGrid != null) {
+            screenGrid.gridLine(grid, row, colStart, cells);
+        }
+    }
+
+    @Override
+    public void hlAttrDefine(int id, int foreground, int background, int special, int flags) {
+        highlightTable.define(id, foreground, background, special, flags);
+    }
+
+    @Override
+    public void defaultColorsSet(int foreground, int background, int special) {
+        screen.defaultColorsSet(foreground, background, special);
+    }
+
+    @Override
+    public void winPos(int grid, Window window, int startRow, int startCol, int width, int height) {
+        Placement placement = placements.get(grid);
+        if (placement == null) {
+            placement = new Placement(grid);
+            placement.sequence = placementSequence++;
+            placements.put(grid, placement);
+            zOrder.add(placement);
+        } else {
+            markPlacementDirty(placement);
+        }
+        placement.window = window;
+        placement.row = startRow;
+        placement.col = startCol;
+        placement.width = width;
+        placement.height = height;
+        placement.floating = false;
+        placement.visible = true;
+        zOrder.sort(Z_ORDER);
+        markPlacementDirty(placement);
+    }
+
+    @Override
+    public void winFloatPos(int grid, Window window, String anchor, int anchorGrid, double anchorRow, double anchorCol, boolean focusable) {
+        Placement placement = placements.get(grid);
+        if (placement == null) {
+            placement = new Placement(grid);
+            placements.put(grid, placement);
+            zOrder.add(placement);
+        } else {
+            markPlacementDirty(placement);
+        }
+        ScreenGrid screenGrid = grids.get(grid);
+        int width = screenGrid != null ? screenGrid.getWidth() : 0;
+        int height = screenGrid != null ? screenGrid.getHeight() : 0;
+        Placement anchorPlacement = placements.get(anchorGrid);
+        int row = (int) Math.round(anchorRow) + (anchorPlacement != null ? anchorPlacement.row : 0);
+        int col = (int) Math.round(anchorCol) + (anchorPlacement != null ? anchorPlacement.col : 0);
+        if (anchor.startsWith("S")) {
+            row -= height;
+        }
+        if (anchor.endsWith("E")) {
+            col -= width;
+        }
+
+        placement.window = window;
+        placement.row = row;
+        placement.col = col;
+        // Floats are limited only by size of their grid
+        placement.width = Integer.MAX_VALUE;
+        placement.height = Integer.MAX_VALUE;
+        placement.floating = true;
+        placement.visible = true;
+        // Most recently positioned float is on top
+        placement.sequence = placementSequence++;
+        zOrder.sort(Z_ORDER);
+        markPlacementDirty(placement);
+    }
+
+    @Override
+    public void winHide(int grid) {
+        Placement placement = placements.get(grid);
+        if (placement != null) {
+            markPlacementDirty(placement);
+            placement.visible = false;
+        }
+    }
+
+    @Override
+    public void winClose(int grid) {
+        Placement placement = placements.remove(grid);
+        if (placement != null) {
+            markPlacementDirty(placement);
+            zOrder.remove(placement);
+        }
+    }
+
+    @Override
+    public void gridDestroy(int grid) {
+        winClose(grid);
+        grids.remove(grid);
+    }
+
+    /**
+     * Composes the screen on flush
+     */
+    @Override
+    public void flush() {
+        compose();
+    }
+
+    /**
+     * Composes rows of the screen which changed since last composition
+     */
+    public void compose() {
+        ScreenGrid globalGrid = grids.get(GLOBAL_GRID);
+        if (globalGrid != null) {
+            for (int row = globalGrid.nextDirtyRow(0); row >= 0; row = globalGrid.nextDirtyRow(row + 1)) {
+                markScreenRow(row);
+            }
+            globalGrid.clearDirtyRows();
+        }
+        for (Placement placement : zOrder) {
+            ScreenGrid screenGrid = grids.get(placement.grid);
+            if (screenGrid == null) {
+                continue;
+            }
+            if (placement.visible) {
+                int height = visibleHeight(placement, screenGrid);
+                for (int row = screenGrid.nextDirtyRow(0); row >= 0 && row < height; row = screenGrid.nextDirtyRow(row + 1)) {
+                    markScreenRow(placement.row + row);
+                }
+            }
+            screenGrid.clearDirtyRows();
+        }
+
+        for (int row = dirtyScreenRows.nextSetBit(0); row >= 0; row = dirtyScreenRows.nextSetBit(row + 1)) {
+            composeRow(row, globalGrid);
+        }
+        dirtyScreenRows.clear();
+
+        Placement cursorPlacement = placements.get(cursorGrid);
+        if (cursorPlacement != null) {
+            screen.cursorGoto(cursorPlacement.row + cursorRow, cursorPlacement.col + cursorCol);
+        } else {
+            screen.cursorGoto(cursorRow, cursorCol);
+        }
+    }
+
+    private void composeRow(int row, ScreenGrid globalGrid) {
+        if (globalGrid != null && row < globalGrid.getHeight()) {
+            globalGrid.copyRowTo(row, 0, Math.min(globalGrid.getWidth(), screen.getWidth()), screen, row, 0);
+        } else {
+            screen.clearRow(row);
+        }
+        for (Placement placement : zOrder) {
+            ScreenGrid screenGrid = grids.get(placement.grid);
+            if (!placement.visible || screenGrid == null) {
+                continue;
+            }
+            int gridRow = row - placement.row;
+            if (gridRow < 0 || gridRow >= visibleHeight(placement, screenGrid)) {
+                continue;
+            }
+            int screenCol = Math.max(0, placement.col);
+            int gridCol = screenCol - placement.col;
+            int length = Math.min(visibleWidth(placement, screenGrid) - gridCol, screen.getWidth() - screenCol);
+            if (length > 0) {
+                screenGrid.copyRowTo(gridRow, gridCol, length, screen, row, screenCol);
+            }
+        }
+    }
+
+    private void markPlacementDirty(Placement placement) {
+        if (placement == null || !placement.visible) {
+            return;
+        }
+        ScreenGrid screenGrid = grids.get(placement.grid);
+        int height = screenGrid != null ? visibleHeight(placement, screenGrid) : 0;
+        for (int row = 0; row < height; row++) {
+            markScreenRow(placement.row + row);
+        }
+    }
+
+    private void markScreenRow(int row) {
+        if (row >= 0 && row < screen.getHeight()) {
+            dirtyScreenRows.set(row);
+        }
+    }
+
+    private static int visibleHeight(Placement placement, ScreenGrid screenGrid) {
+        return Math.min(placement.height, screenGrid.getHeight());
+    }
+
+    private static int visibleWidth(Placement placement, ScreenGrid screenGrid) {
+        return Math.min(placement.width, screenGrid.getWidth());
+    }
+
+    /**
+     * Provides the composed screen
+     * Its dirty rows are rows changed by compositions since they were last cleared
+     * @return composed screen
+     */
+    public ScreenGrid getScreen() {
+        return screen;
+    }
+
+    /**
+     * Provides a single grid, as sent by Neovim, without composition
+     * @param grid id of the grid
+     * @return grid, or null if there is no such grid
+     */
+    public ScreenGrid getGrid(int grid) {
+        return grids.get(grid);
+    }
+
+    /**
+     * Provides window shown in given grid
+     * @param grid id of the grid
+     * @return window, or null if grid is not placed on the screen
+     */
+    public Window getWindow(int grid) {
+        Placement placement = placements.get(grid);
+        return placement != null ? placement.window : null;
+    }
+
+    /**
+     * @return table of attributes shared by all grids
+     */
+    public HighlightTable getHighlightTable() {
+        return highlightTable;
+    }
+
+    /**
+     * @return id of the grid holding the cursor
+     */
+    public int getCursorGrid() {
+        return cursorGrid;
+    }
+
+    private static final class Placement {
+        private final int grid;
+        private Window window;
+        private int row;
+        private int col;
+        private int width;
+        private int height;
+        private boolean floating;
+        private boolean visible = true;
+        private long sequence;
+
+        private Placement(int grid) {
+            this.grid = grid;
+        }
+    }
+}
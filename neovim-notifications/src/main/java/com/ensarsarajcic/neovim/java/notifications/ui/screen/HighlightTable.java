@@ -0,0 +1,311 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.ui.screen;
+
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.HighlightSetEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.redraw.RedrawVisitor;
+
+import java.util.Arrays;
+
+/**
+ * Table of interned highlight attributes of a single session
+ * <p>
+ * Each distinct combination of foreground, background, special color and flags (reverse, italic, bold,
+ * underline, undercurl) is stored once and identified by a small int id, so grid models can store and compare a single
+ * int per cell. Foreground, background and flags of each combination are also available packed into a single long,
+ * see {@link #getPacked(int)}. Lookups in both directions are O(1) and do not allocate.
+ * <p>
+ * Colors are 24 bit RGB values, or -1 for default color. Flags are combination of {@link RedrawVisitor} FLAG_
+ * constants. Id {@link #DEFAULT_ID} always represents default colors without any flags.
+ * <p>
+ * With ext_linegrid, Neovim defines highlights itself (hl_attr_define) and references them by its own ids.
+ * Those are mapped to ids of this table using {@link #define(int, int, int, int, int)} and {@link #getDefinedId(int)}.
+ * <p>
+ * This class is not thread safe.
+ */
+public final class HighlightTable {
+
+    /**
+     * Id of default attributes
+     */
+    public static final int DEFAULT_ID = 0;
+
+    private static final int COLOR_BITS = 25;
+    private static final long COLOR_MASK = (1L << COLOR_BITS) - 1;
+    private static final long DEFAULT_COLOR = 1L << 24;
+    private static final int BACKGROUND_SHIFT = COLOR_BITS;
+    private static final int FLAGS_SHIFT = COLOR_BITS * 2;
+
+    private long[] packed = new long[16];
+    private int[] specials = new int[16];
+    private int size;
+
+    // Open addressing hash table of ids + 1, 0 marks an empty slot
+    private int[] slots = new int[32];
+
+    // Ids of this table indexed by highlight ids defined by Neovim
+    private int[] definedIds = new int[16];
+
+    /**
+     * Creates a table containing only default attributes
+     */
+    public HighlightTable() {
+        intern(-1, -1, -1, 0);
+    }
+
+    /**
+     * Provides id of given attributes, storing them if they were not used before
+     * @param foreground foreground color, or -1 for default
+     * @param background background color, or -1 for default
+     * @param special special color, or -1 for default
+     * @param flags combination of {@link RedrawVisitor} FLAG_ constants
+     * @return id of attributes
+     */
+    public int intern(int foreground, int background, int special, int flags) {
+        long key = pack(foreground, background, flags);
+        int specialKey = special < 0 ? -1 : special & 0xFFFFFF;
+        int mask = slots.length - 1;
+        int slot = hash(key, specialKey) & mask;
+        while (slots[slot] != 0) {
+            int id = slots[slot] - 1;
+            if (packed[id] == key && specials[id] == specialKey) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int id = size++;
+        if (id == packed.length) {
+            packed = Arrays.copyOf(packed, id * 2);
+            specials = Arrays.copyOf(specials, id * 2);
+        }
+        packed[id] = key;
+        specials[id] = specialKey;
+        slots[slot] = id + 1;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    /**
+     * Provides id of given attributes, storing them if they were not used before
+     * @param attributes attributes to find id for, or null for default attributes
+     * @return id of attributes
+     */
+    public int intern(HighlightSetEvent.Attributes attributes) {
+        if (attributes == null) {
+            return DEFAULT_ID;
+        }
+        int flags = 0;
+        if (attributes.isReverse()) {
+            flags |= RedrawVisitor.FLAG_REVERSE;
+        }
+        if (attributes.isItalic()) {
+            flags |= RedrawVisitor.FLAG_ITALIC;
+        }
+        if (attributes.isBold()) {
+            flags |= RedrawVisitor.FLAG_BOLD;
+        }
+        if (attributes.isUnderline()) {
+            flags |= RedrawVisitor.FLAG_UNDERLINE;
+        }
+        if (attributes.isUndercurl()) {
+            flags |= RedrawVisitor.FLAG_UNDERCURL;
+        }
+        return intern(attributes.getForeground(), attributes.getBackground(), attributes.getSpecial(), flags);
+    }
+
+    /**
+     * Defines highlight id used by Neovim, interning its attributes
+     * @param highlightId id defined by Neovim
+     * @param foreground foreground color, or -1 for default
+     * @param background background color, or -1 for default
+     * @param special special color, or -1 for default
+     * @param flags combination of {@link RedrawVisitor} FLAG_ constants
+     * @return id of attributes in this table
+     * @throws IllegalArgumentException if highlightId is negative
+     */
+    public int define(int highlightId, int foreground, int background, int special, int flags) {
+        if (highlightId < 0) {
+            throw new IllegalArgumentException("Invalid highlight id: " + highlightId);
+        }
+        if (highlightId >= definedIds.length) {
+            definedIds = Arrays.copyOf(definedIds, Math.max(definedIds.length * 2, highlightId + 1));
+        }
+        int id = intern(foreground, background, special, flags);
+        definedIds[highlightId] = id;
+        return id;
+    }
+
+    /**
+     * Defines highlight id used by Neovim, interning its attributes
+     * @param highlightId id defined by Neovim
+     * @param attributes attributes of the highlight, or null for default attributes
+     * @return id of attributes in this table
+     * @throws IllegalArgumentException if highlightId is negative
+     */
+    public int define(int highlightId, HighlightSetEvent.Attributes attributes) {
+        int id = intern(attributes);
+        return define(highlightId, getForeground(id), getBackground(id), getSpecial(id), getFlags(id));
+    }
+
+    /**
+     * Provides id of attributes defined for highlight id used by Neovim
+     * @param highlightId id defined by Neovim
+     * @return id of attributes in this table, or {@link #DEFAULT_ID} if highlight id is not defined
+     */
+    public int getDefinedId(int highlightId) {
+        return highlightId >= 0 && highlightId < definedIds.length ? definedIds[highlightId] : DEFAULT_ID;
+    }
+
+    /**
+     * Creates an independent copy of this table
+     */
+    HighlightTable copy() {
+        HighlightTable copy = new HighlightTable();
+        copy.packed = packed.clone();
+        copy.specials = specials.clone();
+        copy.size = size;
+        copy.slots = slots.clone();
+        copy.definedIds = definedIds.clone();
+        return copy;
+    }
+
+    private void rehash() {
+        int[] newSlots = new int[slots.length * 2];
+        int mask = newSlots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hash(packed[id], specials[id]) & mask;
+            while (newSlots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newSlots[slot] = id + 1;
+        }
+        slots = newSlots;
+    }
+
+    private static int hash(long key, int special) {
+        long hash = (key ^ ((long) special << 7)) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * @return number of interned attribute combinations, including defaults
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Provides foreground, background and flags of given attributes packed into a single long
+     * Use static unpacking methods, such as {@link #foregroundOf(long)}, to read them
+     * Equal packed values and specials mean equal attributes
+     * @param id id of attributes
+     * @return packed attributes
+     * @throws IndexOutOfBoundsException if there are no attributes with given id
+     */
+    public long getPacked(int id) {
+        return packed[checkId(id)];
+    }
+
+    public int getForeground(int id) {
+        return foregroundOf(getPacked(id));
+    }
+
+    public int getBackground(int id) {
+        return backgroundOf(getPacked(id));
+    }
+
+    public int getSpecial(int id) {
+        return specials[checkId(id)];
+    }
+
+    public int getFlags(int id) {
+        return flagsOf(getPacked(id));
+    }
+
+    /**
+     * Creates attributes object of given id
+     * @param id id of attributes
+     * @return attributes, or null for {@link #DEFAULT_ID}
+     * @throws IndexOutOfBoundsException if there are no attributes with given id
+     */
+    public HighlightSetEvent.Attributes getAttributes(int id) {
+        if (checkId(id) == DEFAULT_ID) {
+            return null;
+        }
+        int flags = getFlags(id);
+        return new HighlightSetEvent.Attributes(
+                getForeground(id),
+                getBackground(id),
+                getSpecial(id),
+                (flags & RedrawVisitor.FLAG_REVERSE) != 0,
+                (flags & RedrawVisitor.FLAG_ITALIC) != 0,
+                (flags & RedrawVisitor.FLAG_BOLD) != 0,
+                (flags & RedrawVisitor.FLAG_UNDERLINE) != 0,
+                (flags & RedrawVisitor.FLAG_UNDERCURL) != 0
+        );
+    }
+
+    private int checkId(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("Unknown attributes id: " + id);
+        }
+        return id;
+    }
+
+    /**
+     * Packs foreground, background and flags into a single long, in format of {@link #getPacked(int)}
+     * @param foreground foreground color, or -1 for default
+     * @param background background color, or -1 for default
+     * @param flags combination of {@link RedrawVisitor} FLAG_ constants
+     * @return packed attributes
+     */
+    public static long pack(int foreground, int background, int flags) {
+        return packColor(foreground) | (packColor(background) << BACKGROUND_SHIFT) | ((long) (flags & 0x1F) << FLAGS_SHIFT);
+    }
+
+    public static int foregroundOf(long packed) {
+        return unpackColor(packed);
+    }
+
+    public static int backgroundOf(long packed) {
+        return unpackColor(packed >>> BACKGROUND_SHIFT);
+    }
+
+    public static int flagsOf(long packed) {
+        return (int) (packed >>> FLAGS_SHIFT) & 0x1F;
+    }
+
+    private static long packColor(int color) {
+        return color < 0 ? DEFAULT_COLOR : color & 0xFFFFFF;
+    }
+
+    private static int unpackColor(long packed) {
+        long color = packed & COLOR_MASK;
+        return color == DEFAULT_COLOR ? -1 : (int) color;
+    }
+}
@@ -0,0 +1,346 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.ui.screen;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Compact binary encoding of screen frames, produced by {@link ScreenDeltaBroadcaster}
+ * <p>
+ * Each message is either a keyframe, holding the whole screen and all highlight attributes, or a delta, holding only
+ * rows and attributes which changed since the previous message. A viewer starts from a keyframe and applies
+ * following messages in order, using {@link #apply(ByteBuffer, ScreenGrid)}.
+ * <p>
+ * Format (varint is unsigned LEB128, svarint is zigzag encoded varint):
+ * <pre>
+ *     byte    type ({@link #TYPE_KEYFRAME} or {@link #TYPE_DELTA})
+ *     varint  sequence of the message
+ *     varint  width, height, cursor row, cursor col
+ *     svarint default foreground, default background, default special
+ *     varint  id of the first attribute entry, number of entries
+ *             per entry: svarint foreground, background, special, varint flags
+ *     varint  number of rows
+ *             per row: varint row, varint number of runs
+ *                      per run: varint (length &lt;&lt; 1 | repeated), varint attribute id,
+ *                               varint code point if repeated, otherwise length code points
+ * </pre>
+ * Runs never cross attribute changes. Repeated runs hold a single code point repeated length times,
+ * which keeps blank areas of the screen down to a few bytes.
+ */
+public final class ScreenDelta {
+
+    /**
+     * Type of messages holding the whole screen
+     */
+    public static final byte TYPE_KEYFRAME = 1;
+
+    /**
+     * Type of messages holding changes since the previous message
+     */
+    public static final byte TYPE_DELTA = 2;
+
+    private static final int MIN_REPEAT = 4;
+
+    private ScreenDelta() {
+        //no instance
+    }
+
+    /**
+     * @param message encoded message
+     * @return true if message is a keyframe
+     */
+    public static boolean isKeyframe(ByteBuffer message) {
+        return message.get(message.position()) == TYPE_KEYFRAME;
+    }
+
+    /**
+     * @param message encoded message
+     * @return sequence of the message
+     */
+    public static long getSequence(ByteBuffer message) {
+        ByteBuffer buffer = message.duplicate();
+        buffer.get();
+        return readVarLong(buffer);
+    }
+
+    /**
+     * Applies an encoded message to given grid
+     * Keyframes may be applied to any grid, while deltas need to be applied in order, right after the message
+     * they follow. Position of the message buffer is not changed.
+     * @param message encoded message
+     * @param screenGrid grid of the viewer
+     * @throws IllegalArgumentException if message is malformed
+     * @throws IllegalStateException if attributes of the message don't match attributes of the grid,
+     *                               which means a message was skipped
+     */
+    public static void apply(ByteBuffer message, ScreenGrid screenGrid) {
+        Objects.requireNonNull(message, "message is required");
+        Objects.requireNonNull(screenGrid, "screenGrid is required to apply message to");
+        ByteBuffer buffer = message.duplicate();
+        try {
+            byte type = buffer.get();
+            if (type != TYPE_KEYFRAME && type != TYPE_DELTA) {
+                throw new IllegalArgumentException("Unknown message type: " + type);
+            }
+            readVarLong(buffer);
+            int width = readVarInt(buffer);
+            int height = readVarInt(buffer);
+            int cursorRow = readVarInt(buffer);
+            int cursorCol = readVarInt(buffer);
+            if (type == TYPE_KEYFRAME || width != screenGrid.getWidth() || height != screenGrid.getHeight()) {
+                screenGrid.resize(width, height);
+            }
+            screenGrid.cursorGoto(cursorRow, cursorCol);
+            int foreground = readSignedVarInt(buffer);
+            int background = readSignedVarInt(buffer);
+            int special = readSignedVarInt(buffer);
+            if (foreground != screenGrid.getDefaultForeground() || background != screenGrid.getDefaultBackground()
+                    || special != screenGrid.getDefaultSpecial()) {
+                screenGrid.defaultColorsSet(foreground, background, special);
+            }
+
+            HighlightTable highlightTable = screenGrid.getHighlightTable();
+            int firstId = readVarInt(buffer);
+            int count = readVarInt(buffer);
+            for (int i = 0; i < count; i++) {
+                int id = highlightTable.intern(
+                        readSignedVarInt(buffer), readSignedVarInt(buffer), readSignedVarInt(buffer), readVarInt(buffer)
+                );
+                if (id != firstId + i) {
+                    throw new IllegalStateException("Attributes out of sync, expected id " + (firstId + i) + ", got " + id);
+                }
+            }
+
+            int[] codePoints = new int[width];
+            int[] attributeIds = new int[width];
+            int rowCount = readVarInt(buffer);
+            for (int i = 0; i < rowCount; i++) {
+                int row = readVarInt(buffer);
+                if (row >= height) {
+                    throw new IllegalArgumentException("Row " + row + " is outside of the screen");
+                }
+                int col = 0;
+                int runCount = readVarInt(buffer);
+                for (int run = 0; run < runCount; run++) {
+                    int header = readVarInt(buffer);
+                    int length = header >>> 1;
+                    if (col + length > width) {
+                        throw new IllegalArgumentException("Row " + row + " is wider than the screen");
+                    }
+                    int attributeId = readVarInt(buffer);
+                    Arrays.fill(attributeIds, col, col + length, attributeId);
+                    if ((header & 1) != 0) {
+                        Arrays.fill(codePoints, col, col + length, readVarInt(buffer));
+                    } else {
+                        for (int j = col; j < col + length; j++) {
+                            codePoints[j] = readVarInt(buffer);
+                        }
+                    }
+                    col += length;
+                }
+                if (col != width) {
+                    throw new IllegalArgumentException("Row " + row + " is narrower than the screen");
+                }
+                screenGrid.writeRow(row, codePoints, attributeIds);
+            }
+        } catch (BufferUnderflowException ex) {
+            throw new IllegalArgumentException("Message is truncated", ex);
+        }
+    }
+
+    /**
+     * Growable buffer encoding messages
+     */
+    static final class Writer {
+        private byte[] bytes = new byte[256];
+        private int position;
+
+        void reset() {
+            position = 0;
+        }
+
+        /**
+         * Writes message header, followed by attributes of given table in range [firstId, table size)
+         */
+        void writeHeader(byte type, long sequence, ScreenFrame frame, HighlightTable highlightTable, int firstId) {
+            writeByte(type);
+            writeVarLong(sequence);
+            writeVarInt(frame.getWidth());
+            writeVarInt(frame.getHeight());
+            writeVarInt(frame.getCursorRow());
+            writeVarInt(frame.getCursorCol());
+            writeSignedVarInt(frame.getDefaultForeground());
+            writeSignedVarInt(frame.getDefaultBackground());
+            writeSignedVarInt(frame.getDefaultSpecial());
+            int count = highlightTable.size() - firstId;
+            writeVarInt(firstId);
+            writeVarInt(count);
+            for (int id = firstId; id < firstId + count; id++) {
+                writeSignedVarInt(highlightTable.getForeground(id));
+                writeSignedVarInt(highlightTable.getBackground(id));
+                writeSignedVarInt(highlightTable.getSpecial(id));
+                writeVarInt(highlightTable.getFlags(id));
+            }
+        }
+
+        /**
+         * Writes a single row, given as a range of arrays
+         */
+        void writeRow(int row, int[] codePoints, int[] attributeIds, int offset, int width) {
+            writeVarInt(row);
+            int runCountPosition = position;
+            // Reserve space for run count, which is at most width, so it fits into the same number of bytes
+            int runCountSize = varIntSize(width);
+            ensureCapacity(runCountSize);
+            position += runCountSize;
+
+            int runCount = 0;
+            int end = offset + width;
+            int literalStart = offset;
+            int i = offset;
+            while (i < end) {
+                int attributeId = attributeIds[i];
+                int codePoint = codePoints[i];
+                int repeatEnd = i + 1;
+                while (repeatEnd < end && codePoints[repeatEnd] == codePoint && attributeIds[repeatEnd] == attributeId) {
+                    repeatEnd++;
+                }
+                boolean attributeChange = i > literalStart && attributeIds[i - 1] != attributeId;
+                if (repeatEnd - i >= MIN_REPEAT || attributeChange) {
+                    if (i > literalStart) {
+                        writeLiteral(codePoints, attributeIds[literalStart], literalStart, i);
+                        runCount++;
+                    }
+                    literalStart = i;
+                }
+                if (repeatEnd - i >= MIN_REPEAT) {
+                    writeVarInt((repeatEnd - i) << 1 | 1);
+                    writeVarInt(attributeId);
+                    writeVarInt(codePoint);
+                    runCount++;
+                    literalStart = repeatEnd;
+                }
+                i = repeatEnd;
+            }
+            if (literalStart < end) {
+                writeLiteral(codePoints, attributeIds[literalStart], literalStart, end);
+                runCount++;
+            }
+
+            int afterRuns = position;
+            position = runCountPosition;
+            writePaddedVarInt(runCount, runCountSize);
+            position = afterRuns;
+        }
+
+        void writeVarInt(int value) {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        /**
+         * @return read only buffer holding a copy of the written message
+         */
+        ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(Arrays.copyOf(bytes, position)).asReadOnlyBuffer();
+        }
+
+        private void writeLiteral(int[] codePoints, int attributeId, int start, int end) {
+            writeVarInt((end - start) << 1);
+            writeVarInt(attributeId);
+            for (int i = start; i < end; i++) {
+                writeVarInt(codePoints[i]);
+            }
+        }
+
+        private void writeSignedVarInt(int value) {
+            writeVarInt((value << 1) ^ (value >> 31));
+        }
+
+        private void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[position++] = (byte) value;
+        }
+
+        private void writePaddedVarInt(int value, int size) {
+            for (int i = 0; i < size - 1; i++) {
+                bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[position++] = (byte) value;
+        }
+
+        private void writeByte(byte value) {
+            ensureCapacity(1);
+            bytes[position++] = value;
+        }
+
+        private void ensureCapacity(int additional) {
+            if (position + additional > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, position + additional));
+            }
+        }
+
+        private static int varIntSize(int value) {
+            int size = 1;
+            while ((value & ~0x7F) != 0) {
+                value >>>= 7;
+                size++;
+            }
+            return size;
+        }
+    }
+
+    private static int readVarInt(ByteBuffer buffer) {
+        long value = readVarLong(buffer);
+        if (value > 0xFFFFFFFFL) {
+            throw new IllegalArgumentException("Value out of int range: " + value);
+        }
+        return (int) value;
+    }
+
+    private static int readSignedVarInt(ByteBuffer buffer) {
+        int value = readVarInt(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+}
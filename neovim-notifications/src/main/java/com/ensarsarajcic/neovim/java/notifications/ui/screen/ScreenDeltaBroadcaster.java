@@ -0,0 +1,287 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.ui.screen;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Processor encoding {@link ScreenFrame} objects into {@link ScreenDelta} messages and broadcasting them to any number
+ * of viewers
+ * <p>
+ * Each frame is encoded once, no matter how many viewers are subscribed, and all of them receive read only views of
+ * the same message. A keyframe is encoded for the first frame, whenever size of the screen changes and after every
+ * keyframe interval number of deltas. Only messages since the latest keyframe are kept.
+ * <p>
+ * Each viewer is delivered messages at its own pace, on the thread which produced the frame or requested more
+ * messages. New viewers start from the latest keyframe. A viewer which falls behind the latest keyframe skips
+ * straight to it, since keyframe replaces everything that came before it. Memory used is therefore bounded by the
+ * keyframe interval, regardless of number of viewers and how slow they are.
+ * <p>
+ * Example:
+ * <pre>
+ *     {@code
+ *     ScreenDeltaBroadcaster broadcaster = new ScreenDeltaBroadcaster();
+ *     notificationHandler.uiFrames().subscribe(broadcaster);
+ *     broadcaster.subscribe(viewerConnection);
+ *
+ *     // On the viewer side
+ *     ScreenDelta.apply(message, viewerScreenGrid);
+ *     }
+ * </pre>
+ */
+public final class ScreenDeltaBroadcaster implements Flow.Processor<ScreenFrame, ByteBuffer> {
+    private static final Logger log = LoggerFactory.getLogger(ScreenDeltaBroadcaster.class);
+
+    /**
+     * Default maximum number of deltas between two keyframes
+     */
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 120;
+
+    private final int keyframeInterval;
+    private final List<Viewer> viewers = new CopyOnWriteArrayList<>();
+
+    // guarded by this
+    private final ScreenDelta.Writer writer = new ScreenDelta.Writer();
+    // guarded by this, full contents of the screen, needed for keyframes
+    private int[] codePoints = new int[0];
+    // guarded by this
+    private int[] attributeIds = new int[0];
+    // guarded by this
+    private int width = -1;
+    // guarded by this
+    private int height = -1;
+    // guarded by this, number of attribute entries sent so far
+    private int sentAttributes;
+    // guarded by this, messages since (and including) the latest keyframe
+    private final List<ByteBuffer> history = new ArrayList<>();
+    // guarded by this, sequence of the latest keyframe
+    private long keyframeSequence = -1;
+    // guarded by this
+    private long nextSequence;
+
+    private volatile boolean done;
+    private volatile Throwable error;
+
+    /**
+     * Creates a broadcaster with {@link #DEFAULT_KEYFRAME_INTERVAL}
+     */
+    public ScreenDeltaBroadcaster() {
+        this(DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * @param keyframeInterval maximum number of deltas between two keyframes
+     * @throws IllegalArgumentException if keyframeInterval is not positive
+     */
+    public ScreenDeltaBroadcaster(int keyframeInterval) {
+        if (keyframeInterval <= 0) {
+            throw new IllegalArgumentException("Keyframe interval needs to be positive: " + keyframeInterval);
+        }
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber may not be null");
+        Viewer viewer = new Viewer(subscriber);
+        viewers.add(viewer);
+        subscriber.onSubscribe(viewer);
+        viewer.drain();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(ScreenFrame frame) {
+        synchronized (this) {
+            encode(frame);
+        }
+        for (Viewer viewer : viewers) {
+            viewer.drain();
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        error = throwable;
+        done = true;
+        for (Viewer viewer : viewers) {
+            viewer.drain();
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        done = true;
+        for (Viewer viewer : viewers) {
+            viewer.drain();
+        }
+    }
+
+    /**
+     * @return number of currently subscribed viewers
+     */
+    public int getViewerCount() {
+        return viewers.size();
+    }
+
+    // guarded by this
+    private void encode(ScreenFrame frame) {
+        boolean resized = frame.getWidth() != width || frame.getHeight() != height;
+        if (resized) {
+            width = frame.getWidth();
+            height = frame.getHeight();
+            codePoints = new int[width * height];
+            attributeIds = new int[width * height];
+            Arrays.fill(codePoints, ScreenGrid.EMPTY_CELL);
+        }
+        for (int i = 0; i < frame.getRowCount(); i++) {
+            int offset = frame.getRow(i) * width;
+            frame.copyRow(i, codePoints, attributeIds, offset);
+        }
+
+        HighlightTable highlightTable = frame.getHighlightTable();
+        writer.reset();
+        if (resized || history.size() > keyframeInterval) {
+            keyframeSequence = nextSequence;
+            writer.writeHeader(ScreenDelta.TYPE_KEYFRAME, nextSequence++, frame, highlightTable, 1);
+            writer.writeVarInt(height);
+            for (int row = 0; row < height; row++) {
+                writer.writeRow(row, codePoints, attributeIds, row * width, width);
+            }
+            history.clear();
+        } else {
+            writer.writeHeader(ScreenDelta.TYPE_DELTA, nextSequence++, frame, highlightTable, sentAttributes);
+            writer.writeVarInt(frame.getRowCount());
+            for (int i = 0; i < frame.getRowCount(); i++) {
+                int row = frame.getRow(i);
+                writer.writeRow(row, codePoints, attributeIds, row * width, width);
+            }
+        }
+        sentAttributes = highlightTable.size();
+        history.add(writer.toByteBuffer());
+    }
+
+    // guarded by this
+    private ByteBuffer messageAt(long sequence) {
+        int index = (int) (sequence - keyframeSequence);
+        return index < history.size() ? history.get(index).duplicate() : null;
+    }
+
+    private final class Viewer implements Flow.Subscription {
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+        // accessed only while draining
+        private long nextSequence = -1;
+
+        private Viewer(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("Requested non-positive number of items: " + n));
+                return;
+            }
+            requested.getAndAccumulate(n, (current, added) -> {
+                long sum = current + added;
+                return sum < 0 ? Long.MAX_VALUE : sum;
+            });
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            viewers.remove(this);
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                while (!cancelled && requested.get() > 0) {
+                    ByteBuffer next;
+                    synchronized (ScreenDeltaBroadcaster.this) {
+                        if (keyframeSequence < 0) {
+                            break;
+                        }
+                        if (nextSequence < keyframeSequence) {
+                            if (nextSequence >= 0) {
+                                log.debug("Viewer skipped {} messages to keyframe {}",
+                                        keyframeSequence - nextSequence, keyframeSequence);
+                            }
+                            nextSequence = keyframeSequence;
+                        }
+                        next = messageAt(nextSequence);
+                    }
+                    if (next == null) {
+                        break;
+                    }
+                    nextSequence++;
+                    if (requested.get() != Long.MAX_VALUE) {
+                        requested.decrementAndGet();
+                    }
+                    subscriber.onNext(next);
+                }
+                if (!cancelled && done) {
+                    boolean caughtUp;
+                    synchronized (ScreenDeltaBroadcaster.this) {
+                        caughtUp = keyframeSequence < 0 || messageAt(Math.max(nextSequence, keyframeSequence)) == null;
+                    }
+                    if (caughtUp || error != null) {
+                        cancel();
+                        if (error != null) {
+                            subscriber.onError(error);
+                        } else {
+                            subscriber.onComplete();
+                        }
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.ui.screen;
+
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.HighlightSetEvent;
+
+import java.util.Objects;
+
+/**
+ * Immutable snapshot of rows of the screen which changed since the previous frame
+ * <p>
+ * Frame may consolidate multiple frames sent by Neovim, if they were produced faster than they were consumed,
+ * see {@link #getMergedFrames()}. Rows of the frame are in screen order, {@link #getRow(int)} tells which row
+ * of the screen each of them is.
+ * <p>
+ * Attribute ids of the cells refer to {@link #getHighlightTable()}, which is a snapshot as well and should only be
+ * used for lookups.
+ */
+public final class ScreenFrame {
+    private final long sequence;
+    private final int mergedFrames;
+    private final int width;
+    private final int height;
+    private final int cursorRow;
+    private final int cursorCol;
+    private final int defaultForeground;
+    private final int defaultBackground;
+    private final int defaultSpecial;
+    private final int[] rows;
+    private final int[] codePoints;
+    private final int[] attributeIds;
+    private final HighlightTable highlightTable;
+
+    ScreenFrame(long sequence, int mergedFrames, ScreenGrid screen, int[] rows, HighlightTable highlightTable) {
+        this.sequence = sequence;
+        this.mergedFrames = mergedFrames;
+        this.width = screen.getWidth();
+        this.height = screen.getHeight();
+        this.cursorRow = screen.getCursorRow();
+        this.cursorCol = screen.getCursorCol();
+        this.defaultForeground = screen.getDefaultForeground();
+        this.defaultBackground = screen.getDefaultBackground();
+        this.defaultSpecial = screen.getDefaultSpecial();
+        this.rows = rows;
+        this.codePoints = new int[rows.length * width];
+        this.attributeIds = new int[rows.length * width];
+        this.highlightTable = highlightTable;
+        for (int i = 0; i < rows.length; i++) {
+            screen.copyRow(rows[i], codePoints, attributeIds, i * width);
+        }
+    }
+
+    /**
+     * @return number of this frame, increasing by one for each delivered frame
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return number of frames sent by Neovim consolidated into this frame
+     */
+    public int getMergedFrames() {
+        return mergedFrames;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getCursorRow() {
+        return cursorRow;
+    }
+
+    public int getCursorCol() {
+        return cursorCol;
+    }
+
+    public int getDefaultForeground() {
+        return defaultForeground;
+    }
+
+    public int getDefaultBackground() {
+        return defaultBackground;
+    }
+
+    public int getDefaultSpecial() {
+        return defaultSpecial;
+    }
+
+    /**
+     * @return number of changed rows in this frame
+     */
+    public int getRowCount() {
+        return rows.length;
+    }
+
+    /**
+     * @return true if every row of the screen is in this frame
+     */
+    public boolean isFull() {
+        return rows.length == height;
+    }
+
+    /**
+     * @param index index of the row in this frame
+     * @return row of the screen
+     * @throws IndexOutOfBoundsException if there is no such row in the frame
+     */
+    public int getRow(int index) {
+        return rows[index];
+    }
+
+    /**
+     * @param index index of the row in this frame
+     * @param col column of the cell
+     * @return code point of the cell
+     * @throws IndexOutOfBoundsException if there is no such cell in the frame
+     */
+    public int getCodePoint(int index, int col) {
+        return codePoints[cellIndex(index, col)];
+    }
+
+    /**
+     * @param index index of the row in this frame
+     * @param col column of the cell
+     * @return attribute id of the cell, see {@link #getHighlightTable()}
+     * @throws IndexOutOfBoundsException if there is no such cell in the frame
+     */
+    public int getAttributeId(int index, int col) {
+        return attributeIds[cellIndex(index, col)];
+    }
+
+    /**
+     * Copies a single row of the frame into given arrays, which need to hold at least {@link #getWidth()} elements
+     * @param index index of the row in this frame
+     * @param codePointsTarget array to copy code points into
+     * @param attributeIdsTarget array to copy attribute ids into
+     * @throws IndexOutOfBoundsException if there is no such row in the frame or arrays are too small
+     */
+    public void copyRow(int index, int[] codePointsTarget, int[] attributeIdsTarget) {
+        copyRow(index, codePointsTarget, attributeIdsTarget, 0);
+    }
+
+    /**
+     * Copies a single row of the frame into given arrays, starting at given offset
+     */
+    void copyRow(int index, int[] codePointsTarget, int[] attributeIdsTarget, int offset) {
+        int start = cellIndex(index, 0);
+        System.arraycopy(codePoints, start, codePointsTarget, offset, width);
+        System.arraycopy(attributeIds, start, attributeIdsTarget, offset, width);
+    }
+
+    /**
+     * Creates text of a single row of the frame, skipping continuation cells
+     * @param index index of the row in this frame
+     * @return text of the row
+     * @throws IndexOutOfBoundsException if there is no such row in the frame
+     */
+    public String getRowText(int index) {
+        int start = cellIndex(index, 0);
+        StringBuilder builder = new StringBuilder(width);
+        for (int i = start; i < start + width; i++) {
+            if (codePoints[i] != ScreenGrid.CONTINUATION_CELL) {
+                builder.appendCodePoint(codePoints[i]);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @param attributeId attribute id of a cell
+     * @return attributes, or null for default attributes
+     */
+    public HighlightSetEvent.Attributes getAttributes(int attributeId) {
+        return highlightTable.getAttributes(attributeId);
+    }
+
+    /**
+     * @return snapshot of attributes referenced by cells of this frame
+     */
+    public HighlightTable getHighlightTable() {
+        return highlightTable;
+    }
+
+    private int cellIndex(int index, int col) {
+        Objects.checkIndex(index, rows.length);
+        Objects.checkIndex(col, width);
+        return index * width + col;
+    }
+
+    @Override
+    public String toString() {
+        return "ScreenFrame{" +
+                "sequence=" + sequence +
+                ", mergedFrames=" + mergedFrames +
+                ", width=" + width +
+                ", height=" + height +
+                ", rowCount=" + rows.length +
+                '}';
+    }
+}
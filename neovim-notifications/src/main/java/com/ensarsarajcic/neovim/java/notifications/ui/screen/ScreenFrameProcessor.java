@@ -0,0 +1,309 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.ui.screen;
+
+import com.ensarsarajcic.neovim.java.corerpc.message.NotificationMessage;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.FlushEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridLineEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.redraw.RedrawDecoder;
+import com.ensarsarajcic.neovim.java.notifications.ui.redraw.RedrawVisitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Processor turning redraw notifications into {@link ScreenFrame} objects, one per completed frame
+ * <p>
+ * Notifications are requested from upstream without limit and decoded right away into a screen model
+ * ({@link ScreenGrid} or {@link GridCompositor}). A frame is completed by a notification containing
+ * {@link FlushEvent}. Without ext_linegrid (older versions of Neovim, which don't send flush), each notification
+ * completes a frame instead. Linegrid is detected by the first {@link FlushEvent} or {@link GridLineEvent}.
+ * <p>
+ * Frames are never queued. While the subscriber has no outstanding demand, a single pending frame is kept, holding
+ * the latest completed state of every row changed since the previous delivered frame, no matter how many frames
+ * Neovim sent in between. Pending frame is captured once a completed frame is about to be changed by the next
+ * notification (or when it is requested), so delivered frames never contain rows of a frame still being drawn.
+ * Work done per frame and memory used are therefore bounded by the screen size, not by how far behind the
+ * subscriber is.
+ * <p>
+ * Model is owned by this processor and should not be changed by anyone else.
+ * Only a single subscriber is supported.
+ * <p>
+ * Example:
+ * <pre>
+ *     {@code
+ *     ScreenFrameProcessor frames = ScreenFrameProcessor.forCompositor(new GridCompositor());
+ *     notificationHandler.notifications(NeovimRedrawEvent.NAME).subscribe(frames);
+ *     frames.subscribe(renderer);
+ *     }
+ * </pre>
+ */
+public final class ScreenFrameProcessor implements Flow.Processor<NotificationMessage, ScreenFrame> {
+    private static final Logger log = LoggerFactory.getLogger(ScreenFrameProcessor.class);
+
+    private final RedrawDecoder decoder = new RedrawDecoder();
+    // guarded by this
+    private final RedrawVisitor model;
+    // guarded by this
+    private final ScreenGrid screen;
+    // guarded by this, number of frames completed since last delivered frame
+    private int completedFrames;
+    // guarded by this, whether screen holds a completed frame which is not captured in pending frame yet
+    private boolean uncapturedFrame;
+    // guarded by this, rows changed since last delivered frame, which are no longer marked dirty in the screen
+    private final BitSet undeliveredRows = new BitSet();
+    // guarded by this
+    private ScreenFrame pendingFrame;
+    // guarded by this, whether Neovim sends flush (ext_linegrid)
+    private boolean linegrid;
+    // guarded by this
+    private long sequence;
+    // guarded by this
+    private HighlightTable highlightTableSnapshot;
+
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private Flow.Subscription subscription;
+    private volatile Flow.Subscriber<? super ScreenFrame> subscriber;
+    private volatile boolean cancelled;
+    private volatile boolean done;
+    private Throwable error;
+
+    private ScreenFrameProcessor(RedrawVisitor model, ScreenGrid screen) {
+        this.model = model;
+        this.screen = screen;
+    }
+
+    /**
+     * Creates a processor applying redraw notifications to given grid
+     * Suited for UIs attached without ext_multigrid
+     * @param screenGrid grid to apply notifications to
+     * @return processor producing frames of given grid
+     */
+    public static ScreenFrameProcessor forGrid(ScreenGrid screenGrid) {
+        Objects.requireNonNull(screenGrid, "screenGrid is required to produce frames");
+        return new ScreenFrameProcessor(screenGrid, screenGrid);
+    }
+
+    /**
+     * Creates a processor applying redraw notifications to given compositor, producing frames of composed screen
+     * Suited for UIs attached with ext_multigrid
+     * @param gridCompositor compositor to apply notifications to
+     * @return processor producing frames of {@link GridCompositor#getScreen()}
+     */
+    public static ScreenFrameProcessor forCompositor(GridCompositor gridCompositor) {
+        Objects.requireNonNull(gridCompositor, "gridCompositor is required to produce frames");
+        return new ScreenFrameProcessor(gridCompositor, gridCompositor.getScreen());
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ScreenFrame> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber may not be null");
+        synchronized (this) {
+            if (this.subscriber != null) {
+                subscriber.onSubscribe(new EmptySubscription());
+                subscriber.onError(new IllegalStateException("Only a single subscriber is supported"));
+                return;
+            }
+            this.subscriber = subscriber;
+        }
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                if (n <= 0) {
+                    cancel();
+                    subscriber.onError(new IllegalArgumentException("Requested non-positive number of items: " + n));
+                    return;
+                }
+                requested.getAndAccumulate(n, (current, added) -> {
+                    long sum = current + added;
+                    return sum < 0 ? Long.MAX_VALUE : sum;
+                });
+                drain();
+            }
+
+            @Override
+            public void cancel() {
+                cancelled = true;
+                Flow.Subscription upstream = subscription;
+                if (upstream != null) {
+                    upstream.cancel();
+                }
+            }
+        });
+        drain();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(NotificationMessage item) {
+        synchronized (this) {
+            if (uncapturedFrame) {
+                // Completed frame is about to be changed, so keep it as it is
+                capture();
+            }
+            try {
+                decoder.decode(item, model);
+            } catch (RuntimeException ex) {
+                log.error("Failed to decode redraw notification", ex);
+                return;
+            }
+            List<?> batches = item.getArguments();
+            if (contains(batches, FlushEvent.NAME)) {
+                linegrid = true;
+                completedFrames++;
+                uncapturedFrame = true;
+            } else if (!linegrid && !contains(batches, GridLineEvent.NAME)) {
+                completedFrames++;
+                uncapturedFrame = true;
+            } else {
+                linegrid = true;
+            }
+        }
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        error = throwable;
+        done = true;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        done = true;
+        drain();
+    }
+
+    // guarded by this
+    private ScreenFrame poll() {
+        if (uncapturedFrame) {
+            capture();
+        }
+        ScreenFrame frame = pendingFrame;
+        if (frame != null) {
+            pendingFrame = null;
+            undeliveredRows.clear();
+            completedFrames = 0;
+            sequence++;
+        }
+        return frame;
+    }
+
+    // guarded by this, replaces pending frame with current state of all rows changed since last delivered frame
+    private void capture() {
+        HighlightTable highlightTable = screen.getHighlightTable();
+        // Attributes are only ever added to the table, so a snapshot is valid until the table grows
+        if (highlightTableSnapshot == null || highlightTableSnapshot.size() != highlightTable.size()) {
+            highlightTableSnapshot = highlightTable.copy();
+        }
+        for (int row = screen.nextDirtyRow(0); row >= 0; row = screen.nextDirtyRow(row + 1)) {
+            undeliveredRows.set(row);
+        }
+        screen.clearDirtyRows();
+        int[] rows = new int[screen.getHeight()];
+        int rowCount = 0;
+        for (int row = undeliveredRows.nextSetBit(0); row >= 0 && row < rows.length;
+             row = undeliveredRows.nextSetBit(row + 1)) {
+            rows[rowCount++] = row;
+        }
+        pendingFrame = new ScreenFrame(
+                sequence + 1, completedFrames, screen,
+                rowCount == rows.length ? rows : Arrays.copyOf(rows, rowCount),
+                highlightTableSnapshot
+        );
+        uncapturedFrame = false;
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            Flow.Subscriber<? super ScreenFrame> subscriber = this.subscriber;
+            if (subscriber != null) {
+                if (!cancelled && requested.get() > 0) {
+                    ScreenFrame next;
+                    synchronized (this) {
+                        next = poll();
+                    }
+                    if (next != null) {
+                        if (requested.get() != Long.MAX_VALUE) {
+                            requested.decrementAndGet();
+                        }
+                        subscriber.onNext(next);
+                    }
+                }
+                if (!cancelled && done) {
+                    cancelled = true;
+                    if (error != null) {
+                        subscriber.onError(error);
+                    } else {
+                        subscriber.onComplete();
+                    }
+                }
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private static boolean contains(List<?> batches, String name) {
+        if (batches == null) {
+            return false;
+        }
+        for (Object batch : batches) {
+            if (batch instanceof List && !((List<?>) batch).isEmpty()
+                    && name.equals(((List<?>) batch).get(0))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class EmptySubscription implements Flow.Subscription {
+        @Override
+        public void request(long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+    }
+}
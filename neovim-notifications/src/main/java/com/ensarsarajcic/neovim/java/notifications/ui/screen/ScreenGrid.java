@@ -0,0 +1,705 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.ui.screen;
+
+import com.ensarsarajcic.neovim.java.notifications.ui.NeovimRedrawEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.ClearEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.CursorGotoEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.DefaultColorsSetEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.EolClearEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridClearEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridCursorGotoEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridLineCells;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridLineEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridResizeEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridScrollEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.HighlightSetEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.HlAttrDefineEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.PutEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.ResizeEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.ScrollEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.SetScrollRegionEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.UIGridEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.UpdateBackgroundEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.UpdateForegroundEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.UpdateSpecialColorEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.redraw.CellRun;
+import com.ensarsarajcic.neovim.java.notifications.ui.redraw.RedrawVisitor;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Objects;
+
+/**
+ * Headless model of the screen, built by applying {@link UIGridEvent}s
+ * <p>
+ * Contents of the screen are kept in primitive arrays, one code point and one attribute id per cell, which are
+ * updated in place, so applying events does not allocate per cell. Scrolling moves cells using {@link System#arraycopy}.
+ * Each row which was changed since last call to {@link #clearDirtyRows()} is marked as dirty, allowing renderers
+ * to repaint (or diff) only the changed rows.
+ * <p>
+ * Attributes set using {@link HighlightSetEvent} are interned in a {@link HighlightTable}, which may be shared
+ * by all grids of the session, and referenced from cells by id. Id {@link #DEFAULT_ATTRIBUTES} represents
+ * default attributes.
+ * <p>
+ * Only the first code point of each cell is kept. Right half of a double width character is stored as
+ * {@link #CONTINUATION_CELL}.
+ * <p>
+ * Events may also be applied without creating event objects, since grid is a {@link RedrawVisitor} which can be
+ * used with {@link com.ensarsarajcic.neovim.java.notifications.ui.redraw.RedrawDecoder}.
+ * <p>
+ * Both legacy grid events and ext_linegrid events are supported. With ext_linegrid, grid ids are ignored, so a single
+ * grid should be used only when ext_multigrid is not enabled.
+ * <p>
+ * This class is not thread safe. Events should be applied and contents read on the same thread,
+ * or access should be synchronized externally.
+ * <p>
+ * Example:
+ * <pre>
+ *     {@code
+ *     ScreenGrid screenGrid = new ScreenGrid();
+ *
+ *     // For each redraw event
+ *     screenGrid.apply(redrawEvent);
+ *     for (int row = screenGrid.nextDirtyRow(0); row >= 0; row = screenGrid.nextDirtyRow(row + 1)) {
+ *         screenGrid.copyRow(row, codePoints, attributeIds);
+ *         repaintRow(row, codePoints, attributeIds);
+ *     }
+ *     screenGrid.clearDirtyRows();
+ *     }
+ * </pre>
+ */
+public final class ScreenGrid implements RedrawVisitor {
+
+    /**
+     * Code point of an empty cell
+     */
+    public static final int EMPTY_CELL = ' ';
+
+    /**
+     * Code point of the cell holding the right half of a double width character
+     */
+    public static final int CONTINUATION_CELL = CellRun.CONTINUATION_CELL;
+
+    /**
+     * Id of default attributes
+     */
+    public static final int DEFAULT_ATTRIBUTES = HighlightTable.DEFAULT_ID;
+
+    private int width;
+    private int height;
+    private int[] codePoints = new int[0];
+    private int[] attributeIds = new int[0];
+    private final BitSet dirtyRows = new BitSet();
+
+    private int cursorRow;
+    private int cursorCol;
+    private int scrollTop;
+    private int scrollBottom;
+    private int scrollLeft;
+    private int scrollRight;
+    private int currentAttributeId = DEFAULT_ATTRIBUTES;
+
+    private int defaultForeground = -1;
+    private int defaultBackground = -1;
+    private int defaultSpecial = -1;
+
+    private final HighlightTable highlightTable;
+
+    /**
+     * Creates an empty grid with its own {@link HighlightTable}, which is sized by first {@link ResizeEvent}
+     */
+    public ScreenGrid() {
+        this(new HighlightTable());
+    }
+
+    /**
+     * Creates an empty grid using given {@link HighlightTable}, which is sized by first {@link ResizeEvent}
+     * @param highlightTable table of attributes, usually shared by the session
+     * @throws NullPointerException if highlightTable is null
+     */
+    public ScreenGrid(HighlightTable highlightTable) {
+        this.highlightTable = Objects.requireNonNull(highlightTable, "highlightTable is required to store attributes");
+    }
+
+    /**
+     * Creates a cleared grid of given size
+     * @param width number of columns
+     * @param height number of rows
+     * @throws IllegalArgumentException if width or height is negative
+     */
+    public ScreenGrid(int width, int height) {
+        this();
+        resize(width, height);
+    }
+
+    /**
+     * Applies all {@link UIGridEvent}s of given redraw event, in order
+     * Other events are ignored
+     * @param redrawEvent redraw event to apply
+     */
+    public void apply(NeovimRedrawEvent redrawEvent) {
+        for (UIEvent uiEvent : redrawEvent.getUiEvents()) {
+            if (uiEvent instanceof UIGridEvent) {
+                apply((UIGridEvent) uiEvent);
+            }
+        }
+    }
+
+    /**
+     * Applies a single {@link UIGridEvent}
+     * @param event event to apply
+     */
+    public void apply(UIGridEvent event) {
+        if (event instanceof PutEvent) {
+            put(((PutEvent) event).getText());
+        } else if (event instanceof CursorGotoEvent) {
+            CursorGotoEvent cursorGotoEvent = (CursorGotoEvent) event;
+            cursorGoto(cursorGotoEvent.getRow(), cursorGotoEvent.getCol());
+        } else if (event instanceof HighlightSetEvent) {
+            highlightSet(((HighlightSetEvent) event).getAttributes());
+        } else if (event instanceof ScrollEvent) {
+            scroll(((ScrollEvent) event).getCount());
+        } else if (event instanceof SetScrollRegionEvent) {
+            SetScrollRegionEvent regionEvent = (SetScrollRegionEvent) event;
+            setScrollRegion(regionEvent.getTop(), regionEvent.getBot(), regionEvent.getLeft(), regionEvent.getRight());
+        } else if (event instanceof EolClearEvent) {
+            eolClear();
+        } else if (event instanceof ClearEvent) {
+            clear();
+        } else if (event instanceof ResizeEvent) {
+            ResizeEvent resizeEvent = (ResizeEvent) event;
+            resize(resizeEvent.getWidth(), resizeEvent.getHeight());
+        } else if (event instanceof GridLineEvent) {
+            GridLineEvent gridLineEvent = (GridLineEvent) event;
+            gridLine(gridLineEvent.getGrid(), gridLineEvent.getRow(), gridLineEvent.getColStart(), gridLineEvent.getCells());
+        } else if (event instanceof GridCursorGotoEvent) {
+            GridCursorGotoEvent cursorGotoEvent = (GridCursorGotoEvent) event;
+            gridCursorGoto(cursorGotoEvent.getGrid(), cursorGotoEvent.getRow(), cursorGotoEvent.getCol());
+        } else if (event instanceof GridScrollEvent) {
+            GridScrollEvent scrollEvent = (GridScrollEvent) event;
+            gridScroll(scrollEvent.getGrid(), scrollEvent.getTop(), scrollEvent.getBot(), scrollEvent.getLeft(),
+                    scrollEvent.getRight(), scrollEvent.getRows(), scrollEvent.getCols());
+        } else if (event instanceof GridClearEvent) {
+            gridClear(((GridClearEvent) event).getGrid());
+        } else if (event instanceof GridResizeEvent) {
+            GridResizeEvent resizeEvent = (GridResizeEvent) event;
+            gridResize(resizeEvent.getGrid(), resizeEvent.getWidth(), resizeEvent.getHeight());
+        } else if (event instanceof HlAttrDefineEvent) {
+            HlAttrDefineEvent hlAttrDefineEvent = (HlAttrDefineEvent) event;
+            highlightTable.define(hlAttrDefineEvent.getId(), hlAttrDefineEvent.getRgbAttributes());
+        } else if (event instanceof DefaultColorsSetEvent) {
+            DefaultColorsSetEvent colorsSetEvent = (DefaultColorsSetEvent) event;
+            defaultColorsSet(colorsSetEvent.getRgbForeground(), colorsSetEvent.getRgbBackground(), colorsSetEvent.getRgbSpecial());
+        } else if (event instanceof UpdateForegroundEvent) {
+            updateForeground(((UpdateForegroundEvent) event).getColor());
+        } else if (event instanceof UpdateBackgroundEvent) {
+            updateBackground(((UpdateBackgroundEvent) event).getColor());
+        } else if (event instanceof UpdateSpecialColorEvent) {
+            updateSpecial(((UpdateSpecialColorEvent) event).getColor());
+        }
+    }
+
+    @Override
+    public void updateForeground(int color) {
+        defaultForeground = color;
+        markAllDirty();
+    }
+
+    @Override
+    public void updateBackground(int color) {
+        defaultBackground = color;
+        markAllDirty();
+    }
+
+    @Override
+    public void updateSpecial(int color) {
+        defaultSpecial = color;
+        markAllDirty();
+    }
+
+    /**
+     * Resizes the grid, clearing it, resetting the cursor and the scroll region
+     * Storage is reused if it is large enough
+     * @param width number of columns
+     * @param height number of rows
+     * @throws IllegalArgumentException if width or height is negative
+     */
+    @Override
+    public void resize(int width, int height) {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("Invalid grid size: " + width + "x" + height);
+        }
+        int size = width * height;
+        if (codePoints.length < size) {
+            codePoints = new int[size];
+            attributeIds = new int[size];
+        }
+        dirtyRows.clear();
+        this.width = width;
+        this.height = height;
+        this.cursorRow = 0;
+        this.cursorCol = 0;
+        setScrollRegion(0, height - 1, 0, width - 1);
+        clear();
+    }
+
+    /**
+     * Clears the whole grid
+     */
+    @Override
+    public void clear() {
+        int size = width * height;
+        Arrays.fill(codePoints, 0, size, EMPTY_CELL);
+        Arrays.fill(attributeIds, 0, size, DEFAULT_ATTRIBUTES);
+        markAllDirty();
+    }
+
+    /**
+     * Clears the row of the cursor, from the cursor to the end of the row
+     */
+    @Override
+    public void eolClear() {
+        if (cursorRow >= height || cursorCol >= width) {
+            return;
+        }
+        int rowStart = cursorRow * width;
+        Arrays.fill(codePoints, rowStart + cursorCol, rowStart + width, EMPTY_CELL);
+        Arrays.fill(attributeIds, rowStart + cursorCol, rowStart + width, DEFAULT_ATTRIBUTES);
+        dirtyRows.set(cursorRow);
+    }
+
+    /**
+     * Moves the cursor
+     * @param row row of the cursor
+     * @param col column of the cursor
+     */
+    @Override
+    public void cursorGoto(int row, int col) {
+        this.cursorRow = row;
+        this.cursorCol = col;
+    }
+
+    /**
+     * Sets attributes used for following {@link #put(int)} calls
+     * @param attributes attributes to use, or null for default attributes
+     */
+    public void highlightSet(HighlightSetEvent.Attributes attributes) {
+        this.currentAttributeId = internAttributes(attributes);
+    }
+
+    /**
+     * Provides id of given attributes, storing them if they were not used before
+     * @param attributes attributes to find id for, or null for default attributes
+     * @return id of attributes
+     */
+    public int internAttributes(HighlightSetEvent.Attributes attributes) {
+        return highlightTable.intern(attributes);
+    }
+
+    /**
+     * Sets attributes used for following puts
+     * @param foreground foreground color, or -1 for default
+     * @param background background color, or -1 for default
+     * @param special special color, or -1 for default
+     * @param flags combination of {@link RedrawVisitor} FLAG_ constants
+     */
+    @Override
+    public void highlightSet(int foreground, int background, int special, int flags) {
+        this.currentAttributeId = highlightTable.intern(foreground, background, special, flags);
+    }
+
+    /**
+     * Puts a run of cells starting at the cursor position and advances the cursor
+     * @param cells cells to put
+     */
+    @Override
+    public void put(CellRun cells) {
+        for (int i = 0; i < cells.getCellCount(); i++) {
+            put(cells.getCellCodePoint(i));
+        }
+    }
+
+    /**
+     * Puts text of a single cell at the cursor position and advances the cursor
+     * Empty text represents right half of a double width character
+     * @param cellText text of the cell
+     */
+    public void put(CharSequence cellText) {
+        put(cellText.length() == 0 ? CONTINUATION_CELL : Character.codePointAt(cellText, 0));
+    }
+
+    /**
+     * Puts a single code point at the cursor position and advances the cursor
+     * @param codePoint code point of the cell
+     */
+    public void put(int codePoint) {
+        if (cursorRow >= 0 && cursorRow < height && cursorCol >= 0 && cursorCol < width) {
+            int index = cursorRow * width + cursorCol;
+            codePoints[index] = codePoint;
+            attributeIds[index] = currentAttributeId;
+            dirtyRows.set(cursorRow);
+        }
+        cursorCol++;
+    }
+
+    /**
+     * Sets the region affected by {@link #scroll(int)}, bounds are inclusive
+     * Region is limited to the grid
+     * @param top first row
+     * @param bottom last row
+     * @param left first column
+     * @param right last column
+     */
+    @Override
+    public void setScrollRegion(int top, int bottom, int left, int right) {
+        this.scrollTop = Math.max(0, top);
+        this.scrollBottom = Math.min(height - 1, bottom);
+        this.scrollLeft = Math.max(0, left);
+        this.scrollRight = Math.min(width - 1, right);
+    }
+
+    /**
+     * Scrolls contents of the scroll region
+     * Positive count moves contents up, negative moves them down; rows uncovered by scrolling are cleared
+     * @param count number of rows to scroll by
+     */
+    @Override
+    public void scroll(int count) {
+        scrollRegion(scrollTop, scrollBottom, scrollLeft, scrollRight, count);
+    }
+
+    private void scrollRegion(int scrollTop, int scrollBottom, int scrollLeft, int scrollRight, int count) {
+        int regionHeight = scrollBottom - scrollTop + 1;
+        int regionWidth = scrollRight - scrollLeft + 1;
+        if (count == 0 || regionHeight <= 0 || regionWidth <= 0) {
+            return;
+        }
+        int moved = regionHeight - Math.abs(count);
+        if (moved > 0) {
+            int sourceRow = count > 0 ? scrollTop + count : scrollTop;
+            int targetRow = count > 0 ? scrollTop : scrollTop - count;
+            if (regionWidth == width) {
+                // Region spans whole rows, so it is a contiguous part of the arrays
+                moveCells(sourceRow * width, targetRow * width, moved * width);
+            } else if (count > 0) {
+                for (int i = 0; i < moved; i++) {
+                    moveCells((sourceRow + i) * width + scrollLeft, (targetRow + i) * width + scrollLeft, regionWidth);
+                }
+            } else {
+                // Moving down, copy from the bottom to avoid overwriting rows which are yet to be moved
+                for (int i = moved - 1; i >= 0; i--) {
+                    moveCells((sourceRow + i) * width + scrollLeft, (targetRow + i) * width + scrollLeft, regionWidth);
+                }
+            }
+        }
+
+        int clearedFrom = count > 0 ? Math.max(scrollTop, scrollBottom - count + 1) : scrollTop;
+        int clearedTo = count > 0 ? scrollBottom : Math.min(scrollBottom, scrollTop - count - 1);
+        for (int row = clearedFrom; row <= clearedTo; row++) {
+            int start = row * width + scrollLeft;
+            Arrays.fill(codePoints, start, start + regionWidth, EMPTY_CELL);
+            Arrays.fill(attributeIds, start, start + regionWidth, DEFAULT_ATTRIBUTES);
+        }
+        dirtyRows.set(scrollTop, scrollBottom + 1);
+    }
+
+    /**
+     * Applies grid_resize of ext_linegrid, grid id is ignored
+     */
+    @Override
+    public void gridResize(int grid, int width, int height) {
+        resize(width, height);
+    }
+
+    /**
+     * Applies grid_clear of ext_linegrid, grid id is ignored
+     */
+    @Override
+    public void gridClear(int grid) {
+        clear();
+    }
+
+    /**
+     * Applies grid_cursor_goto of ext_linegrid, grid id is ignored
+     */
+    @Override
+    public void gridCursorGoto(int grid, int row, int col) {
+        cursorGoto(row, col);
+    }
+
+    /**
+     * Applies grid_scroll of ext_linegrid, grid id is ignored
+     * Unlike {@link #scroll(int)}, region is given by the event itself, with exclusive bottom and right bounds
+     */
+    @Override
+    public void gridScroll(int grid, int top, int bottom, int left, int right, int rows, int cols) {
+        scrollRegion(Math.max(0, top), Math.min(height, bottom) - 1, Math.max(0, left), Math.min(width, right) - 1, rows);
+    }
+
+    /**
+     * Applies grid_line of ext_linegrid, grid id is ignored
+     * Cells are written run by run, with highlight ids mapped through {@link HighlightTable#getDefinedId(int)}
+     */
+    @Override
+    public void gridLine(int grid, int row, int colStart, GridLineCells cells) {
+        if (row < 0 || row >= height) {
+            return;
+        }
+        int col = Math.max(0, colStart);
+        int rowStart = row * width;
+        for (int run = 0; run < cells.getRunCount() && col < width; run++) {
+            int end = Math.min(width, col + cells.getRepeat(run));
+            Arrays.fill(codePoints, rowStart + col, rowStart + end, cells.getCodePoint(run));
+            Arrays.fill(attributeIds, rowStart + col, rowStart + end, highlightTable.getDefinedId(cells.getHighlightId(run)));
+            col = end;
+        }
+        dirtyRows.set(row);
+    }
+
+    @Override
+    public void hlAttrDefine(int id, int foreground, int background, int special, int flags) {
+        highlightTable.define(id, foreground, background, special, flags);
+    }
+
+    @Override
+    public void defaultColorsSet(int foreground, int background, int special) {
+        defaultForeground = foreground;
+        defaultBackground = background;
+        defaultSpecial = special;
+        markAllDirty();
+    }
+
+    /**
+     * Copies a part of a row into another grid, marking target row as dirty
+     * Bounds are expected to be valid
+     */
+    void copyRowTo(int row, int col, int length, ScreenGrid target, int targetRow, int targetCol) {
+        int source = row * width + col;
+        int destination = targetRow * target.width + targetCol;
+        System.arraycopy(codePoints, source, target.codePoints, destination, length);
+        System.arraycopy(attributeIds, source, target.attributeIds, destination, length);
+        target.dirtyRows.set(targetRow);
+    }
+
+    /**
+     * Clears a single row, marking it as dirty
+     */
+    void clearRow(int row) {
+        int start = row * width;
+        Arrays.fill(codePoints, start, start + width, EMPTY_CELL);
+        Arrays.fill(attributeIds, start, start + width, DEFAULT_ATTRIBUTES);
+        dirtyRows.set(row);
+    }
+
+    /**
+     * Replaces contents of a single row, marking it as dirty
+     * Bounds are expected to be valid
+     */
+    void writeRow(int row, int[] rowCodePoints, int[] rowAttributeIds) {
+        int start = row * width;
+        System.arraycopy(rowCodePoints, 0, codePoints, start, width);
+        System.arraycopy(rowAttributeIds, 0, attributeIds, start, width);
+        dirtyRows.set(row);
+    }
+
+    private void moveCells(int source, int target, int length) {
+        System.arraycopy(codePoints, source, codePoints, target, length);
+        System.arraycopy(attributeIds, source, attributeIds, target, length);
+    }
+
+    private void markAllDirty() {
+        dirtyRows.set(0, height);
+    }
+
+    /**
+     * @return number of columns
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return number of rows
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    public int getCursorRow() {
+        return cursorRow;
+    }
+
+    public int getCursorCol() {
+        return cursorCol;
+    }
+
+    /**
+     * Default foreground color, as set by {@link UpdateForegroundEvent}
+     * @return color, or -1 if not set
+     */
+    public int getDefaultForeground() {
+        return defaultForeground;
+    }
+
+    /**
+     * Default background color, as set by {@link UpdateBackgroundEvent}
+     * @return color, or -1 if not set
+     */
+    public int getDefaultBackground() {
+        return defaultBackground;
+    }
+
+    /**
+     * Default special color, as set by {@link UpdateSpecialColorEvent}
+     * @return color, or -1 if not set
+     */
+    public int getDefaultSpecial() {
+        return defaultSpecial;
+    }
+
+    /**
+     * @param row row of the cell
+     * @param col column of the cell
+     * @return code point of the cell
+     * @throws IndexOutOfBoundsException if cell is outside of the grid
+     */
+    public int getCodePoint(int row, int col) {
+        return codePoints[index(row, col)];
+    }
+
+    /**
+     * @param row row of the cell
+     * @param col column of the cell
+     * @return id of attributes of the cell
+     * @throws IndexOutOfBoundsException if cell is outside of the grid
+     */
+    public int getAttributeId(int row, int col) {
+        return attributeIds[index(row, col)];
+    }
+
+    /**
+     * Provides attributes stored under given id
+     * @param attributeId id of attributes
+     * @return attributes, or null for {@link #DEFAULT_ATTRIBUTES}
+     * @throws IndexOutOfBoundsException if there are no attributes with given id
+     */
+    public HighlightSetEvent.Attributes getAttributes(int attributeId) {
+        return highlightTable.getAttributes(attributeId);
+    }
+
+    /**
+     * @return table of attributes referenced by attribute ids of cells
+     */
+    public HighlightTable getHighlightTable() {
+        return highlightTable;
+    }
+
+    /**
+     * Copies contents of a single row into given arrays, which need to hold at least {@link #getWidth()} elements
+     * @param row row to copy
+     * @param codePointsTarget array to copy code points into
+     * @param attributeIdsTarget array to copy attribute ids into
+     * @throws IndexOutOfBoundsException if row is outside of the grid or arrays are too small
+     */
+    public void copyRow(int row, int[] codePointsTarget, int[] attributeIdsTarget) {
+        copyRow(row, codePointsTarget, attributeIdsTarget, 0);
+    }
+
+    /**
+     * Copies contents of a single row into given arrays, starting at given offset
+     */
+    void copyRow(int row, int[] codePointsTarget, int[] attributeIdsTarget, int offset) {
+        int start = index(row, 0);
+        System.arraycopy(codePoints, start, codePointsTarget, offset, width);
+        System.arraycopy(attributeIds, start, attributeIdsTarget, offset, width);
+    }
+
+    /**
+     * Creates text of a single row, skipping continuation cells
+     * Meant for screen scraping and testing, since it allocates
+     * @param row row to create text of
+     * @return text of the row
+     * @throws IndexOutOfBoundsException if row is outside of the grid
+     */
+    public String getRowText(int row) {
+        int start = index(row, 0);
+        StringBuilder builder = new StringBuilder(width);
+        for (int i = start; i < start + width; i++) {
+            if (codePoints[i] != CONTINUATION_CELL) {
+                builder.appendCodePoint(codePoints[i]);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @param row row to check
+     * @return true if row was changed since last {@link #clearDirtyRows()}
+     */
+    public boolean isRowDirty(int row) {
+        return dirtyRows.get(row);
+    }
+
+    /**
+     * @return true if any row was changed since last {@link #clearDirtyRows()}
+     */
+    public boolean hasDirtyRows() {
+        return !dirtyRows.isEmpty();
+    }
+
+    /**
+     * Finds the first dirty row, starting from given row (inclusive)
+     * @param fromRow row to start searching from
+     * @return index of dirty row, or -1 if there are no more dirty rows
+     */
+    public int nextDirtyRow(int fromRow) {
+        return dirtyRows.nextSetBit(fromRow);
+    }
+
+    /**
+     * Marks all rows as clean, usually after they were repainted
+     */
+    public void clearDirtyRows() {
+        dirtyRows.clear();
+    }
+
+    private int index(int row, int col) {
+        Objects.checkIndex(row, height);
+        Objects.checkIndex(col, width);
+        return row * width + col;
+    }
+
+    @Override
+    public String toString() {
+        return "ScreenGrid{" +
+                "width=" + width +
+                ", height=" + height +
+                ", cursorRow=" + cursorRow +
+                ", cursorCol=" + cursorCol +
+                '}';
+    }
+}
@@ -27,7 +27,6 @@ package com.ensarsarajcic.neovim.java.notifications.ui.tabline;
 import com.ensarsarajcic.neovim.java.api.types.msgpack.Tabpage;
 import com.ensarsarajcic.neovim.java.api.util.ObjectMappers;
 import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
-import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
@@ -65,7 +64,6 @@ public final class TablineUpdateEvent implements UITablineEvent {
         }
     };
 
-    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
     public static final class TabInfo {
         private Tabpage tab;
         private String name;
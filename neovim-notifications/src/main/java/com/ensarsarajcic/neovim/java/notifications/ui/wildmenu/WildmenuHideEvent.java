@@ -24,12 +24,16 @@
 
 package com.ensarsarajcic.neovim.java.notifications.ui.wildmenu;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+
+import java.util.List;
+import java.util.function.Function;
 
-@JsonFormat(shape = JsonFormat.Shape.ARRAY)
 public final class WildmenuHideEvent implements UIWildmenuEvent {
     public static final String NAME = "wildmenu_hide";
 
+    public static final Function<List, UIEvent> CREATOR = list -> new WildmenuHideEvent();
+
     @Override
     public String getEventName() {
         return NAME;
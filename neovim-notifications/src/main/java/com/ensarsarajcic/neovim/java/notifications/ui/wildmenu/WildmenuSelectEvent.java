@@ -24,17 +24,21 @@
 
 package com.ensarsarajcic.neovim.java.notifications.ui.wildmenu;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
-import com.fasterxml.jackson.annotation.JsonProperty;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+
+import java.util.List;
+import java.util.function.Function;
 
-@JsonFormat(shape = JsonFormat.Shape.ARRAY)
 public final class WildmenuSelectEvent implements UIWildmenuEvent {
     public static final String NAME = "wildmenu_select";
 
+    public static final Function<List, UIEvent> CREATOR = list -> new WildmenuSelectEvent(
+            ((Number) list.get(0)).intValue()
+    );
+
     private int selectedIndex;
 
-    public WildmenuSelectEvent(
-            @JsonProperty(value = "selected_index", index = 0) int selectedIndex) {
+    public WildmenuSelectEvent(int selectedIndex) {
         this.selectedIndex = selectedIndex;
     }
 
@@ -24,19 +24,22 @@
 
 package com.ensarsarajcic.neovim.java.notifications.ui.wildmenu;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
-import com.fasterxml.jackson.annotation.JsonProperty;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
 
 import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
-@JsonFormat(shape = JsonFormat.Shape.ARRAY)
 public final class WildmenuShowEvent implements UIWildmenuEvent {
     public static final String NAME = "wildmenu_show";
 
+    public static final Function<List, UIEvent> CREATOR = list -> new WildmenuShowEvent(
+            ((List<?>) list.get(0)).stream().map(String.class::cast).collect(Collectors.toList())
+    );
+
     private List<String> items;
 
-    public WildmenuShowEvent(
-            @JsonProperty(value = "items", index = 0) List<String> items) {
+    public WildmenuShowEvent(List<String> items) {
         this.items = items;
     }
 
@@ -0,0 +1,232 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications;
+
+import com.ensarsarajcic.neovim.java.api.types.msgpack.Buffer;
+import com.ensarsarajcic.neovim.java.notifications.buffer.BufferChangedTickEvent;
+import com.ensarsarajcic.neovim.java.notifications.buffer.BufferDetachEvent;
+import com.ensarsarajcic.neovim.java.notifications.buffer.BufferEvent;
+import com.ensarsarajcic.neovim.java.notifications.buffer.BufferLinesEvent;
+import com.ensarsarajcic.neovim.java.notifications.buffer.BufferResyncEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import static org.junit.Assert.*;
+
+public class BufferEventCoalescingProcessorTest {
+
+    private static final Buffer BUFFER = new Buffer(1);
+    private static final Buffer OTHER_BUFFER = new Buffer(2);
+
+    private BufferEventCoalescingProcessor processor;
+    private List<BufferEvent> received;
+    private Flow.Subscription subscription;
+    private long upstreamRequested;
+
+    @Before
+    public void setUp() {
+        subscribeTo(new BufferEventCoalescingProcessor());
+    }
+
+    private void subscribeTo(BufferEventCoalescingProcessor processor) {
+        this.processor = processor;
+        received = new ArrayList<>();
+        upstreamRequested = 0;
+        processor.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                upstreamRequested += n;
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        processor.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                BufferEventCoalescingProcessorTest.this.subscription = subscription;
+            }
+
+            @Override
+            public void onNext(BufferEvent item) {
+                received.add(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                fail(throwable.getMessage());
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+    }
+
+    @Test
+    public void mergesOverlappingEditsWhileSubscriberIsBusy() {
+        processor.onNext(lines(BUFFER, 2, 5, 6, List.of("a")));
+        processor.onNext(lines(BUFFER, 3, 5, 6, List.of("ab")));
+        processor.onNext(lines(BUFFER, 4, 6, 6, List.of("c")));
+        assertTrue(received.isEmpty());
+
+        subscription.request(10);
+
+        assertEquals(1, received.size());
+        var merged = (BufferLinesEvent) received.get(0);
+        assertEquals(4, merged.getChangedTick());
+        assertEquals(5, merged.getFirstLine());
+        assertEquals(6, merged.getLastLine());
+        assertEquals(List.of("ab", "c"), merged.getLineData());
+    }
+
+    @Test
+    public void keepsRequestingFromUpstream() {
+        assertEquals(Long.MAX_VALUE, upstreamRequested);
+    }
+
+    @Test
+    public void replacesEventsWithResyncWhenTooManyArePending() {
+        subscribeTo(new BufferEventCoalescingProcessor(2));
+        processor.onNext(lines(BUFFER, 2, 5, 6, List.of("a")));
+        processor.onNext(lines(OTHER_BUFFER, 3, 5, 6, List.of("b")));
+        processor.onNext(lines(BUFFER, 4, 20, 21, List.of("c")));
+        // Absorbed into pending resync event
+        processor.onNext(new BufferChangedTickEvent(BUFFER, 5));
+        processor.onNext(lines(BUFFER, 6, 40, 41, List.of("d")));
+        subscription.request(10);
+
+        assertEquals(2, received.size());
+        var resync = (BufferResyncEvent) received.get(0);
+        assertEquals(BUFFER, resync.getBuffer());
+        assertEquals(6, resync.getChangedTick());
+        assertEquals(OTHER_BUFFER, ((BufferResyncEvent) received.get(1)).getBuffer());
+    }
+
+    @Test
+    public void keepsDetachEventsWhenResyncing() {
+        subscribeTo(new BufferEventCoalescingProcessor(2));
+        processor.onNext(lines(BUFFER, 2, 5, 6, List.of("a")));
+        processor.onNext(new BufferDetachEvent(BUFFER));
+        processor.onNext(lines(BUFFER, 1, 0, -1, List.of("b")));
+        processor.onNext(lines(BUFFER, 2, 20, 21, List.of("c")));
+        subscription.request(10);
+
+        assertEquals(3, received.size());
+        assertEquals(2, ((BufferResyncEvent) received.get(0)).getChangedTick());
+        assertTrue(received.get(1) instanceof BufferDetachEvent);
+        assertEquals(2, ((BufferResyncEvent) received.get(2)).getChangedTick());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void requiresPositiveCapacity() {
+        new BufferEventCoalescingProcessor(0);
+    }
+
+    @Test
+    public void doesNotMergeAfterDelivery() {
+        subscription.request(1);
+        processor.onNext(lines(BUFFER, 2, 5, 6, List.of("a")));
+        processor.onNext(lines(BUFFER, 3, 5, 6, List.of("b")));
+        subscription.request(1);
+
+        assertEquals(2, received.size());
+    }
+
+    @Test
+    public void keepsDisjointEditsAndOtherBuffersSeparate() {
+        processor.onNext(lines(BUFFER, 2, 5, 6, List.of("a")));
+        processor.onNext(lines(BUFFER, 3, 20, 21, List.of("b")));
+        processor.onNext(lines(OTHER_BUFFER, 3, 5, 6, List.of("c")));
+        subscription.request(10);
+
+        assertEquals(3, received.size());
+    }
+
+    @Test
+    public void otherEventsEndMerging() {
+        processor.onNext(lines(BUFFER, 2, 5, 6, List.of("a")));
+        processor.onNext(new BufferChangedTickEvent(BUFFER, 3));
+        processor.onNext(lines(BUFFER, 4, 5, 6, List.of("b")));
+        subscription.request(10);
+
+        assertEquals(3, received.size());
+        assertTrue(received.get(1) instanceof BufferChangedTickEvent);
+    }
+
+    @Test
+    public void mergesEditPrecedingPendingLines() {
+        // Lines 3 and 4 replaced by "x" after line 5 was replaced by "a"
+        var merged = BufferEventCoalescingProcessor.merge(
+                lines(BUFFER, 1, 5, 6, List.of("a")),
+                lines(BUFFER, 2, 3, 5, List.of("x")));
+
+        assertNotNull(merged);
+        assertEquals(3, merged.getFirstLine());
+        assertEquals(6, merged.getLastLine());
+        assertEquals(List.of("x", "a"), merged.getLineData());
+    }
+
+    @Test
+    public void mergesAdjacentInsertions() {
+        var merged = BufferEventCoalescingProcessor.merge(
+                lines(BUFFER, 1, 5, 5, List.of("a")),
+                lines(BUFFER, 2, 6, 6, List.of("b")));
+
+        assertNotNull(merged);
+        assertEquals(5, merged.getFirstLine());
+        assertEquals(5, merged.getLastLine());
+        assertEquals(List.of("a", "b"), merged.getLineData());
+    }
+
+    @Test
+    public void mergesEditExtendingPastPendingLines() {
+        // Line 5 replaced by "a", then lines 5-7 deleted
+        var merged = BufferEventCoalescingProcessor.merge(
+                lines(BUFFER, 1, 5, 6, List.of("a")),
+                lines(BUFFER, 2, 5, 8, List.of()));
+
+        assertNotNull(merged);
+        assertEquals(5, merged.getFirstLine());
+        assertEquals(8, merged.getLastLine());
+        assertEquals(List.of(), merged.getLineData());
+    }
+
+    @Test
+    public void doesNotMergeChunkedEvents() {
+        assertNull(BufferEventCoalescingProcessor.merge(
+                new BufferLinesEvent(BUFFER, 1, 0, -1, List.of("a"), true),
+                lines(BUFFER, 2, 0, 1, List.of("b"))));
+    }
+
+    private static BufferLinesEvent lines(Buffer buffer, int tick, int firstLine, int lastLine, List<String> data) {
+        return new BufferLinesEvent(buffer, tick, firstLine, lastLine, data, false);
+    }
+}
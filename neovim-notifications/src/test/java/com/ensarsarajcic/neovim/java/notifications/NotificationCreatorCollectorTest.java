@@ -0,0 +1,195 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications;
+
+import com.ensarsarajcic.neovim.java.notifications.buffer.BufferEvent;
+import com.ensarsarajcic.neovim.java.notifications.buffer.BufferLinesEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.cmdline.CmdlineShowEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.global.BellEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.global.ModeChangeEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.global.ModeInfo;
+import com.ensarsarajcic.neovim.java.notifications.ui.global.ModeInfoSetEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.HighlightSetEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridLineEvent;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class NotificationCreatorCollectorTest {
+
+    @Test
+    public void registersAllEventClasses() throws Exception {
+        List<String> missing = new ArrayList<>();
+        int uiEvents = 0;
+        int bufferEvents = 0;
+        for (Class<?> eventClass : findMainClasses()) {
+            if (eventClass.isInterface() || Modifier.isAbstract(eventClass.getModifiers())
+                    || !(UIEvent.class.isAssignableFrom(eventClass) || BufferEvent.class.isAssignableFrom(eventClass))) {
+                continue;
+            }
+            String name = nameOf(eventClass);
+            Object creator = creatorOf(eventClass);
+            if (name == null && creator == null) {
+                continue;
+            }
+            if (name == null || creator == null) {
+                // Both are needed to register an event
+                missing.add(eventClass.getName());
+                continue;
+            }
+            if (UIEvent.class.isAssignableFrom(eventClass)) {
+                uiEvents++;
+                if (NotificationCreatorCollector.getUIEventCreators().get(name) != creator
+                        || !NotificationCreatorCollector.getUIEventNames(List.of(eventClass.asSubclass(UIEvent.class))).contains(name)) {
+                    missing.add(eventClass.getName());
+                }
+            } else {
+                bufferEvents++;
+                if (NotificationCreatorCollector.getBufferEventCreators().get(name) != creator) {
+                    missing.add(eventClass.getName());
+                }
+            }
+        }
+        assertEquals("Events missing from NotificationCreatorCollector", List.of(), missing);
+        // No entries of removed or renamed events
+        assertEquals(uiEvents, NotificationCreatorCollector.getUIEventCreators().size());
+        assertEquals(bufferEvents, NotificationCreatorCollector.getBufferEventCreators().size());
+    }
+
+    @Test
+    public void usesCreatorFieldsWhenPresent() {
+        assertSame(GridLineEvent.CREATOR, NotificationCreatorCollector.getUIEventCreators().get(GridLineEvent.NAME));
+        assertSame(BufferLinesEvent.CREATOR, NotificationCreatorCollector.getBufferEventCreators().get(BufferLinesEvent.NAME));
+    }
+
+    @Test
+    public void createsEventsFromRawArrays() {
+        ModeChangeEvent modeChange = (ModeChangeEvent) create(ModeChangeEvent.NAME, List.of("insert", 1));
+        assertEquals("insert", modeChange.getMode());
+        assertEquals(1, modeChange.getModeId());
+
+        CmdlineShowEvent cmdlineShow = (CmdlineShowEvent) create(CmdlineShowEvent.NAME, List.of(List.of(), 2, ":", "", 0, 1));
+        assertEquals(2, cmdlineShow.getPos());
+        assertEquals(":", cmdlineShow.getFirstc());
+        assertEquals(1, cmdlineShow.getLevel());
+
+        assertTrue(create(BellEvent.NAME, List.of()) instanceof BellEvent);
+    }
+
+    @Test
+    public void createsModeInfoFromMaps() {
+        ModeInfoSetEvent event = (ModeInfoSetEvent) create(ModeInfoSetEvent.NAME, List.of(
+                true,
+                List.of(
+                        Map.of("cursor_shape", "vertical", "cell_percentage", 25, "name", "insert", "short_name", "i"),
+                        Map.of("name", "normal")
+                )
+        ));
+
+        assertTrue(event.isCursorStyleEnabled());
+        assertEquals(2, event.getModeInfoList().size());
+        ModeInfo insert = event.getModeInfoList().get(0);
+        assertEquals("CursorShape{value='vertical'}", String.valueOf((Object) insert.getCursorShape()));
+        assertEquals(25, insert.getCellPercentage());
+        assertEquals("insert", insert.getFullName());
+        assertEquals("i", insert.getShortName());
+        ModeInfo normal = event.getModeInfoList().get(1);
+        assertNull(normal.getCursorShape());
+        assertEquals(0, normal.getBlinkOn());
+    }
+
+    @Test
+    public void createsHighlightAttributesFromMap() {
+        HighlightSetEvent event = (HighlightSetEvent) create(HighlightSetEvent.NAME, List.of(
+                Map.of("foreground", 0xff0000, "bold", true)
+        ));
+
+        assertEquals(0xff0000, event.getAttributes().getForeground());
+        assertEquals(-1, event.getAttributes().getBackground());
+        assertTrue(event.getAttributes().isBold());
+        assertFalse(event.getAttributes().isItalic());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void creatorsCanNotBeModified() {
+        NotificationCreatorCollector.getUIEventCreators().clear();
+    }
+
+    private static UIEvent create(String name, List<?> args) {
+        return NotificationCreatorCollector.getUIEventCreators().get(name).apply(args);
+    }
+
+    private static Object creatorOf(Class<?> eventClass) throws IllegalAccessException {
+        try {
+            return eventClass.getDeclaredField("CREATOR").get(null);
+        } catch (NoSuchFieldException ex) {
+            return null;
+        }
+    }
+
+    private static String nameOf(Class<?> eventClass) throws IllegalAccessException {
+        try {
+            Field nameField = eventClass.getDeclaredField("NAME");
+            return (String) nameField.get(null);
+        } catch (NoSuchFieldException ex) {
+            return null;
+        }
+    }
+
+    private static List<Class<?>> findMainClasses() throws IOException, URISyntaxException {
+        Path root = Paths.get(NotificationCreatorCollector.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        try (Stream<Path> paths = Files.walk(root)) {
+            List<String> classNames = paths
+                    .map(root::relativize)
+                    .map(Path::toString)
+                    .filter(path -> path.endsWith(".class") && !path.equals("module-info.class"))
+                    .map(path -> path.substring(0, path.length() - ".class".length()).replace('/', '.'))
+                    .collect(Collectors.toList());
+            List<Class<?>> classes = new ArrayList<>();
+            for (String className : classNames) {
+                try {
+                    classes.add(Class.forName(className));
+                } catch (ClassNotFoundException ex) {
+                    throw new AssertionError(ex);
+                }
+            }
+            return classes;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications;
+
+import com.ensarsarajcic.neovim.java.corerpc.message.NotificationMessage;
+import com.ensarsarajcic.neovim.java.corerpc.reactive.ReactiveRPCStreamer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class NotificationRouterTest {
+
+    private ReactiveRPCStreamer reactiveRPCStreamer;
+    private SubmissionPublisher<NotificationMessage> notifications;
+    private NotificationRouter notificationRouter;
+
+    @Before
+    public void setUp() {
+        reactiveRPCStreamer = mock(ReactiveRPCStreamer.class);
+        notifications = new SubmissionPublisher<>();
+        given(reactiveRPCStreamer.notificationsFlow()).willReturn(notifications);
+        notificationRouter = NotificationRouter.forStreamer(reactiveRPCStreamer);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void cantBeCreatedForNullStreamer() {
+        NotificationRouter.forStreamer(null);
+    }
+
+    @Test
+    public void sharesRouterPerStreamer() {
+        assertSame(notificationRouter, NotificationRouter.forStreamer(reactiveRPCStreamer));
+        assertEquals(1, notifications.getNumberOfSubscribers());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void routeRequiresNames() {
+        notificationRouter.route();
+    }
+
+    @Test
+    public void routesOnlyMatchingNotifications() throws InterruptedException {
+        var redraw = collect(notificationRouter.route("redraw"));
+        var custom = collect(notificationRouter.route("custom", "other"));
+
+        notifications.submit(new NotificationMessage.Builder("redraw").build());
+        notifications.submit(new NotificationMessage.Builder("other").build());
+        notifications.submit(new NotificationMessage.Builder("custom").build());
+
+        assertEquals("redraw", redraw.poll(1, TimeUnit.SECONDS).getName());
+        assertEquals("other", custom.poll(1, TimeUnit.SECONDS).getName());
+        assertEquals("custom", custom.poll(1, TimeUnit.SECONDS).getName());
+        assertNull(redraw.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void closedRouteNoLongerReceivesNotifications() throws InterruptedException {
+        var route = notificationRouter.route("custom");
+        var closedRoute = notificationRouter.route("custom");
+        var received = collect(route);
+        var closedReceived = collect(closedRoute);
+
+        closedRoute.close();
+        notifications.submit(new NotificationMessage.Builder("custom").build());
+
+        assertEquals("custom", received.poll(1, TimeUnit.SECONDS).getName());
+        assertNull(closedReceived.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void slowSubscriberDoesNotBlockOtherRoutesNorLoseNotifications() throws InterruptedException {
+        var slowSubscription = new LinkedBlockingQueue<Flow.Subscription>();
+        var slowReceived = new LinkedBlockingQueue<NotificationMessage>();
+        notificationRouter.route("custom").subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                slowSubscription.add(subscription);
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(NotificationMessage item) {
+                slowReceived.add(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        var received = collect(notificationRouter.route("other"));
+
+        // More than the initial buffer of the slow subscriber, which would block routing if it waited for it
+        int count = Flow.defaultBufferSize() * 4;
+        for (int i = 0; i < count; i++) {
+            notifications.submit(new NotificationMessage.Builder("custom").addArgument(i).build());
+        }
+        notifications.submit(new NotificationMessage.Builder("other").build());
+        assertEquals("other", received.poll(1, TimeUnit.SECONDS).getName());
+
+        slowSubscription.poll(1, TimeUnit.SECONDS).request(Long.MAX_VALUE);
+        for (int i = 0; i < count; i++) {
+            assertEquals(List.of(i), slowReceived.poll(1, TimeUnit.SECONDS).getArguments());
+        }
+    }
+
+    @Test
+    public void routeStaysOpenWhileAnySubscriberIsActive() throws InterruptedException {
+        var route = notificationRouter.route("custom").closeWhenUnsubscribed();
+        var subscriptions = new LinkedBlockingQueue<Flow.Subscription>();
+        var completed = new LinkedBlockingQueue<Boolean>();
+        for (int i = 0; i < 2; i++) {
+            route.subscribe(new Flow.Subscriber<>() {
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    subscriptions.add(subscription);
+                }
+
+                @Override
+                public void onNext(NotificationMessage item) {
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                }
+
+                @Override
+                public void onComplete() {
+                    completed.add(true);
+                }
+            });
+        }
+
+        subscriptions.poll(1, TimeUnit.SECONDS).cancel();
+        var received = collect(route);
+        notifications.submit(new NotificationMessage.Builder("custom").build());
+        assertEquals("custom", received.poll(1, TimeUnit.SECONDS).getName());
+
+        subscriptions.poll(1, TimeUnit.SECONDS).cancel();
+        assertNull(completed.poll(100, TimeUnit.MILLISECONDS));
+        received.clear();
+        // Route is still open, since collecting subscriber is active
+        notifications.submit(new NotificationMessage.Builder("custom").build());
+        assertEquals("custom", received.poll(1, TimeUnit.SECONDS).getName());
+    }
+
+    @Test
+    public void routeClosesWhenLastSubscriberCancels() throws InterruptedException {
+        var route = notificationRouter.route("custom").closeWhenUnsubscribed();
+        var subscription = new LinkedBlockingQueue<Flow.Subscription>();
+        var completed = new LinkedBlockingQueue<Boolean>();
+        route.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                subscription.add(s);
+            }
+
+            @Override
+            public void onNext(NotificationMessage item) {
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        subscription.poll(1, TimeUnit.SECONDS).cancel();
+
+        route.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+            }
+
+            @Override
+            public void onNext(NotificationMessage item) {
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+                completed.add(true);
+            }
+        });
+        assertEquals(Boolean.TRUE, completed.poll(1, TimeUnit.SECONDS));
+    }
+
+    private static BlockingQueue<NotificationMessage> collect(Flow.Publisher<NotificationMessage> publisher) {
+        BlockingQueue<NotificationMessage> received = new LinkedBlockingQueue<>();
+        publisher.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(NotificationMessage item) {
+                received.add(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        return received;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications;
+
+import com.ensarsarajcic.neovim.java.corerpc.message.NotificationMessage;
+import com.ensarsarajcic.neovim.java.notifications.ui.NeovimRedrawEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.global.BusyOnEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.global.ModeChangeEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.CursorGotoEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.UIGridEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+public class RedrawEventDecoderTest {
+
+    private Map<String, Function<List, UIEvent>> creators;
+    private List<String> createdEvents;
+
+    @Before
+    public void setUp() {
+        createdEvents = new ArrayList<>();
+        creators = new HashMap<>();
+        creators.put(ModeChangeEvent.NAME, list -> {
+            createdEvents.add(ModeChangeEvent.NAME);
+            return new ModeChangeEvent((String) list.get(0), (Integer) list.get(1));
+        });
+        creators.put(CursorGotoEvent.NAME, list -> {
+            createdEvents.add(CursorGotoEvent.NAME);
+            return new CursorGotoEvent((Integer) list.get(0), (Integer) list.get(1));
+        });
+    }
+
+    @Test
+    public void decodesAllEventsWithoutSelection() {
+        NeovimRedrawEvent redrawEvent = new RedrawEventDecoder(creators, null).apply(redraw());
+
+        assertEquals(3, redrawEvent.getUiEvents().size());
+        assertEquals(List.of(ModeChangeEvent.NAME, CursorGotoEvent.NAME, CursorGotoEvent.NAME), createdEvents);
+    }
+
+    @Test
+    public void skipsEventsWhichAreNotSelected() {
+        NeovimRedrawEvent redrawEvent = new RedrawEventDecoder(creators, Set.of(ModeChangeEvent.NAME)).apply(redraw());
+
+        assertEquals(1, redrawEvent.getUiEvents().size());
+        ModeChangeEvent modeChangeEvent = (ModeChangeEvent) redrawEvent.getUiEvents().get(0);
+        assertEquals("insert", modeChangeEvent.getMode());
+        assertEquals(List.of(ModeChangeEvent.NAME), createdEvents);
+    }
+
+    @Test
+    public void returnsNullIfNothingIsSelected() {
+        assertNull(new RedrawEventDecoder(creators, Set.of(BusyOnEvent.NAME)).apply(redraw()));
+        assertTrue(createdEvents.isEmpty());
+    }
+
+    @Test
+    public void skipsEventsWithoutCreator() {
+        ArrayList<Object> arguments = new ArrayList<>();
+        arguments.add(new ArrayList<>(List.of("unknown_event", new ArrayList<>(List.of(1)))));
+        arguments.add(new ArrayList<>(List.of(CursorGotoEvent.NAME, new ArrayList<>(List.of(1, 2)))));
+        NotificationMessage message = new NotificationMessage.Builder(NeovimRedrawEvent.NAME)
+                .addArguments(arguments)
+                .build();
+
+        NeovimRedrawEvent redrawEvent = new RedrawEventDecoder(creators, null).apply(message);
+
+        assertEquals(1, redrawEvent.getUiEvents().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failsOnInvalidBatch() {
+        ArrayList<Object> arguments = new ArrayList<>();
+        arguments.add(new ArrayList<>());
+        NotificationMessage message = new NotificationMessage.Builder(NeovimRedrawEvent.NAME)
+                .addArguments(arguments)
+                .build();
+
+        new RedrawEventDecoder(creators, null).apply(message);
+    }
+
+    @Test
+    public void resolvesEventNamesOfTypes() {
+        Set<String> names = NotificationCreatorCollector.getUIEventNames(List.of(ModeChangeEvent.class, UIGridEvent.class));
+
+        assertTrue(names.contains(ModeChangeEvent.NAME));
+        assertTrue(names.contains(CursorGotoEvent.NAME));
+        assertFalse(names.contains(BusyOnEvent.NAME));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failsToResolveUnknownTypes() {
+        NotificationCreatorCollector.getUIEventNames(List.of(UnknownEvent.class));
+    }
+
+    private static NotificationMessage redraw() {
+        ArrayList<Object> arguments = new ArrayList<>();
+        arguments.add(new ArrayList<>(List.of(ModeChangeEvent.NAME, new ArrayList<>(List.of("insert", 1)))));
+        arguments.add(new ArrayList<>(List.of(
+                CursorGotoEvent.NAME,
+                new ArrayList<>(List.of(1, 2)),
+                new ArrayList<>(List.of(3, 4))
+        )));
+        return new NotificationMessage.Builder(NeovimRedrawEvent.NAME)
+                .addArguments(arguments)
+                .build();
+    }
+
+    private static final class UnknownEvent implements UIEvent {
+        @Override
+        public String getEventName() {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.flow;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class FusedFlowTest {
+
+    @Test(expected = NullPointerException.class)
+    public void cantBeCreatedFromNullSource() {
+        FusedFlow.from(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void prefetchMustBePositive() {
+        FusedFlow.from(new RangePublisher(1)).prefetch(0);
+    }
+
+    @Test
+    public void fusesFilterAndMapIntoSingleStage() {
+        var source = new RangePublisher(10);
+        var subscriber = new CollectingSubscriber<String>(Long.MAX_VALUE);
+
+        FusedFlow.from(source)
+                .filter(value -> value % 2 == 0)
+                .map(value -> value * 10)
+                .map(String::valueOf)
+                .subscribe(subscriber);
+
+        assertEquals(List.of("0", "20", "40", "60", "80"), subscriber.items);
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    public void requestsSourceInBatches() {
+        var source = new RangePublisher(100);
+        var subscriber = new CollectingSubscriber<Integer>(Long.MAX_VALUE);
+
+        FusedFlow.from(source)
+                .prefetch(16)
+                .subscribe(subscriber);
+
+        assertEquals(100, subscriber.items.size());
+        assertEquals(Long.valueOf(16), source.requests.get(0));
+        // Replenished after three quarters of the batch
+        assertEquals(Long.valueOf(12), source.requests.get(1));
+    }
+
+    @Test
+    public void respectsDownstreamDemand() {
+        var source = new RangePublisher(100);
+        var subscriber = new CollectingSubscriber<Integer>(3);
+
+        FusedFlow.from(source)
+                .prefetch(8)
+                .subscribe(subscriber);
+
+        assertEquals(List.of(0, 1, 2), subscriber.items);
+        assertEquals(List.of(8L), source.requests);
+
+        subscriber.subscription.request(2);
+        assertEquals(List.of(0, 1, 2, 3, 4), subscriber.items);
+    }
+
+    @Test
+    public void dropsItemsFailingInStage() {
+        var subscriber = new CollectingSubscriber<Integer>(Long.MAX_VALUE);
+
+        FusedFlow.from(new RangePublisher(4))
+                .map(value -> {
+                    if (value == 2) {
+                        throw new IllegalStateException("Bad item");
+                    }
+                    return value;
+                })
+                .subscribe(subscriber);
+
+        assertEquals(List.of(0, 1, 3), subscriber.items);
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    public void asyncDeliversOnGivenExecutor() throws InterruptedException {
+        ExecutorService executorService = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "async-test"));
+        try {
+            var latch = new CountDownLatch(1);
+            var threadNames = new ArrayList<String>();
+            FusedFlow.from(new RangePublisher(50))
+                    .async(executorService, 8)
+                    .map(value -> Thread.currentThread().getName())
+                    .subscribe(new CollectingSubscriber<>(Long.MAX_VALUE) {
+                        @Override
+                        public void onNext(String item) {
+                            threadNames.add(item);
+                        }
+
+                        @Override
+                        public void onComplete() {
+                            latch.countDown();
+                        }
+                    });
+
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertEquals(50, threadNames.size());
+            assertEquals(List.of("async-test"), threadNames.stream().distinct().collect(Collectors.toList()));
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    /**
+     * Synchronous publisher of integers respecting demand, recording all requests
+     */
+    private static final class RangePublisher implements Flow.Publisher<Integer> {
+        private final int count;
+        private final List<Long> requests = new ArrayList<>();
+
+        private RangePublisher(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super Integer> subscriber) {
+            var iterator = IntStream.range(0, count).iterator();
+            subscriber.onSubscribe(new Flow.Subscription() {
+                private long requested;
+                private boolean emitting;
+
+                @Override
+                public void request(long n) {
+                    requests.add(n);
+                    requested += n;
+                    if (emitting) {
+                        return;
+                    }
+                    emitting = true;
+                    while (requested > 0 && iterator.hasNext()) {
+                        requested--;
+                        subscriber.onNext(iterator.next());
+                    }
+                    emitting = false;
+                    if (!iterator.hasNext()) {
+                        subscriber.onComplete();
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+        }
+    }
+
+    private static class CollectingSubscriber<T> implements Flow.Subscriber<T> {
+        private final long initialRequest;
+        private final List<T> items = new ArrayList<>();
+        private Flow.Subscription subscription;
+        private boolean completed;
+
+        private CollectingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialRequest);
+        }
+
+        @Override
+        public void onNext(T item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            fail(throwable.getMessage());
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
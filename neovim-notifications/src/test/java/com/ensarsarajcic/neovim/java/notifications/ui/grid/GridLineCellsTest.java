@@ -0,0 +1,108 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.ui.grid;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GridLineCellsTest {
+
+    @Test
+    public void resolvesOmittedHighlightIdsAndRepeats() {
+        GridLineCells cells = new GridLineCells().decode(List.of(
+                List.of("a", 3),
+                List.of(" ", 0, 4),
+                List.of("b"),
+                List.of("中", 5),
+                List.of("")
+        ));
+
+        assertEquals(5, cells.getRunCount());
+        assertEquals(8, cells.getCellCount());
+        assertEquals(3, cells.getHighlightId(0));
+        assertEquals(1, cells.getRepeat(0));
+        assertEquals(4, cells.getRepeat(1));
+        assertEquals(0, cells.getHighlightId(2));
+        assertEquals('b', cells.getCodePoint(2));
+        assertEquals(5, cells.getHighlightId(4));
+        assertEquals(GridLineCells.CONTINUATION_CELL, cells.getCodePoint(4));
+        assertEquals("中", cells.getText(3));
+    }
+
+    @Test
+    public void expandsRunsOnCopy() {
+        GridLineCells cells = new GridLineCells().decode(List.of(
+                List.of("x", 1, 2),
+                List.of("y", 2)
+        ));
+        int[] codePoints = new int[4];
+        int[] highlightIds = new int[4];
+
+        assertEquals(3, cells.copyTo(codePoints, highlightIds, 1));
+
+        assertArrayEquals(new int[]{0, 'x', 'x', 'y'}, codePoints);
+        assertArrayEquals(new int[]{0, 1, 1, 2}, highlightIds);
+    }
+
+    @Test
+    public void reusesBuffersForNextLine() {
+        GridLineCells cells = new GridLineCells();
+        List<List<Object>> longLine = new java.util.ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            longLine.add(List.of(String.valueOf(i % 10), i));
+        }
+
+        cells.decode(longLine);
+        assertEquals(100, cells.getRunCount());
+        assertEquals(99, cells.getHighlightId(99));
+
+        cells.decode(List.of(List.of("z", 7)));
+        assertEquals(1, cells.getRunCount());
+        assertEquals(1, cells.getCellCount());
+    }
+
+    @Test
+    public void createsGridLineEvents() {
+        GridLineEvent event = (GridLineEvent) GridLineEvent.CREATOR.apply(List.of(1, 4, 2, List.of(List.of("a", 1, 3))));
+
+        assertEquals(1, event.getGrid());
+        assertEquals(4, event.getRow());
+        assertEquals(2, event.getColStart());
+        assertEquals(3, event.getCells().getCellCount());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void failsForUnknownRuns() {
+        new GridLineCells().decode(List.of(List.of("a", 1))).getText(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMalformedCells() {
+        new GridLineCells().decode(List.of(List.of()));
+    }
+}
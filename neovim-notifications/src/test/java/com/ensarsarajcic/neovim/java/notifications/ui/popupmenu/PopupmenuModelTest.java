@@ -0,0 +1,132 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.ui.popupmenu;
+
+import com.ensarsarajcic.neovim.java.notifications.ui.redraw.RedrawDecoder;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PopupmenuModelTest {
+
+    private PopupmenuModel model;
+    private List<Object> rawItems;
+
+    @Before
+    public void setUp() {
+        model = new PopupmenuModel();
+        rawItems = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rawItems.add(List.of("word" + i, "v", "menu" + i, ""));
+        }
+    }
+
+    @Test
+    public void readsItemsByIndex() {
+        PopupmenuItems items = PopupmenuItems.of(rawItems);
+
+        assertEquals(1000, items.size());
+        assertEquals("word500", items.getWord(500));
+        assertEquals("v", items.getKind(500));
+        assertEquals("menu500", items.getMenu(500));
+        assertEquals("", items.getInfo(500));
+        assertEquals("word999", items.get(999).getWord());
+    }
+
+    @Test
+    public void createsShowEventWithoutDecodingItems() {
+        PopupmenuShowEvent event = (PopupmenuShowEvent) PopupmenuShowEvent.CREATOR.apply(List.of(rawItems, 3, 5, 7));
+
+        assertTrue(event.getItems() instanceof PopupmenuItems);
+        assertEquals(1000, event.getItems().size());
+        assertEquals(3, event.getSelected());
+
+        model.apply(event);
+
+        assertTrue(model.isVisible());
+        assertEquals(1000, model.getItemCount());
+        assertEquals("word3", model.getWord(model.getSelected()));
+        assertEquals(5, model.getRow());
+        assertEquals(7, model.getCol());
+    }
+
+    @Test
+    public void keepsSelectionVisible() {
+        model.setMaxHeight(10);
+        model.popupmenuShow(PopupmenuItems.of(rawItems), -1, 0, 0);
+        assertEquals(0, model.getScrollOffset());
+        assertEquals(10, model.getVisibleCount());
+
+        model.popupmenuSelect(5);
+        assertEquals(0, model.getScrollOffset());
+
+        model.popupmenuSelect(10);
+        assertEquals(1, model.getScrollOffset());
+
+        model.popupmenuSelect(999);
+        assertEquals(990, model.getScrollOffset());
+
+        model.popupmenuSelect(995);
+        assertEquals(990, model.getScrollOffset());
+
+        model.popupmenuSelect(0);
+        assertEquals(0, model.getScrollOffset());
+    }
+
+    @Test
+    public void hidesPopupmenu() {
+        model.popupmenuShow(PopupmenuItems.of(rawItems), 1, 0, 0);
+
+        model.apply(new PopupmenuHideEvent());
+
+        assertFalse(model.isVisible());
+        assertEquals(0, model.getItemCount());
+        assertEquals(-1, model.getSelected());
+    }
+
+    @Test
+    public void worksWithEagerlyDecodedItems() {
+        model.apply(new PopupmenuShowEvent(List.of(new PopupmenuShowEvent.Item("a", "b", "c", "d")), 0, 1, 1));
+
+        assertEquals("a", model.getWord(0));
+        assertEquals("d", model.getInfo(0));
+    }
+
+    @Test
+    public void receivesEventsFromRedrawDecoder() {
+        new RedrawDecoder().decode(List.of(
+                List.of("popupmenu_show", List.of(rawItems, -1, 2, 3)),
+                List.of("popupmenu_select", List.of(4), List.of(6))
+        ), model);
+
+        assertTrue(model.isVisible());
+        assertEquals(6, model.getSelected());
+        assertEquals("word6", model.getWord(6));
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.ui.redraw;
+
+import com.ensarsarajcic.neovim.java.corerpc.message.NotificationMessage;
+import com.ensarsarajcic.neovim.java.notifications.ui.NeovimRedrawEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridLineCells;
+import com.ensarsarajcic.neovim.java.notifications.ui.screen.ScreenGrid;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class RedrawDecoderTest {
+
+    private RedrawDecoder redrawDecoder;
+    private RecordingVisitor visitor;
+
+    @Before
+    public void setUp() {
+        redrawDecoder = new RedrawDecoder();
+        visitor = new RecordingVisitor();
+    }
+
+    @Test
+    public void mergesConsecutivePutsIntoSingleRun() {
+        redrawDecoder.decode(List.of(
+                batch("cursor_goto", List.of(1, 2)),
+                batch("put", List.of("a"), List.of("b")),
+                batch("put", List.of("中"), List.of(""), List.of("c")),
+                batch("cursor_goto", List.of(2, 0)),
+                batch("put", List.of("d"))
+        ), visitor);
+
+        assertEquals(List.of(
+                "start",
+                "cursor_goto 1 2",
+                "put ab中c [97, 98, 20013, 0, 99]",
+                "cursor_goto 2 0",
+                "put d [100]",
+                "end"
+        ), visitor.calls);
+    }
+
+    @Test
+    public void decodesHighlightAttributes() {
+        redrawDecoder.decode(List.of(
+                batch("highlight_set", List.of(Map.of("foreground", 255, "bold", true, "undercurl", true))),
+                batch("highlight_set", List.of(Map.of()))
+        ), visitor);
+
+        assertEquals(List.of(
+                "start",
+                "highlight_set 255 -1 -1 " + (RedrawVisitor.FLAG_BOLD | RedrawVisitor.FLAG_UNDERCURL),
+                "highlight_set -1 -1 -1 0",
+                "end"
+        ), visitor.calls);
+    }
+
+    @Test
+    public void passesDownOtherEventsRaw() {
+        redrawDecoder.decode(List.of(
+                batch("mode_change", List.of("insert", 1), List.of("normal", 0))
+        ), visitor);
+
+        assertEquals(List.of(
+                "start",
+                "mode_change [insert, 1]",
+                "mode_change [normal, 0]",
+                "end"
+        ), visitor.calls);
+    }
+
+    @Test
+    public void decodesIntoScreenGrid() {
+        ScreenGrid screenGrid = new ScreenGrid();
+        ArrayList<Object> arguments = new ArrayList<>(List.of(
+                batch("resize", List.of(3, 2)),
+                batch("clear", List.of()),
+                batch("cursor_goto", List.of(0, 0)),
+                batch("put", List.of("a"), List.of("b"), List.of("c")),
+                batch("cursor_goto", List.of(1, 0)),
+                batch("highlight_set", List.of(Map.of("bold", true))),
+                batch("put", List.of("d")),
+                batch("set_scroll_region", List.of(0, 1, 0, 2)),
+                batch("scroll", List.of(1))
+        ));
+
+        redrawDecoder.decode(new NotificationMessage.Builder(NeovimRedrawEvent.NAME).addArguments(arguments).build(), screenGrid);
+
+        assertEquals("d  ", screenGrid.getRowText(0));
+        assertEquals("   ", screenGrid.getRowText(1));
+        assertNotEquals(ScreenGrid.DEFAULT_ATTRIBUTES, screenGrid.getAttributeId(0, 0));
+    }
+
+    @Test
+    public void decodesLinegridEvents() {
+        redrawDecoder.decode(List.of(
+                batch("hl_attr_define", List.of(3, Map.of("background", 16, "italic", true), Map.of(), List.of())),
+                batch("grid_line", List.of(1, 2, 0, List.of(List.of("a", 3, 2), List.of("b")))),
+                batch("grid_scroll", List.of(1, 0, 10, 0, 20, -2, 0)),
+                batch("flush", List.of())
+        ), visitor);
+
+        assertEquals(List.of(
+                "start",
+                "hl_attr_define 3 -1 16 -1 " + RedrawVisitor.FLAG_ITALIC,
+                "grid_line 1 2 0 3",
+                "grid_scroll 1 0 10 0 20 -2",
+                "flush",
+                "end"
+        ), visitor.calls);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsOtherNotifications() {
+        redrawDecoder.decode(new NotificationMessage.Builder("nvim_buf_lines_event").build(), visitor);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMalformedBatches() {
+        redrawDecoder.decode(List.of(List.of()), visitor);
+    }
+
+    private static List<Object> batch(String name, List... calls) {
+        List<Object> batch = new ArrayList<>();
+        batch.add(name);
+        batch.addAll(Arrays.asList(calls));
+        return batch;
+    }
+
+    private static final class RecordingVisitor implements RedrawVisitor {
+        private final List<String> calls = new ArrayList<>();
+
+        @Override
+        public void redrawStart() {
+            calls.add("start");
+        }
+
+        @Override
+        public void redrawEnd() {
+            calls.add("end");
+        }
+
+        @Override
+        public void cursorGoto(int row, int col) {
+            calls.add("cursor_goto " + row + " " + col);
+        }
+
+        @Override
+        public void highlightSet(int foreground, int background, int special, int flags) {
+            calls.add("highlight_set " + foreground + " " + background + " " + special + " " + flags);
+        }
+
+        @Override
+        public void put(CellRun cells) {
+            int[] codePoints = new int[cells.getCellCount()];
+            for (int i = 0; i < codePoints.length; i++) {
+                codePoints[i] = cells.getCellCodePoint(i);
+            }
+            calls.add("put " + cells + " " + Arrays.toString(codePoints));
+        }
+
+        @Override
+        public void hlAttrDefine(int id, int foreground, int background, int special, int flags) {
+            calls.add("hl_attr_define " + id + " " + foreground + " " + background + " " + special + " " + flags);
+        }
+
+        @Override
+        public void gridLine(int grid, int row, int colStart, GridLineCells cells) {
+            calls.add("grid_line " + grid + " " + row + " " + colStart + " " + cells.getCellCount());
+        }
+
+        @Override
+        public void gridScroll(int grid, int top, int bottom, int left, int right, int rows, int cols) {
+            calls.add("grid_scroll " + grid + " " + top + " " + bottom + " " + left + " " + right + " " + rows);
+        }
+
+        @Override
+        public void flush() {
+            calls.add("flush");
+        }
+
+        @Override
+        public void event(String name, List arguments) {
+            calls.add(name + " " + arguments);
+        }
+    }
+}
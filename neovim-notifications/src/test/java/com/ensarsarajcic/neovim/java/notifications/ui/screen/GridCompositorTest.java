@@ -0,0 +1,173 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.ui.screen;
+
+import com.ensarsarajcic.neovim.java.api.types.msgpack.Window;
+import com.ensarsarajcic.neovim.java.notifications.ui.NeovimRedrawEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.FlushEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridLineCells;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridLineEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridResizeEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.multigrid.WinPosEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GridCompositorTest {
+
+    private GridCompositor compositor;
+
+    @Before
+    public void setUp() {
+        // Global grid with two horizontal splits, top one being grid 2 and bottom one grid 3
+        compositor = new GridCompositor();
+        compositor.gridResize(GridCompositor.GLOBAL_GRID, 6, 5);
+        fill(GridCompositor.GLOBAL_GRID, 5, "-");
+        compositor.gridResize(2, 6, 2);
+        fill(2, 2, "a");
+        compositor.winPos(2, new Window(1000), 0, 0, 6, 2);
+        compositor.gridResize(3, 6, 2);
+        fill(3, 2, "b");
+        compositor.winPos(3, new Window(1001), 2, 0, 6, 2);
+        compositor.flush();
+    }
+
+    @Test
+    public void composesGridsAtTheirPositions() {
+        ScreenGrid screen = compositor.getScreen();
+
+        assertEquals("aaaaaa", screen.getRowText(0));
+        assertEquals("aaaaaa", screen.getRowText(1));
+        assertEquals("bbbbbb", screen.getRowText(2));
+        assertEquals("bbbbbb", screen.getRowText(3));
+        assertEquals("------", screen.getRowText(4));
+        assertEquals(new Window(1001), compositor.getWindow(3));
+    }
+
+    @Test
+    public void recomposesOnlyChangedRows() {
+        ScreenGrid screen = compositor.getScreen();
+        screen.clearDirtyRows();
+
+        compositor.gridLine(3, 1, 2, line("x", 2));
+        compositor.flush();
+
+        assertEquals(3, screen.nextDirtyRow(0));
+        assertEquals(-1, screen.nextDirtyRow(4));
+        assertEquals("bbxxbb", screen.getRowText(3));
+        assertEquals("bbbbbb", screen.getRowText(2));
+    }
+
+    @Test
+    public void keepsFloatsOnTop() {
+        ScreenGrid screen = compositor.getScreen();
+        compositor.gridResize(4, 2, 2);
+        fill(4, 2, "f");
+        compositor.winFloatPos(4, new Window(1002), "NW", 2, 1, 2, true);
+        compositor.flush();
+
+        assertEquals("aaaaaa", screen.getRowText(0));
+        assertEquals("aaffaa", screen.getRowText(1));
+        assertEquals("bbffbb", screen.getRowText(2));
+
+        // Changing the split below does not cover the float
+        compositor.gridLine(3, 0, 0, line("y", 6));
+        compositor.flush();
+
+        assertEquals("yyffyy", screen.getRowText(2));
+    }
+
+    @Test
+    public void anchorsFloatsByCorner() {
+        ScreenGrid screen = compositor.getScreen();
+        compositor.gridResize(4, 2, 1);
+        fill(4, 1, "f");
+        compositor.winFloatPos(4, new Window(1002), "SE", GridCompositor.GLOBAL_GRID, 5, 6, true);
+        compositor.flush();
+
+        assertEquals("----ff", screen.getRowText(4));
+    }
+
+    @Test
+    public void uncoversGridsOnHideAndClose() {
+        ScreenGrid screen = compositor.getScreen();
+        screen.clearDirtyRows();
+
+        compositor.winHide(2);
+        compositor.flush();
+
+        assertEquals("------", screen.getRowText(0));
+        assertEquals(0, screen.nextDirtyRow(0));
+        assertEquals(1, screen.nextDirtyRow(1));
+        assertEquals(-1, screen.nextDirtyRow(2));
+
+        compositor.winPos(2, new Window(1000), 0, 0, 6, 2);
+        compositor.gridDestroy(3);
+        compositor.flush();
+
+        assertEquals("aaaaaa", screen.getRowText(0));
+        assertEquals("------", screen.getRowText(2));
+        assertNull(compositor.getGrid(3));
+    }
+
+    @Test
+    public void placesCursorRelativeToItsGrid() {
+        compositor.gridCursorGoto(3, 1, 4);
+        compositor.flush();
+
+        assertEquals(3, compositor.getScreen().getCursorRow());
+        assertEquals(4, compositor.getScreen().getCursorCol());
+        assertEquals(3, compositor.getCursorGrid());
+    }
+
+    @Test
+    public void appliesEventObjects() {
+        GridCompositor eventCompositor = new GridCompositor();
+
+        eventCompositor.apply(new NeovimRedrawEvent(List.of(
+                new GridResizeEvent(GridCompositor.GLOBAL_GRID, 3, 2),
+                new GridResizeEvent(2, 2, 1),
+                new GridLineEvent(2, 0, 0, line("z", 2)),
+                new WinPosEvent(2, new Window(1000), 1, 1, 2, 1),
+                new FlushEvent()
+        )));
+
+        assertEquals("   ", eventCompositor.getScreen().getRowText(0));
+        assertEquals(" zz", eventCompositor.getScreen().getRowText(1));
+    }
+
+    private void fill(int grid, int rows, String text) {
+        for (int row = 0; row < rows; row++) {
+            compositor.gridLine(grid, row, 0, line(text, 6));
+        }
+    }
+
+    private static GridLineCells line(String text, int repeat) {
+        return new GridLineCells().decode(List.of(List.of(text, 0, repeat)));
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.ui.screen;
+
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.HighlightSetEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.redraw.RedrawVisitor;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class HighlightTableTest {
+
+    @Test
+    public void containsDefaultAttributes() {
+        HighlightTable highlightTable = new HighlightTable();
+
+        assertEquals(1, highlightTable.size());
+        assertEquals(HighlightTable.DEFAULT_ID, highlightTable.intern(-1, -1, -1, 0));
+        assertEquals(HighlightTable.DEFAULT_ID, highlightTable.intern(null));
+        assertNull(highlightTable.getAttributes(HighlightTable.DEFAULT_ID));
+        assertEquals(-1, highlightTable.getForeground(HighlightTable.DEFAULT_ID));
+    }
+
+    @Test
+    public void internsEqualAttributesOnce() {
+        HighlightTable highlightTable = new HighlightTable();
+
+        int first = highlightTable.intern(0xff0000, 0x00ff00, -1, RedrawVisitor.FLAG_BOLD);
+        int second = highlightTable.intern(0xff0000, 0x00ff00, -1, RedrawVisitor.FLAG_BOLD);
+        int otherSpecial = highlightTable.intern(0xff0000, 0x00ff00, 0x0000ff, RedrawVisitor.FLAG_BOLD);
+        int otherFlags = highlightTable.intern(0xff0000, 0x00ff00, -1, RedrawVisitor.FLAG_ITALIC);
+
+        assertEquals(first, second);
+        assertNotEquals(first, otherSpecial);
+        assertNotEquals(first, otherFlags);
+        assertEquals(4, highlightTable.size());
+    }
+
+    @Test
+    public void looksUpAttributesById() {
+        HighlightTable highlightTable = new HighlightTable();
+        int flags = RedrawVisitor.FLAG_REVERSE | RedrawVisitor.FLAG_UNDERCURL;
+
+        int id = highlightTable.intern(0x123456, -1, 0xabcdef, flags);
+
+        assertEquals(0x123456, highlightTable.getForeground(id));
+        assertEquals(-1, highlightTable.getBackground(id));
+        assertEquals(0xabcdef, highlightTable.getSpecial(id));
+        assertEquals(flags, highlightTable.getFlags(id));
+        long packed = highlightTable.getPacked(id);
+        assertEquals(0x123456, HighlightTable.foregroundOf(packed));
+        assertEquals(-1, HighlightTable.backgroundOf(packed));
+        assertEquals(flags, HighlightTable.flagsOf(packed));
+    }
+
+    @Test
+    public void convertsAttributesObjects() {
+        HighlightTable highlightTable = new HighlightTable();
+        HighlightSetEvent.Attributes attributes = new HighlightSetEvent.Attributes(
+                0xffffff, 0, 0x00ff00, false, true, true, false, false);
+
+        int id = highlightTable.intern(attributes);
+
+        assertEquals(RedrawVisitor.FLAG_ITALIC | RedrawVisitor.FLAG_BOLD, highlightTable.getFlags(id));
+        assertEquals(attributes, highlightTable.getAttributes(id));
+        assertEquals(id, highlightTable.intern(highlightTable.getAttributes(id)));
+    }
+
+    @Test
+    public void growsBeyondInitialCapacity() {
+        HighlightTable highlightTable = new HighlightTable();
+
+        for (int color = 0; color < 1000; color++) {
+            assertEquals(color + 1, highlightTable.intern(color, color, -1, 0));
+        }
+        for (int color = 0; color < 1000; color++) {
+            assertEquals(color + 1, highlightTable.intern(color, color, -1, 0));
+            assertEquals(color, highlightTable.getBackground(color + 1));
+        }
+        assertEquals(1001, highlightTable.size());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void failsForUnknownIds() {
+        new HighlightTable().getPacked(1);
+    }
+}
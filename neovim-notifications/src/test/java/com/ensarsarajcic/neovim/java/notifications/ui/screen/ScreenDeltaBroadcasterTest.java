@@ -0,0 +1,248 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.ui.screen;
+
+import com.ensarsarajcic.neovim.java.notifications.ui.redraw.RedrawVisitor;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import static org.junit.Assert.*;
+
+public class ScreenDeltaBroadcasterTest {
+
+    private ScreenGrid source;
+    private ScreenDeltaBroadcaster broadcaster;
+    private long frameSequence;
+
+    @Before
+    public void setUp() {
+        source = new ScreenGrid();
+        source.resize(8, 3);
+        broadcaster = new ScreenDeltaBroadcaster(3);
+    }
+
+    @Test
+    public void viewerReproducesScreen() {
+        RecordingViewer viewer = subscribe(Long.MAX_VALUE);
+        ScreenGrid viewerGrid = new ScreenGrid();
+
+        source.put("hello");
+        publishFrame();
+        source.cursorGoto(2, 1);
+        source.highlightSet(0xFF0000, -1, -1, RedrawVisitor.FLAG_BOLD);
+        source.put("中");
+        source.defaultColorsSet(0xFFFFFF, 0, -1);
+        publishFrame();
+
+        assertEquals(2, viewer.messages.size());
+        assertTrue(ScreenDelta.isKeyframe(viewer.messages.get(0)));
+        assertFalse(ScreenDelta.isKeyframe(viewer.messages.get(1)));
+        for (ByteBuffer message : viewer.messages) {
+            ScreenDelta.apply(message, viewerGrid);
+        }
+
+        assertSameScreen(source, viewerGrid);
+        assertTrue(viewerGrid.getAttributes(viewerGrid.getAttributeId(2, 1)).isBold());
+        assertEquals(0xFFFFFF, viewerGrid.getDefaultForeground());
+        assertEquals(2, viewerGrid.getCursorRow());
+        assertEquals(source.getCursorCol(), viewerGrid.getCursorCol());
+    }
+
+    @Test
+    public void viewersShareEncodedMessages() {
+        RecordingViewer first = subscribe(Long.MAX_VALUE);
+        RecordingViewer second = subscribe(Long.MAX_VALUE);
+
+        source.put("abc");
+        publishFrame();
+
+        assertEquals(2, broadcaster.getViewerCount());
+        assertEquals(1, first.messages.size());
+        assertEquals(first.messages, second.messages);
+        assertTrue(first.messages.get(0).isReadOnly());
+    }
+
+    @Test
+    public void encodesBlankRowsCompactly() {
+        source.resize(200, 50);
+        RecordingViewer viewer = subscribe(Long.MAX_VALUE);
+
+        publishFrame();
+
+        assertTrue(viewer.messages.get(0).remaining() < 50 * 8);
+    }
+
+    @Test
+    public void sendsKeyframeAfterInterval() {
+        RecordingViewer viewer = subscribe(Long.MAX_VALUE);
+
+        for (int i = 0; i < 5; i++) {
+            source.put("x");
+            publishFrame();
+        }
+
+        assertTrue(ScreenDelta.isKeyframe(viewer.messages.get(0)));
+        assertFalse(ScreenDelta.isKeyframe(viewer.messages.get(3)));
+        assertTrue(ScreenDelta.isKeyframe(viewer.messages.get(4)));
+    }
+
+    @Test
+    public void laggingViewerSkipsToLatestKeyframe() {
+        RecordingViewer viewer = subscribe(1);
+        ScreenGrid viewerGrid = new ScreenGrid();
+
+        for (int i = 0; i < 6; i++) {
+            source.put(String.valueOf(i));
+            publishFrame();
+        }
+        assertEquals(1, viewer.messages.size());
+
+        viewer.subscription.request(Long.MAX_VALUE);
+
+        List<Long> sequences = new ArrayList<>();
+        for (ByteBuffer message : viewer.messages) {
+            sequences.add(ScreenDelta.getSequence(message));
+        }
+        assertEquals(List.of(0L, 4L, 5L), sequences);
+        ScreenDelta.apply(viewer.messages.get(1), viewerGrid);
+        ScreenDelta.apply(viewer.messages.get(2), viewerGrid);
+        assertSameScreen(source, viewerGrid);
+    }
+
+    @Test
+    public void newViewerStartsFromKeyframe() {
+        source.put("ab");
+        publishFrame();
+        source.put("cd");
+        publishFrame();
+
+        RecordingViewer viewer = subscribe(Long.MAX_VALUE);
+        ScreenGrid viewerGrid = new ScreenGrid();
+        for (ByteBuffer message : viewer.messages) {
+            ScreenDelta.apply(message, viewerGrid);
+        }
+
+        assertEquals(2, viewer.messages.size());
+        assertTrue(ScreenDelta.isKeyframe(viewer.messages.get(0)));
+        assertSameScreen(source, viewerGrid);
+    }
+
+    @Test
+    public void completesViewersAfterDelivery() {
+        RecordingViewer viewer = subscribe(1);
+        publishFrame();
+        publishFrame();
+
+        broadcaster.onComplete();
+        assertFalse(viewer.completed);
+
+        viewer.subscription.request(1);
+        assertTrue(viewer.completed);
+        assertEquals(0, broadcaster.getViewerCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void detectsSkippedDelta() {
+        RecordingViewer viewer = subscribe(Long.MAX_VALUE);
+        publishFrame();
+        source.highlightSet(1, 2, 3, 0);
+        source.put("a");
+        publishFrame();
+        source.highlightSet(4, 5, 6, 0);
+        source.put("b");
+        publishFrame();
+
+        ScreenGrid viewerGrid = new ScreenGrid();
+        ScreenDelta.apply(viewer.messages.get(0), viewerGrid);
+        ScreenDelta.apply(viewer.messages.get(2), viewerGrid);
+    }
+
+    private void publishFrame() {
+        int[] rows = new int[source.getHeight()];
+        int count = 0;
+        for (int row = source.nextDirtyRow(0); row >= 0; row = source.nextDirtyRow(row + 1)) {
+            rows[count++] = row;
+        }
+        broadcaster.onNext(new ScreenFrame(++frameSequence, 1, source, Arrays.copyOf(rows, count),
+                source.getHighlightTable().copy()));
+        source.clearDirtyRows();
+    }
+
+    private RecordingViewer subscribe(long initialRequest) {
+        RecordingViewer viewer = new RecordingViewer(initialRequest);
+        broadcaster.subscribe(viewer);
+        return viewer;
+    }
+
+    private static void assertSameScreen(ScreenGrid expected, ScreenGrid actual) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        for (int row = 0; row < expected.getHeight(); row++) {
+            assertEquals(expected.getRowText(row), actual.getRowText(row));
+            for (int col = 0; col < expected.getWidth(); col++) {
+                assertEquals(expected.getAttributes(expected.getAttributeId(row, col)),
+                        actual.getAttributes(actual.getAttributeId(row, col)));
+            }
+        }
+    }
+
+    private static final class RecordingViewer implements Flow.Subscriber<ByteBuffer> {
+        private final long initialRequest;
+        private final List<ByteBuffer> messages = new ArrayList<>();
+        private Flow.Subscription subscription;
+        private boolean completed;
+
+        private RecordingViewer(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialRequest);
+        }
+
+        @Override
+        public void onNext(ByteBuffer item) {
+            messages.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            fail(throwable.toString());
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
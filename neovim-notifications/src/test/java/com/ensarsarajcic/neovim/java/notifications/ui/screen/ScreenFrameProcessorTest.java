@@ -0,0 +1,251 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.ui.screen;
+
+import com.ensarsarajcic.neovim.java.corerpc.message.NotificationMessage;
+import com.ensarsarajcic.neovim.java.notifications.ui.NeovimRedrawEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+public class ScreenFrameProcessorTest {
+
+    private ScreenFrameProcessor processor;
+    private Flow.Subscription upstream;
+    private List<ScreenFrame> frames;
+    private List<Throwable> errors;
+    private Flow.Subscription downstream;
+
+    @Before
+    public void setUp() {
+        processor = ScreenFrameProcessor.forGrid(new ScreenGrid());
+        upstream = mock(Flow.Subscription.class);
+        processor.onSubscribe(upstream);
+        frames = new ArrayList<>();
+        errors = new ArrayList<>();
+        processor.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                downstream = subscription;
+            }
+
+            @Override
+            public void onNext(ScreenFrame item) {
+                frames.add(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                errors.add(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+    }
+
+    @Test
+    public void producesFrameOnFlush() {
+        downstream.request(10);
+
+        processor.onNext(redraw(
+                batch("grid_resize", List.of(1, 3, 2)),
+                batch("grid_line", List.of(1, 0, 0, List.of(List.of("a", 0, 3))))
+        ));
+        assertTrue(frames.isEmpty());
+
+        processor.onNext(redraw(
+                batch("grid_cursor_goto", List.of(1, 1, 2)),
+                batch("flush", List.of())
+        ));
+
+        assertEquals(1, frames.size());
+        ScreenFrame frame = frames.get(0);
+        assertEquals(1, frame.getSequence());
+        assertEquals(1, frame.getMergedFrames());
+        assertEquals(3, frame.getWidth());
+        assertEquals(2, frame.getHeight());
+        assertEquals(1, frame.getCursorRow());
+        assertEquals(2, frame.getCursorCol());
+        assertTrue(frame.isFull());
+        assertEquals("aaa", frame.getRowText(0));
+        assertEquals("   ", frame.getRowText(1));
+    }
+
+    @Test
+    public void mergesFramesWhileSubscriberIsBusy() {
+        downstream.request(1);
+        processor.onNext(redraw(
+                batch("grid_resize", List.of(1, 3, 3)),
+                batch("flush", List.of())
+        ));
+        assertEquals(1, frames.size());
+
+        processor.onNext(redraw(
+                batch("grid_line", List.of(1, 0, 0, List.of(List.of("a", 0, 3)))),
+                batch("flush", List.of())
+        ));
+        processor.onNext(redraw(
+                batch("grid_line", List.of(1, 0, 0, List.of(List.of("b", 0, 3)))),
+                batch("flush", List.of())
+        ));
+        processor.onNext(redraw(
+                batch("grid_line", List.of(1, 2, 1, List.of(List.of("c")))),
+                batch("flush", List.of())
+        ));
+        assertEquals(1, frames.size());
+
+        downstream.request(1);
+
+        assertEquals(2, frames.size());
+        ScreenFrame frame = frames.get(1);
+        assertEquals(2, frame.getSequence());
+        assertEquals(3, frame.getMergedFrames());
+        assertFalse(frame.isFull());
+        assertEquals(2, frame.getRowCount());
+        assertEquals(0, frame.getRow(0));
+        assertEquals("bbb", frame.getRowText(0));
+        assertEquals(2, frame.getRow(1));
+        assertEquals(" c ", frame.getRowText(1));
+    }
+
+    @Test
+    public void doesNotDeliverRowsOfIncompleteFrame() {
+        downstream.request(1);
+        processor.onNext(redraw(
+                batch("grid_resize", List.of(1, 3, 2)),
+                batch("flush", List.of())
+        ));
+        processor.onNext(redraw(
+                batch("grid_line", List.of(1, 0, 0, List.of(List.of("a", 0, 3)))),
+                batch("flush", List.of())
+        ));
+        // Next frame is still being drawn when the subscriber catches up
+        processor.onNext(redraw(
+                batch("grid_line", List.of(1, 0, 0, List.of(List.of("b", 0, 3)))),
+                batch("grid_line", List.of(1, 1, 0, List.of(List.of("b", 0, 3))))
+        ));
+
+        downstream.request(1);
+
+        assertEquals(2, frames.size());
+        assertEquals(1, frames.get(1).getRowCount());
+        assertEquals("aaa", frames.get(1).getRowText(0));
+
+        downstream.request(1);
+        assertEquals(2, frames.size());
+        processor.onNext(redraw(batch("flush", List.of())));
+
+        assertEquals(3, frames.size());
+        assertEquals(2, frames.get(2).getRowCount());
+        assertEquals("bbb", frames.get(2).getRowText(0));
+        assertEquals("bbb", frames.get(2).getRowText(1));
+    }
+
+    @Test
+    public void framesAreNotChangedByLaterRedraws() {
+        downstream.request(1);
+        processor.onNext(redraw(
+                batch("grid_resize", List.of(1, 2, 1)),
+                batch("hl_attr_define", List.of(1, Map.of("bold", true), Map.of(), List.of())),
+                batch("grid_line", List.of(1, 0, 0, List.of(List.of("a", 1, 2)))),
+                batch("flush", List.of())
+        ));
+        ScreenFrame frame = frames.get(0);
+
+        downstream.request(1);
+        processor.onNext(redraw(
+                batch("hl_attr_define", List.of(2, Map.of("italic", true), Map.of(), List.of())),
+                batch("grid_line", List.of(1, 0, 0, List.of(List.of("b", 2, 2)))),
+                batch("flush", List.of())
+        ));
+
+        assertEquals("aa", frame.getRowText(0));
+        assertTrue(frame.getAttributes(frame.getAttributeId(0, 0)).isBold());
+        assertEquals(2, frame.getHighlightTable().size());
+        assertEquals("bb", frames.get(1).getRowText(0));
+        assertTrue(frames.get(1).getAttributes(frames.get(1).getAttributeId(0, 1)).isItalic());
+    }
+
+    @Test
+    public void treatsEachNotificationAsFrameWithoutFlush() {
+        downstream.request(10);
+
+        processor.onNext(redraw(batch("resize", List.of(2, 1))));
+        processor.onNext(redraw(batch("put", List.of("x"))));
+
+        assertEquals(2, frames.size());
+        assertEquals("x ", frames.get(1).getRowText(0));
+        assertEquals(1, frames.get(1).getRowCount());
+    }
+
+    @Test
+    public void rejectsSecondSubscriber() {
+        List<Throwable> secondErrors = new ArrayList<>();
+        processor.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+            }
+
+            @Override
+            public void onNext(ScreenFrame item) {
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                secondErrors.add(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        assertEquals(1, secondErrors.size());
+        assertTrue(secondErrors.get(0) instanceof IllegalStateException);
+        assertTrue(errors.isEmpty());
+    }
+
+    private static NotificationMessage redraw(List<?>... batches) {
+        return new NotificationMessage.Builder(NeovimRedrawEvent.NAME)
+                .addArguments(new ArrayList<>(List.of(batches)))
+                .build();
+    }
+
+    private static List<?> batch(String name, List<?>... args) {
+        List<Object> batch = new ArrayList<>();
+        batch.add(name);
+        batch.addAll(List.of(args));
+        return batch;
+    }
+}
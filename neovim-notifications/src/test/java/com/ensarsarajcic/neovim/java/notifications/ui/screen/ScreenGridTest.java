@@ -0,0 +1,265 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.notifications.ui.screen;
+
+import com.ensarsarajcic.neovim.java.notifications.ui.NeovimRedrawEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.ClearEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.CursorGotoEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.EolClearEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridCursorGotoEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridLineCells;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridLineEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridResizeEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.GridScrollEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.HighlightSetEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.HlAttrDefineEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.PutEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.ResizeEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.ScrollEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.grid.SetScrollRegionEvent;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ScreenGridTest {
+
+    @Test
+    public void appliesRedrawEvents() {
+        ScreenGrid screenGrid = new ScreenGrid();
+        HighlightSetEvent.Attributes bold = attributes(true);
+
+        screenGrid.apply(new NeovimRedrawEvent(List.of(
+                new ResizeEvent(4, 2),
+                new ClearEvent(),
+                new CursorGotoEvent(1, 1),
+                new HighlightSetEvent(bold),
+                new PutEvent("a"),
+                new PutEvent("b")
+        )));
+
+        assertEquals(4, screenGrid.getWidth());
+        assertEquals(2, screenGrid.getHeight());
+        assertEquals("    ", screenGrid.getRowText(0));
+        assertEquals(" ab ", screenGrid.getRowText(1));
+        assertEquals(1, screenGrid.getCursorRow());
+        assertEquals(3, screenGrid.getCursorCol());
+        int attributeId = screenGrid.getAttributeId(1, 1);
+        assertNotEquals(ScreenGrid.DEFAULT_ATTRIBUTES, attributeId);
+        assertEquals(attributeId, screenGrid.getAttributeId(1, 2));
+        assertEquals(bold, screenGrid.getAttributes(attributeId));
+        assertEquals(ScreenGrid.DEFAULT_ATTRIBUTES, screenGrid.getAttributeId(1, 3));
+    }
+
+    @Test
+    public void internsEqualAttributes() {
+        ScreenGrid screenGrid = new ScreenGrid(2, 1);
+
+        int first = screenGrid.internAttributes(attributes(true));
+        int second = screenGrid.internAttributes(attributes(true));
+        int third = screenGrid.internAttributes(attributes(false));
+
+        assertEquals(first, second);
+        assertNotEquals(first, third);
+        assertEquals(ScreenGrid.DEFAULT_ATTRIBUTES, screenGrid.internAttributes(null));
+    }
+
+    @Test
+    public void tracksDirtyRows() {
+        ScreenGrid screenGrid = new ScreenGrid(3, 4);
+        assertEquals(0, screenGrid.nextDirtyRow(0));
+        screenGrid.clearDirtyRows();
+        assertFalse(screenGrid.hasDirtyRows());
+
+        screenGrid.cursorGoto(2, 0);
+        screenGrid.put("x");
+
+        assertTrue(screenGrid.hasDirtyRows());
+        assertEquals(2, screenGrid.nextDirtyRow(0));
+        assertEquals(-1, screenGrid.nextDirtyRow(3));
+        assertFalse(screenGrid.isRowDirty(1));
+    }
+
+    @Test
+    public void clearsToEndOfLine() {
+        ScreenGrid screenGrid = gridWithRows("abc", "def");
+        screenGrid.clearDirtyRows();
+
+        screenGrid.apply(new CursorGotoEvent(0, 1));
+        screenGrid.apply(new EolClearEvent());
+
+        assertEquals("a  ", screenGrid.getRowText(0));
+        assertEquals("def", screenGrid.getRowText(1));
+        assertTrue(screenGrid.isRowDirty(0));
+        assertFalse(screenGrid.isRowDirty(1));
+    }
+
+    @Test
+    public void scrollsWholeRowsUp() {
+        ScreenGrid screenGrid = gridWithRows("aaa", "bbb", "ccc", "ddd");
+        screenGrid.clearDirtyRows();
+
+        screenGrid.apply(new SetScrollRegionEvent(1, 3, 0, 2));
+        screenGrid.apply(new ScrollEvent(1));
+
+        assertEquals("aaa", screenGrid.getRowText(0));
+        assertEquals("ccc", screenGrid.getRowText(1));
+        assertEquals("ddd", screenGrid.getRowText(2));
+        assertEquals("   ", screenGrid.getRowText(3));
+        assertFalse(screenGrid.isRowDirty(0));
+        assertEquals(1, screenGrid.nextDirtyRow(0));
+    }
+
+    @Test
+    public void scrollsWholeRowsDown() {
+        ScreenGrid screenGrid = gridWithRows("aaa", "bbb", "ccc", "ddd");
+
+        screenGrid.apply(new ScrollEvent(-2));
+
+        assertEquals("   ", screenGrid.getRowText(0));
+        assertEquals("   ", screenGrid.getRowText(1));
+        assertEquals("aaa", screenGrid.getRowText(2));
+        assertEquals("bbb", screenGrid.getRowText(3));
+    }
+
+    @Test
+    public void scrollsPartialRows() {
+        ScreenGrid screenGrid = gridWithRows("abcd", "efgh", "ijkl");
+
+        screenGrid.apply(new SetScrollRegionEvent(0, 2, 1, 2));
+        screenGrid.apply(new ScrollEvent(-1));
+
+        assertEquals("a  d", screenGrid.getRowText(0));
+        assertEquals("ebch", screenGrid.getRowText(1));
+        assertEquals("ifgl", screenGrid.getRowText(2));
+
+        screenGrid.apply(new ScrollEvent(2));
+
+        assertEquals("afgd", screenGrid.getRowText(0));
+        assertEquals("e  h", screenGrid.getRowText(1));
+        assertEquals("i  l", screenGrid.getRowText(2));
+    }
+
+    @Test
+    public void scrollingByRegionHeightClearsRegion() {
+        ScreenGrid screenGrid = gridWithRows("aa", "bb");
+
+        screenGrid.apply(new ScrollEvent(5));
+
+        assertEquals("  ", screenGrid.getRowText(0));
+        assertEquals("  ", screenGrid.getRowText(1));
+    }
+
+    @Test
+    public void keepsContinuationCellsOfWideCharacters() {
+        ScreenGrid screenGrid = new ScreenGrid(3, 1);
+
+        screenGrid.put("中");
+        screenGrid.put("");
+        screenGrid.put("x");
+
+        assertEquals(ScreenGrid.CONTINUATION_CELL, screenGrid.getCodePoint(0, 1));
+        assertEquals("中x", screenGrid.getRowText(0));
+    }
+
+    @Test
+    public void ignoresPutsOutsideOfGrid() {
+        ScreenGrid screenGrid = new ScreenGrid(2, 1);
+
+        screenGrid.cursorGoto(0, 1);
+        screenGrid.put("a");
+        screenGrid.put("b");
+        screenGrid.cursorGoto(3, 0);
+        screenGrid.put("c");
+
+        assertEquals(" a", screenGrid.getRowText(0));
+    }
+
+    @Test
+    public void reusesStorageWhenShrinking() {
+        ScreenGrid screenGrid = gridWithRows("abc", "def");
+
+        screenGrid.resize(2, 2);
+
+        assertEquals("  ", screenGrid.getRowText(0));
+        assertEquals("  ", screenGrid.getRowText(1));
+        int[] codePoints = new int[2];
+        int[] attributeIds = new int[2];
+        screenGrid.copyRow(1, codePoints, attributeIds);
+        assertArrayEquals(new int[]{ScreenGrid.EMPTY_CELL, ScreenGrid.EMPTY_CELL}, codePoints);
+    }
+
+    @Test
+    public void appliesLinegridEvents() {
+        ScreenGrid screenGrid = new ScreenGrid();
+
+        screenGrid.apply(new NeovimRedrawEvent(List.of(
+                new GridResizeEvent(1, 5, 3),
+                new HlAttrDefineEvent(7, attributes(true), attributes(false), List.of()),
+                new GridLineEvent(1, 0, 0, new GridLineCells().decode(List.of(List.of("a", 7, 2), List.of("b", 0, 3)))),
+                new GridLineEvent(1, 1, 1, new GridLineCells().decode(List.of(List.of("c", 7, 10)))),
+                new GridCursorGotoEvent(1, 2, 3)
+        )));
+
+        assertEquals("aabbb", screenGrid.getRowText(0));
+        assertEquals(" cccc", screenGrid.getRowText(1));
+        assertEquals(attributes(true), screenGrid.getAttributes(screenGrid.getAttributeId(0, 0)));
+        assertEquals(ScreenGrid.DEFAULT_ATTRIBUTES, screenGrid.getAttributeId(0, 2));
+        assertEquals(2, screenGrid.getCursorRow());
+        assertEquals(3, screenGrid.getCursorCol());
+    }
+
+    @Test
+    public void scrollsLinegridRegionWithExclusiveBounds() {
+        ScreenGrid screenGrid = gridWithRows("abcd", "efgh", "ijkl");
+
+        screenGrid.apply(new GridScrollEvent(1, 0, 3, 1, 3, 1, 0));
+
+        assertEquals("afgd", screenGrid.getRowText(0));
+        assertEquals("ejkh", screenGrid.getRowText(1));
+        assertEquals("i  l", screenGrid.getRowText(2));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void failsToReadOutsideOfGrid() {
+        new ScreenGrid(2, 2).getCodePoint(0, 2);
+    }
+
+    private static ScreenGrid gridWithRows(String... rows) {
+        ScreenGrid screenGrid = new ScreenGrid(rows[0].length(), rows.length);
+        for (int row = 0; row < rows.length; row++) {
+            screenGrid.cursorGoto(row, 0);
+            for (int col = 0; col < rows[row].length(); col++) {
+                screenGrid.put(rows[row].charAt(col));
+            }
+        }
+        return screenGrid;
+    }
+
+    private static HighlightSetEvent.Attributes attributes(boolean bold) {
+        return new HighlightSetEvent.Attributes(0xff0000, 0x000000, -1, false, false, bold, false, false);
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.pluginhost;
+
+import java.util.*;
+
+/**
+ * Describes a single function, command or autocommand provided by a plugin
+ * <p>
+ * Specs are created at compile time by {@link com.ensarsarajcic.neovim.java.pluginhost.processor.PluginRegistryProcessor}
+ * and stored in {@link PluginRegistry#RESOURCE_NAME} resource of the plugin, one per line, so plugin host can
+ * answer {@code specs} requests and route calls without loading plugin classes
+ * <p>
+ * Line format is tab separated: plugin class binary name, type, name, sync flag, method name, arguments flag and
+ * options as {@code key=value} pairs
+ */
+public final class HandlerSpec {
+
+    /**
+     * Options which are passed to neovim as booleans, while all others are strings
+     */
+    private static final Set<String> BOOLEAN_OPTIONS = Set.of("bang", "register");
+
+    public enum Type {
+        FUNCTION("function"),
+        COMMAND("command"),
+        AUTOCMD("autocmd");
+
+        private final String name;
+
+        Type(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @return name of type as used in host protocol
+         */
+        public String getName() {
+            return name;
+        }
+
+        static Type fromName(String name) {
+            for (Type type : values()) {
+                if (type.name.equals(name)) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unknown handler type: " + name);
+        }
+    }
+
+    private final String pluginClassName;
+    private final Type type;
+    private final String name;
+    private final boolean sync;
+    private final String methodName;
+    private final boolean acceptsArguments;
+    private final Map<String, Object> options;
+
+    /**
+     * Creates a new {@link HandlerSpec}
+     * @param pluginClassName binary name of plugin class
+     * @param type type of handler
+     * @param name name of function or command, or event of autocommand
+     * @param sync true if neovim waits for the handler
+     * @param methodName name of method handling calls
+     * @param acceptsArguments true if method accepts a list of arguments
+     * @param options options of handler, such as {@code nargs} or {@code pattern}
+     * @throws NullPointerException if any of the arguments is null
+     */
+    public HandlerSpec(String pluginClassName, Type type, String name, boolean sync, String methodName,
+                       boolean acceptsArguments, Map<String, ?> options) {
+        this.pluginClassName = Objects.requireNonNull(pluginClassName, "pluginClassName is required");
+        this.type = Objects.requireNonNull(type, "type is required");
+        this.name = Objects.requireNonNull(name, "name is required");
+        this.sync = sync;
+        this.methodName = Objects.requireNonNull(methodName, "methodName is required");
+        this.acceptsArguments = acceptsArguments;
+        this.options = Collections.unmodifiableMap(new LinkedHashMap<>(
+                Objects.requireNonNull(options, "options are required")));
+    }
+
+    /**
+     * Parses a spec line
+     * @param line line in the format written by {@link #toLine()}
+     * @return parsed spec
+     * @throws IllegalArgumentException if line is not valid
+     */
+    public static HandlerSpec parse(String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length < 6) {
+            throw new IllegalArgumentException("Invalid handler spec: " + line);
+        }
+        Map<String, Object> options = new LinkedHashMap<>();
+        for (int i = 6; i < fields.length; i++) {
+            int separator = fields[i].indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid handler spec option: " + fields[i]);
+            }
+            String key = unescape(fields[i].substring(0, separator));
+            String value = unescape(fields[i].substring(separator + 1));
+            options.put(key, BOOLEAN_OPTIONS.contains(key) ? (Object) Boolean.valueOf(value) : value);
+        }
+        return new HandlerSpec(
+                unescape(fields[0]),
+                Type.fromName(fields[1]),
+                unescape(fields[2]),
+                "1".equals(fields[3]),
+                unescape(fields[4]),
+                "1".equals(fields[5]),
+                options
+        );
+    }
+
+    /**
+     * @return spec as a single line, which can be parsed by {@link #parse(String)}
+     */
+    public String toLine() {
+        StringJoiner line = new StringJoiner("\t");
+        line.add(escape(pluginClassName))
+                .add(type.getName())
+                .add(escape(name))
+                .add(sync ? "1" : "0")
+                .add(escape(methodName))
+                .add(acceptsArguments ? "1" : "0");
+        for (Map.Entry<String, Object> option : options.entrySet()) {
+            line.add(escape(option.getKey()) + "=" + escape(String.valueOf(option.getValue())));
+        }
+        return line.toString();
+    }
+
+    /**
+     * Creates spec in the format expected by neovim as a response to {@code specs} request
+     * @return spec with type, name, sync and opts entries
+     */
+    public Map<String, Object> toSpec() {
+        Map<String, Object> spec = new LinkedHashMap<>();
+        spec.put("type", type.getName());
+        spec.put("name", name);
+        spec.put("sync", sync);
+        spec.put("opts", options);
+        return spec;
+    }
+
+    /**
+     * Name of RPC method neovim uses to call this handler, without the plugin path prefix
+     * Autocommands are identified by both event and pattern
+     * @return name of RPC method, relative to the plugin path
+     */
+    public String getMethod() {
+        if (type == Type.AUTOCMD) {
+            return type.getName() + ":" + name + ":" + options.getOrDefault("pattern", "*");
+        }
+        return type.getName() + ":" + name;
+    }
+
+    public String getPluginClassName() {
+        return pluginClassName;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isSync() {
+        return sync;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public boolean acceptsArguments() {
+        return acceptsArguments;
+    }
+
+    public Map<String, Object> getOptions() {
+        return options;
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                result.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        HandlerSpec that = (HandlerSpec) o;
+        return sync == that.sync &&
+                acceptsArguments == that.acceptsArguments &&
+                Objects.equals(pluginClassName, that.pluginClassName) &&
+                type == that.type &&
+                Objects.equals(name, that.name) &&
+                Objects.equals(methodName, that.methodName) &&
+                Objects.equals(options, that.options);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(pluginClassName, type, name, sync, methodName, acceptsArguments, options);
+    }
+
+    @Override
+    public String toString() {
+        return "HandlerSpec{" +
+                "pluginClassName='" + pluginClassName + '\'' +
+                ", type=" + type +
+                ", name='" + name + '\'' +
+                ", sync=" + sync +
+                ", methodName='" + methodName + '\'' +
+                ", acceptsArguments=" + acceptsArguments +
+                ", options=" + options +
+                '}';
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.pluginhost;
+
+import com.ensarsarajcic.neovim.java.corerpc.client.RPCStreamer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A single plugin, identified by its path (a jar or a directory of classes)
+ * <p>
+ * Everything is done lazily: class loader is created and registry is read on first use, and each plugin class is
+ * loaded and instantiated only once one of its handlers is called
+ */
+final class Plugin {
+    private static final Logger log = LoggerFactory.getLogger(Plugin.class);
+
+    private static final MethodType WITH_ARGUMENTS = MethodType.methodType(Object.class, List.class);
+    private static final MethodType WITHOUT_ARGUMENTS = MethodType.methodType(Object.class);
+
+    private final String path;
+    private final RPCStreamer rpcStreamer;
+    // guarded by this
+    private URLClassLoader classLoader;
+    private PluginRegistry registry;
+    private final Map<String, Object> instances = new HashMap<>();
+    private final Map<HandlerSpec, MethodHandle> invokers = new HashMap<>();
+
+    Plugin(String path, RPCStreamer rpcStreamer) {
+        this.path = path;
+        this.rpcStreamer = rpcStreamer;
+    }
+
+    String getPath() {
+        return path;
+    }
+
+    synchronized PluginRegistry getRegistry() {
+        if (registry == null) {
+            try {
+                registry = PluginRegistry.read(getClassLoader().findResources(PluginRegistry.RESOURCE_NAME));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read registry of plugin " + path, e);
+            }
+            log.info("Read registry of plugin {}: {}", path, registry);
+        }
+        return registry;
+    }
+
+    /**
+     * Calls given handler, loading its plugin class if it is the first call
+     * @param handler handler to call
+     * @param arguments arguments passed by neovim
+     * @return value returned by handler, or null for void handlers
+     * @throws Throwable anything handler throws, or errors related to loading the plugin class
+     */
+    Object invoke(HandlerSpec handler, List<?> arguments) throws Throwable {
+        MethodHandle invoker = getInvoker(handler);
+        if (handler.acceptsArguments()) {
+            return (Object) invoker.invokeExact((List) arguments);
+        }
+        return (Object) invoker.invokeExact();
+    }
+
+    private synchronized MethodHandle getInvoker(HandlerSpec handler) throws ReflectiveOperationException {
+        MethodHandle invoker = invokers.get(handler);
+        if (invoker == null) {
+            Object instance = getInstance(handler.getPluginClassName());
+            Method method = handler.acceptsArguments()
+                    ? instance.getClass().getMethod(handler.getMethodName(), List.class)
+                    : instance.getClass().getMethod(handler.getMethodName());
+            invoker = MethodHandles.publicLookup().unreflect(method).bindTo(instance)
+                    .asType(handler.acceptsArguments() ? WITH_ARGUMENTS : WITHOUT_ARGUMENTS);
+            invokers.put(handler, invoker);
+        }
+        return invoker;
+    }
+
+    private Object getInstance(String className) throws ReflectiveOperationException {
+        Object instance = instances.get(className);
+        if (instance == null) {
+            long start = System.nanoTime();
+            Class<?> type = Class.forName(className, true, getClassLoader());
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            MethodHandle constructor;
+            try {
+                // Plugins which need to talk to neovim get the streamer
+                constructor = MethodHandles.insertArguments(
+                        lookup.findConstructor(type, MethodType.methodType(void.class, RPCStreamer.class)), 0, rpcStreamer);
+            } catch (NoSuchMethodException e) {
+                constructor = lookup.findConstructor(type, MethodType.methodType(void.class));
+            }
+            try {
+                instance = constructor.invoke();
+            } catch (Throwable throwable) {
+                throw new InvocationTargetException(throwable, "Failed to create plugin " + className);
+            }
+            instances.put(className, instance);
+            log.info("Loaded plugin {} from {} in {} ms", className, path, (System.nanoTime() - start) / 1_000_000);
+        }
+        return instance;
+    }
+
+    private URLClassLoader getClassLoader() {
+        if (classLoader == null) {
+            try {
+                classLoader = new URLClassLoader(new URL[]{Paths.get(path).toUri().toURL()},
+                        Plugin.class.getClassLoader());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Invalid plugin path " + path, e);
+            }
+        }
+        return classLoader;
+    }
+
+    @Override
+    public String toString() {
+        return "Plugin{" +
+                "path='" + path + '\'' +
+                '}';
+    }
+}
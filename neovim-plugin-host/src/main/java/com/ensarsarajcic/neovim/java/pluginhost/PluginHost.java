@@ -0,0 +1,227 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.pluginhost;
+
+import com.ensarsarajcic.neovim.java.corerpc.client.RPCClient;
+import com.ensarsarajcic.neovim.java.corerpc.client.RPCConnection;
+import com.ensarsarajcic.neovim.java.corerpc.client.RPCListener;
+import com.ensarsarajcic.neovim.java.corerpc.client.RPCStreamer;
+import com.ensarsarajcic.neovim.java.corerpc.message.NotificationMessage;
+import com.ensarsarajcic.neovim.java.corerpc.message.RPCError;
+import com.ensarsarajcic.neovim.java.corerpc.message.RequestMessage;
+import com.ensarsarajcic.neovim.java.corerpc.message.ResponseMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Remote plugin host for plugins written in Java
+ * <p>
+ * Neovim starts the host with paths of plugins (jars or directories of classes, found in {@code rplugin/java})
+ * as arguments and talks to it over standard input and output. Host serves the remote plugin host protocol:
+ * <ul>
+ *     <li>{@code poll} is answered with {@code ok}, once host is ready</li>
+ *     <li>{@code specs} is answered with functions, commands and autocommands of the plugin at given path</li>
+ *     <li>{@code path:type:name} requests and notifications are calls of plugin handlers</li>
+ * </ul>
+ * <p>
+ * Host is built to start fast, since it is started together with the editor. It only depends on core RPC module,
+ * plugins are described by registries generated at compile time (see {@link PluginRegistry}), so answering
+ * {@code specs} doesn't load plugin classes, and each plugin class is loaded and instantiated on the first call
+ * of one of its handlers
+ * <p>
+ * Handlers are called one by one, on a separate thread, so they may call neovim and wait for responses
+ * <p>
+ * Example:
+ * <pre>
+ *     {@code
+ *     // Usually started by neovim, by running PluginHost main class
+ *     PluginHost pluginHost = new PluginHost(rpcStreamer, List.of("/path/to/plugin.jar"));
+ *     pluginHost.start(new StdioRPCConnection());
+ *     }
+ * </pre>
+ */
+public final class PluginHost implements RPCListener.RequestCallback, RPCListener.NotificationCallback {
+    private static final Logger log = LoggerFactory.getLogger(PluginHost.class);
+
+    public static final String NAME = "java-plugin-host";
+
+    private final RPCStreamer rpcStreamer;
+    private final Executor executor;
+    private final Map<String, Plugin> plugins = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new {@link PluginHost} calling handlers on a dedicated thread
+     * @param rpcStreamer streamer used to talk to neovim
+     * @param pluginPaths paths of plugins
+     * @throws NullPointerException if any of the arguments is null
+     */
+    public PluginHost(RPCStreamer rpcStreamer, List<String> pluginPaths) {
+        this(rpcStreamer, pluginPaths, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, NAME);
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    /**
+     * Creates a new {@link PluginHost}
+     * @param rpcStreamer streamer used to talk to neovim
+     * @param pluginPaths paths of plugins
+     * @param executor executor calling handlers, which should not be the thread reading messages, if handlers call
+     *                 neovim and wait for responses
+     * @throws NullPointerException if any of the arguments is null
+     */
+    public PluginHost(RPCStreamer rpcStreamer, List<String> pluginPaths, Executor executor) {
+        Objects.requireNonNull(rpcStreamer, "rpcStreamer is required to talk to neovim");
+        Objects.requireNonNull(pluginPaths, "pluginPaths are required");
+        Objects.requireNonNull(executor, "executor is required to call handlers");
+        this.rpcStreamer = rpcStreamer;
+        this.executor = executor;
+        for (String pluginPath : pluginPaths) {
+            plugins.put(pluginPath, new Plugin(pluginPath, rpcStreamer));
+        }
+    }
+
+    /**
+     * Starts the host with plugins passed as arguments, talking to neovim over standard input and output
+     * @param args paths of plugins
+     * @throws IOException if host fails to send client info
+     */
+    public static void main(String[] args) throws IOException {
+        new PluginHost(RPCClient.getDefaultAsyncInstance(), Arrays.asList(args)).start(new StdioRPCConnection());
+    }
+
+    /**
+     * Starts listening for requests and notifications on given connection and sends client info to neovim
+     * @param rpcConnection connection to neovim
+     * @throws IOException if sending client info fails
+     */
+    public void start(RPCConnection rpcConnection) throws IOException {
+        log.info("Starting plugin host with plugins: {}", plugins.keySet());
+        rpcStreamer.addRequestCallback(this);
+        rpcStreamer.addNotificationCallback(this);
+        rpcStreamer.attach(rpcConnection);
+        sendClientInfo();
+    }
+
+    private void sendClientInfo() throws IOException {
+        Map<String, Object> methods = new HashMap<>();
+        methods.put("poll", Map.of());
+        methods.put("specs", Map.of("nargs", 1));
+        rpcStreamer.send(new RequestMessage.Builder("nvim_set_client_info")
+                .addArgument(NAME)
+                .addArgument(Map.of())
+                .addArgument("host")
+                .addArgument(methods)
+                .addArgument(Map.of()));
+    }
+
+    /**
+     * Creates response to {@code specs} request
+     * @param pluginPath path of plugin
+     * @return specs of all handlers of the plugin
+     */
+    public List<Map<String, Object>> getSpecs(String pluginPath) {
+        // Neovim may ask for plugins host was not started with, when updating remote plugins
+        Plugin plugin = plugins.computeIfAbsent(pluginPath, path -> new Plugin(path, rpcStreamer));
+        List<Map<String, Object>> specs = new ArrayList<>();
+        for (HandlerSpec handler : plugin.getRegistry().getHandlers()) {
+            specs.add(handler.toSpec());
+        }
+        return specs;
+    }
+
+    @Override
+    public void requestReceived(RequestMessage requestMessage) {
+        log.debug("Received a request: {}", requestMessage);
+        switch (requestMessage.getMethod()) {
+            case "poll":
+                respond(requestMessage, new ResponseMessage.Builder("ok"));
+                break;
+            case "specs":
+                try {
+                    respond(requestMessage, new ResponseMessage.Builder(
+                            getSpecs(String.valueOf(requestMessage.getArguments().get(0)))));
+                } catch (RuntimeException e) {
+                    log.error("Failed to read specs", e);
+                    respond(requestMessage, new ResponseMessage.Builder(toRPCError(e)));
+                }
+                break;
+            default:
+                executor.execute(() -> {
+                    try {
+                        respond(requestMessage, new ResponseMessage.Builder(
+                                call(requestMessage.getMethod(), requestMessage.getArguments())));
+                    } catch (Throwable throwable) {
+                        log.error("Failed to handle request " + requestMessage.getMethod(), throwable);
+                        respond(requestMessage, new ResponseMessage.Builder(toRPCError(throwable)));
+                    }
+                });
+        }
+    }
+
+    @Override
+    public void notificationReceived(NotificationMessage notificationMessage) {
+        log.debug("Received a notification: {}", notificationMessage);
+        executor.execute(() -> {
+            try {
+                call(notificationMessage.getName(), notificationMessage.getArguments());
+            } catch (Throwable throwable) {
+                log.error("Failed to handle notification " + notificationMessage.getName(), throwable);
+            }
+        });
+    }
+
+    private Object call(String method, List<?> arguments) throws Throwable {
+        for (Plugin plugin : plugins.values()) {
+            String prefix = plugin.getPath() + ":";
+            if (method.startsWith(prefix)) {
+                HandlerSpec handler = plugin.getRegistry().getHandler(method.substring(prefix.length()));
+                if (handler != null) {
+                    return plugin.invoke(handler, arguments);
+                }
+            }
+        }
+        throw new IllegalArgumentException("No handler found for " + method);
+    }
+
+    private void respond(RequestMessage requestMessage, ResponseMessage.Builder responseMessage) {
+        try {
+            rpcStreamer.send(responseMessage.withId(requestMessage.getId()).build());
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to respond to request " + requestMessage.getMethod(), e);
+        }
+    }
+
+    private static RPCError toRPCError(Throwable throwable) {
+        return new RPCError(0, throwable.getMessage() != null ? throwable.getMessage() : throwable.toString());
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.pluginhost;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Handlers provided by plugins, read from registries generated at compile time
+ * <p>
+ * Registries are plain text resources named {@link #RESOURCE_NAME}, holding one {@link HandlerSpec} per line, so
+ * reading them is cheap and doesn't require loading any plugin class
+ */
+public final class PluginRegistry {
+
+    /**
+     * Name of registry resource generated by {@link com.ensarsarajcic.neovim.java.pluginhost.processor.PluginRegistryProcessor}
+     */
+    public static final String RESOURCE_NAME = "META-INF/neovim-plugin-host/handlers";
+
+    private final List<HandlerSpec> handlers;
+    private final Map<String, HandlerSpec> handlersByMethod;
+
+    /**
+     * Creates a new {@link PluginRegistry} with given handlers
+     * @param handlers handlers of plugins
+     * @throws IllegalArgumentException if multiple handlers are registered for the same method
+     */
+    public PluginRegistry(List<HandlerSpec> handlers) {
+        this.handlers = List.copyOf(handlers);
+        Map<String, HandlerSpec> handlersByMethod = new HashMap<>();
+        for (HandlerSpec handler : handlers) {
+            if (handlersByMethod.putIfAbsent(handler.getMethod(), handler) != null) {
+                throw new IllegalArgumentException("Multiple handlers registered for " + handler.getMethod());
+            }
+        }
+        this.handlersByMethod = Collections.unmodifiableMap(handlersByMethod);
+    }
+
+    /**
+     * Reads registries from given resources
+     * @param resources registry resources
+     * @return registry of all handlers found in given resources
+     * @throws IOException if resources can't be read
+     * @throws IllegalArgumentException if resources are not valid
+     */
+    public static PluginRegistry read(Enumeration<URL> resources) throws IOException {
+        List<HandlerSpec> handlers = new ArrayList<>();
+        while (resources.hasMoreElements()) {
+            try (InputStream inputStream = resources.nextElement().openStream()) {
+                handlers.addAll(read(inputStream));
+            }
+        }
+        return new PluginRegistry(handlers);
+    }
+
+    /**
+     * Reads a single registry
+     * @param inputStream stream of registry resource
+     * @return handlers found in the registry
+     * @throws IOException if stream can't be read
+     * @throws IllegalArgumentException if registry is not valid
+     */
+    public static List<HandlerSpec> read(InputStream inputStream) throws IOException {
+        List<HandlerSpec> handlers = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.isEmpty()) {
+                handlers.add(HandlerSpec.parse(line));
+            }
+        }
+        return handlers;
+    }
+
+    public List<HandlerSpec> getHandlers() {
+        return handlers;
+    }
+
+    /**
+     * @param method name of RPC method, relative to the plugin path, as returned by {@link HandlerSpec#getMethod()}
+     * @return handler of given method, or null if there is none
+     */
+    public HandlerSpec getHandler(String method) {
+        return handlersByMethod.get(method);
+    }
+
+    @Override
+    public String toString() {
+        return "PluginRegistry{" +
+                "handlers=" + handlers +
+                '}';
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.pluginhost;
+
+import com.ensarsarajcic.neovim.java.corerpc.client.RPCConnection;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Objects;
+
+/**
+ * Implementation of {@link RPCConnection} over standard input and output of current process
+ * <p>
+ * This is how neovim talks to processes it starts as plugin hosts (using {@code jobstart} with {@code rpc} option)
+ * While this connection is used, nothing else may be written to standard output, so logging needs to go elsewhere
+ */
+public final class StdioRPCConnection implements RPCConnection {
+
+    private final InputStream inputStream;
+    private final OutputStream outputStream;
+
+    /**
+     * Creates a new {@link StdioRPCConnection} using {@link System#in} and {@link System#out}
+     */
+    public StdioRPCConnection() {
+        this(System.in, System.out);
+    }
+
+    /**
+     * Creates a new {@link StdioRPCConnection} using given streams
+     * @param inputStream stream to read incoming messages from
+     * @param outputStream stream to write outgoing messages to
+     * @throws NullPointerException if any of the streams is null
+     */
+    public StdioRPCConnection(InputStream inputStream, OutputStream outputStream) {
+        Objects.requireNonNull(inputStream, "inputStream is required to receive messages");
+        Objects.requireNonNull(outputStream, "outputStream is required to send messages");
+        this.inputStream = inputStream;
+        this.outputStream = outputStream;
+    }
+
+    @Override
+    public InputStream getIncomingStream() {
+        return inputStream;
+    }
+
+    @Override
+    public OutputStream getOutgoingStream() {
+        return outputStream;
+    }
+
+    /**
+     * No-op, standard streams are left open
+     */
+    @Override
+    public void close() throws IOException {
+    }
+
+    @Override
+    public String toString() {
+        return "StdioRPCConnection{}";
+    }
+}
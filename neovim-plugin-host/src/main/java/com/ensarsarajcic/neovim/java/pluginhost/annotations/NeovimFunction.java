@@ -0,0 +1,63 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.pluginhost.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Annotation used to mark a method of a plugin as a neovim function
+ * Calling the function in neovim (after {@code :UpdateRemotePlugins}) calls this method on the plugin host
+ * <p>
+ * Method needs to be public and accept either no arguments or a single {@link java.util.List} of arguments passed
+ * by neovim. For sync functions, its return value is returned to neovim.
+ * Annotations are read at compile time, by the annotation processor of this module, so plugins don't have to be
+ * loaded to tell neovim which functions they provide
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.METHOD)
+public @interface NeovimFunction {
+    /**
+     * Name of function, which needs to start with an uppercase letter
+     *
+     * @return name of function
+     */
+    String value();
+
+    /**
+     * @return true if neovim should wait for the result of the function
+     */
+    boolean sync() default false;
+
+    /**
+     * @return true if function accepts a range
+     */
+    boolean range() default false;
+
+    /**
+     * @return vim expression evaluated on call, passed as the last argument
+     */
+    String eval() default "";
+}
@@ -0,0 +1,222 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.pluginhost.processor;
+
+import com.ensarsarajcic.neovim.java.pluginhost.HandlerSpec;
+import com.ensarsarajcic.neovim.java.pluginhost.PluginRegistry;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Annotation processor generating {@link PluginRegistry} of plugins, from methods annotated with
+ * {@link com.ensarsarajcic.neovim.java.pluginhost.annotations.NeovimFunction},
+ * {@link com.ensarsarajcic.neovim.java.pluginhost.annotations.NeovimCommand} and
+ * {@link com.ensarsarajcic.neovim.java.pluginhost.annotations.NeovimAutocommand}
+ * <p>
+ * It is picked up automatically by javac when this module is on the classpath (or processor path)
+ * Registry is written to {@link PluginRegistry#RESOURCE_NAME} once all classes are processed, so all plugin classes
+ * of a jar need to be compiled together
+ * <p>
+ * Invalid plugins (non public classes or methods, wrong parameters...) are reported as compilation errors, instead
+ * of failing once neovim calls them
+ */
+@SupportedAnnotationTypes({
+        PluginRegistryProcessor.FUNCTION,
+        PluginRegistryProcessor.COMMAND,
+        PluginRegistryProcessor.AUTOCOMMAND
+})
+public final class PluginRegistryProcessor extends AbstractProcessor {
+
+    static final String FUNCTION = "com.ensarsarajcic.neovim.java.pluginhost.annotations.NeovimFunction";
+    static final String COMMAND = "com.ensarsarajcic.neovim.java.pluginhost.annotations.NeovimCommand";
+    static final String AUTOCOMMAND = "com.ensarsarajcic.neovim.java.pluginhost.annotations.NeovimAutocommand";
+
+    private final List<HandlerSpec> handlers = new ArrayList<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            String annotationName = annotation.getQualifiedName().toString();
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.METHOD) {
+                    continue;
+                }
+                HandlerSpec handler = createHandler((ExecutableElement) element, annotationName);
+                if (handler != null) {
+                    handlers.add(handler);
+                }
+            }
+        }
+        if (roundEnv.processingOver() && !handlers.isEmpty()) {
+            writeRegistry();
+        }
+        return false;
+    }
+
+    private HandlerSpec createHandler(ExecutableElement method, String annotationName) {
+        TypeElement pluginType = (TypeElement) method.getEnclosingElement();
+        if (!isAccessible(pluginType)) {
+            error(method, "Plugin class " + pluginType + " needs to be public and static if nested");
+            return null;
+        }
+        if (!method.getModifiers().contains(Modifier.PUBLIC) || method.getModifiers().contains(Modifier.STATIC)) {
+            error(method, "Plugin method " + method + " needs to be a public instance method");
+            return null;
+        }
+        List<? extends VariableElement> parameters = method.getParameters();
+        TypeMirror list = processingEnv.getTypeUtils().erasure(
+                processingEnv.getElementUtils().getTypeElement(List.class.getName()).asType());
+        boolean acceptsArguments = parameters.size() == 1
+                && processingEnv.getTypeUtils().isSameType(
+                processingEnv.getTypeUtils().erasure(parameters.get(0).asType()), list);
+        if (!parameters.isEmpty() && !acceptsArguments) {
+            error(method, "Plugin method " + method + " needs to accept no arguments or a single List");
+            return null;
+        }
+
+        AnnotationMirror annotation = findAnnotation(method, annotationName);
+        String pluginClassName = processingEnv.getElementUtils().getBinaryName(pluginType).toString();
+        String name = (String) getValue(annotation, "value");
+        boolean sync = (Boolean) getValue(annotation, "sync");
+        Map<String, Object> options = new LinkedHashMap<>();
+        HandlerSpec.Type type;
+        switch (annotationName) {
+            case FUNCTION:
+                type = HandlerSpec.Type.FUNCTION;
+                putIf(options, "range", "", (Boolean) getValue(annotation, "range"));
+                putIfNotEmpty(options, "eval", (String) getValue(annotation, "eval"));
+                break;
+            case COMMAND:
+                type = HandlerSpec.Type.COMMAND;
+                String nargs = (String) getValue(annotation, "nargs");
+                putIf(options, "nargs", nargs, !"0".equals(nargs));
+                putIf(options, "range", "", (Boolean) getValue(annotation, "range"));
+                putIfNotEmpty(options, "count", (String) getValue(annotation, "count"));
+                putIf(options, "bang", true, (Boolean) getValue(annotation, "bang"));
+                putIf(options, "register", true, (Boolean) getValue(annotation, "register"));
+                putIfNotEmpty(options, "complete", (String) getValue(annotation, "complete"));
+                putIfNotEmpty(options, "eval", (String) getValue(annotation, "eval"));
+                break;
+            default:
+                type = HandlerSpec.Type.AUTOCMD;
+                options.put("pattern", getValue(annotation, "pattern"));
+                putIfNotEmpty(options, "eval", (String) getValue(annotation, "eval"));
+                break;
+        }
+        if (type != HandlerSpec.Type.AUTOCMD && (name.isEmpty() || !Character.isUpperCase(name.charAt(0)))) {
+            error(method, "Name of " + type.getName() + " needs to start with an uppercase letter: " + name);
+            return null;
+        }
+        return new HandlerSpec(pluginClassName, type, name, sync, method.getSimpleName().toString(),
+                acceptsArguments, options);
+    }
+
+    private void writeRegistry() {
+        try {
+            FileObject resource = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", PluginRegistry.RESOURCE_NAME);
+            try (Writer writer = new OutputStreamWriter(resource.openOutputStream(), StandardCharsets.UTF_8)) {
+                for (HandlerSpec handler : handlers) {
+                    writer.write(handler.toLine());
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to write plugin registry: " + e.getMessage());
+        }
+    }
+
+    private static boolean isAccessible(TypeElement type) {
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return false;
+        }
+        for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            Set<Modifier> modifiers = element.getModifiers();
+            if (!modifiers.contains(Modifier.PUBLIC)) {
+                return false;
+            }
+            if (((TypeElement) element).getNestingKind().isNested() && !modifiers.contains(Modifier.STATIC)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void putIf(Map<String, Object> options, String key, Object value, boolean condition) {
+        if (condition) {
+            options.put(key, value);
+        }
+    }
+
+    private static void putIfNotEmpty(Map<String, Object> options, String key, String value) {
+        putIf(options, key, value, !value.isEmpty());
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private static AnnotationMirror findAnnotation(Element element, String annotationType) {
+        for (AnnotationMirror annotationMirror : element.getAnnotationMirrors()) {
+            TypeElement type = (TypeElement) annotationMirror.getAnnotationType().asElement();
+            if (type.getQualifiedName().contentEquals(annotationType)) {
+                return annotationMirror;
+            }
+        }
+        throw new IllegalStateException("Missing annotation " + annotationType + " on " + element);
+    }
+
+    /**
+     * Gets value of annotation element, including default values
+     */
+    private Object getValue(AnnotationMirror annotationMirror, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : processingEnv.getElementUtils().getElementValuesWithDefaults(annotationMirror).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        throw new IllegalStateException("Missing annotation value " + name);
+    }
+}
@@ -0,0 +1,11 @@
+module neovimpluginhost {
+    exports com.ensarsarajcic.neovim.java.pluginhost;
+    exports com.ensarsarajcic.neovim.java.pluginhost.annotations;
+
+    provides javax.annotation.processing.Processor
+            with com.ensarsarajcic.neovim.java.pluginhost.processor.PluginRegistryProcessor;
+
+    requires transitive corerpc;
+    requires static java.compiler;
+    requires slf4j.api;
+}
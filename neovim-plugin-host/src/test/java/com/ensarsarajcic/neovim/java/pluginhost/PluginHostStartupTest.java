@@ -0,0 +1,150 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.pluginhost;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Startup benchmark of the plugin host, run as part of the build
+ * <p>
+ * Starts the host in a new JVM, the way neovim does, and measures time until it answers {@code poll} and
+ * {@code specs} requests. Host is started a few times and the fastest start has to fit into the budget, which
+ * filters out noise of a busy machine, while still catching startup regressions (such as classpath scanning
+ * or eager initialization coming back)
+ * <p>
+ * Budget and number of starts can be changed using {@code pluginhost.startupBudgetMs} and
+ * {@code pluginhost.startupRuns} system properties, for example
+ * {@code mvn test -Dpluginhost.startupBudgetMs=3000} on slow machines
+ */
+public class PluginHostStartupTest {
+
+    private static final long STARTUP_BUDGET_MS = Long.getLong("pluginhost.startupBudgetMs", 1_500);
+    private static final int STARTUP_RUNS = Integer.getInteger("pluginhost.startupRuns", 3);
+    // Only guards against a host which never answers, budget is checked separately
+    private static final long HANG_TIMEOUT_MS = 30_000;
+
+    @Test
+    public void answersPollAndSpecsWithinStartupBudget() throws Exception {
+        long fastestMs = Long.MAX_VALUE;
+        List<Long> startups = new ArrayList<>();
+        for (int i = 0; i < STARTUP_RUNS; i++) {
+            long elapsedMs = measureStartup();
+            startups.add(elapsedMs);
+            fastestMs = Math.min(fastestMs, elapsedMs);
+        }
+
+        System.out.println("Plugin host startup times (ms): " + startups + ", budget: " + STARTUP_BUDGET_MS + " ms");
+        assertTrue("Plugin host answered poll and specs " + fastestMs + " ms after start at best, budget is "
+                        + STARTUP_BUDGET_MS + " ms (see pluginhost.startupBudgetMs)",
+                fastestMs <= STARTUP_BUDGET_MS);
+    }
+
+    private static long measureStartup() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper(new MessagePackFactory());
+        byte[] poll = objectMapper.writeValueAsBytes(List.of(0, 1, "poll", List.of()));
+        byte[] specs = objectMapper.writeValueAsBytes(List.of(0, 2, "specs", List.of(PluginHostTest.PLUGIN_PATH)));
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(hostCommand())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        try {
+            OutputStream outputStream = process.getOutputStream();
+            outputStream.write(poll);
+            outputStream.write(specs);
+            outputStream.flush();
+
+            Future<List<JsonNode>> responses = reader.submit(() -> readResponses(objectMapper, process.getInputStream()));
+            List<JsonNode> result = responses.get(HANG_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+            assertEquals("ok", result.get(0).get(3).asText());
+            assertEquals(4, result.get(1).get(3).size());
+            return elapsedMs;
+        } finally {
+            reader.shutdownNow();
+            process.destroyForcibly();
+        }
+    }
+
+    private static List<JsonNode> readResponses(ObjectMapper objectMapper, InputStream inputStream) throws Exception {
+        List<JsonNode> responses = new ArrayList<>();
+        var parser = objectMapper.getFactory().createParser(inputStream);
+        while (responses.size() < 2) {
+            JsonNode message = objectMapper.readTree(parser);
+            if (message == null) {
+                throw new IllegalStateException("Plugin host exited before responding");
+            }
+            // Skip nvim_set_client_info request
+            if (message.get(0).asInt() == 1) {
+                responses.add(message);
+            }
+        }
+        return responses;
+    }
+
+    private static List<String> hostCommand() {
+        // Host runs on the classpath, just like neovim starts it, without test classes (plugins are loaded from
+        // plugin path only)
+        List<String> classPath = new ArrayList<>();
+        for (String property : List.of("jdk.module.path", "java.class.path")) {
+            String value = System.getProperty(property);
+            if (value == null || value.isEmpty()) {
+                continue;
+            }
+            for (String entry : value.split(File.pathSeparator)) {
+                if (!entry.endsWith("test-classes") && !classPath.contains(entry)) {
+                    classPath.add(entry);
+                }
+            }
+        }
+        String mainClasses = Paths.get("target", "classes").toAbsolutePath().toString();
+        if (!classPath.contains(mainClasses)) {
+            classPath.add(mainClasses);
+        }
+
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(String.join(File.pathSeparator, classPath));
+        command.add(PluginHost.class.getName());
+        command.add(PluginHostTest.PLUGIN_PATH);
+        return command;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.pluginhost;
+
+import com.ensarsarajcic.neovim.java.corerpc.client.RPCStreamer;
+import com.ensarsarajcic.neovim.java.corerpc.message.NotificationMessage;
+import com.ensarsarajcic.neovim.java.corerpc.message.RequestMessage;
+import com.ensarsarajcic.neovim.java.corerpc.message.ResponseMessage;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.file.Paths;
+import java.util.*;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class PluginHostTest {
+
+    static final String PLUGIN_PATH = Paths.get("target", "test-classes").toAbsolutePath().toString();
+
+    private RPCStreamer rpcStreamer;
+    private PluginHost pluginHost;
+
+    @Before
+    public void setUp() {
+        rpcStreamer = mock(RPCStreamer.class);
+        pluginHost = new PluginHost(rpcStreamer, List.of(PLUGIN_PATH), Runnable::run);
+        TestPlugin.CALLS.clear();
+    }
+
+    @Test
+    public void respondsToPoll() throws Exception {
+        pluginHost.requestReceived(new RequestMessage.Builder("poll").withId(1).build());
+
+        assertEquals("ok", captureResponse().getResult());
+    }
+
+    @Test
+    public void respondsToSpecsWithoutLoadingPlugins() throws Exception {
+        int instances = TestPlugin.INSTANCES.get();
+
+        pluginHost.requestReceived(new RequestMessage.Builder("specs").addArgument(PLUGIN_PATH).withId(2).build());
+
+        List<?> specs = (List<?>) captureResponse().getResult();
+        assertEquals(4, specs.size());
+        Map<String, Object> add = new LinkedHashMap<>();
+        add.put("type", "function");
+        add.put("name", "Add");
+        add.put("sync", true);
+        add.put("opts", Map.of());
+        assertTrue(specs.contains(add));
+        Map<String, Object> hello = new LinkedHashMap<>();
+        hello.put("type", "command");
+        hello.put("name", "Hello");
+        hello.put("sync", false);
+        hello.put("opts", Map.of("nargs", "*", "bang", true));
+        assertTrue(specs.contains(hello));
+        assertEquals(instances, TestPlugin.INSTANCES.get());
+    }
+
+    @Test
+    public void callsPluginsLazilyAndOnce() throws Exception {
+        int instances = TestPlugin.INSTANCES.get();
+
+        pluginHost.requestReceived(new RequestMessage.Builder(PLUGIN_PATH + ":function:Add")
+                .addArgument(List.of(2, 3)).withId(3).build());
+        pluginHost.notificationReceived(new NotificationMessage.Builder(PLUGIN_PATH + ":command:Hello")
+                .addArgument(List.of("world")).build());
+        pluginHost.notificationReceived(new NotificationMessage.Builder(PLUGIN_PATH + ":autocmd:BufEnter:*.java").build());
+
+        assertEquals(5, captureResponse().getResult());
+        assertEquals(Arrays.asList("Hello [[world]]", "BufEnter"), TestPlugin.CALLS);
+        assertEquals(instances + 1, TestPlugin.INSTANCES.get());
+    }
+
+    @Test
+    public void respondsWithErrors() throws Exception {
+        pluginHost.requestReceived(new RequestMessage.Builder(PLUGIN_PATH + ":function:Fail").withId(4).build());
+        assertEquals("failed", captureResponse().getError().getMessage());
+
+        reset(rpcStreamer);
+        pluginHost.requestReceived(new RequestMessage.Builder(PLUGIN_PATH + ":function:Missing").withId(5).build());
+        assertNotNull(captureResponse().getError());
+    }
+
+    @Test
+    public void roundTripsHandlerSpecs() {
+        HandlerSpec handlerSpec = new HandlerSpec("a.Plugin", HandlerSpec.Type.COMMAND, "Tab\there", true, "run",
+                true, Map.of("complete", "customlist,a\\b", "register", true));
+
+        assertEquals(handlerSpec, HandlerSpec.parse(handlerSpec.toLine()));
+        assertEquals("command:Tab\there", handlerSpec.getMethod());
+    }
+
+    private ResponseMessage captureResponse() throws Exception {
+        ArgumentCaptor<ResponseMessage> response = ArgumentCaptor.forClass(ResponseMessage.class);
+        verify(rpcStreamer).send(response.capture());
+        return response.getValue();
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.pluginhost;
+
+import com.ensarsarajcic.neovim.java.pluginhost.annotations.NeovimAutocommand;
+import com.ensarsarajcic.neovim.java.pluginhost.annotations.NeovimCommand;
+import com.ensarsarajcic.neovim.java.pluginhost.annotations.NeovimFunction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestPlugin {
+    static final AtomicInteger INSTANCES = new AtomicInteger();
+    static final List<String> CALLS = Collections.synchronizedList(new ArrayList<>());
+
+    public TestPlugin() {
+        INSTANCES.incrementAndGet();
+    }
+
+    @NeovimFunction(value = "Add", sync = true)
+    public int add(List<?> arguments) {
+        // Functions get their arguments as a single list
+        List<?> functionArguments = (List<?>) arguments.get(0);
+        return (Integer) functionArguments.get(0) + (Integer) functionArguments.get(1);
+    }
+
+    @NeovimCommand(value = "Hello", nargs = "*", bang = true)
+    public void hello(List<?> arguments) {
+        CALLS.add("Hello " + arguments);
+    }
+
+    @NeovimAutocommand(value = "BufEnter", pattern = "*.java")
+    public void bufEnter() {
+        CALLS.add("BufEnter");
+    }
+
+    @NeovimFunction(value = "Fail", sync = true)
+    public void fail() {
+        throw new IllegalStateException("failed");
+    }
+}
@@ -53,101 +53,101 @@ public final class NeovimBufferRxWrapper implements NeovimBufferRxApi {
 
     @Override
     public Single<Integer> getLineCount() {
-        return Single.fromFuture(neovimBufferApi.getLineCount());
+        return RxFutures.single(neovimBufferApi.getLineCount());
     }
 
     @Override
     public Single<List<String>> getLines(int start, int end, boolean strictIndexing) {
-        return Single.fromFuture(neovimBufferApi.getLines(start, end, strictIndexing));
+        return RxFutures.single(neovimBufferApi.getLines(start, end, strictIndexing));
     }
 
     @Override
     public Completable setLines(int start, int end, boolean strictIndexing, List<String> replacement) {
-        return Completable.fromFuture(neovimBufferApi.setLines(start, end, strictIndexing, replacement));
+        return RxFutures.completable(neovimBufferApi.setLines(start, end, strictIndexing, replacement));
     }
 
     @Override
     public Single<Object> getVar(String name) {
-        return Single.fromFuture(neovimBufferApi.getVar(name));
+        return RxFutures.single(neovimBufferApi.getVar(name));
     }
 
     @Override
     public Completable deleteVar(String name) {
-        return Completable.fromFuture(neovimBufferApi.deleteVar(name));
+        return RxFutures.completable(neovimBufferApi.deleteVar(name));
     }
 
     @Override
     public Completable setVar(String name, Object value) {
-        return Completable.fromFuture(neovimBufferApi.setVar(name, value));
+        return RxFutures.completable(neovimBufferApi.setVar(name, value));
     }
 
     @Override
     public Single<Object> getOption(String name) {
-        return Single.fromFuture(neovimBufferApi.getOption(name));
+        return RxFutures.single(neovimBufferApi.getOption(name));
     }
 
     @Override
     public Completable setOption(String name, Object value) {
-        return Completable.fromFuture(neovimBufferApi.setOption(name, value));
+        return RxFutures.completable(neovimBufferApi.setOption(name, value));
     }
 
     @Override
     public Single<Integer> getNumber() {
-        return Single.fromFuture(neovimBufferApi.getNumber());
+        return RxFutures.single(neovimBufferApi.getNumber());
     }
 
     @Override
     public Single<String> getName() {
-        return Single.fromFuture(neovimBufferApi.getName());
+        return RxFutures.single(neovimBufferApi.getName());
     }
 
     @Override
     public Completable setName(String name) {
-        return Completable.fromFuture(neovimBufferApi.setName(name));
+        return RxFutures.completable(neovimBufferApi.setName(name));
     }
 
     @Override
     public Single<Boolean> isValid() {
-        return Single.fromFuture(neovimBufferApi.isValid());
+        return RxFutures.single(neovimBufferApi.isValid());
     }
 
     @Override
     public Single<VimCoords> getMark(String name) {
-        return Single.fromFuture(neovimBufferApi.getMark(name));
+        return RxFutures.single(neovimBufferApi.getMark(name));
     }
 
     @Override
     public Single<Object> getChangedTick() {
-        return Single.fromFuture(neovimBufferApi.getChangedTick());
+        return RxFutures.single(neovimBufferApi.getChangedTick());
     }
 
     @Override
     public Single<List<VimKeyMap>> getKeymap(String mode) {
-        return Single.fromFuture(neovimBufferApi.getKeymap(mode));
+        return RxFutures.single(neovimBufferApi.getKeymap(mode));
     }
 
     @Override
     public Single<Integer> addHighlight(int srcId, String hlGroup, int line, int colStart, int colEnd) {
-        return Single.fromFuture(neovimBufferApi.addHighlight(srcId, hlGroup, line, colStart, colEnd));
+        return RxFutures.single(neovimBufferApi.addHighlight(srcId, hlGroup, line, colStart, colEnd));
     }
 
     @Override
     public Completable clearHighlight(int srcId, int lineStart, int lineEnd) {
-        return Completable.fromFuture(neovimBufferApi.clearHighlight(srcId, lineStart, lineEnd));
+        return RxFutures.completable(neovimBufferApi.clearHighlight(srcId, lineStart, lineEnd));
     }
 
     @Override
     public Single<Boolean> attach(boolean loadFullBufferOnStart, Map opts) {
-        return Single.fromFuture(neovimBufferApi.attach(loadFullBufferOnStart, opts));
+        return RxFutures.single(neovimBufferApi.attach(loadFullBufferOnStart, opts));
     }
 
     @Override
     public Single<Boolean> detach() {
-        return Single.fromFuture(neovimBufferApi.detach());
+        return RxFutures.single(neovimBufferApi.detach());
     }
 
     @Override
     public Single<Map<String, CommandInfo>> getCommands(GetCommandsOptions commandsOptions) {
-        return Single.fromFuture(neovimBufferApi.getCommands(commandsOptions));
+        return RxFutures.single(neovimBufferApi.getCommands(commandsOptions));
     }
 }
@@ -0,0 +1,73 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.rxapi;
+
+import com.ensarsarajcic.neovim.java.corerpc.message.NotificationMessage;
+import com.ensarsarajcic.neovim.java.notifications.buffer.BufferEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.NeovimRedrawEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+import io.reactivex.Flowable;
+
+import java.util.Collection;
+
+/**
+ * RxJava2 interface for notifications coming from neovim, same as
+ * {@link com.ensarsarajcic.neovim.java.notifications.NeovimNotificationHandler}, but passing down notifications
+ * using {@link Flowable}, with given {@link NotificationOverflow} strategy
+ * None of the returned flowables ever complete
+ */
+public interface NeovimNotificationRxApi {
+
+    /**
+     * Passes down {@link NeovimRedrawEvent} objects received
+     * @param overflow strategy used when subscriber can't keep up
+     * @return {@link Flowable} passing down ui events as they come
+     */
+    Flowable<NeovimRedrawEvent> uiEvents(NotificationOverflow overflow);
+
+    /**
+     * Passes down {@link NeovimRedrawEvent} objects received, containing only events of given types
+     * @param overflow strategy used when subscriber can't keep up
+     * @param eventTypes types of ui events to pass down
+     * @return {@link Flowable} passing down selected ui events as they come
+     * @throws IllegalArgumentException if any of the types is not a known ui event type
+     */
+    Flowable<NeovimRedrawEvent> uiEvents(NotificationOverflow overflow, Collection<Class<? extends UIEvent>> eventTypes);
+
+    /**
+     * Passes down {@link BufferEvent} objects received
+     * @param overflow strategy used when subscriber can't keep up
+     * @return {@link Flowable} passing down buffer events as they come
+     */
+    Flowable<BufferEvent> bufferEvents(NotificationOverflow overflow);
+
+    /**
+     * Passes down raw {@link NotificationMessage} objects with any of the given names
+     * @param overflow strategy used when subscriber can't keep up
+     * @param names names of notifications to pass down
+     * @return {@link Flowable} passing down matching notifications as they come
+     */
+    Flowable<NotificationMessage> notifications(NotificationOverflow overflow, String... names);
+}
@@ -0,0 +1,71 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.rxapi;
+
+import com.ensarsarajcic.neovim.java.corerpc.message.NotificationMessage;
+import com.ensarsarajcic.neovim.java.notifications.NeovimNotificationHandler;
+import com.ensarsarajcic.neovim.java.notifications.buffer.BufferEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.NeovimRedrawEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+import io.reactivex.Flowable;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+
+public final class NeovimNotificationRxWrapper implements NeovimNotificationRxApi {
+
+    private NeovimNotificationHandler neovimNotificationHandler;
+
+    public NeovimNotificationRxWrapper(NeovimNotificationHandler neovimNotificationHandler) {
+        Objects.requireNonNull(neovimNotificationHandler, "neovimNotificationHandler is required to wrap it in RX interface");
+        this.neovimNotificationHandler = neovimNotificationHandler;
+    }
+
+    @Override
+    public Flowable<NeovimRedrawEvent> uiEvents(NotificationOverflow overflow) {
+        return toFlowable(overflow, neovimNotificationHandler.uiEvents());
+    }
+
+    @Override
+    public Flowable<NeovimRedrawEvent> uiEvents(NotificationOverflow overflow, Collection<Class<? extends UIEvent>> eventTypes) {
+        return toFlowable(overflow, neovimNotificationHandler.uiEvents(eventTypes));
+    }
+
+    @Override
+    public Flowable<BufferEvent> bufferEvents(NotificationOverflow overflow) {
+        return toFlowable(overflow, neovimNotificationHandler.bufferEvents());
+    }
+
+    @Override
+    public Flowable<NotificationMessage> notifications(NotificationOverflow overflow, String... names) {
+        return toFlowable(overflow, neovimNotificationHandler.notifications(names));
+    }
+
+    private static <T> Flowable<T> toFlowable(NotificationOverflow overflow, Flow.Publisher<T> publisher) {
+        Objects.requireNonNull(overflow, "overflow strategy is required");
+        return overflow.apply(RxFlows.toFlowable(publisher));
+    }
+}
@@ -50,7 +50,7 @@ public final class NeovimRxWrapper implements NeovimRxApi {
 
     @Override
     public Single<List> sendAtomic(AtomicCallBuilder atomicCallBuilder) {
-        return Single.fromFuture(neovimApi.sendAtomic(atomicCallBuilder));
+        return RxFutures.single(neovimApi.sendAtomic(atomicCallBuilder));
     }
 
     @Override
@@ -60,172 +60,172 @@ public final class NeovimRxWrapper implements NeovimRxApi {
 
     @Override
     public Single<Map> getHighlightById(int id, boolean rgb) {
-        return Single.fromFuture(neovimApi.getHighlightById(id, rgb));
+        return RxFutures.single(neovimApi.getHighlightById(id, rgb));
     }
 
     @Override
     public Single<Map> getHighlightByName(String name, boolean rgb) {
-        return Single.fromFuture(neovimApi.getHighlightByName(name, rgb));
+        return RxFutures.single(neovimApi.getHighlightByName(name, rgb));
     }
 
     @Override
     public Completable attachUI(int width, int height, UiOptions options) {
-        return Completable.fromFuture(neovimApi.attachUI(width, height, options));
+        return RxFutures.completable(neovimApi.attachUI(width, height, options));
     }
 
     @Override
     public Completable detachUI() {
-        return Completable.fromFuture(neovimApi.detachUI());
+        return RxFutures.completable(neovimApi.detachUI());
     }
 
     @Override
     public Completable resizeUI(int width, int height) {
-        return Completable.fromFuture(neovimApi.resizeUI(width, height));
+        return RxFutures.completable(neovimApi.resizeUI(width, height));
     }
 
     @Override
     public Single<Object> executeLua(String luaCode, List<String> args) {
-        return Single.fromFuture(neovimApi.executeLua(luaCode, args));
+        return RxFutures.single(neovimApi.executeLua(luaCode, args));
     }
 
     @Override
     public Completable executeCommand(String command) {
-        return Completable.fromFuture(neovimApi.executeCommand(command));
+        return RxFutures.completable(neovimApi.executeCommand(command));
     }
 
     @Override
     public Completable setCurrentDir(String directoryPath) {
-        return Completable.fromFuture(neovimApi.setCurrentDir(directoryPath));
+        return RxFutures.completable(neovimApi.setCurrentDir(directoryPath));
     }
 
     @Override
     public Completable subscribeToEvent(String event) {
-        return Completable.fromFuture(neovimApi.subscribeToEvent(event));
+        return RxFutures.completable(neovimApi.subscribeToEvent(event));
     }
 
     @Override
     public Completable unsubscribeFromEvent(String event) {
-        return Completable.fromFuture(neovimApi.unsubscribeFromEvent(event));
+        return RxFutures.completable(neovimApi.unsubscribeFromEvent(event));
     }
 
     @Override
     public Single<Object> eval(String expression) {
-        return Single.fromFuture(neovimApi.eval(expression));
+        return RxFutures.single(neovimApi.eval(expression));
     }
 
     @Override
     public Single<Object> callFunction(String name, List<String> args) {
-        return Single.fromFuture(neovimApi.callFunction(name, args));
+        return RxFutures.single(neovimApi.callFunction(name, args));
     }
 
     @Override
     public Completable feedKeys(String keys, String mode, Boolean escape) {
-        return Completable.fromFuture(neovimApi.feedKeys(keys, mode, escape));
+        return RxFutures.completable(neovimApi.feedKeys(keys, mode, escape));
     }
 
     @Override
     public Single<Integer> input(String keys) {
-        return Single.fromFuture(neovimApi.input(keys));
+        return RxFutures.single(neovimApi.input(keys));
     }
 
     @Override
     public Single<List<VimKeyMap>> getKeymap(String mode) {
-        return Single.fromFuture(neovimApi.getKeymap(mode));
+        return RxFutures.single(neovimApi.getKeymap(mode));
     }
 
     @Override
     public Completable setUiOption(String name, Object value) {
-        return Completable.fromFuture(neovimApi.setUiOption(name, value));
+        return RxFutures.completable(neovimApi.setUiOption(name, value));
     }
 
     @Override
     public Completable setVariable(String name, Object value) {
-        return Completable.fromFuture(neovimApi.setVariable(name, value));
+        return RxFutures.completable(neovimApi.setVariable(name, value));
     }
 
     @Override
     public Single<Object> getVariable(String name) {
-        return Single.fromFuture(neovimApi.getVariable(name));
+        return RxFutures.single(neovimApi.getVariable(name));
     }
 
     @Override
     public Completable deleteVariable(String name) {
-        return Completable.fromFuture(neovimApi.deleteVariable(name));
+        return RxFutures.completable(neovimApi.deleteVariable(name));
     }
 
     @Override
     public Single<Object> getVimVariable(String name) {
-        return Single.fromFuture(neovimApi.getVimVariable(name));
+        return RxFutures.single(neovimApi.getVimVariable(name));
     }
 
     @Override
     public Completable setOption(String name, Object value) {
-        return Completable.fromFuture(neovimApi.setOption(name, value));
+        return RxFutures.completable(neovimApi.setOption(name, value));
     }
 
     @Override
     public Single<Object> getOption(String name) {
-        return Single.fromFuture(neovimApi.getOption(name));
+        return RxFutures.single(neovimApi.getOption(name));
     }
 
     @Override
     public Single<Integer> getColorByName(String name) {
-        return Single.fromFuture(neovimApi.getColorByName(name));
+        return RxFutures.single(neovimApi.getColorByName(name));
     }
 
     @Override
     public Single<String> replaceTermcodes(String strToReplace, boolean fromPart, boolean doLt, boolean special) {
-        return Single.fromFuture(neovimApi.replaceTermcodes(strToReplace, fromPart, doLt, special));
+        return RxFutures.single(neovimApi.replaceTermcodes(strToReplace, fromPart, doLt, special));
     }
 
     @Override
     public Single<String> commandOutput(String command) {
-        return Single.fromFuture(neovimApi.commandOutput(command));
+        return RxFutures.single(neovimApi.commandOutput(command));
     }
 
     @Override
     public Completable writeToOutput(String text) {
-        return Completable.fromFuture(neovimApi.writeToOutput(text));
+        return RxFutures.completable(neovimApi.writeToOutput(text));
     }
 
     @Override
     public Completable writeToError(String text) {
-        return Completable.fromFuture(neovimApi.writeToError(text));
+        return RxFutures.completable(neovimApi.writeToError(text));
     }
 
     @Override
     public Completable writelnToError(String text) {
-        return Completable.fromFuture(neovimApi.writelnToError(text));
+        return RxFutures.completable(neovimApi.writelnToError(text));
     }
 
     @Override
     public Single<Integer> stringWidth(String string) {
-        return Single.fromFuture(neovimApi.stringWidth(string));
+        return RxFutures.single(neovimApi.stringWidth(string));
     }
 
     @Override
     public Single<List<String>> listRuntimePaths() {
-        return Single.fromFuture(neovimApi.listRuntimePaths());
+        return RxFutures.single(neovimApi.listRuntimePaths());
     }
 
     @Override
     public Single<String> getCurrentLine() {
-        return Single.fromFuture(neovimApi.getCurrentLine());
+        return RxFutures.single(neovimApi.getCurrentLine());
     }
 
     @Override
     public Completable setCurrentLine(String line) {
-        return Completable.fromFuture(neovimApi.setCurrentLine(line));
+        return RxFutures.completable(neovimApi.setCurrentLine(line));
     }
 
     @Override
     public Completable deleteCurrentLine() {
-        return Completable.fromFuture(neovimApi.deleteCurrentLine());
+        return RxFutures.completable(neovimApi.deleteCurrentLine());
     }
 
     @Override
     public Single<List<NeovimBufferRxApi>> getBuffers() {
-        return Single.fromFuture(neovimApi.getBuffers())
+        return RxFutures.single(neovimApi.getBuffers())
                 .map(neovimBufferApis -> neovimBufferApis.stream()
                         .map(NeovimBufferRxWrapper::new)
                         .collect(Collectors.toList()));
@@ -233,18 +233,18 @@ public final class NeovimRxWrapper implements NeovimRxApi {
 
     @Override
     public Single<NeovimBufferRxApi> getCurrentBuffer() {
-        return Single.fromFuture(neovimApi.getCurrentBuffer())
+        return RxFutures.single(neovimApi.getCurrentBuffer())
                 .map(NeovimBufferRxWrapper::new);
     }
 
     @Override
     public Completable setCurrentBuffer(Buffer buffer) {
-        return Completable.fromFuture(neovimApi.setCurrentBuffer(buffer));
+        return RxFutures.completable(neovimApi.setCurrentBuffer(buffer));
     }
 
     @Override
     public Single<List<NeovimWindowRxApi>> getWindows() {
-        return Single.fromFuture(neovimApi.getWindows())
+        return RxFutures.single(neovimApi.getWindows())
                 .map(neovimWindowApis -> neovimWindowApis.stream()
                         .map(NeovimWindowRxWrapper::new)
                         .collect(Collectors.toList()));
@@ -252,18 +252,18 @@ public final class NeovimRxWrapper implements NeovimRxApi {
 
     @Override
     public Single<NeovimWindowRxApi> getCurrentWindow() {
-        return Single.fromFuture(neovimApi.getCurrentWindow())
+        return RxFutures.single(neovimApi.getCurrentWindow())
                 .map(NeovimWindowRxWrapper::new);
     }
 
     @Override
     public Completable setCurrentWindow(Window window) {
-        return Completable.fromFuture(neovimApi.setCurrentWindow(window));
+        return RxFutures.completable(neovimApi.setCurrentWindow(window));
     }
 
     @Override
     public Single<List<NeovimTabpageRxApi>> getTabpages() {
-        return Single.fromFuture(neovimApi.getTabpages())
+        return RxFutures.single(neovimApi.getTabpages())
                 .map(neovimTabpageApis -> neovimTabpageApis.stream()
                         .map(NeovimTabpageRxWrapper::new)
                         .collect(Collectors.toList()));
@@ -271,72 +271,72 @@ public final class NeovimRxWrapper implements NeovimRxApi {
 
     @Override
     public Single<NeovimTabpageRxApi> getCurrentTabpage() {
-        return Single.fromFuture(neovimApi.getCurrentTabpage())
+        return RxFutures.single(neovimApi.getCurrentTabpage())
                 .map(NeovimTabpageRxWrapper::new);
     }
 
     @Override
     public Completable setCurrentTabpage(Tabpage tabpage) {
-        return Completable.fromFuture(neovimApi.setCurrentTabpage(tabpage));
+        return RxFutures.completable(neovimApi.setCurrentTabpage(tabpage));
     }
 
     @Override
     public Single<VimColorMap> getColorMap() {
-        return Single.fromFuture(neovimApi.getColorMap());
+        return RxFutures.single(neovimApi.getColorMap());
     }
 
     @Override
     public Single<VimMode> getMode() {
-        return Single.fromFuture(neovimApi.getMode());
+        return RxFutures.single(neovimApi.getMode());
     }
 
     @Override
     public Single<ApiInfo> getApiInfo() {
-        return Single.fromFuture(neovimApi.getApiInfo());
+        return RxFutures.single(neovimApi.getApiInfo());
     }
 
     @Override
     public Single<Object> callDictFunction(Map map, String function, List args) {
-        return Single.fromFuture(neovimApi.callDictFunction(map, function, args));
+        return RxFutures.single(neovimApi.callDictFunction(map, function, args));
     }
 
     @Override
     public Single<Map<String, CommandInfo>> getCommands(GetCommandsOptions getCommandsOptions) {
-        return Single.fromFuture(neovimApi.getCommands(getCommandsOptions));
+        return RxFutures.single(neovimApi.getCommands(getCommandsOptions));
     }
 
     @Override
     public Completable setClientInfo(String name, ClientVersionInfo clientVersionInfo, ClientType clientType, Map<String, MethodInfo> methods, ClientAttributes clientAttributes) {
-        return Completable.fromFuture(neovimApi.setClientInfo(name, clientVersionInfo, clientType, methods, clientAttributes));
+        return RxFutures.completable(neovimApi.setClientInfo(name, clientVersionInfo, clientType, methods, clientAttributes));
     }
 
     @Override
     public Single<ChannelInfo> getChannelInfo(int channel) {
-        return Single.fromFuture(neovimApi.getChannelInfo(channel));
+        return RxFutures.single(neovimApi.getChannelInfo(channel));
     }
 
     @Override
     public Single<List<ChannelInfo>> getChannels() {
-        return Single.fromFuture(neovimApi.getChannels());
+        return RxFutures.single(neovimApi.getChannels());
     }
 
     @Override
     public Single<Map> parseExpression(String expression, String flags, boolean highlight) {
-        return Single.fromFuture(neovimApi.parseExpression(expression, flags, highlight));
+        return RxFutures.single(neovimApi.parseExpression(expression, flags, highlight));
     }
 
     @Override
     public Single<List<UiInfo>> getUis() {
-        return Single.fromFuture(neovimApi.getUis());
+        return RxFutures.single(neovimApi.getUis());
     }
 
     @Override
     public Single<List<Integer>> getProcessChildren() {
-        return Single.fromFuture(neovimApi.getProcessChildren());
+        return RxFutures.single(neovimApi.getProcessChildren());
     }
 
     @Override
     public Single<Object> getProcess() {
-        return Single.fromFuture(neovimApi.getProcess());
+        return RxFutures.single(neovimApi.getProcess());
     }
 }
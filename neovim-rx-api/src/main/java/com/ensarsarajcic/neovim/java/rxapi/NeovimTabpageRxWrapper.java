@@ -49,7 +49,7 @@ public final class NeovimTabpageRxWrapper implements NeovimTabpageRxApi {
 
     @Override
     public Single<List<NeovimWindowRxApi>> getWindows() {
-        return Single.fromFuture(neovimTabpageApi.getWindows())
+        return RxFutures.single(neovimTabpageApi.getWindows())
                 .map(neovimWindowApis -> neovimWindowApis.stream()
                         .map(NeovimWindowRxWrapper::new)
                         .collect(Collectors.toList()));
@@ -57,32 +57,32 @@ public final class NeovimTabpageRxWrapper implements NeovimTabpageRxApi {
 
     @Override
     public Single<NeovimWindowRxApi> getWindow() {
-        return Single.fromFuture(neovimTabpageApi.getWindow())
+        return RxFutures.single(neovimTabpageApi.getWindow())
                 .map(NeovimWindowRxWrapper::new);
     }
 
     @Override
     public Single<Object> getVar(String name) {
-        return Single.fromFuture(neovimTabpageApi.getVar(name));
+        return RxFutures.single(neovimTabpageApi.getVar(name));
     }
 
     @Override
     public Completable setVar(String name, Object value) {
-        return Completable.fromFuture(neovimTabpageApi.setVar(name, value));
+        return RxFutures.completable(neovimTabpageApi.setVar(name, value));
     }
 
     @Override
     public Completable deleteVar(String name) {
-        return Completable.fromFuture(neovimTabpageApi.deleteVar(name));
+        return RxFutures.completable(neovimTabpageApi.deleteVar(name));
     }
 
     @Override
     public Single<Integer> getNumber() {
-        return Single.fromFuture(neovimTabpageApi.getNumber());
+        return RxFutures.single(neovimTabpageApi.getNumber());
     }
 
     @Override
     public Single<Boolean> isValid() {
-        return Single.fromFuture(neovimTabpageApi.isValid());
+        return RxFutures.single(neovimTabpageApi.isValid());
     }
 }
@@ -48,78 +48,78 @@ public final class NeovimWindowRxWrapper implements NeovimWindowRxApi {
 
     @Override
     public Single<NeovimBufferRxApi> getBuffer() {
-        return Single.fromFuture(neovimWindowApi.getBuffer())
+        return RxFutures.single(neovimWindowApi.getBuffer())
                 .map(NeovimBufferRxWrapper::new);
     }
 
     @Override
     public Single<VimCoords> getCursor() {
-        return Single.fromFuture(neovimWindowApi.getCursor());
+        return RxFutures.single(neovimWindowApi.getCursor());
     }
 
     @Override
     public Completable setCursor(VimCoords vimCoords) {
-        return Completable.fromFuture(neovimWindowApi.setCursor(vimCoords));
+        return RxFutures.completable(neovimWindowApi.setCursor(vimCoords));
     }
 
     @Override
     public Single<Integer> getHeight() {
-        return Single.fromFuture(neovimWindowApi.getHeight());
+        return RxFutures.single(neovimWindowApi.getHeight());
     }
 
     @Override
     public Completable setHeight(int height) {
-        return Completable.fromFuture(neovimWindowApi.setHeight(height));
+        return RxFutures.completable(neovimWindowApi.setHeight(height));
     }
 
     @Override
     public Single<Integer> getWidth() {
-        return Single.fromFuture(neovimWindowApi.getWidth());
+        return RxFutures.single(neovimWindowApi.getWidth());
     }
 
     @Override
     public Completable setWidth(int width) {
-        return Completable.fromFuture(neovimWindowApi.setWidth(width));
+        return RxFutures.completable(neovimWindowApi.setWidth(width));
     }
 
     @Override
     public Single<Object> getVar(String name) {
-        return Single.fromFuture(neovimWindowApi.getVar(name));
+        return RxFutures.single(neovimWindowApi.getVar(name));
     }
 
     @Override
     public Completable setVar(String name, Object value) {
-        return Completable.fromFuture(neovimWindowApi.setVar(name, value));
+        return RxFutures.completable(neovimWindowApi.setVar(name, value));
     }
 
     @Override
     public Completable deleteVar(String name) {
-        return Completable.fromFuture(neovimWindowApi.deleteVar(name));
+        return RxFutures.completable(neovimWindowApi.deleteVar(name));
     }
 
     @Override
     public Single<Object> getOption(String name) {
-        return Single.fromFuture(neovimWindowApi.getOption(name));
+        return RxFutures.single(neovimWindowApi.getOption(name));
     }
 
     @Override
     public Completable setOption(String name, Object value) {
-        return Completable.fromFuture(neovimWindowApi.setOption(name, value));
+        return RxFutures.completable(neovimWindowApi.setOption(name, value));
     }
 
     @Override
     public Single<NeovimTabpageRxApi> getTabpage() {
-        return Single.fromFuture(neovimWindowApi.getTabpage())
+        return RxFutures.single(neovimWindowApi.getTabpage())
                 .map(NeovimTabpageRxWrapper::new);
     }
 
     @Override
     public Single<Integer> getNumber() {
-        return Single.fromFuture(neovimWindowApi.getNumber());
+        return RxFutures.single(neovimWindowApi.getNumber());
     }
 
     @Override
     public Single<Boolean> isValid() {
-        return Single.fromFuture(neovimWindowApi.isValid());
+        return RxFutures.single(neovimWindowApi.isValid());
     }
 }
@@ -0,0 +1,136 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.rxapi;
+
+import io.reactivex.BackpressureOverflowStrategy;
+import io.reactivex.Flowable;
+
+import java.util.Objects;
+
+/**
+ * Strategy used by {@link NeovimNotificationRxApi} when subscriber can't keep up with incoming notifications
+ * <p>
+ * With {@link #propagate()}, requests of subscriber are passed to the underlying notification publisher, which
+ * buffers notifications until they are requested and never drops them, so its buffer grows as long as the subscriber
+ * is behind. Other strategies request all notifications from the publisher and limit memory on Rx side instead,
+ * using {@link Flowable#onBackpressureLatest()}, {@link Flowable#onBackpressureDrop()} or
+ * {@link Flowable#onBackpressureBuffer(long, io.reactivex.functions.Action, BackpressureOverflowStrategy)}.
+ * These operators don't support queue fusion, so following operators with a queue of their own, such as
+ * {@link Flowable#observeOn(io.reactivex.Scheduler)}, still prefetch into it, holding up to
+ * {@link Flowable#bufferSize()} more notifications.
+ * <p>
+ * Example:
+ * <pre>
+ *     {@code
+ *     notificationRxApi.uiEvents(NotificationOverflow.buffer(1024, BackpressureOverflowStrategy.DROP_OLDEST))
+ *          .observeOn(uiScheduler)
+ *          .subscribe(this::render);
+ *     }
+ * </pre>
+ */
+public final class NotificationOverflow {
+
+    private enum Kind {
+        PROPAGATE, LATEST, DROP, BUFFER
+    }
+
+    private static final NotificationOverflow PROPAGATE = new NotificationOverflow(Kind.PROPAGATE, 0, null);
+    private static final NotificationOverflow LATEST = new NotificationOverflow(Kind.LATEST, 0, null);
+    private static final NotificationOverflow DROP = new NotificationOverflow(Kind.DROP, 0, null);
+
+    private final Kind kind;
+    private final int capacity;
+    private final BackpressureOverflowStrategy overflowStrategy;
+
+    private NotificationOverflow(Kind kind, int capacity, BackpressureOverflowStrategy overflowStrategy) {
+        this.kind = kind;
+        this.capacity = capacity;
+        this.overflowStrategy = overflowStrategy;
+    }
+
+    /**
+     * Passes requests of subscriber to the underlying publisher, leaving buffering to it
+     * No notification is dropped, but memory used grows while subscriber is not requesting new items
+     * @return strategy propagating requests
+     */
+    public static NotificationOverflow propagate() {
+        return PROPAGATE;
+    }
+
+    /**
+     * Keeps only the latest notification while subscriber is not requesting new items
+     * @return strategy keeping latest notification
+     */
+    public static NotificationOverflow latest() {
+        return LATEST;
+    }
+
+    /**
+     * Drops notifications while subscriber is not requesting new items
+     * @return strategy dropping notifications
+     */
+    public static NotificationOverflow drop() {
+        return DROP;
+    }
+
+    /**
+     * Buffers up to capacity notifications while subscriber is not requesting new items and applies given
+     * strategy once buffer is full
+     * @param capacity maximum number of buffered notifications
+     * @param overflowStrategy strategy used when buffer is full
+     * @return strategy buffering notifications
+     * @throws IllegalArgumentException if capacity is not positive
+     * @throws NullPointerException if overflowStrategy is null
+     */
+    public static NotificationOverflow buffer(int capacity, BackpressureOverflowStrategy overflowStrategy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        Objects.requireNonNull(overflowStrategy, "overflowStrategy is required for buffer");
+        return new NotificationOverflow(Kind.BUFFER, capacity, overflowStrategy);
+    }
+
+    <T> Flowable<T> apply(Flowable<T> flowable) {
+        switch (kind) {
+            case LATEST:
+                return flowable.onBackpressureLatest();
+            case DROP:
+                return flowable.onBackpressureDrop();
+            case BUFFER:
+                return flowable.onBackpressureBuffer(capacity, null, overflowStrategy);
+            default:
+                return flowable;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "NotificationOverflow{" +
+                "kind=" + kind +
+                ", capacity=" + capacity +
+                ", overflowStrategy=" + overflowStrategy +
+                '}';
+    }
+}
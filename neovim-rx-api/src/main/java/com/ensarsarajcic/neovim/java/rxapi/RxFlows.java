@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.rxapi;
+
+import io.reactivex.Flowable;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.Objects;
+import java.util.concurrent.Flow;
+
+/**
+ * Bridges Java {@link Flow.Publisher} into RxJava2 {@link Flowable}
+ * <p>
+ * Requests and cancellation of Rx subscribers are passed directly to the {@link Flow.Subscription}, so publisher
+ * only produces as many items as Rx pipeline requested
+ */
+final class RxFlows {
+
+    private RxFlows() {
+        throw new AssertionError("No instances");
+    }
+
+    /**
+     * Creates a {@link Flowable} subscribing to given publisher for each of its subscribers
+     *
+     * @param publisher publisher to bridge
+     * @param <T> type of items
+     * @return {@link Flowable} passing down items of given publisher
+     * @throws NullPointerException if publisher is null
+     */
+    static <T> Flowable<T> toFlowable(Flow.Publisher<T> publisher) {
+        Objects.requireNonNull(publisher, "publisher is required to create a flowable");
+        return Flowable.fromPublisher(subscriber -> publisher.subscribe(new FlowToRxSubscriber<>(subscriber)));
+    }
+
+    private static final class FlowToRxSubscriber<T> implements Flow.Subscriber<T>, Subscription {
+        private final Subscriber<? super T> downstream;
+        private Flow.Subscription upstream;
+
+        private FlowToRxSubscriber(Subscriber<? super T> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.upstream = subscription;
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(T item) {
+            downstream.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            downstream.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            downstream.onComplete();
+        }
+
+        @Override
+        public void request(long n) {
+            upstream.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            upstream.cancel();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.rxapi;
+
+import io.reactivex.Completable;
+import io.reactivex.Single;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Bridges {@link CompletableFuture} results of Neovim API into RxJava2 types
+ * <p>
+ * Unlike {@link Single#fromFuture(java.util.concurrent.Future)}, which blocks subscribing thread on
+ * {@link java.util.concurrent.Future#get()} until response arrives, results are emitted from completion
+ * callback of the future, so no thread is held while waiting for neovim.
+ * Each subscription waits on its own copy of the future, so disposing it cancels only that copy, leaving the given
+ * future (and other subscribers of the same {@link Single}) untouched.
+ */
+final class RxFutures {
+
+    private RxFutures() {
+        throw new AssertionError("No instances");
+    }
+
+    /**
+     * Creates a {@link Single} emitting result of given future
+     * <p>
+     * Future completing with {@code null} results in {@link NullPointerException} error, since {@link Single}
+     * can't emit nulls
+     *
+     * @param future future to bridge
+     * @param <T> type of result
+     * @return {@link Single} emitting result or error of given future
+     */
+    static <T> Single<T> single(CompletableFuture<T> future) {
+        return Single.create(emitter -> {
+            CompletableFuture<T> copy = future.copy();
+            emitter.setCancellable(() -> copy.cancel(false));
+            copy.whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    emitter.tryOnError(unwrap(throwable));
+                } else if (result == null) {
+                    emitter.tryOnError(new NullPointerException("Future completed with null result"));
+                } else {
+                    emitter.onSuccess(result);
+                }
+            });
+        });
+    }
+
+    /**
+     * Creates a {@link Completable} completing when given future completes, ignoring its result
+     *
+     * @param future future to bridge
+     * @return {@link Completable} completing or failing with given future
+     */
+    static Completable completable(CompletableFuture<?> future) {
+        return Completable.create(emitter -> {
+            CompletableFuture<?> copy = future.copy();
+            emitter.setCancellable(() -> copy.cancel(false));
+            copy.whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    emitter.tryOnError(unwrap(throwable));
+                } else {
+                    emitter.onComplete();
+                }
+            });
+        });
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        if (throwable instanceof CompletionException && throwable.getCause() != null) {
+            return throwable.getCause();
+        }
+        return throwable;
+    }
+}
@@ -3,5 +3,8 @@ module neovimrxapi {
     opens com.ensarsarajcic.neovim.java.rxapi;
 
     requires neovimapi;
+    requires corerpc;
+    requires neovim.notifications;
     requires io.reactivex.rxjava2;
-}
\ No newline at end of file
+    requires org.reactivestreams;
+}
@@ -0,0 +1,175 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.rxapi;
+
+import com.ensarsarajcic.neovim.java.corerpc.message.NotificationMessage;
+import com.ensarsarajcic.neovim.java.notifications.NeovimNotificationHandler;
+import com.ensarsarajcic.neovim.java.notifications.ui.UIEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.global.BusyOnEvent;
+import com.ensarsarajcic.neovim.java.notifications.ui.global.ModeChangeEvent;
+import io.reactivex.BackpressureOverflowStrategy;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Flow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class NeovimNotificationRxWrapperTest {
+
+    @Mock
+    NeovimNotificationHandler neovimNotificationHandler;
+
+    @InjectMocks
+    NeovimNotificationRxWrapper neovimNotificationRxWrapper;
+
+    @Test(expected = NullPointerException.class)
+    public void cantBeCreatedWithNullHandler() {
+        new NeovimNotificationRxWrapper(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bufferRequiresPositiveCapacity() {
+        NotificationOverflow.buffer(0, BackpressureOverflowStrategy.DROP_OLDEST);
+    }
+
+    @Test
+    public void passesSelectedUiEventTypes() {
+        Set<Class<? extends UIEvent>> eventTypes = Set.of(ModeChangeEvent.class, BusyOnEvent.class);
+        given(neovimNotificationHandler.uiEvents(eventTypes)).willReturn(subscriber -> {});
+
+        neovimNotificationRxWrapper.uiEvents(NotificationOverflow.propagate(), eventTypes);
+
+        verify(neovimNotificationHandler).uiEvents(eventTypes);
+    }
+
+    @Test
+    public void propagatesRequestsAndCancellation() {
+        var publisher = new TestPublisher();
+        given(neovimNotificationHandler.notifications("event")).willReturn(publisher);
+
+        var subscriber = neovimNotificationRxWrapper.notifications(NotificationOverflow.propagate(), "event").test(2);
+        assertEquals(2, publisher.requested);
+
+        publisher.emit(notification(1));
+        publisher.emit(notification(2));
+        subscriber.assertValueCount(2);
+
+        subscriber.requestMore(3);
+        assertEquals(5, publisher.requested);
+
+        subscriber.cancel();
+        assertTrue(publisher.cancelled);
+    }
+
+    @Test
+    public void keepsLatestNotification() {
+        var publisher = new TestPublisher();
+        given(neovimNotificationHandler.notifications("event")).willReturn(publisher);
+
+        var subscriber = neovimNotificationRxWrapper.notifications(NotificationOverflow.latest(), "event").test(0);
+        assertEquals(Long.MAX_VALUE, publisher.requested);
+        for (int i = 0; i < 10; i++) {
+            publisher.emit(notification(i));
+        }
+        subscriber.assertNoValues();
+
+        subscriber.requestMore(1);
+        subscriber.assertValueCount(1);
+        assertEquals(List.of(9), subscriber.values().get(0).getArguments());
+    }
+
+    @Test
+    public void dropsNotifications() {
+        var publisher = new TestPublisher();
+        given(neovimNotificationHandler.notifications("event")).willReturn(publisher);
+
+        var subscriber = neovimNotificationRxWrapper.notifications(NotificationOverflow.drop(), "event").test(0);
+        publisher.emit(notification(1));
+        subscriber.requestMore(1);
+        publisher.emit(notification(2));
+        publisher.emit(notification(3));
+
+        subscriber.assertValueCount(1);
+        assertEquals(List.of(2), subscriber.values().get(0).getArguments());
+    }
+
+    @Test
+    public void buffersUpToCapacity() {
+        var publisher = new TestPublisher();
+        given(neovimNotificationHandler.notifications("event")).willReturn(publisher);
+
+        var subscriber = neovimNotificationRxWrapper.notifications(
+                NotificationOverflow.buffer(2, BackpressureOverflowStrategy.DROP_OLDEST), "event").test(0);
+        for (int i = 0; i < 5; i++) {
+            publisher.emit(notification(i));
+        }
+
+        subscriber.requestMore(5);
+        subscriber.assertValueCount(2).assertNoErrors();
+        assertEquals(List.of(3), subscriber.values().get(0).getArguments());
+        assertEquals(List.of(4), subscriber.values().get(1).getArguments());
+    }
+
+    private static NotificationMessage notification(int argument) {
+        return new NotificationMessage.Builder("event").addArgument(argument).build();
+    }
+
+    private static final class TestPublisher implements Flow.Publisher<NotificationMessage> {
+        private final List<Flow.Subscriber<? super NotificationMessage>> subscribers = new ArrayList<>();
+        private long requested;
+        private boolean cancelled;
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super NotificationMessage> subscriber) {
+            subscribers.add(subscriber);
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    requested = Long.MAX_VALUE - requested < n ? Long.MAX_VALUE : requested + n;
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                }
+            });
+        }
+
+        void emit(NotificationMessage notificationMessage) {
+            subscribers.forEach(subscriber -> subscriber.onNext(notificationMessage));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Ensar Sarajčić
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.ensarsarajcic.neovim.java.rxapi;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.Assert.assertFalse;
+
+public class RxFuturesTest {
+
+    @Test
+    public void emitsWhenFutureCompletesWithoutBlocking() {
+        var future = new CompletableFuture<String>();
+        var observer = RxFutures.single(future).test();
+        // Subscribing returns right away, without waiting for the result
+        observer.assertNoValues().assertNotComplete();
+
+        future.complete("result");
+        observer.assertValue("result").assertComplete();
+
+        var completableFuture = new CompletableFuture<Void>();
+        var completableObserver = RxFutures.completable(completableFuture).test();
+        completableObserver.assertNotComplete();
+
+        completableFuture.complete(null);
+        completableObserver.assertComplete().assertNoErrors();
+    }
+
+    @Test
+    public void passesErrors() {
+        var exception = new IOException("Failed");
+        RxFutures.single(CompletableFuture.failedFuture(exception))
+                .test()
+                .assertError(exception);
+        RxFutures.completable(CompletableFuture.failedFuture(new CompletionException(exception)))
+                .test()
+                .assertError(exception);
+        RxFutures.single(CompletableFuture.completedFuture(null))
+                .test()
+                .assertError(NullPointerException.class);
+    }
+
+    @Test
+    public void disposingDoesNotCancelSharedFuture() {
+        var future = new CompletableFuture<String>();
+        var single = RxFutures.single(future);
+        var disposed = single.test();
+        var observer = single.test();
+        disposed.dispose();
+        assertFalse(future.isCancelled());
+        disposed.assertNoValues().assertNoErrors();
+
+        future.complete("result");
+        observer.assertValue("result");
+        disposed.assertNoValues().assertNoErrors();
+
+        var completableFuture = new CompletableFuture<Void>();
+        RxFutures.completable(completableFuture).test().dispose();
+        assertFalse(completableFuture.isCancelled());
+    }
+}